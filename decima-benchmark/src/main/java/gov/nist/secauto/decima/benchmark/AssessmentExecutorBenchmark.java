@@ -0,0 +1,177 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.benchmark;
+
+import gov.nist.secauto.decima.core.assessment.Assessment;
+import gov.nist.secauto.decima.core.assessment.AssessmentException;
+import gov.nist.secauto.decima.core.assessment.AssessmentExecutor;
+import gov.nist.secauto.decima.core.assessment.AssessmentExecutorFactory;
+import gov.nist.secauto.decima.core.assessment.ConcurrentAssessmentExecutorFactory;
+import gov.nist.secauto.decima.core.assessment.VirtualThreadAssessmentExecutorFactory;
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.DefaultAssessmentResultBuilder;
+import gov.nist.secauto.decima.core.document.DocumentException;
+import gov.nist.secauto.decima.core.util.ComputePermitUtil;
+import gov.nist.secauto.decima.xml.document.JDOMDocument;
+import gov.nist.secauto.decima.xml.document.XMLDocument;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares running assessments on a fixed pool of platform threads with running them on virtual
+ * threads, bounding the CPU-bound work to the number of available processors. Each assessment
+ * waits on simulated I/O before performing CPU-bound work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AssessmentExecutorBenchmark {
+  private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+  @Param({ "fixed", "virtual" })
+  private String executor;
+
+  @Param({ "256" })
+  private int assessmentCount;
+
+  /**
+   * The time, in milliseconds, each assessment waits on I/O.
+   */
+  @Param({ "0", "5" })
+  private int ioMillis;
+
+  /**
+   * The amount of CPU-bound work performed by each assessment.
+   */
+  @Param({ "20000" })
+  private int cpuTokens;
+
+  private ExecutorService fixedPool;
+  private AssessmentExecutor<XMLDocument> assessmentExecutor;
+  private XMLDocument document;
+
+  @Setup(Level.Trial)
+  public void setUp() throws DocumentException, MalformedURLException {
+    AssessmentExecutorFactory factory;
+    if ("fixed".equals(executor)) {
+      fixedPool = Executors.newFixedThreadPool(PROCESSORS);
+      factory = new ConcurrentAssessmentExecutorFactory(fixedPool);
+    } else {
+      factory = new VirtualThreadAssessmentExecutorFactory(PROCESSORS);
+    }
+
+    List<Assessment<XMLDocument>> assessments = new ArrayList<>(assessmentCount);
+    for (int i = 0; i < assessmentCount; i++) {
+      assessments.add(new WaitThenComputeAssessment(ioMillis, cpuTokens));
+    }
+    assessmentExecutor = factory.newAssessmentExecutor(assessments);
+
+    document = new JDOMDocument(new ByteArrayInputStream("<root/>".getBytes(StandardCharsets.UTF_8)),
+        "file:/benchmark/document.xml");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    if (fixedPool != null) {
+      fixedPool.shutdownNow();
+    }
+  }
+
+  @Benchmark
+  public AssessmentResultBuilder execute() throws AssessmentException {
+    AssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+    assessmentExecutor.execute(document, builder);
+    return builder;
+  }
+
+  private static class WaitThenComputeAssessment implements Assessment<XMLDocument> {
+    private final int ioMillis;
+    private final int cpuTokens;
+
+    public WaitThenComputeAssessment(int ioMillis, int cpuTokens) {
+      this.ioMillis = ioMillis;
+      this.cpuTokens = cpuTokens;
+    }
+
+    @Override
+    public String getAssessmentType() {
+      return "benchmark";
+    }
+
+    @Override
+    public void execute(XMLDocument document, AssessmentResultBuilder builder) throws AssessmentException {
+      try {
+        if (ioMillis > 0) {
+          Thread.sleep(ioMillis);
+        }
+        try (ComputePermitUtil.Permit permit = ComputePermitUtil.acquire()) {
+          Blackhole.consumeCPU(cpuTokens);
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new AssessmentException(ex);
+      }
+    }
+
+    @Override
+    public String getName(boolean includeDetail) {
+      return "wait then compute";
+    }
+
+    @Override
+    public List<Assessment<XMLDocument>> getExecutableAssessments(XMLDocument document) {
+      return Collections.singletonList(this);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.benchmark;
+
+import gov.nist.secauto.decima.core.document.DocumentException;
+import gov.nist.secauto.decima.xml.assessment.result.XPathContext;
+import gov.nist.secauto.decima.xml.document.CompositeXMLDocument;
+import gov.nist.secauto.decima.xml.document.JDOMDocument;
+import gov.nist.secauto.decima.xml.document.XMLDocument;
+
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of assembling a {@link CompositeXMLDocument} and of resolving the context of
+ * every element in the assembled document.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompositeXMLDocumentBenchmark {
+  private static final int BASE_ELEMENTS = 1000;
+  private static final int TEMPLATE_ELEMENTS = 500;
+
+  /**
+   * Freshly parsed source documents, since adopting assembly consumes them.
+   */
+  @State(Scope.Thread)
+  public static class Sources {
+    @Param({ "64" })
+    private int placeholders;
+
+    @Param({ "copy", "adopt" })
+    private String assembly;
+
+    private XMLDocument base;
+    private Map<String, XMLDocument> templates;
+
+    @Setup(Level.Invocation)
+    public void parse() throws DocumentException, MalformedURLException {
+      base = newBaseDocument(placeholders);
+      templates = newTemplates(placeholders);
+    }
+  }
+
+  /**
+   * An assembled composite and all of its elements.
+   */
+  @State(Scope.Thread)
+  public static class Assembled {
+    @Param({ "64" })
+    private int placeholders;
+
+    private CompositeXMLDocument composite;
+    private List<Element> elements;
+
+    @Setup(Level.Trial)
+    public void assemble() throws DocumentException, MalformedURLException {
+      composite = new CompositeXMLDocument(newBaseDocument(placeholders), newTemplates(placeholders));
+      elements = new ArrayList<>();
+      composite.getJDOMDocument(false).getDescendants(Filters.element()).forEach(elements::add);
+    }
+  }
+
+  @Benchmark
+  public CompositeXMLDocument assemble(Sources sources) throws DocumentException {
+    return new CompositeXMLDocument(sources.base, sources.templates, "adopt".equals(sources.assembly));
+  }
+
+  @Benchmark
+  public void resolveContexts(Assembled assembled, Blackhole blackhole) {
+    CompositeXMLDocument composite = assembled.composite;
+    for (Element element : assembled.elements) {
+      XPathContext context = composite.getContext(element);
+      blackhole.consume(context);
+    }
+  }
+
+  private static XMLDocument newBaseDocument(int placeholders) throws DocumentException, MalformedURLException {
+    StringBuilder builder = new StringBuilder();
+    builder.append("<base xmlns=\"urn:base\" xmlns:sub=\"").append(CompositeXMLDocument.COMPOSITE_NS_URI)
+        .append("\">\n");
+    int perSlot = BASE_ELEMENTS / placeholders;
+    for (int i = 0; i < placeholders; i++) {
+      builder.append("  <slot>\n");
+      for (int j = 0; j < perSlot; j++) {
+        builder.append("    <item id=\"").append(j).append("\"/>\n");
+      }
+      builder.append("    <sub:sub name=\"sub").append(i).append("\"/>\n");
+      builder.append("  </slot>\n");
+    }
+    builder.append("</base>\n");
+    return parse(builder, "file:/benchmark/base.xml");
+  }
+
+  private static Map<String, XMLDocument> newTemplates(int placeholders)
+      throws DocumentException, MalformedURLException {
+    Map<String, XMLDocument> retval = new HashMap<>();
+    for (int i = 0; i < placeholders; i++) {
+      StringBuilder builder = new StringBuilder();
+      builder.append("<template xmlns=\"urn:template\">\n");
+      for (int j = 0; j < TEMPLATE_ELEMENTS; j++) {
+        builder.append("  <entry id=\"").append(j).append("\"><value>").append(j).append("</value></entry>\n");
+      }
+      builder.append("</template>\n");
+      retval.put("sub" + i, parse(builder, "file:/benchmark/template" + i + ".xml"));
+    }
+    return retval;
+  }
+
+  private static XMLDocument parse(CharSequence xml, String systemId) throws DocumentException, MalformedURLException {
+    return new JDOMDocument(new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8)), systemId);
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.benchmark;
+
+import gov.nist.secauto.decima.core.assessment.result.BasicTestResult;
+import gov.nist.secauto.decima.core.assessment.result.TestResult;
+import gov.nist.secauto.decima.core.assessment.result.TestStatus;
+import gov.nist.secauto.decima.xml.document.SimpleXPathContext;
+
+/**
+ * Generates synthetic test results that resemble the findings produced by a Schematron assessment
+ * of a large document. Each result gets its own identifier, XPath and value string instances,
+ * matching what happens when these values are parsed out of SVRL.
+ */
+public final class SyntheticFindings {
+  public static final String SYSTEM_ID = "file:/data/official-cpe-dictionary_v2.3.xml";
+
+  private SyntheticFindings() {
+    // disable construction
+  }
+
+  /**
+   * Retrieves the derived requirement identifier used for the finding at the provided index.
+   * 
+   * @param index
+   *          the finding index
+   * @param requirements
+   *          the number of distinct derived requirements to spread the findings over
+   * @return the identifier
+   */
+  public static String derivedRequirementId(int index, int requirements) {
+    return new StringBuilder("REQ-").append(index % requirements).append("-1").toString();
+  }
+
+  /**
+   * Creates the finding at the provided index.
+   * 
+   * @param index
+   *          the finding index
+   * @return the test result
+   */
+  public static TestResult newTestResult(int index) {
+    String xpath = new StringBuilder("/*[local-name()='cpe-list']/*[local-name()='cpe-item'][").append(index + 1)
+        .append("]/*[local-name()='title'][1]").toString();
+    SimpleXPathContext context = new SimpleXPathContext(xpath, SYSTEM_ID, 1000 + index, 7);
+    BasicTestResult retval
+        = new BasicTestResult(new StringBuilder("assert-").append(index % 200).toString(), TestStatus.FAIL, context);
+    retval.addResultValue("cpe:2.3:a:vendor:product" + index + ":1.0:*:*:*:*:*:*:*");
+    return retval;
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.benchmark;
+
+import gov.nist.secauto.decima.core.assessment.Assessment;
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.DefaultAssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.DefaultResultStatusBehavior;
+import gov.nist.secauto.decima.xml.assessment.result.XPathTestResultStore;
+import gov.nist.secauto.decima.xml.document.XMLDocument;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares retaining reported test results as provided against recording them in a
+ * {@link XPathTestResultStore}.
+ * <p>
+ * The JMH benchmark measures the cost of recording findings. Running the {@link #main(String[])}
+ * method reports the retained heap per finding, as measured by JOL.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TestResultStoreBenchmark {
+  private static final int REQUIREMENTS = 50;
+
+  @Param({ "100000" })
+  private int findings;
+
+  @Param({ "retained", "compact" })
+  private String storage;
+
+  @Benchmark
+  public AssessmentResultBuilder addTestResults() {
+    return populate(newBuilder(storage), findings);
+  }
+
+  private static AssessmentResultBuilder newBuilder(String storage) {
+    DefaultAssessmentResultBuilder retval;
+    if ("compact".equals(storage)) {
+      retval = new DefaultAssessmentResultBuilder(new DefaultResultStatusBehavior(), new XPathTestResultStore());
+    } else {
+      retval = new DefaultAssessmentResultBuilder();
+    }
+    return retval;
+  }
+
+  private static AssessmentResultBuilder populate(AssessmentResultBuilder builder, int count) {
+    Assessment<XMLDocument> assessment = null;
+    XMLDocument document = null;
+    for (int i = 0; i < count; i++) {
+      builder.addTestResult(assessment, document, SyntheticFindings.derivedRequirementId(i, REQUIREMENTS),
+          SyntheticFindings.newTestResult(i));
+    }
+    return builder.end();
+  }
+
+  /**
+   * Reports the retained heap per finding for each storage strategy.
+   * 
+   * @param args
+   *          an optional number of findings to generate
+   */
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+
+    long retained = footprint(populate(newBuilder("retained"), count));
+    long compact = footprint(populate(newBuilder("compact"), count));
+
+    System.out.printf("findings: %d%n", count);
+    System.out.printf("retained: %,d bytes (%.1f bytes/finding)%n", retained, (double) retained / count);
+    System.out.printf("compact:  %,d bytes (%.1f bytes/finding)%n", compact, (double) compact / count);
+    System.out.printf("ratio:    %.2fx%n", (double) retained / compact);
+  }
+
+  private static long footprint(AssessmentResultBuilder builder) {
+    return GraphLayout.parseInstance(builder).totalSize();
+  }
+}
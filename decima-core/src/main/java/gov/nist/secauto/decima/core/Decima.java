@@ -29,14 +29,18 @@ package gov.nist.secauto.decima.core;
 import gov.nist.secauto.decima.core.assessment.Assessment;
 import gov.nist.secauto.decima.core.assessment.AssessmentExecutorFactory;
 import gov.nist.secauto.decima.core.assessment.AssessmentReactor;
+import gov.nist.secauto.decima.core.assessment.AsyncExecutionOptions;
 import gov.nist.secauto.decima.core.assessment.BasicAssessmentExecutorFactory;
 import gov.nist.secauto.decima.core.assessment.ConcurrentAssessmentExecutorFactory;
 import gov.nist.secauto.decima.core.assessment.Condition;
 import gov.nist.secauto.decima.core.assessment.ConditionalAssessment;
 import gov.nist.secauto.decima.core.assessment.DefaultConditionalAssessment;
+import gov.nist.secauto.decima.core.assessment.VirtualThreadAssessmentExecutorFactory;
 import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
 import gov.nist.secauto.decima.core.assessment.result.BasicTestResult;
+import gov.nist.secauto.decima.core.assessment.result.CompactTestResultStore;
 import gov.nist.secauto.decima.core.assessment.result.DefaultAssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.DefaultResultStatusBehavior;
 import gov.nist.secauto.decima.core.assessment.result.ResultStatusBehavior;
 import gov.nist.secauto.decima.core.assessment.result.TestResult;
 import gov.nist.secauto.decima.core.assessment.result.TestStatus;
@@ -83,6 +87,40 @@ public class Decima {
     return new ConcurrentAssessmentExecutorFactory(executor);
   }
 
+  /**
+   * Creates a new assessment execution factory supporting concurrent, thread-based execution of
+   * assessments.
+   * <p>
+   * Uses an existing executor to run assessments, stopping assessments and executions that exceed the
+   * timeouts of the provided options.
+   * 
+   * @param executor
+   *          the executor to use
+   * @param defaultOptions
+   *          the per-assessment and per-execution timeouts to enforce
+   * @return the executor factory
+   */
+  public static ConcurrentAssessmentExecutorFactory newConcurrentAssessmentExecutorFactory(Executor executor,
+      AsyncExecutionOptions defaultOptions) {
+    return new ConcurrentAssessmentExecutorFactory(executor, defaultOptions);
+  }
+
+  /**
+   * Creates a new assessment execution factory that runs each assessment in its own virtual thread,
+   * falling back to platform threads if virtual threads are not available.
+   * <p>
+   * At most the provided number of CPU-bound operations, such as Schematron transformations, are
+   * performed at once.
+   * 
+   * @param maxConcurrentComputations
+   *          the maximum number of CPU-bound operations to perform at once
+   * @return the executor factory
+   */
+  public static VirtualThreadAssessmentExecutorFactory
+      newVirtualThreadAssessmentExecutorFactory(int maxConcurrentComputations) {
+    return new VirtualThreadAssessmentExecutorFactory(maxConcurrentComputations);
+  }
+
   /**
    * Creates a new assessment execution factory supporting single threaded execution of assessments.
    * 
@@ -135,10 +173,37 @@ public class Decima {
     return new DefaultAssessmentResultBuilder();
   }
 
+  /**
+   * Creates a new assessment result builder that tracks the state of the derived requirements
+   * managed by the provided {@link RequirementsManager} using their dense index.
+   * 
+   * @param requirementsManager
+   *          the requirements the assessment results will be reported against
+   * @return the new builder
+   */
+  public static AssessmentResultBuilder newAssessmentResultBuilder(RequirementsManager requirementsManager) {
+    return new DefaultAssessmentResultBuilder(new DefaultResultStatusBehavior(), null, requirementsManager);
+  }
+
   public static AssessmentResultBuilder newAssessmentResultBuilder(ResultStatusBehavior behavior) {
     return new DefaultAssessmentResultBuilder(behavior);
   }
 
+  /**
+   * Creates a new assessment result builder that records test results in the provided compact
+   * store, instead of retaining the reported {@link TestResult} instances.
+   * 
+   * @param behavior
+   *          the result status behavior to use
+   * @param store
+   *          the store to record test results in
+   * @return the new builder
+   */
+  public static AssessmentResultBuilder newAssessmentResultBuilder(ResultStatusBehavior behavior,
+      CompactTestResultStore store) {
+    return new DefaultAssessmentResultBuilder(behavior, store);
+  }
+
   public static TestResult newTestResult(String testId, TestStatus result, Context context) {
     return new BasicTestResult(testId, result, context);
   }
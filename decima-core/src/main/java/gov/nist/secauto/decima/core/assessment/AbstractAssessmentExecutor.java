@@ -34,6 +34,7 @@ import gov.nist.secauto.decima.core.util.ObjectUtil;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Provides common assessment execution functions to support concrete {@link AssessmentExecutor}
@@ -71,11 +72,70 @@ public abstract class AbstractAssessmentExecutor<DOC extends Document> implement
 
     handler.assessmentExecutionStarted(documentToAssess);
 
-    executeInternal(documentToAssess, resultBuilder);
+    // share condition evaluations between the assessments in this execution
+    try (ConditionEvaluationScope scope = ConditionEvaluationScope.open(documentToAssess, getAssessments())) {
+      executeInternal(documentToAssess, resultBuilder);
+    }
 
     handler.assessmentExecutionCompleted(documentToAssess);
   }
 
+  @Override
+  public CompletableFuture<Void> executeAsync(DOC documentToAssess, AssessmentResultBuilder resultBuilder,
+      AsyncExecutionOptions options) {
+    Objects.requireNonNull(documentToAssess, "documentToAssess");
+    Objects.requireNonNull(resultBuilder, "resultBuilder");
+    Objects.requireNonNull(options, "options");
+
+    resultBuilder.start();
+
+    LoggingHandler handler = resultBuilder.getLoggingHandler();
+
+    handler.assessmentExecutionStarted(documentToAssess);
+
+    // share condition evaluations between the assessments in this execution, which sub-classes bind
+    // to any other threads that evaluate conditions
+    CompletableFuture<Void> execution;
+    try (ConditionEvaluationScope scope = ConditionEvaluationScope.open(documentToAssess, getAssessments())) {
+      execution = executeInternalAsync(documentToAssess, resultBuilder, options);
+    }
+    CompletableFuture<Void> retval = execution.thenRun(() -> handler.assessmentExecutionCompleted(documentToAssess));
+    // cancellation of a dependent future does not reach the execution it depends on
+    retval.whenComplete((result, ex) -> {
+      if (retval.isCancelled()) {
+        execution.cancel(true);
+      }
+    });
+    return retval;
+  }
+
+  /**
+   * Starts performing the executable assessments over the provided document.
+   * <p>
+   * The default implementation performs the assessments in the calling thread using
+   * {@link #executeInternal(Document, AssessmentResultBuilder)}. Sub-classes that perform assessments
+   * asynchronously are expected to honor the provided options.
+   * 
+   * @param documentToAssess
+   *          the document to perform the assessments over
+   * @param resultBuilder
+   *          the result builder to record the results of the assessments with
+   * @param options
+   *          the deadlines and completion listener to use
+   * @return a future that completes when all assessments have completed
+   */
+  protected CompletableFuture<Void> executeInternalAsync(DOC documentToAssess, AssessmentResultBuilder resultBuilder,
+      AsyncExecutionOptions options) {
+    CompletableFuture<Void> retval = new CompletableFuture<>();
+    try {
+      executeInternal(documentToAssess, resultBuilder);
+      retval.complete(null);
+    } catch (AssessmentException | RuntimeException ex) {
+      retval.completeExceptionally(ex);
+    }
+    return retval;
+  }
+
   protected void executeInternal(DOC documentToAssess, AssessmentResultBuilder resultBuilder)
       throws AssessmentException {
     for (Assessment<DOC> assessment : getExecutableAssessments(documentToAssess)) {
@@ -30,6 +30,7 @@ import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
 import gov.nist.secauto.decima.core.document.Document;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 class AssessmentExecution<DOC extends Document> {
 
@@ -47,6 +48,10 @@ class AssessmentExecution<DOC extends Document> {
     getExecutor().execute(getDocument(), builder);
   }
 
+  public CompletableFuture<Void> executeAsync(AssessmentResultBuilder builder, AsyncExecutionOptions options) {
+    return getExecutor().executeAsync(getDocument(), builder, options);
+  }
+
   public DOC getDocument() {
     return document;
   }
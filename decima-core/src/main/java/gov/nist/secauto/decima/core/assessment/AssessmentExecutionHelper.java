@@ -33,6 +33,9 @@ import gov.nist.secauto.decima.core.document.Document;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class AssessmentExecutionHelper {
 
@@ -70,6 +73,53 @@ public class AssessmentExecutionHelper {
     }
   }
 
+  /**
+   * Ensures that the current thread has not been interrupted, which indicates that the assessment
+   * has been cancelled or has exceeded its deadline. Long running assessments call this method
+   * between processing steps to stop promptly.
+   * 
+   * @param assessment
+   *          the assessment being performed
+   * @throws AssessmentException
+   *           if the current thread has been interrupted
+   */
+  public static void checkInterrupted(Assessment<?> assessment) throws AssessmentException {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new AssessmentException("The assessment was interrupted: " + assessment.getName(false));
+    }
+  }
+
+  /**
+   * Waits for an asynchronous assessment execution to complete.
+   * <p>
+   * If the calling thread is interrupted while waiting, the execution is cancelled.
+   * 
+   * @param <T>
+   *          the type of the execution's result
+   * @param future
+   *          the execution to wait for
+   * @return the result of the execution
+   * @throws AssessmentException
+   *           if the execution failed, was cancelled, or the wait was interrupted
+   */
+  public static <T> T await(Future<T> future) throws AssessmentException {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new AssessmentException("the assessment execution was interrupted", ex);
+    } catch (CancellationException ex) {
+      throw new AssessmentException("the assessment execution was cancelled", ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof AssessmentException) {
+        throw (AssessmentException) cause;
+      }
+      throw new AssessmentException("An unexpected error occured during the assessment execution", cause);
+    }
+  }
+
   /**
    * Retrieves the sequence of executable {@link Assessment} instances for a given collection of
    * assessments for the provided target {@link Document}.
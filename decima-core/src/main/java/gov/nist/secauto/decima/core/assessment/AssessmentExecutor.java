@@ -30,6 +30,8 @@ import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
 import gov.nist.secauto.decima.core.assessment.result.AssessmentResults;
 import gov.nist.secauto.decima.core.document.Document;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * This interface represents an executor that is capable of evaluating one or more associated
  * {@link Assessment} instances. After completing all evaluations, an {@link AssessmentResults} is
@@ -64,4 +66,50 @@ public interface AssessmentExecutor<DOC extends Document> {
    */
   void execute(DOC documentToAssess, AssessmentResultBuilder resultBuilder) throws AssessmentException;
 
+  /**
+   * Executes an assessment over the provided XML document without waiting for it to complete, using
+   * the {@link AsyncExecutionOptions#defaults() default} options.
+   * 
+   * @param documentToAssess
+   *          the document to perform the assessment over
+   * @param resultBuilder
+   *          a result builder instance that can be used to record the results of the assessment
+   *          execution
+   * @return a future that completes when all assessments have completed
+   * @see #executeAsync(Document, AssessmentResultBuilder, AsyncExecutionOptions)
+   */
+  default CompletableFuture<Void> executeAsync(DOC documentToAssess, AssessmentResultBuilder resultBuilder) {
+    return executeAsync(documentToAssess, resultBuilder, AsyncExecutionOptions.defaults());
+  }
+
+  /**
+   * Executes an assessment over the provided XML document without waiting for it to complete.
+   * <p>
+   * The returned future completes exceptionally with an {@link AssessmentException} if an error
+   * occurs or a deadline passes. Cancelling the returned future cancels any assessments that are
+   * still running.
+   * <p>
+   * The default implementation performs the assessment in the calling thread using
+   * {@link #execute(Document, AssessmentResultBuilder)}, returning a completed future.
+   * 
+   * @param documentToAssess
+   *          the document to perform the assessment over
+   * @param resultBuilder
+   *          a result builder instance that can be used to record the results of the assessment
+   *          execution
+   * @param options
+   *          the deadlines and completion listener to use
+   * @return a future that completes when all assessments have completed
+   */
+  default CompletableFuture<Void> executeAsync(DOC documentToAssess, AssessmentResultBuilder resultBuilder,
+      AsyncExecutionOptions options) {
+    CompletableFuture<Void> retval = new CompletableFuture<>();
+    try {
+      execute(documentToAssess, resultBuilder);
+      retval.complete(null);
+    } catch (AssessmentException | RuntimeException ex) {
+      retval.completeExceptionally(ex);
+    }
+    return retval;
+  }
 }
@@ -0,0 +1,132 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment;
+
+import gov.nist.secauto.decima.core.assessment.result.TestState;
+import gov.nist.secauto.decima.core.document.Document;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Decides if an assessment in an {@link AssessmentGraph} is performed, based on the outcomes of the
+ * assessments it depends on. A gate that does not allow the assessment to be performed also decides
+ * the {@link TestState} to assign to the derived requirements covered by the skipped assessment.
+ *
+ * @param <DOC>
+ *          the {@link Document} type the gate is evaluated against
+ */
+@FunctionalInterface
+public interface AssessmentGate<DOC extends Document> {
+  /**
+   * Decides if the gated assessment is performed.
+   * 
+   * @param targetDocument
+   *          the document being assessed
+   * @param upstream
+   *          the outcomes of the assessments the gated assessment depends on
+   * @return {@link TestState#TESTED} if the assessment is to be performed, or the state to assign to
+   *         the covered derived requirements if the assessment is skipped
+   * @throws AssessmentException
+   *           if an error occurs while evaluating the gate
+   */
+  TestState evaluate(DOC targetDocument, List<AssessmentNodeOutcome> upstream) throws AssessmentException;
+
+  /**
+   * Combines this gate with another gate, performing the assessment only if both allow it. The other
+   * gate is not evaluated if this gate skips the assessment.
+   * 
+   * @param other
+   *          the gate to combine with this gate
+   * @return the combined gate
+   */
+  default AssessmentGate<DOC> and(AssessmentGate<DOC> other) {
+    Objects.requireNonNull(other, "other");
+    return (targetDocument, upstream) -> {
+      TestState retval = evaluate(targetDocument, upstream);
+      if (TestState.TESTED.equals(retval)) {
+        retval = other.evaluate(targetDocument, upstream);
+      }
+      return retval;
+    };
+  }
+
+  /**
+   * Retrieves a gate that always performs the assessment.
+   * 
+   * @param <DOC>
+   *          the {@link Document} type the gate is evaluated against
+   * @return the gate
+   */
+  static <DOC extends Document> AssessmentGate<DOC> always() {
+    return (targetDocument, upstream) -> TestState.TESTED;
+  }
+
+  /**
+   * Retrieves a gate that performs the assessment only if none of the assessments it depends on
+   * reported a {@link gov.nist.secauto.decima.core.assessment.result.TestStatus#FAIL} result.
+   * Otherwise the covered derived requirements are marked as {@link TestState#NOT_TESTED}, since
+   * they could not be meaningfully tested.
+   * 
+   * @param <DOC>
+   *          the {@link Document} type the gate is evaluated against
+   * @return the gate
+   */
+  static <DOC extends Document> AssessmentGate<DOC> whenUpstreamPassed() {
+    return (targetDocument, upstream) -> {
+      for (AssessmentNodeOutcome outcome : upstream) {
+        if (outcome.hasFailures()) {
+          return TestState.NOT_TESTED;
+        }
+      }
+      return TestState.TESTED;
+    };
+  }
+
+  /**
+   * Retrieves a gate that performs the assessment only if the provided condition applies to the
+   * target document. Otherwise the covered derived requirements are marked as
+   * {@link TestState#NOT_APPLICABLE}. The condition is evaluated using the
+   * {@link ConditionEvaluationScope} current for the document, if there is one.
+   * 
+   * @param <DOC>
+   *          the {@link Document} type the gate is evaluated against
+   * @param condition
+   *          the applicability criteria
+   * @return the gate
+   */
+  static <DOC extends Document> AssessmentGate<DOC> whenApplicable(Condition<DOC> condition) {
+    Objects.requireNonNull(condition, "condition");
+    return (targetDocument, upstream) -> {
+      ConditionEvaluationScope scope = ConditionEvaluationScope.current(targetDocument);
+      boolean applies
+          = scope == null ? condition.appliesTo(targetDocument) : scope.appliesTo(condition, targetDocument);
+      return applies ? TestState.TESTED : TestState.NOT_APPLICABLE;
+    };
+  }
+}
@@ -0,0 +1,210 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment;
+
+import gov.nist.secauto.decima.core.document.Document;
+import gov.nist.secauto.decima.core.util.ObjectUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Defines a set of assessments along with the dependencies between them. An assessment is performed
+ * once all of the assessments it depends on have completed and its {@link AssessmentGate} allows it.
+ * Assessments that do not depend on each other can be performed concurrently using an
+ * {@link AssessmentGraphExecutor}.
+ * <p>
+ * For example, a schema assessment can be added first, with several Schematron assessments that
+ * depend on it, each gated by {@link AssessmentGate#whenUpstreamPassed()}. The Schematron
+ * assessments are then performed concurrently if the document is schema valid, and skipped
+ * otherwise.
+ * <p>
+ * An assessment can only depend on assessments that were added to the graph before it, which
+ * ensures that the graph does not contain cycles. A graph is not safe to modify concurrently, and
+ * must not be modified once an {@link AssessmentGraphExecutor} has been created for it.
+ *
+ * @param <DOC>
+ *          the type of document that is the target of the assessments
+ */
+public class AssessmentGraph<DOC extends Document> {
+  private final List<Node<DOC>> nodes = new ArrayList<>();
+
+  /**
+   * Adds a new assessment to the graph. The assessment is performed unconditionally, unless a gate
+   * or dependencies are configured on the returned node.
+   * 
+   * @param name
+   *          a unique name for the node
+   * @param assessment
+   *          the assessment to perform
+   * @return the new node
+   */
+  public Node<DOC> addAssessment(String name, Assessment<DOC> assessment) {
+    ObjectUtil.requireNonEmpty(name, "name");
+    Objects.requireNonNull(assessment, "assessment");
+    for (Node<DOC> node : nodes) {
+      if (node.getName().equals(name)) {
+        throw new IllegalArgumentException("A node named '" + name + "' already exists in the graph");
+      }
+    }
+    Node<DOC> retval = new Node<>(this, nodes.size(), name, assessment);
+    nodes.add(retval);
+    return retval;
+  }
+
+  /**
+   * Retrieves the nodes in this graph, in the order they were added. Each node appears after all of
+   * the nodes it depends on.
+   * 
+   * @return the nodes
+   */
+  public List<Node<DOC>> getNodes() {
+    return Collections.unmodifiableList(new ArrayList<>(nodes));
+  }
+
+  /**
+   * Retrieves the assessments in this graph, in the order they were added.
+   * 
+   * @return the assessments
+   */
+  public List<Assessment<DOC>> getAssessments() {
+    List<Node<DOC>> nodes = getNodes();
+    List<Assessment<DOC>> retval = new ArrayList<>(nodes.size());
+    for (Node<DOC> node : nodes) {
+      retval.add(node.getAssessment());
+    }
+    return retval;
+  }
+
+  /**
+   * An assessment in an {@link AssessmentGraph}.
+   *
+   * @param <DOC>
+   *          the type of document that is the target of the assessment
+   */
+  public static class Node<DOC extends Document> {
+    private final AssessmentGraph<DOC> graph;
+    private final int index;
+    private final String name;
+    private final Assessment<DOC> assessment;
+    private final Set<Node<DOC>> dependencies = new LinkedHashSet<>();
+    private final Set<String> derivedRequirementIds = new LinkedHashSet<>();
+    private AssessmentGate<DOC> gate = AssessmentGate.always();
+
+    private Node(AssessmentGraph<DOC> graph, int index, String name, Assessment<DOC> assessment) {
+      this.graph = graph;
+      this.index = index;
+      this.name = name;
+      this.assessment = assessment;
+    }
+
+    int getIndex() {
+      return index;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Assessment<DOC> getAssessment() {
+      return assessment;
+    }
+
+    /**
+     * Declares that this node's assessment is performed only after the assessments of the provided
+     * nodes have completed. If any of these is skipped, this node is also skipped.
+     * 
+     * @param upstream
+     *          the nodes to depend on, which must have been added to the same graph before this node
+     * @return this node
+     */
+    @SafeVarargs
+    public final Node<DOC> dependsOn(Node<DOC>... upstream) {
+      for (Node<DOC> node : upstream) {
+        Objects.requireNonNull(node, "upstream");
+        if (node.graph != graph || node.index >= index) {
+          throw new IllegalArgumentException(
+              "The node '" + name + "' can only depend on nodes that were added to the graph before it: "
+                  + node.getName());
+        }
+      }
+      dependencies.addAll(Arrays.asList(upstream));
+      return this;
+    }
+
+    /**
+     * Sets the gate that decides if this node's assessment is performed, once the assessments it
+     * depends on have completed.
+     * 
+     * @param gate
+     *          the gate to use
+     * @return this node
+     */
+    public Node<DOC> gatedBy(AssessmentGate<DOC> gate) {
+      Objects.requireNonNull(gate, "gate");
+      this.gate = gate;
+      return this;
+    }
+
+    /**
+     * Declares the derived requirements tested by this node's assessment. These are assigned the
+     * {@link gov.nist.secauto.decima.core.assessment.result.TestState} decided by the gate if the
+     * assessment is skipped.
+     * 
+     * @param derivedRequirementIds
+     *          the derived requirement identifiers
+     * @return this node
+     */
+    public Node<DOC> covering(String... derivedRequirementIds) {
+      this.derivedRequirementIds.addAll(Arrays.asList(derivedRequirementIds));
+      return this;
+    }
+
+    public List<Node<DOC>> getDependencies() {
+      return Collections.unmodifiableList(new ArrayList<>(dependencies));
+    }
+
+    public AssessmentGate<DOC> getGate() {
+      return gate;
+    }
+
+    public Set<String> getDerivedRequirementIds() {
+      return Collections.unmodifiableSet(new LinkedHashSet<>(derivedRequirementIds));
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}
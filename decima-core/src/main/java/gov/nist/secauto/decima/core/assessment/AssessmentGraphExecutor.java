@@ -0,0 +1,325 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment;
+
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResults;
+import gov.nist.secauto.decima.core.assessment.result.TestResult;
+import gov.nist.secauto.decima.core.assessment.result.TestState;
+import gov.nist.secauto.decima.core.assessment.result.TestStatus;
+import gov.nist.secauto.decima.core.assessment.util.LoggingHandler;
+import gov.nist.secauto.decima.core.document.Document;
+import gov.nist.secauto.decima.core.requirement.RequirementsManager;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An {@link AssessmentExecutor} that performs the assessments of an {@link AssessmentGraph},
+ * starting each assessment as soon as the assessments it depends on have completed. Assessments
+ * that are ready at the same time are performed concurrently using the provided {@link Executor}.
+ * <p>
+ * When the {@link AssessmentGate} of an assessment does not allow it to be performed, the assessment
+ * and all assessments that depend on it are skipped. The derived requirements covered by the skipped
+ * assessments are assigned the {@link TestState} decided by the gate.
+ * <p>
+ * Each assessment is performed as by a {@link ConcurrentAssessmentExecutor}, which enforces the
+ * per-assessment timeout. The execution timeout applies to the whole graph. The execution fails with
+ * the first assessment error, after which the running assessments are stopped.
+ *
+ * @param <DOC>
+ *          the type of document that is the target of the assessments
+ */
+public class AssessmentGraphExecutor<DOC extends Document>
+    extends AbstractAssessmentExecutor<DOC> {
+  private static final Logger log = LogManager.getLogger(AssessmentGraphExecutor.class);
+
+  private final Executor executor;
+  private final List<AssessmentGraph.Node<DOC>> nodes;
+  private final AsyncExecutionOptions defaultOptions;
+  private final AssessmentTimeoutMetrics timeoutMetrics;
+
+  public AssessmentGraphExecutor(Executor executor, AssessmentGraph<DOC> graph) {
+    this(executor, graph, AsyncExecutionOptions.defaults(), new AssessmentTimeoutMetrics());
+  }
+
+  /**
+   * Constructs a new executor that performs the assessments of the provided graph using the provided
+   * {@link Executor}.
+   * 
+   * @param executor
+   *          the executor to use to execute the assessment tasks
+   * @param graph
+   *          the graph of assessments to perform, which must not be modified afterwards
+   * @param defaultOptions
+   *          the deadlines and completion listener to use when none are provided
+   * @param timeoutMetrics
+   *          the metrics to record enforced deadlines in, which may be shared between executors
+   */
+  public AssessmentGraphExecutor(Executor executor, AssessmentGraph<DOC> graph, AsyncExecutionOptions defaultOptions,
+      AssessmentTimeoutMetrics timeoutMetrics) {
+    super(graph.getAssessments());
+    Objects.requireNonNull(executor, "executor");
+    Objects.requireNonNull(defaultOptions, "defaultOptions");
+    Objects.requireNonNull(timeoutMetrics, "timeoutMetrics");
+    this.executor = executor;
+    this.nodes = graph.getNodes();
+    this.defaultOptions = defaultOptions;
+    this.timeoutMetrics = timeoutMetrics;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public AsyncExecutionOptions getDefaultOptions() {
+    return defaultOptions;
+  }
+
+  public AssessmentTimeoutMetrics getTimeoutMetrics() {
+    return timeoutMetrics;
+  }
+
+  @Override
+  public CompletableFuture<Void> executeAsync(DOC documentToAssess, AssessmentResultBuilder resultBuilder) {
+    return executeAsync(documentToAssess, resultBuilder, getDefaultOptions());
+  }
+
+  @Override
+  protected final void executeInternal(DOC targetDocument, AssessmentResultBuilder builder) throws AssessmentException {
+    AssessmentExecutionHelper.await(executeInternalAsync(targetDocument, builder, getDefaultOptions()));
+  }
+
+  @Override
+  protected CompletableFuture<Void> executeInternalAsync(DOC targetDocument, AssessmentResultBuilder builder,
+      AsyncExecutionOptions options) {
+    // the execution timeout applies to the graph as a whole, not to each node
+    AsyncExecutionOptions nodeOptions = options.withExecutionTimeout(null);
+    ConditionEvaluationScope scope = ConditionEvaluationScope.current(targetDocument);
+
+    CompletableFuture<Void> retval = new CompletableFuture<>();
+    List<CompletableFuture<Void>> running = new CopyOnWriteArrayList<>();
+    List<CompletableFuture<AssessmentNodeOutcome>> outcomes = new ArrayList<>(nodes.size());
+    for (AssessmentGraph.Node<DOC> node : nodes) {
+      List<CompletableFuture<AssessmentNodeOutcome>> upstream = new ArrayList<>();
+      for (AssessmentGraph.Node<DOC> dependency : node.getDependencies()) {
+        upstream.add(outcomes.get(dependency.getIndex()));
+      }
+
+      CompletableFuture<AssessmentNodeOutcome> outcome = CompletableFuture
+          .allOf(upstream.toArray(new CompletableFuture<?>[upstream.size()]))
+          .thenComposeAsync(result -> {
+            // gates and conditions are evaluated using the execution's scope
+            try (ConditionEvaluationScope.Binding binding = ConditionEvaluationScope.bind(scope)) {
+              return performNode(node, collect(upstream), targetDocument, builder, nodeOptions, retval, running);
+            }
+          }, executor);
+      outcome.whenComplete((result, ex) -> {
+        if (ex != null) {
+          // fail fast, instead of waiting for the remaining nodes
+          retval.completeExceptionally(ex instanceof CompletionException ? ex.getCause() : ex);
+        }
+      });
+      outcomes.add(outcome);
+    }
+
+    CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[outcomes.size()]))
+        .thenRun(() -> retval.complete(null));
+
+    // stop any outstanding work once the execution has failed or been cancelled
+    retval.whenComplete((result, ex) -> {
+      if (ex != null) {
+        for (CompletableFuture<Void> execution : running) {
+          execution.cancel(true);
+        }
+      }
+    });
+
+    Duration executionTimeout = options.getExecutionTimeout();
+    if (executionTimeout != null) {
+      ScheduledFuture<?> deadline = ConcurrentAssessmentExecutor.DeadlineScheduler.schedule(() -> {
+        if (!retval.isDone()) {
+          log.warn("An assessment graph execution did not complete within {}", executionTimeout);
+          timeoutMetrics.recordExecutionTimeout();
+          retval.completeExceptionally(new AssessmentException(
+              "The assessment execution did not complete within " + executionTimeout, new TimeoutException()));
+        }
+      }, executionTimeout);
+      retval.whenComplete((result, ex) -> deadline.cancel(false));
+    }
+    return retval;
+  }
+
+  private static List<AssessmentNodeOutcome> collect(List<CompletableFuture<AssessmentNodeOutcome>> upstream) {
+    List<AssessmentNodeOutcome> retval = new ArrayList<>(upstream.size());
+    for (CompletableFuture<AssessmentNodeOutcome> future : upstream) {
+      // already completed
+      retval.add(future.join());
+    }
+    return retval;
+  }
+
+  private CompletableFuture<AssessmentNodeOutcome> performNode(AssessmentGraph.Node<DOC> node,
+      List<AssessmentNodeOutcome> upstream, DOC targetDocument, AssessmentResultBuilder builder,
+      AsyncExecutionOptions nodeOptions, CompletableFuture<Void> graphExecution,
+      List<CompletableFuture<Void>> running) {
+    if (graphExecution.isDone()) {
+      return CompletableFuture.failedFuture(new AssessmentException("The assessment execution was stopped"));
+    }
+
+    // a skipped node skips its subtree, preferring NOT_TESTED over NOT_APPLICABLE
+    TestState state = TestState.TESTED;
+    for (AssessmentNodeOutcome outcome : upstream) {
+      if (outcome.isSkipped() && !TestState.NOT_TESTED.equals(state)) {
+        state = outcome.getState();
+      }
+    }
+
+    if (TestState.TESTED.equals(state)) {
+      try {
+        state = node.getGate().evaluate(targetDocument, Collections.unmodifiableList(upstream));
+      } catch (AssessmentException | RuntimeException ex) {
+        builder.getLoggingHandler().assessmentError(node.getAssessment(), targetDocument, ex);
+        return CompletableFuture.failedFuture(ex instanceof AssessmentException ? ex
+            : new AssessmentException("An unexpected error occured while evaluating the gate for: " + node, ex));
+      }
+      Objects.requireNonNull(state, "state");
+    }
+
+    if (!TestState.TESTED.equals(state)) {
+      log.debug("Skipping assessment '{}', marking its requirements as {}", node, state);
+      for (String derivedRequirementId : node.getDerivedRequirementIds()) {
+        builder.assignTestStatus(node.getAssessment(), targetDocument, derivedRequirementId, state);
+      }
+      return CompletableFuture
+          .completedFuture(new AssessmentNodeOutcome(node.getName(), state, Collections.emptyMap()));
+    }
+
+    NodeResultBuilder nodeBuilder = new NodeResultBuilder(builder);
+    ConcurrentAssessmentExecutor<DOC> nodeExecutor = new ConcurrentAssessmentExecutor<>(executor,
+        Collections.singletonList(node.getAssessment()), nodeOptions, timeoutMetrics);
+    CompletableFuture<Void> execution = nodeExecutor.executeInternalAsync(targetDocument, nodeBuilder, nodeOptions);
+    running.add(execution);
+    if (graphExecution.isDone()) {
+      // the graph failed while the node was starting
+      execution.cancel(true);
+    }
+    return execution.thenApply(
+        result -> new AssessmentNodeOutcome(node.getName(), TestState.TESTED, nodeBuilder.getTestResultCounts()));
+  }
+
+  /**
+   * Passes results through to the execution's builder, while counting the test results reported by a
+   * single node.
+   */
+  private static class NodeResultBuilder implements AssessmentResultBuilder {
+    private final AssessmentResultBuilder delegate;
+    private final Map<TestStatus, Integer> testResultCounts = new ConcurrentHashMap<>();
+
+    public NodeResultBuilder(AssessmentResultBuilder delegate) {
+      this.delegate = delegate;
+    }
+
+    public Map<TestStatus, Integer> getTestResultCounts() {
+      return testResultCounts;
+    }
+
+    @Override
+    public Map<String, TestState> getTestStateByDerivedRequirementId() {
+      return delegate.getTestStateByDerivedRequirementId();
+    }
+
+    @Override
+    public AssessmentResultBuilder start() {
+      delegate.start();
+      return this;
+    }
+
+    @Override
+    public AssessmentResultBuilder end() {
+      delegate.end();
+      return this;
+    }
+
+    @Override
+    public AssessmentResultBuilder addAssessmentTarget(Document document) {
+      delegate.addAssessmentTarget(document);
+      return this;
+    }
+
+    @Override
+    public AssessmentResultBuilder assignProperty(String key, String value) {
+      delegate.assignProperty(key, value);
+      return this;
+    }
+
+    @Override
+    public <T extends Document> AssessmentResultBuilder addTestResult(Assessment<? extends T> assessment,
+        T document, String derivedRequirementId, TestResult result) {
+      delegate.addTestResult(assessment, document, derivedRequirementId, result);
+      testResultCounts.merge(result.getStatus(), 1, Integer::sum);
+      return this;
+    }
+
+    @Override
+    public <T extends Document> AssessmentResultBuilder assignTestStatus(Assessment<? extends T> assessment,
+        T document, String derivedRequirementId, TestState state) {
+      delegate.assignTestStatus(assessment, document, derivedRequirementId, state);
+      return this;
+    }
+
+    @Override
+    public AssessmentResults build(RequirementsManager requirementsManager) {
+      return delegate.build(requirementsManager);
+    }
+
+    @Override
+    public LoggingHandler getLoggingHandler() {
+      return delegate.getLoggingHandler();
+    }
+
+    @Override
+    public void setLoggingHandler(LoggingHandler handler) {
+      delegate.setLoggingHandler(handler);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment;
+
+import gov.nist.secauto.decima.core.assessment.result.TestState;
+import gov.nist.secauto.decima.core.assessment.result.TestStatus;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The outcome of an assessment in an {@link AssessmentGraph}, which is provided to the
+ * {@link AssessmentGate} of each assessment that depends on it.
+ * <p>
+ * Instances of this class are immutable and can be shared between threads.
+ */
+public class AssessmentNodeOutcome {
+  private final String name;
+  private final TestState state;
+  private final Map<TestStatus, Integer> testResultCounts;
+
+  /**
+   * Constructs a new outcome.
+   * 
+   * @param name
+   *          the name of the graph node
+   * @param state
+   *          {@link TestState#TESTED} if the assessment was performed, or the state assigned to its
+   *          covered derived requirements if it was skipped
+   * @param testResultCounts
+   *          the number of test results reported by the assessment for each status
+   */
+  public AssessmentNodeOutcome(String name, TestState state, Map<TestStatus, Integer> testResultCounts) {
+    this.name = name;
+    this.state = state;
+    Map<TestStatus, Integer> counts = new EnumMap<>(TestStatus.class);
+    counts.putAll(testResultCounts);
+    this.testResultCounts = Collections.unmodifiableMap(counts);
+  }
+
+  /**
+   * Retrieves the name of the graph node.
+   * 
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Retrieves the state of the assessment.
+   * 
+   * @return {@link TestState#TESTED} if the assessment was performed, or the state assigned to its
+   *         covered derived requirements if it was skipped
+   */
+  public TestState getState() {
+    return state;
+  }
+
+  /**
+   * Determines if the assessment was skipped.
+   * 
+   * @return {@code true} if the assessment was skipped, or {@code false} otherwise
+   */
+  public boolean isSkipped() {
+    return !TestState.TESTED.equals(state);
+  }
+
+  /**
+   * Retrieves the number of test results reported by the assessment with the provided status.
+   * 
+   * @param status
+   *          the status to count
+   * @return the number of test results
+   */
+  public int getTestResultCount(TestStatus status) {
+    return testResultCounts.getOrDefault(status, 0);
+  }
+
+  /**
+   * Determines if the assessment reported a {@link TestStatus#FAIL} result.
+   * 
+   * @return {@code true} if the assessment failed, or {@code false} otherwise
+   */
+  public boolean hasFailures() {
+    return getTestResultCount(TestStatus.FAIL) > 0;
+  }
+
+  @Override
+  public String toString() {
+    return name + " " + state + " " + testResultCounts;
+  }
+}
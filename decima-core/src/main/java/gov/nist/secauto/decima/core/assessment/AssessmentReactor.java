@@ -32,9 +32,13 @@ import gov.nist.secauto.decima.core.assessment.result.AssessmentResults;
 import gov.nist.secauto.decima.core.document.Document;
 import gov.nist.secauto.decima.core.requirement.RequirementsManager;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Provides a reusable execution environment for executing assessments using a a common set of
@@ -116,6 +120,72 @@ public class AssessmentReactor {
     return builder.end().build(getRequirementsManager());
   }
 
+  /**
+   * Conducts all queued assessments without waiting for them to complete.
+   * 
+   * @return a future providing the assessment results once all assessments have completed
+   * @see #reactAsync(AssessmentResultBuilder, AsyncExecutionOptions)
+   */
+  public CompletableFuture<AssessmentResults> reactAsync() {
+    return reactAsync(newAssessmentResultBuilder(), AsyncExecutionOptions.defaults());
+  }
+
+  /**
+   * Conducts all queued assessments without waiting for them to complete.
+   * <p>
+   * The queued assessment executions are started concurrently, each using the provided options.
+   * Executors that do not perform assessments asynchronously run in the calling thread. If any
+   * execution fails, the remaining executions are cancelled and the returned future completes
+   * exceptionally with an {@link AssessmentException}. Cancelling the returned future cancels all
+   * running executions.
+   * 
+   * @param builder
+   *          the {@link AssessmentResultBuilder} to append results to
+   * @param options
+   *          the deadlines and completion listener to use for each execution
+   * @return a future providing the assessment results once all assessments have completed
+   */
+  public CompletableFuture<AssessmentResults> reactAsync(AssessmentResultBuilder builder,
+      AsyncExecutionOptions options) {
+    Objects.requireNonNull(builder, "builder");
+    Objects.requireNonNull(options, "options");
+
+    builder.start();
+
+    List<AssessmentExecution<?>> executions;
+    synchronized (this) {
+      executions = new ArrayList<>(assessmentExecutions);
+      assessmentExecutions.clear();
+    }
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>(executions.size());
+    for (AssessmentExecution<?> execution : executions) {
+      CompletableFuture<Void> future = execution.executeAsync(builder, options);
+      futures.add(future);
+    }
+
+    CompletableFuture<AssessmentResults> retval = CompletableFuture
+        .allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+        .thenApply(result -> builder.end().build(getRequirementsManager()));
+
+    for (CompletableFuture<Void> future : futures) {
+      future.whenComplete((result, ex) -> {
+        if (ex != null) {
+          // fail fast, instead of waiting for the remaining executions
+          retval.completeExceptionally(ex instanceof CompletionException ? ex.getCause() : ex);
+        }
+      });
+    }
+    retval.whenComplete((result, ex) -> {
+      if (ex != null) {
+        for (CompletableFuture<Void> future : futures) {
+          future.cancel(true);
+        }
+      }
+    });
+    return retval;
+  }
+
   /**
    * Creates a new {@link AssessmentResultBuilder} to use when producing assessment results.
    * <p>
@@ -124,6 +194,6 @@ public class AssessmentReactor {
    * @return a new result builder instance
    */
   protected AssessmentResultBuilder newAssessmentResultBuilder() {
-    return Decima.newAssessmentResultBuilder();
+    return Decima.newAssessmentResultBuilder(getRequirementsManager());
   }
 }
@@ -0,0 +1,136 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment;
+
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
+import gov.nist.secauto.decima.core.document.Document;
+
+import java.time.Duration;
+
+/**
+ * Options controlling an assessment execution started using
+ * {@link AssessmentExecutor#executeAsync(Document, AssessmentResultBuilder, AsyncExecutionOptions)}
+ * or {@link AssessmentReactor#reactAsync(AssessmentResultBuilder, AsyncExecutionOptions)}.
+ * <p>
+ * Deadlines and completion notifications are honored by executors that schedule each assessment
+ * individually, such as {@link ConcurrentAssessmentExecutor}. When a deadline passes, the affected
+ * assessment tasks are cancelled and their threads interrupted.
+ * <p>
+ * Instances of this class are immutable and can be shared between threads.
+ */
+public class AsyncExecutionOptions {
+  private static final AsyncExecutionOptions DEFAULTS = new AsyncExecutionOptions(null, null, null);
+
+  private final Duration assessmentTimeout;
+  private final Duration executionTimeout;
+  private final AssessmentCompletionListener completionListener;
+
+  /**
+   * Retrieves the default options, which impose no deadlines and have no completion listener.
+   * 
+   * @return the default options
+   */
+  public static AsyncExecutionOptions defaults() {
+    return DEFAULTS;
+  }
+
+  private AsyncExecutionOptions(Duration assessmentTimeout, Duration executionTimeout,
+      AssessmentCompletionListener completionListener) {
+    this.assessmentTimeout = assessmentTimeout;
+    this.executionTimeout = executionTimeout;
+    this.completionListener = completionListener;
+  }
+
+  /**
+   * Retrieves the maximum time a single assessment may run, measured from when it starts running.
+   * 
+   * @return the timeout, or {@code null} if assessments are not time limited
+   */
+  public Duration getAssessmentTimeout() {
+    return assessmentTimeout;
+  }
+
+  /**
+   * Retrieves the maximum time the execution as a whole may take, measured from when it is
+   * submitted.
+   * 
+   * @return the timeout, or {@code null} if the execution is not time limited
+   */
+  public Duration getExecutionTimeout() {
+    return executionTimeout;
+  }
+
+  /**
+   * Retrieves the listener to notify as each assessment completes.
+   * 
+   * @return the listener, or {@code null} if no listener is configured
+   */
+  public AssessmentCompletionListener getCompletionListener() {
+    return completionListener;
+  }
+
+  /**
+   * Creates a copy of these options with the provided per-assessment timeout.
+   * 
+   * @param timeout
+   *          a positive timeout, or {@code null} to not limit individual assessments
+   * @return the new options
+   */
+  public AsyncExecutionOptions withAssessmentTimeout(Duration timeout) {
+    return new AsyncExecutionOptions(requirePositive(timeout, "timeout"), executionTimeout, completionListener);
+  }
+
+  /**
+   * Creates a copy of these options with the provided overall execution timeout.
+   * 
+   * @param timeout
+   *          a positive timeout, or {@code null} to not limit the execution
+   * @return the new options
+   */
+  public AsyncExecutionOptions withExecutionTimeout(Duration timeout) {
+    return new AsyncExecutionOptions(assessmentTimeout, requirePositive(timeout, "timeout"), completionListener);
+  }
+
+  /**
+   * Creates a copy of these options with the provided completion listener.
+   * 
+   * @param listener
+   *          the listener to notify, or {@code null} to not notify a listener
+   * @return the new options
+   */
+  public AsyncExecutionOptions withCompletionListener(AssessmentCompletionListener listener) {
+    return new AsyncExecutionOptions(assessmentTimeout, executionTimeout, listener);
+  }
+
+  private static Duration requirePositive(Duration timeout, String name) {
+    if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+      throw new IllegalArgumentException(name + " must be positive");
+    }
+    return timeout;
+  }
+}
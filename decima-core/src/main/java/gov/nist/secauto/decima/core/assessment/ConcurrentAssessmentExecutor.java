@@ -27,26 +27,35 @@
 package gov.nist.secauto.decima.core.assessment;
 
 import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.util.LoggingHandler;
 import gov.nist.secauto.decima.core.document.Document;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CompletionService;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ConcurrentAssessmentExecutor<DOC extends Document>
     extends AbstractAssessmentExecutor<DOC> {
   private static final Logger log = LogManager.getLogger(ConcurrentAssessmentExecutor.class);
   private final Executor executor;
+  private final AsyncExecutionOptions defaultOptions;
+  private final AssessmentTimeoutMetrics timeoutMetrics;
 
   /**
    * Constructs a new AssessmentExecutor that is capable of executing multiple assessments
@@ -58,49 +67,254 @@ public class ConcurrentAssessmentExecutor<DOC extends Document>
    *          the assessments to perform
    */
   public ConcurrentAssessmentExecutor(Executor executor, List<? extends Assessment<DOC>> assessments) {
+    this(executor, assessments, AsyncExecutionOptions.defaults(), new AssessmentTimeoutMetrics());
+  }
+
+  /**
+   * Constructs a new AssessmentExecutor that is capable of executing multiple assessments
+   * Concurrently, using the provided Executor to execute the provided assessments.
+   * <p>
+   * The provided options supply the deadlines used by
+   * {@link #execute(Document, AssessmentResultBuilder)} and
+   * {@link #executeAsync(Document, AssessmentResultBuilder)}. When a deadline passes, the watchdog
+   * cancels the affected tasks, interrupting their threads, and reports each stopped assessment to
+   * the result builder's {@link LoggingHandler} as an assessment error.
+   * 
+   * @param executor
+   *          the executor to use to execute the assessment tasks
+   * @param assessments
+   *          the assessments to perform
+   * @param defaultOptions
+   *          the deadlines and completion listener to use when none are provided
+   * @param timeoutMetrics
+   *          the metrics to record enforced deadlines in, which may be shared between executors
+   */
+  public ConcurrentAssessmentExecutor(Executor executor, List<? extends Assessment<DOC>> assessments,
+      AsyncExecutionOptions defaultOptions, AssessmentTimeoutMetrics timeoutMetrics) {
     super(assessments);
     Objects.requireNonNull(executor, "executor");
+    Objects.requireNonNull(defaultOptions, "defaultOptions");
+    Objects.requireNonNull(timeoutMetrics, "timeoutMetrics");
     this.executor = executor;
+    this.defaultOptions = defaultOptions;
+    this.timeoutMetrics = timeoutMetrics;
   }
 
   public Executor getExecutor() {
     return executor;
   }
 
+  public AsyncExecutionOptions getDefaultOptions() {
+    return defaultOptions;
+  }
+
+  public AssessmentTimeoutMetrics getTimeoutMetrics() {
+    return timeoutMetrics;
+  }
+
+  @Override
+  public CompletableFuture<Void> executeAsync(DOC documentToAssess, AssessmentResultBuilder resultBuilder) {
+    return executeAsync(documentToAssess, resultBuilder, getDefaultOptions());
+  }
+
   @Override
   protected final void executeInternal(DOC targetDocument, AssessmentResultBuilder builder) throws AssessmentException {
-    CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
-    Set<Future<Void>> futures = new HashSet<>();
-    for (Assessment<DOC> assessment : getExecutableAssessments(targetDocument)) {
-      log.info("Submitting assessment for execution: " + assessment.getName(true));
-      futures.add(completionService.submit(new AssessmentTask(assessment, targetDocument, builder)));
-    }
+    AssessmentExecutionHelper.await(executeInternalAsync(targetDocument, builder, getDefaultOptions()));
+  }
 
+  /**
+   * Submits each executable assessment to this executor's {@link Executor} as a separate task.
+   * <p>
+   * The execution fails with the first assessment error, after which the remaining tasks are
+   * cancelled. Tasks are also cancelled when a deadline passes or the returned future is cancelled,
+   * which interrupts running assessments.
+   */
+  @Override
+  protected CompletableFuture<Void> executeInternalAsync(DOC targetDocument, AssessmentResultBuilder builder,
+      AsyncExecutionOptions options) {
+    List<Assessment<DOC>> assessments;
     try {
-      while (!futures.isEmpty()) {
-        Future<Void> future = completionService.take();
-        futures.remove(future);
-        future.get();
+      assessments = getExecutableAssessments(targetDocument);
+    } catch (AssessmentException ex) {
+      return CompletableFuture.failedFuture(ex);
+    }
+
+    CompletableFuture<Void> retval = new CompletableFuture<>();
+    AtomicInteger remaining = new AtomicInteger(assessments.size());
+    List<AssessmentTask> tasks = new ArrayList<>(assessments.size());
+    for (Assessment<DOC> assessment : assessments) {
+      tasks.add(new AssessmentTask(assessment, targetDocument, builder, options, retval, remaining));
+    }
+
+    // stop any outstanding work once the execution has failed or been cancelled
+    retval.whenComplete((result, ex) -> {
+      if (ex != null) {
+        stopTasks(tasks, ex);
+      }
+    });
+
+    Duration executionTimeout = options.getExecutionTimeout();
+    if (executionTimeout != null) {
+      ScheduledFuture<?> deadline = DeadlineScheduler.schedule(() -> {
+        if (!retval.isDone()) {
+          AssessmentException ex = new AssessmentException(
+              "The assessment execution did not complete within " + executionTimeout, new TimeoutException());
+          log.warn("An assessment execution did not complete within {}", executionTimeout);
+          timeoutMetrics.recordExecutionTimeout();
+          // report the stopped assessments before the execution completes
+          stopTasks(tasks, ex);
+          retval.completeExceptionally(ex);
+        }
+      }, executionTimeout);
+      retval.whenComplete((result, ex) -> deadline.cancel(false));
+    }
+
+    if (tasks.isEmpty()) {
+      retval.complete(null);
+    }
+
+    for (AssessmentTask task : tasks) {
+      if (retval.isDone()) {
+        break;
+      }
+      log.info("Submitting assessment for execution: " + task.getAssessment().getName(true));
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException ex) {
+        retval.completeExceptionally(new AssessmentException(
+            "Unable to submit the assessment for execution: " + task.getAssessment().getName(false), ex));
+      }
+    }
+    return retval;
+  }
+
+  private void stopTasks(List<AssessmentTask> tasks, Throwable cause) {
+    for (AssessmentTask task : tasks) {
+      if (task.stop(new AssessmentException(
+          "The assessment was stopped before completing: " + task.getAssessment().getName(false), cause))) {
+        timeoutMetrics.recordStoppedAssessment();
       }
-    } catch (InterruptedException e) {
-      throw new AssessmentException("the assessment execution was interrupted", e);
-    } catch (ExecutionException e) {
-      if (e.getCause() instanceof AssessmentException) {
-        throw (AssessmentException) e.getCause();
+    }
+  }
+
+  private class AssessmentTask
+      extends FutureTask<Void> {
+    private final AssessmentCall<DOC> call;
+    private final AsyncExecutionOptions options;
+    private final CompletableFuture<Void> execution;
+    private final AtomicInteger remaining;
+    private volatile AssessmentException timeoutError;
+
+    public AssessmentTask(Assessment<DOC> assessment, DOC documentToAssess, AssessmentResultBuilder builder,
+        AsyncExecutionOptions options, CompletableFuture<Void> execution, AtomicInteger remaining) {
+      this(new AssessmentCall<>(assessment, documentToAssess, builder), options, execution, remaining);
+    }
+
+    private AssessmentTask(AssessmentCall<DOC> call, AsyncExecutionOptions options,
+        CompletableFuture<Void> execution, AtomicInteger remaining) {
+      super(call);
+      this.call = call;
+      this.options = options;
+      this.execution = execution;
+      this.remaining = remaining;
+    }
+
+    public Assessment<DOC> getAssessment() {
+      return call.assessment;
+    }
+
+    @Override
+    public void run() {
+      Duration timeout = options.getAssessmentTimeout();
+      ScheduledFuture<?> deadline = null;
+      if (timeout != null && !isDone()) {
+        deadline = DeadlineScheduler.schedule(() -> {
+          AssessmentException error = new AssessmentException(
+              "The assessment '" + getAssessment().getName(false) + "' did not complete within " + timeout,
+              new TimeoutException());
+          // done() runs within cancel(), so the error must be recorded first to fail the execution
+          timeoutError = error;
+          call.stop(error);
+          cancel(true);
+        }, timeout);
       }
-    } finally {
-      for (Future<Void> future : futures) {
-        future.cancel(true);
+      try {
+        super.run();
+      } finally {
+        if (deadline != null) {
+          deadline.cancel(false);
+        }
+      }
+    }
+
+    /**
+     * Cancels the task, interrupting the assessment if it is running. A running assessment is reported
+     * as failing with the provided error. Used when the execution as a whole is ending.
+     * 
+     * @param error
+     *          the reason the assessment is stopped
+     * @return {@code true} if a running assessment was stopped, or {@code false} if the assessment had
+     *         not started or had already completed
+     */
+    public boolean stop(AssessmentException error) {
+      boolean retval = call.stop(error);
+      cancel(true);
+      return retval;
+    }
+
+    @Override
+    protected void done() {
+      Throwable error = null;
+      if (isCancelled()) {
+        error = timeoutError;
+        if (error == null) {
+          // stopped because the execution is ending
+          return;
+        }
+        log.warn("The assessment '{}' did not complete within {}", getAssessment().getName(true),
+            options.getAssessmentTimeout());
+        timeoutMetrics.recordAssessmentTimeout();
+      } else {
+        try {
+          get();
+        } catch (ExecutionException ex) {
+          error = ex.getCause();
+        } catch (InterruptedException ex) {
+          // not possible, since the task is done
+          Thread.currentThread().interrupt();
+        }
+      }
+
+      AssessmentCompletionListener listener = options.getCompletionListener();
+      if (listener != null) {
+        try {
+          listener.assessmentCompleted(getAssessment(), error);
+        } catch (RuntimeException ex) {
+          log.error("The assessment completion listener failed", ex);
+        }
+      }
+
+      if (error != null) {
+        execution.completeExceptionally(
+            error instanceof AssessmentException ? error : new AssessmentException(error.getLocalizedMessage(), error));
+      } else if (remaining.decrementAndGet() == 0) {
+        execution.complete(null);
       }
     }
   }
 
-  private class AssessmentTask implements Callable<Void> {
+  /**
+   * Performs an assessment, reporting its outcome to the result builder's {@link LoggingHandler}
+   * exactly once, either when the assessment ends or when it is stopped.
+   */
+  private static class AssessmentCall<DOC extends Document> implements Callable<Void> {
     private final Assessment<DOC> assessment;
     private final DOC documentToAssess;
     private final AssessmentResultBuilder builder;
+    private final AtomicBoolean reported = new AtomicBoolean();
+    private volatile boolean started;
 
-    public AssessmentTask(Assessment<DOC> assessment, DOC documentToAssess, AssessmentResultBuilder builder) {
+    public AssessmentCall(Assessment<DOC> assessment, DOC documentToAssess, AssessmentResultBuilder builder) {
       Objects.requireNonNull(assessment, "assessment");
       Objects.requireNonNull(documentToAssess, "documentToAssess");
       Objects.requireNonNull(builder, "builder");
@@ -111,10 +325,62 @@ public class ConcurrentAssessmentExecutor<DOC extends Document>
 
     @Override
     public Void call() throws AssessmentException {
-      AssessmentExecutionHelper.executeAssessment(assessment, documentToAssess, builder);
+      LoggingHandler handler = builder.getLoggingHandler();
+
+      handler.assessmentStarted(assessment, documentToAssess);
+      started = true;
+      try {
+        assessment.execute(documentToAssess, builder);
+        if (reported.compareAndSet(false, true)) {
+          handler.assessmentCompleted(assessment, documentToAssess);
+        }
+      } catch (AssessmentException ex) {
+        if (reported.compareAndSet(false, true)) {
+          handler.assessmentError(assessment, documentToAssess, ex);
+        }
+        throw ex;
+      } catch (Throwable th) {
+        if (reported.compareAndSet(false, true)) {
+          handler.assessmentError(assessment, documentToAssess, th);
+        }
+        throw new AssessmentException(
+            "An unexpected error occured while processing the assessment: " + assessment.getName(false), th);
+      }
       return null;
     }
 
+    private boolean stop(AssessmentException error) {
+      boolean retval = false;
+      if (started && reported.compareAndSet(false, true)) {
+        builder.getLoggingHandler().assessmentError(assessment, documentToAssess, error);
+        retval = true;
+      }
+      return retval;
+    }
   }
 
+  /**
+   * Provides a shared daemon thread that enforces assessment deadlines. This is also used by the
+   * {@link AssessmentGraphExecutor}.
+   */
+  static final class DeadlineScheduler {
+    private static final ScheduledThreadPoolExecutor SCHEDULER;
+
+    static {
+      SCHEDULER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "decima-assessment-deadlines");
+        thread.setDaemon(true);
+        return thread;
+      });
+      SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    static ScheduledFuture<?> schedule(Runnable action, Duration delay) {
+      return SCHEDULER.schedule(action, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private DeadlineScheduler() {
+      // disable construction
+    }
+  }
 }
@@ -30,6 +30,7 @@ import gov.nist.secauto.decima.core.document.Document;
 import gov.nist.secauto.decima.core.util.ExecutorServiceUtil;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -45,6 +46,8 @@ import java.util.concurrent.TimeUnit;
  */
 public class ConcurrentAssessmentExecutorFactory implements AssessmentExecutorFactory {
   private final Executor executor;
+  private final AsyncExecutionOptions defaultOptions;
+  private final AssessmentTimeoutMetrics timeoutMetrics = new AssessmentTimeoutMetrics();
 
   /**
    * Creates an {@link AssessmentExecutorFactory} that uses a {@link ThreadPoolExecutor} of the
@@ -61,18 +64,46 @@ public class ConcurrentAssessmentExecutorFactory implements AssessmentExecutorFa
   }
 
   public ConcurrentAssessmentExecutorFactory(Executor executor) {
+    this(executor, AsyncExecutionOptions.defaults());
+  }
+
+  /**
+   * Creates an {@link AssessmentExecutorFactory} that uses the provided executor, applying the
+   * deadlines of the provided options to the executions of each created {@link AssessmentExecutor}.
+   * 
+   * @param executor
+   *          the executor to use to execute assessments
+   * @param defaultOptions
+   *          the per-assessment and per-execution timeouts to enforce when none are provided
+   */
+  public ConcurrentAssessmentExecutorFactory(Executor executor, AsyncExecutionOptions defaultOptions) {
+    Objects.requireNonNull(defaultOptions, "defaultOptions");
     this.executor = executor;
+    this.defaultOptions = defaultOptions;
   }
 
   public Executor getExecutor() {
     return executor;
   }
 
+  public AsyncExecutionOptions getDefaultOptions() {
+    return defaultOptions;
+  }
+
+  /**
+   * Retrieves the deadline metrics shared by all executors created by this factory.
+   * 
+   * @return the metrics
+   */
+  public AssessmentTimeoutMetrics getTimeoutMetrics() {
+    return timeoutMetrics;
+  }
+
   @Override
   public <DOC extends Document> ConcurrentAssessmentExecutor<DOC>
       newAssessmentExecutor(List<? extends Assessment<DOC>> assessments) {
     // The constructor will check that the arguments are valid
-    return new ConcurrentAssessmentExecutor<DOC>(getExecutor(), assessments);
+    return new ConcurrentAssessmentExecutor<DOC>(getExecutor(), assessments, getDefaultOptions(), getTimeoutMetrics());
   }
 
 }
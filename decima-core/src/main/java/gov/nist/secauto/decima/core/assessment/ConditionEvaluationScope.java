@@ -0,0 +1,219 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment;
+
+import gov.nist.secauto.decima.core.assessment.util.AssessmentSequence;
+import gov.nist.secauto.decima.core.document.Document;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Shares the evaluation of {@link Condition} instances between the conditional assessments performed
+ * over a document in a single execution. While a scope is current, the result of each condition is
+ * computed once and reused by every {@link DefaultConditionalAssessment} using it. Condition
+ * implementations can also use the scope to evaluate all of the conditions in the execution together,
+ * using {@link #getConditions()} and {@link #computeIfAbsent(Object, Function)}.
+ * <p>
+ * A scope is opened by the {@link AbstractAssessmentExecutor} for each execution, and is current in
+ * the thread that opened it until it is closed. Executions over the same document never share a
+ * scope. Executors that evaluate conditions in other threads make the execution's scope current in
+ * those threads using {@link #bind(ConditionEvaluationScope)}. Conditions must not depend on state
+ * that changes during the execution.
+ */
+public final class ConditionEvaluationScope implements AutoCloseable {
+  /**
+   * The scope of the execution being performed by each thread.
+   */
+  private static final ThreadLocal<ConditionEvaluationScope> CURRENT = new ThreadLocal<>();
+
+  private final Document document;
+  private final ConditionEvaluationScope previous;
+  private final Set<Condition<?>> conditions = Collections.newSetFromMap(new ConcurrentHashMap<>());
+  private final ConcurrentMap<Object, Object> values = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Condition<?>, Boolean> results = new ConcurrentHashMap<>();
+
+  private ConditionEvaluationScope(Document document, ConditionEvaluationScope previous) {
+    this.document = document;
+    this.previous = previous;
+  }
+
+  /**
+   * Opens a new scope for the provided document, which is current in the calling thread until it is
+   * closed. The conditions used by the provided assessments are registered with the scope.
+   * 
+   * @param document
+   *          the document being assessed
+   * @param assessments
+   *          the assessments to be performed
+   * @return the scope, which must be closed by the calling thread
+   */
+  public static ConditionEvaluationScope open(Document document, Collection<? extends Assessment<?>> assessments) {
+    Objects.requireNonNull(document, "document");
+    ConditionEvaluationScope retval = new ConditionEvaluationScope(document, CURRENT.get());
+    retval.register(assessments);
+    CURRENT.set(retval);
+    return retval;
+  }
+
+  /**
+   * Retrieves the scope of the execution being performed over the provided document by the calling
+   * thread.
+   * 
+   * @param document
+   *          the document being assessed
+   * @return the scope, or {@code null} if no scope is current for the document
+   */
+  public static ConditionEvaluationScope current(Document document) {
+    ConditionEvaluationScope retval = CURRENT.get();
+    return retval != null && retval.document == document ? retval : null;
+  }
+
+  /**
+   * Makes the provided scope current in the calling thread, until the returned binding is closed.
+   * This is used to continue an execution in another thread.
+   * 
+   * @param scope
+   *          the scope to make current, or {@code null} to make no scope current
+   * @return the binding, which must be closed by the calling thread
+   */
+  public static Binding bind(ConditionEvaluationScope scope) {
+    Binding retval = new Binding(CURRENT.get());
+    set(scope);
+    return retval;
+  }
+
+  private static void set(ConditionEvaluationScope scope) {
+    if (scope == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(scope);
+    }
+  }
+
+  private void register(Collection<? extends Assessment<?>> assessments) {
+    List<Assessment<?>> remaining = new ArrayList<>(assessments);
+    while (!remaining.isEmpty()) {
+      Assessment<?> assessment = remaining.remove(remaining.size() - 1);
+      if (assessment instanceof DefaultConditionalAssessment) {
+        DefaultConditionalAssessment<?> conditional = (DefaultConditionalAssessment<?>) assessment;
+        conditions.add(conditional.getCondition());
+        remaining.add(conditional.getDelegate());
+      } else if (assessment instanceof AssessmentSequence) {
+        remaining.addAll(((AssessmentSequence<?>) assessment).getAssessments());
+      }
+    }
+  }
+
+  public Document getDocument() {
+    return document;
+  }
+
+  /**
+   * Retrieves the conditions used by the assessments in the execution.
+   * 
+   * @return the conditions
+   */
+  public List<Condition<?>> getConditions() {
+    return new ArrayList<>(conditions);
+  }
+
+  /**
+   * Retrieves a value shared by the conditions evaluated in this scope, creating it if needed.
+   * 
+   * @param <T>
+   *          the type of the value
+   * @param key
+   *          the key identifying the value
+   * @param factory
+   *          creates the value for the key
+   * @return the value
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T computeIfAbsent(Object key, Function<Object, T> factory) {
+    return (T) values.computeIfAbsent(key, factory);
+  }
+
+  /**
+   * Determines if the provided condition applies to the document, evaluating it only the first time
+   * it is tested in this scope.
+   * 
+   * @param <DOC>
+   *          the {@link Document} type the condition is evaluated against
+   * @param condition
+   *          the condition to test
+   * @param targetDocument
+   *          the document being assessed, which must be the document of this scope
+   * @return {@code true} if the condition applies to the document, or {@code false} otherwise
+   * @throws AssessmentException
+   *           if an error occurs while evaluating the condition
+   */
+  public <DOC extends Document> boolean appliesTo(Condition<DOC> condition, DOC targetDocument)
+      throws AssessmentException {
+    Boolean retval = results.get(condition);
+    if (retval == null) {
+      // errors are not remembered, so each assessment using the condition reports them
+      retval = condition.appliesTo(targetDocument);
+      results.putIfAbsent(condition, retval);
+    }
+    return retval;
+  }
+
+  /**
+   * Restores the scope that was current in the calling thread when this scope was opened.
+   */
+  @Override
+  public void close() {
+    if (CURRENT.get() == this) {
+      set(previous);
+    }
+  }
+
+  /**
+   * Restores the scope that was current in a thread before a scope was bound to it.
+   */
+  public static final class Binding implements AutoCloseable {
+    private final ConditionEvaluationScope previous;
+
+    private Binding(ConditionEvaluationScope previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void close() {
+      set(previous);
+    }
+  }
+}
@@ -59,6 +59,10 @@ public class DefaultConditionalAssessment<DOC extends Document> implements Condi
     return delegate;
   }
 
+  public Condition<DOC> getCondition() {
+    return condition;
+  }
+
   @Override
   public List<Assessment<DOC>> getExecutableAssessments(DOC document) throws AssessmentException {
     List<Assessment<DOC>> retval;
@@ -78,8 +82,16 @@ public class DefaultConditionalAssessment<DOC extends Document> implements Condi
     // delegate.execute(document, builder, notifier);
   }
 
+  /**
+   * Evaluates the condition against the provided document. If a {@link ConditionEvaluationScope} is
+   * current for the document, the condition is only evaluated the first time it is tested in the scope.
+   */
   @Override
   public boolean appliesTo(DOC targetDocument) throws AssessmentException {
+    ConditionEvaluationScope scope = ConditionEvaluationScope.current(targetDocument);
+    if (scope != null) {
+      return scope.appliesTo(condition, targetDocument);
+    }
     return condition.appliesTo(targetDocument);
   }
 
@@ -0,0 +1,187 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment;
+
+import gov.nist.secauto.decima.core.util.ComputePermitUtil;
+import gov.nist.secauto.decima.core.util.ExecutorServiceUtil;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link AssessmentExecutorFactory} that runs each assessment in its own virtual thread. Since
+ * virtual threads are cheap, assessments waiting on I/O do not hold up the others. A shared
+ * {@link Semaphore} bounds how many CPU-bound operations, such as Schematron transformations and
+ * schema validation, run at once, which keeps these from oversubscribing the available processors.
+ * <p>
+ * Virtual threads are used when the running JVM provides them. On older runtimes, an unbounded pool
+ * of daemon platform threads is used instead, with the same bound on CPU-bound operations.
+ * <p>
+ * Instances of this class are immutable and can be shared between threads.
+ */
+public class VirtualThreadAssessmentExecutorFactory
+    extends ConcurrentAssessmentExecutorFactory {
+  private static final Logger log = LogManager.getLogger(VirtualThreadAssessmentExecutorFactory.class);
+
+  private final Semaphore computePermits;
+  private final int maxConcurrentComputations;
+  private final boolean virtual;
+
+  /**
+   * Creates a factory that bounds the CPU-bound operations performed at once to the number of
+   * available processors.
+   */
+  public VirtualThreadAssessmentExecutorFactory() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a factory that bounds the CPU-bound operations performed at once to the provided number.
+   * 
+   * @param maxConcurrentComputations
+   *          the maximum number of CPU-bound operations to perform at once
+   */
+  public VirtualThreadAssessmentExecutorFactory(int maxConcurrentComputations) {
+    this(maxConcurrentComputations, AsyncExecutionOptions.defaults());
+  }
+
+  /**
+   * Creates a factory that bounds the CPU-bound operations performed at once to the provided number,
+   * applying the deadlines of the provided options to the executions of each created
+   * {@link AssessmentExecutor}.
+   * 
+   * @param maxConcurrentComputations
+   *          the maximum number of CPU-bound operations to perform at once
+   * @param defaultOptions
+   *          the per-assessment and per-execution timeouts to enforce when none are provided
+   */
+  public VirtualThreadAssessmentExecutorFactory(int maxConcurrentComputations,
+      AsyncExecutionOptions defaultOptions) {
+    this(newThreadPerTaskExecutor(), new Semaphore(checkPermits(maxConcurrentComputations), true),
+        maxConcurrentComputations, defaultOptions);
+  }
+
+  private VirtualThreadAssessmentExecutorFactory(ThreadPerTaskExecutor delegate, Semaphore computePermits,
+      int maxConcurrentComputations, AsyncExecutionOptions defaultOptions) {
+    super(task -> delegate.getExecutorService().execute(ComputePermitUtil.bind(computePermits, task)),
+        defaultOptions);
+    this.computePermits = computePermits;
+    this.maxConcurrentComputations = maxConcurrentComputations;
+    this.virtual = delegate.isVirtual();
+  }
+
+  private static int checkPermits(int maxConcurrentComputations) {
+    if (maxConcurrentComputations < 1) {
+      throw new IllegalArgumentException("maxConcurrentComputations must be positive");
+    }
+    return maxConcurrentComputations;
+  }
+
+  private static ThreadPerTaskExecutor newThreadPerTaskExecutor() {
+    ExecutorService executorService;
+    boolean virtual;
+    try {
+      // looked up reflectively, since virtual threads are not available in all supported runtimes
+      Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      executorService = (ExecutorService) method.invoke(null);
+      virtual = true;
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+      log.debug("Virtual threads are not available. Using platform threads instead.");
+      executorService = Executors.newCachedThreadPool(new DaemonThreadFactory());
+      virtual = false;
+    }
+    ExecutorServiceUtil.addShutdownHook(executorService, 10, TimeUnit.SECONDS);
+    return new ThreadPerTaskExecutor(executorService, virtual);
+  }
+
+  /**
+   * Determines if assessments are run using virtual threads.
+   * 
+   * @return {@code true} if virtual threads are used, or {@code false} if platform threads are used
+   */
+  public boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * Retrieves the maximum number of CPU-bound operations performed at once.
+   * 
+   * @return the maximum number of operations
+   */
+  public int getMaxConcurrentComputations() {
+    return maxConcurrentComputations;
+  }
+
+  /**
+   * Retrieves the number of CPU-bound operations that can currently start without waiting.
+   * 
+   * @return the number of available permits
+   */
+  public int getAvailableComputePermits() {
+    return computePermits.availablePermits();
+  }
+
+  private static class ThreadPerTaskExecutor {
+    private final ExecutorService executorService;
+    private final boolean virtual;
+
+    public ThreadPerTaskExecutor(ExecutorService executorService, boolean virtual) {
+      this.executorService = executorService;
+      this.virtual = virtual;
+    }
+
+    public ExecutorService getExecutorService() {
+      return executorService;
+    }
+
+    public boolean isVirtual() {
+      return virtual;
+    }
+  }
+
+  private static class DaemonThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "decima-assessment-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -32,8 +32,8 @@ import gov.nist.secauto.decima.core.requirement.DerivedRequirement;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 
@@ -47,7 +47,7 @@ import java.util.Objects;
 public class BasicTestResult implements TestResult {
   private final String testId;
   private final TestStatus status;
-  private final List<String> resultValues = new LinkedList<>();
+  private final List<String> resultValues = new ArrayList<>(2);
   private final Context context;
 
   /**
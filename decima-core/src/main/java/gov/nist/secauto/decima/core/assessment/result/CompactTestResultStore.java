@@ -0,0 +1,458 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.core.assessment.result;
+
+import gov.nist.secauto.decima.core.document.Context;
+import gov.nist.secauto.decima.core.util.StringPool;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A compact, columnar store of {@link TestResult} data. Instead of retaining each reported
+ * {@link TestResult} and its {@link Context}, the identifiers, status and location of each result
+ * are decomposed into primitive arrays:
+ * <ul>
+ * <li>Strings that repeat across many results, such as derived requirement identifiers, test
+ * identifiers and system identifiers, are deduplicated using a {@link StringPool}.</li>
+ * <li>Location paths are stored as a tree of shared steps, so each result references its path
+ * using a single {@code int}.</li>
+ * <li>Result values are encoded as UTF-8 into a single shared buffer. {@code null} values are
+ * preserved.</li>
+ * </ul>
+ * {@link TestResult} instances returned by this store are lightweight views that are created on
+ * demand. The values of the original result are copied when it is added, so the original result
+ * and its context can be garbage collected.
+ * <p>
+ * Sub-classes can capture a format specific location path (e.g., an XPath) by overriding
+ * {@link #getContextPath(Context)} and {@link #newContext(String, int, int, String)}.
+ * <p>
+ * This class is thread-safe.
+ */
+public class CompactTestResultStore {
+  private static final TestStatus[] TEST_STATUSES = TestStatus.values();
+  /**
+   * Marks a result that has no path or no values.
+   */
+  private static final int NONE = -1;
+  /**
+   * Marks a result that was reported without a context.
+   */
+  private static final int NO_CONTEXT = -2;
+  /**
+   * The encoded length of a {@code null} result value.
+   */
+  private static final int NULL_VALUE_LENGTH = 0;
+
+  private final StringPool requirementPool = new StringPool(64);
+  private final StringPool stringPool = new StringPool(64);
+  private final PathTable pathTable = new PathTable();
+
+  private int size;
+  private int[] testIds;
+  private byte[] statuses;
+  private int[] systemIds;
+  private int[] lines;
+  private int[] columns;
+  private int[] paths;
+  private int[] valueOffsets;
+  /**
+   * The index of the next result for the same derived requirement.
+   */
+  private int[] nextResult;
+
+  /**
+   * The first and last result index, and the result count, indexed by derived requirement pool
+   * index.
+   */
+  private int[] firstResult;
+  private int[] lastResult;
+  private int[] resultCount;
+
+  private byte[] valueBuffer;
+  private int valueBufferSize;
+
+  public CompactTestResultStore() {
+    this(64);
+  }
+
+  /**
+   * Construct a new store sized for the provided number of test results.
+   * 
+   * @param initialCapacity
+   *          the expected number of test results
+   */
+  public CompactTestResultStore(int initialCapacity) {
+    int capacity = Math.max(initialCapacity, 1);
+    this.testIds = new int[capacity];
+    this.statuses = new byte[capacity];
+    this.systemIds = new int[capacity];
+    this.lines = new int[capacity];
+    this.columns = new int[capacity];
+    this.paths = new int[capacity];
+    this.valueOffsets = new int[capacity];
+    this.nextResult = new int[capacity];
+    this.firstResult = new int[16];
+    this.lastResult = new int[16];
+    this.resultCount = new int[16];
+    this.valueBuffer = new byte[capacity * 16];
+  }
+
+  /**
+   * Records the data of the provided test result against the provided derived requirement.
+   * 
+   * @param derivedRequirementId
+   *          the derived requirement the result is associated with
+   * @param result
+   *          the test result to record
+   */
+  public synchronized void add(String derivedRequirementId, TestResult result) {
+    Objects.requireNonNull(derivedRequirementId, "derivedRequirementId");
+    Objects.requireNonNull(result, "result");
+
+    ensureCapacity(size + 1);
+
+    int index = size;
+    int requirementIndex = requirementPool.add(derivedRequirementId);
+    testIds[index] = stringPool.add(result.getTestId());
+    statuses[index] = (byte) result.getStatus().ordinal();
+
+    Context context = result.getContext();
+    if (context == null) {
+      systemIds[index] = NONE;
+      lines[index] = NONE;
+      columns[index] = NONE;
+      paths[index] = NO_CONTEXT;
+    } else {
+      systemIds[index] = stringPool.add(context.getSystemId());
+      lines[index] = context.getLine();
+      columns[index] = context.getColumn();
+
+      String path = getContextPath(context);
+      paths[index] = path == null ? NONE : pathTable.add(path);
+    }
+
+    valueOffsets[index] = appendValues(result.getResultValues());
+
+    linkResult(requirementIndex, index);
+    size++;
+  }
+
+  private int appendValues(List<String> values) {
+    if (values == null || values.isEmpty()) {
+      return NONE;
+    }
+
+    int offset = valueBufferSize;
+    appendLength(values.size());
+    for (String value : values) {
+      if (value == null) {
+        appendLength(NULL_VALUE_LENGTH);
+        continue;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      // lengths are shifted by one to reserve the null marker
+      appendLength(bytes.length + 1);
+      ensureValueCapacity(valueBufferSize + bytes.length);
+      System.arraycopy(bytes, 0, valueBuffer, valueBufferSize, bytes.length);
+      valueBufferSize += bytes.length;
+    }
+    return offset;
+  }
+
+  /**
+   * Appends a non-negative integer to the value buffer, using a variable length encoding of 7 bits
+   * per byte.
+   * 
+   * @param length
+   *          the value to append
+   */
+  private void appendLength(int length) {
+    ensureValueCapacity(valueBufferSize + 5);
+    int value = length;
+    while ((value & ~0x7F) != 0) {
+      valueBuffer[valueBufferSize++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    valueBuffer[valueBufferSize++] = (byte) value;
+  }
+
+  private void ensureValueCapacity(int capacity) {
+    if (capacity > valueBuffer.length) {
+      valueBuffer = Arrays.copyOf(valueBuffer, Math.max(valueBuffer.length + (valueBuffer.length >> 1), capacity));
+    }
+  }
+
+  private void linkResult(int requirementIndex, int index) {
+    if (requirementIndex >= firstResult.length) {
+      int newLength = Math.max(firstResult.length * 2, requirementIndex + 1);
+      firstResult = Arrays.copyOf(firstResult, newLength);
+      lastResult = Arrays.copyOf(lastResult, newLength);
+      resultCount = Arrays.copyOf(resultCount, newLength);
+    }
+
+    nextResult[index] = NONE;
+    if (resultCount[requirementIndex] == 0) {
+      firstResult[requirementIndex] = index;
+    } else {
+      nextResult[lastResult[requirementIndex]] = index;
+    }
+    lastResult[requirementIndex] = index;
+    resultCount[requirementIndex]++;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > statuses.length) {
+      int newLength = Math.max(statuses.length + (statuses.length >> 1), capacity);
+      testIds = Arrays.copyOf(testIds, newLength);
+      statuses = Arrays.copyOf(statuses, newLength);
+      systemIds = Arrays.copyOf(systemIds, newLength);
+      lines = Arrays.copyOf(lines, newLength);
+      columns = Arrays.copyOf(columns, newLength);
+      paths = Arrays.copyOf(paths, newLength);
+      valueOffsets = Arrays.copyOf(valueOffsets, newLength);
+      nextResult = Arrays.copyOf(nextResult, newLength);
+    }
+  }
+
+  /**
+   * Releases any unused capacity. This is intended to be called once all test results have been
+   * added. Adding further test results is still supported.
+   */
+  public synchronized void trimToSize() {
+    if (size < statuses.length) {
+      int newLength = Math.max(size, 1);
+      testIds = Arrays.copyOf(testIds, newLength);
+      statuses = Arrays.copyOf(statuses, newLength);
+      systemIds = Arrays.copyOf(systemIds, newLength);
+      lines = Arrays.copyOf(lines, newLength);
+      columns = Arrays.copyOf(columns, newLength);
+      paths = Arrays.copyOf(paths, newLength);
+      valueOffsets = Arrays.copyOf(valueOffsets, newLength);
+      nextResult = Arrays.copyOf(nextResult, newLength);
+    }
+    if (valueBufferSize < valueBuffer.length) {
+      valueBuffer = Arrays.copyOf(valueBuffer, Math.max(valueBufferSize, 1));
+    }
+    pathTable.trimToSize();
+  }
+
+  /**
+   * Retrieves the total number of test results recorded in this store.
+   * 
+   * @return the count
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Retrieves views of the test results recorded for the provided derived requirement, in the order
+   * they were added.
+   * 
+   * @param derivedRequirementId
+   *          the derived requirement to retrieve test results for
+   * @return a non-null, unmodifiable list of test results
+   */
+  public synchronized List<TestResult> getTestResults(String derivedRequirementId) {
+    int requirementIndex = requirementPool.indexOf(derivedRequirementId);
+    if (requirementIndex == NONE || requirementIndex >= resultCount.length || resultCount[requirementIndex] == 0) {
+      return Collections.emptyList();
+    }
+
+    int[] indexes = new int[resultCount[requirementIndex]];
+    int pos = 0;
+    for (int index = firstResult[requirementIndex]; index != NONE; index = nextResult[index]) {
+      indexes[pos++] = index;
+    }
+    return new TestResultList(indexes);
+  }
+
+  /**
+   * Extracts a format specific location path from the provided context. The default
+   * implementation does not capture a path.
+   * 
+   * @param context
+   *          the context of a test result being added
+   * @return the path, or {@code null} if no path is available
+   */
+  protected String getContextPath(Context context) {
+    return null;
+  }
+
+  /**
+   * Creates a new {@link Context} view over stored location data.
+   * 
+   * @param systemId
+   *          the system identifier of the location
+   * @param line
+   *          the line of the location
+   * @param column
+   *          the column of the location
+   * @param path
+   *          the location path captured by {@link #getContextPath(Context)}, or {@code null}
+   * @return the new context
+   */
+  protected Context newContext(String systemId, int line, int column, String path) {
+    return new StoredContext(systemId, line, column);
+  }
+
+  private synchronized Context getContext(int index) {
+    int path = paths[index];
+    if (path == NO_CONTEXT) {
+      return null;
+    }
+    return newContext(stringPool.get(systemIds[index]), lines[index], columns[index],
+        path == NONE ? null : pathTable.get(path));
+  }
+
+  private synchronized List<String> getResultValues(int index) {
+    int offset = valueOffsets[index];
+    if (offset == NONE) {
+      return Collections.emptyList();
+    }
+
+    int[] position = { offset };
+    int count = readLength(position);
+    List<String> retval = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int length = readLength(position);
+      if (length == NULL_VALUE_LENGTH) {
+        retval.add(null);
+        continue;
+      }
+      length--;
+      retval.add(new String(valueBuffer, position[0], length, StandardCharsets.UTF_8));
+      position[0] += length;
+    }
+    return Collections.unmodifiableList(retval);
+  }
+
+  private int readLength(int[] position) {
+    int retval = 0;
+    int shift = 0;
+    byte current;
+    do {
+      current = valueBuffer[position[0]++];
+      retval |= (current & 0x7F) << shift;
+      shift += 7;
+    } while ((current & 0x80) != 0);
+    return retval;
+  }
+
+  private class TestResultList
+      extends AbstractList<TestResult> {
+    private final int[] indexes;
+
+    public TestResultList(int[] indexes) {
+      this.indexes = indexes;
+    }
+
+    @Override
+    public TestResult get(int index) {
+      return new StoredTestResult(indexes[index]);
+    }
+
+    @Override
+    public int size() {
+      return indexes.length;
+    }
+  }
+
+  private class StoredTestResult implements TestResult {
+    private final int index;
+
+    public StoredTestResult(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getTestId() {
+      synchronized (CompactTestResultStore.this) {
+        return stringPool.get(testIds[index]);
+      }
+    }
+
+    @Override
+    public TestStatus getStatus() {
+      synchronized (CompactTestResultStore.this) {
+        return TEST_STATUSES[statuses[index]];
+      }
+    }
+
+    @Override
+    public Context getContext() {
+      return CompactTestResultStore.this.getContext(index);
+    }
+
+    @Override
+    public List<String> getResultValues() {
+      return CompactTestResultStore.this.getResultValues(index);
+    }
+
+    @Override
+    public String toString() {
+      return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("id", getTestId())
+          .append("status", getStatus()).toString();
+    }
+  }
+
+  private static class StoredContext implements Context {
+    private final String systemId;
+    private final int line;
+    private final int column;
+
+    public StoredContext(String systemId, int line, int column) {
+      this.systemId = systemId;
+      this.line = line;
+      this.column = column;
+    }
+
+    @Override
+    public String getSystemId() {
+      return systemId;
+    }
+
+    @Override
+    public int getLine() {
+      return line;
+    }
+
+    @Override
+    public int getColumn() {
+      return column;
+    }
+  }
+}
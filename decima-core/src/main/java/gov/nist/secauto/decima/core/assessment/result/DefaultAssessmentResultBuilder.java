@@ -48,6 +48,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
   private static final Logger log = LogManager.getLogger(DefaultAssessmentResultBuilder.class);
@@ -55,8 +56,14 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
   private final ResultStatusBehavior resultStatusBehavior;
   private final Map<String, Document> systemIdToAssessedDocumentMap;
   private final Map<String, List<TestResult>> derivedRequirementToTestResultsMap;
-  private final Map<String, TestState> derivedRequirementsTestStatusMap;
+  private final CompactTestResultStore testResultStore;
+  private final RequirementStateTable derivedRequirementStates;
   private final Map<String, String> assessmentProperties;
+  /**
+   * Guards the mutable state of this builder. A {@link ReentrantLock} is used instead of monitors to
+   * avoid pinning the carrier thread when results are reported from virtual threads.
+   */
+  private final ReentrantLock lock = new ReentrantLock();
 
   private ZonedDateTime startDateTime;
   private ZonedDateTime endDateTime;
@@ -74,11 +81,49 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
    *          the behavior to use
    */
   public DefaultAssessmentResultBuilder(ResultStatusBehavior resultStatusBehavior) {
+    this(resultStatusBehavior, null);
+  }
+
+  /**
+   * Construct a new assessment result builder using the provided result status behavior
+   * Implementation. Test results reported to this builder will be recorded in the provided
+   * {@link CompactTestResultStore}, instead of being retained as provided. This significantly reduces
+   * the memory required for assessments producing a large number of test results.
+   * 
+   * @param resultStatusBehavior
+   *          the behavior to use
+   * @param testResultStore
+   *          the store to record test results in, or {@code null} to retain the reported
+   *          {@link TestResult} instances
+   */
+  public DefaultAssessmentResultBuilder(ResultStatusBehavior resultStatusBehavior,
+      CompactTestResultStore testResultStore) {
+    this(resultStatusBehavior, testResultStore, null);
+  }
+
+  /**
+   * Construct a new assessment result builder using the provided result status behavior
+   * Implementation. The state of derived requirements managed by the provided
+   * {@link RequirementsManager} are tracked using the requirement's dense index, instead of by
+   * identifier.
+   * 
+   * @param resultStatusBehavior
+   *          the behavior to use
+   * @param testResultStore
+   *          the store to record test results in, or {@code null} to retain the reported
+   *          {@link TestResult} instances
+   * @param requirementsManager
+   *          the requirements the assessment results will be reported against, or {@code null} if
+   *          not known ahead of time
+   */
+  public DefaultAssessmentResultBuilder(ResultStatusBehavior resultStatusBehavior,
+      CompactTestResultStore testResultStore, RequirementsManager requirementsManager) {
     Objects.requireNonNull(resultStatusBehavior, "resultStatusBehavior");
     this.resultStatusBehavior = resultStatusBehavior;
+    this.testResultStore = testResultStore;
     this.systemIdToAssessedDocumentMap = new HashMap<>();
-    this.derivedRequirementToTestResultsMap = new HashMap<>(50);
-    this.derivedRequirementsTestStatusMap = new HashMap<>(50);
+    this.derivedRequirementToTestResultsMap = testResultStore == null ? new HashMap<>(50) : null;
+    this.derivedRequirementStates = new RequirementStateTable(requirementsManager);
     this.assessmentProperties = new LinkedHashMap<>();
   }
 
@@ -87,8 +132,13 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
    * 
    * @return the time the assessment was started
    */
-  public synchronized ZonedDateTime getStartDateTime() {
-    return startDateTime;
+  public ZonedDateTime getStartDateTime() {
+    lock.lock();
+    try {
+      return startDateTime;
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -97,8 +147,13 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
    * @param startDateTime
    *          the new start time for the assessment
    */
-  protected synchronized void setStartDateTime(ZonedDateTime startDateTime) {
-    this.startDateTime = startDateTime;
+  protected void setStartDateTime(ZonedDateTime startDateTime) {
+    lock.lock();
+    try {
+      this.startDateTime = startDateTime;
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -106,8 +161,13 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
    * 
    * @return the time the assessment ended
    */
-  public synchronized ZonedDateTime getEndDateTime() {
-    return endDateTime;
+  public ZonedDateTime getEndDateTime() {
+    lock.lock();
+    try {
+      return endDateTime;
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -116,13 +176,51 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
    * @param endDateTime
    *          the new end time for the assessment
    */
-  protected synchronized void setEndDateTime(ZonedDateTime endDateTime) {
-    this.endDateTime = endDateTime;
+  protected void setEndDateTime(ZonedDateTime endDateTime) {
+    lock.lock();
+    try {
+      this.endDateTime = endDateTime;
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized Map<String, TestState> getTestStateByDerivedRequirementId() {
-    return Collections.unmodifiableMap(derivedRequirementsTestStatusMap);
+  public Map<String, TestState> getTestStateByDerivedRequirementId() {
+    lock.lock();
+    try {
+      return derivedRequirementStates.getStates();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the documents that have been assessed, keyed by system identifier.
+   * 
+   * @return a copy of the assessed documents
+   */
+  Map<String, Document> getAssessmentTargets() {
+    lock.lock();
+    try {
+      return new LinkedHashMap<>(systemIdToAssessedDocumentMap);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the assigned assessment properties.
+   * 
+   * @return a copy of the properties
+   */
+  Map<String, String> getProperties() {
+    lock.lock();
+    try {
+      return new LinkedHashMap<>(assessmentProperties);
+    } finally {
+      lock.unlock();
+    }
   }
 
   public LoggingHandler getLoggingHandler() {
@@ -135,26 +233,35 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
   }
 
   @Override
-  public synchronized AssessmentResultBuilder start() {
-    synchronized (this) {
+  public AssessmentResultBuilder start() {
+    lock.lock();
+    try {
       if (getStartDateTime() == null) {
         setStartDateTime(ZonedDateTime.now(Clock.systemDefaultZone()));
         getLoggingHandler().validationStarted();
       }
+    } finally {
+      lock.unlock();
     }
     return this;
   }
 
   @Override
-  public synchronized AssessmentResultBuilder end() {
-    synchronized (this) {
+  public AssessmentResultBuilder end() {
+    lock.lock();
+    try {
       if (getStartDateTime() == null) {
         throw new IllegalStateException("The builder was not started. Please call start() first.");
       }
       if (getEndDateTime() == null) {
         setEndDateTime(ZonedDateTime.now(Clock.systemDefaultZone()));
+        if (testResultStore != null) {
+          testResultStore.trimToSize();
+        }
         getLoggingHandler().validationEnded(this);
       }
+    } finally {
+      lock.unlock();
     }
     return this;
   }
@@ -162,14 +269,16 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
   @Override
   public AssessmentResultBuilder addAssessmentTarget(Document document) {
     String systemId = document.getSystemId();
-    if (!systemIdToAssessedDocumentMap.containsKey(systemId)) {
-      systemIdToAssessedDocumentMap.put(systemId, document);
-    } else {
-      Document other = systemIdToAssessedDocumentMap.get(systemId);
-      if (!other.equals(document) && log.isDebugEnabled()) {
-        log.debug("Duplicate systemId {} found for documents {} and {}", systemId, document.toString(),
-            other.toString());
-      }
+    Document other;
+    lock.lock();
+    try {
+      other = systemIdToAssessedDocumentMap.putIfAbsent(systemId, document);
+    } finally {
+      lock.unlock();
+    }
+    if (other != null && !other.equals(document) && log.isDebugEnabled()) {
+      log.debug("Duplicate systemId {} found for documents {} and {}", systemId, document.toString(),
+          other.toString());
     }
     return this;
   }
@@ -180,15 +289,22 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
     ObjectUtil.requireNonEmpty(derivedRequirementId);
     Objects.requireNonNull(result);
 
-    synchronized (this) {
+    lock.lock();
+    try {
       start();
-      List<TestResult> resultList = derivedRequirementToTestResultsMap.get(derivedRequirementId);
-      if (resultList == null) {
-        resultList = new LinkedList<>();
-        derivedRequirementToTestResultsMap.put(derivedRequirementId, resultList);
+      if (testResultStore != null) {
+        testResultStore.add(derivedRequirementId, result);
+      } else {
+        List<TestResult> resultList = derivedRequirementToTestResultsMap.get(derivedRequirementId);
+        if (resultList == null) {
+          resultList = new LinkedList<>();
+          derivedRequirementToTestResultsMap.put(derivedRequirementId, resultList);
+        }
+        resultList.add(result);
       }
-      resultList.add(result);
       assignTestStatus(assessment, document, derivedRequirementId, TestState.TESTED);
+    } finally {
+      lock.unlock();
     }
 
     LoggingHandler loggingHandler = getLoggingHandler();
@@ -205,7 +321,8 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
     log.info("Compiling assessment results");
     DefaultAssessmentResults retval;
 
-    synchronized (this) {
+    lock.lock();
+    try {
       if (startDateTime == null) {
         throw new IllegalStateException("The builder was not started. Please call start() first.");
       }
@@ -214,7 +331,9 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
         throw new IllegalStateException("The builder has not been stopped. Please call end() first.");
       }
 
-      retval = new DefaultAssessmentResults(requirementsManager, getStartDateTime(), getEndDateTime());
+      // results can be stored by requirement index if the builder was created for these requirements
+      boolean indexed = requirementsManager == derivedRequirementStates.getRequirementsManager();
+      retval = new DefaultAssessmentResults(requirementsManager, getStartDateTime(), getEndDateTime(), indexed);
 
       for (Map.Entry<String, String> entry : assessmentProperties.entrySet()) {
         retval.setProperty(entry.getKey(), entry.getValue());
@@ -223,20 +342,18 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
       for (Map.Entry<String, Document> entry : systemIdToAssessedDocumentMap.entrySet()) {
         retval.addAssessmentSubject(entry.getValue());
       }
+
+      // the roll-up is performed on the calling thread, since the result status behavior is called
+      // while the lock is held
       for (BaseRequirement base : requirementsManager.getBaseRequirements()) {
-        boolean inScope = resultStatusBehavior.isInScope(base);
-        DefaultBaseRequirementResult baseResult;
-        if (inScope) {
-          baseResult = buildBaseRequirementResult(base);
-        } else {
-          baseResult = new DefaultBaseRequirementResult(base, ResultStatus.NOT_IN_SCOPE);
-          for (DerivedRequirement derived : base.getDerivedRequirements()) {
-            baseResult
-                .addDerivedRequirementResult(new DefaultDerivedRequirementResult(derived, ResultStatus.NOT_IN_SCOPE));
-          }
+        DefaultBaseRequirementResult baseResult = buildBaseRequirementResult(base);
+        if (indexed) {
+          baseResult.setRequirementIndex(requirementsManager.getBaseRequirementIndex(base.getId()));
         }
         retval.addValidationResult(baseResult);
       }
+    } finally {
+      lock.unlock();
     }
 
     getLoggingHandler().completedResults(this, requirementsManager, retval);
@@ -246,6 +363,17 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
   private DefaultBaseRequirementResult buildBaseRequirementResult(BaseRequirement base) {
     DefaultBaseRequirementResult retval;
 
+    if (!resultStatusBehavior.isInScope(base)) {
+      retval = new DefaultBaseRequirementResult(base, ResultStatus.NOT_IN_SCOPE);
+      for (DerivedRequirement derived : base.getDerivedRequirements()) {
+        DefaultDerivedRequirementResult result
+            = new DefaultDerivedRequirementResult(derived, ResultStatus.NOT_IN_SCOPE);
+        result.setRequirementIndex(derivedRequirementStates.indexOf(derived.getId()));
+        retval.addDerivedRequirementResult(result);
+      }
+      return retval;
+    }
+
     Collection<DerivedRequirement> derivedRequirements = base.getDerivedRequirements();
     retval = new DefaultBaseRequirementResult(base, ResultStatus.NOT_TESTED);
     if (!derivedRequirements.isEmpty()) {
@@ -258,6 +386,8 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
   }
 
   private DefaultDerivedRequirementResult buildDerivedRequirementResult(DerivedRequirement derived) {
+    // resolve the index once, and use it for all further access to the requirement's state
+    int index = derivedRequirementStates.indexOf(derived.getId());
 
     DefaultDerivedRequirementResult derivedResult;
 
@@ -269,13 +399,14 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
 
       // Build from the ground up
       // First add assertion results to the derived result
-      List<TestResult> assertionResults = getAssertionResultsByDerivedRequirementId(derived.getId());
+      List<TestResult> assertionResults = lookupTestResults(derived.getId());
       if (!assertionResults.isEmpty()) {
         derivedResult.addTestResults(assertionResults);
       } else {
         // No test results means that all the tests passed, the test was
         // not applicable, or the test was not implemented
-        TestState testStatus = derivedRequirementsTestStatusMap.get(derived.getId());
+        TestState testStatus
+            = index < 0 ? derivedRequirementStates.getState(derived.getId()) : derivedRequirementStates.getState(index);
         if (testStatus == null) {
           testStatus = TestState.NOT_TESTED;
         }
@@ -302,6 +433,7 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
         }
       }
     }
+    derivedResult.setRequirementIndex(index);
     return derivedResult;
   }
 
@@ -311,12 +443,12 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
     ObjectUtil.requireNonEmpty(derivedRequirementId, "derivedRequirementId");
     Objects.requireNonNull(state, "state");
 
-    synchronized (this) {
+    lock.lock();
+    try {
       start();
-      TestState oldStatus = derivedRequirementsTestStatusMap.get(derivedRequirementId);
-      if (oldStatus == null || oldStatus.ordinal() < state.ordinal()) {
-        derivedRequirementsTestStatusMap.put(derivedRequirementId, state);
-      }
+      derivedRequirementStates.updateState(derivedRequirementId, state);
+    } finally {
+      lock.unlock();
     }
 
     LoggingHandler loggingHandler = getLoggingHandler();
@@ -336,12 +468,32 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
   public List<TestResult> getAssertionResultsByDerivedRequirementId(String derivedRequirementId) {
     ObjectUtil.requireNonEmpty(derivedRequirementId);
 
-    List<TestResult> retval;
+    if (testResultStore != null) {
+      return testResultStore.getTestResults(derivedRequirementId);
+    }
 
-    synchronized (this) {
-      retval = derivedRequirementToTestResultsMap.get(derivedRequirementId);
+    lock.lock();
+    try {
+      return lookupTestResults(derivedRequirementId);
+    } finally {
+      lock.unlock();
     }
+  }
 
+  /**
+   * Retrieves the test results for a given derived requirement without acquiring this builder's
+   * lock. Callers must either hold the lock, or be running on behalf of a thread that does.
+   * 
+   * @param derivedRequirementId
+   *          the derived requirement to retrieve test results for
+   * @return a non-null list of test results
+   */
+  private List<TestResult> lookupTestResults(String derivedRequirementId) {
+    if (testResultStore != null) {
+      return testResultStore.getTestResults(derivedRequirementId);
+    }
+
+    List<TestResult> retval = derivedRequirementToTestResultsMap.get(derivedRequirementId);
     if (retval == null) {
       retval = Collections.emptyList();
     } else {
@@ -363,7 +515,12 @@ public class DefaultAssessmentResultBuilder implements AssessmentResultBuilder {
   public AssessmentResultBuilder assignProperty(String key, String value) {
     Objects.requireNonNull(key, "key");
     Objects.requireNonNull(value, "value");
-    this.assessmentProperties.put(key, value);
+    lock.lock();
+    try {
+      this.assessmentProperties.put(key, value);
+    } finally {
+      lock.unlock();
+    }
     return this;
   }
 }
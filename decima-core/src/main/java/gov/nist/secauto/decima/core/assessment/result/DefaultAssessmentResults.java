@@ -31,9 +31,13 @@ import gov.nist.secauto.decima.core.document.SourceInfo;
 import gov.nist.secauto.decima.core.requirement.RequirementsManager;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -42,8 +46,19 @@ public class DefaultAssessmentResults implements AssessmentResults {
   private final ZonedDateTime startDateTime;
   private final ZonedDateTime endDateTime;
   private final Map<String, SourceInfo> assessedSubjectsMap = new LinkedHashMap<>();
-  private final Map<String, BaseRequirementResult> baseRequirementMap = new LinkedHashMap<>();
-  private final Map<String, DerivedRequirementResult> derivedRequirementMap = new LinkedHashMap<>();
+  private final boolean indexRequirements;
+  private final List<BaseRequirementResult> baseRequirementResults = new ArrayList<>();
+  /**
+   * The position plus one of each base requirement result in {@link #baseRequirementResults}, by
+   * requirement index, or {@code 0} if no result has been added.
+   */
+  private int[] indexedBaseRequirementPositions = new int[0];
+  private DerivedRequirementResult[] indexedDerivedRequirementResults = new DerivedRequirementResult[0];
+  /**
+   * Results for requirements not indexed by the requirements manager, by requirement id.
+   */
+  private final Map<String, Integer> baseRequirementPositionMap = new HashMap<>();
+  private final Map<String, DerivedRequirementResult> derivedRequirementMap = new HashMap<>();
   private final Map<String, String> assessmentProperties = new LinkedHashMap<>();
 
   /**
@@ -59,9 +74,30 @@ public class DefaultAssessmentResults implements AssessmentResults {
    */
   public DefaultAssessmentResults(RequirementsManager requirementsManager, ZonedDateTime startDateTime,
       ZonedDateTime endDateTime) {
+    this(requirementsManager, startDateTime, endDateTime, false);
+  }
+
+  /**
+   * Construct a new collection of requirements-based results generated based on performing one or
+   * more assessments.
+   * 
+   * @param requirementsManager
+   *          the collection of requirements related to the assessments
+   * @param startDateTime
+   *          the starting date and time of the first assessment
+   * @param endDateTime
+   *          the date and time when assessment execution ended
+   * @param indexRequirements
+   *          {@code true} if results are to be stored using the dense requirement indexes assigned
+   *          by the requirements manager, or {@code false} if results are to be stored by requirement
+   *          identifier
+   */
+  public DefaultAssessmentResults(RequirementsManager requirementsManager, ZonedDateTime startDateTime,
+      ZonedDateTime endDateTime, boolean indexRequirements) {
     this.requirementsManager = requirementsManager;
     this.startDateTime = startDateTime;
     this.endDateTime = endDateTime;
+    this.indexRequirements = indexRequirements;
   }
 
   @Override
@@ -81,17 +117,29 @@ public class DefaultAssessmentResults implements AssessmentResults {
 
   @Override
   public BaseRequirementResult getBaseRequirementResult(String id) {
-    return baseRequirementMap.get(id);
+    int index = indexRequirements ? requirementsManager.getBaseRequirementIndex(id) : -1;
+    int position;
+    if (index < 0) {
+      Integer value = baseRequirementPositionMap.get(id);
+      position = value == null ? -1 : value;
+    } else {
+      position = index < indexedBaseRequirementPositions.length ? indexedBaseRequirementPositions[index] - 1 : -1;
+    }
+    return position < 0 ? null : baseRequirementResults.get(position);
   }
 
   @Override
   public DerivedRequirementResult getDerivedRequirementResult(String id) {
-    return derivedRequirementMap.get(id);
+    int index = indexRequirements ? requirementsManager.getDerivedRequirementIndex(id) : -1;
+    if (index < 0) {
+      return derivedRequirementMap.get(id);
+    }
+    return index < indexedDerivedRequirementResults.length ? indexedDerivedRequirementResults[index] : null;
   }
 
   @Override
   public Collection<BaseRequirementResult> getBaseRequirementResults() {
-    return Collections.unmodifiableCollection(baseRequirementMap.values());
+    return Collections.unmodifiableCollection(baseRequirementResults);
   }
 
   @Override
@@ -152,10 +200,74 @@ public class DefaultAssessmentResults implements AssessmentResults {
    *          the base requirement result to append
    */
   public void addValidationResult(BaseRequirementResult baseRequirementResult) {
-    baseRequirementMap.put(baseRequirementResult.getBaseRequirement().getId(), baseRequirementResult);
+    String baseId = baseRequirementResult.getBaseRequirement().getId();
+    int baseIndex = getBaseRequirementIndex(baseRequirementResult);
+    Integer oldPosition;
+    if (baseIndex < 0) {
+      oldPosition = baseRequirementPositionMap.get(baseId);
+      if (oldPosition == null) {
+        baseRequirementPositionMap.put(baseId, baseRequirementResults.size());
+      }
+    } else {
+      if (baseIndex >= indexedBaseRequirementPositions.length) {
+        indexedBaseRequirementPositions = Arrays.copyOf(indexedBaseRequirementPositions,
+            Math.max(baseIndex + 1, requirementsManager.getBaseRequirementCount()));
+      }
+      int position = indexedBaseRequirementPositions[baseIndex];
+      if (position == 0) {
+        oldPosition = null;
+        indexedBaseRequirementPositions[baseIndex] = baseRequirementResults.size() + 1;
+      } else {
+        oldPosition = position - 1;
+      }
+    }
+
+    if (oldPosition == null) {
+      baseRequirementResults.add(baseRequirementResult);
+    } else {
+      // replace the previous result, retaining its position
+      baseRequirementResults.set(oldPosition, baseRequirementResult);
+    }
 
     for (DerivedRequirementResult d : baseRequirementResult.getDerivedRequirementResults()) {
-      derivedRequirementMap.put(d.getDerivedRequirement().getId(), d);
+      int derivedIndex = getDerivedRequirementIndex(d);
+      if (derivedIndex < 0) {
+        derivedRequirementMap.put(d.getDerivedRequirement().getId(), d);
+      } else {
+        if (derivedIndex >= indexedDerivedRequirementResults.length) {
+          indexedDerivedRequirementResults = Arrays.copyOf(indexedDerivedRequirementResults,
+              Math.max(derivedIndex + 1, requirementsManager.getDerivedRequirementCount()));
+        }
+        indexedDerivedRequirementResults[derivedIndex] = d;
+      }
+    }
+  }
+
+  private int getBaseRequirementIndex(BaseRequirementResult result) {
+    if (!indexRequirements) {
+      return -1;
+    }
+    // use the index resolved while building the result, if available
+    if (result instanceof DefaultBaseRequirementResult) {
+      int index = ((DefaultBaseRequirementResult) result).getRequirementIndex();
+      if (index >= 0) {
+        return index;
+      }
+    }
+    return requirementsManager.getBaseRequirementIndex(result.getBaseRequirement().getId());
+  }
+
+  private int getDerivedRequirementIndex(DerivedRequirementResult result) {
+    if (!indexRequirements) {
+      return -1;
+    }
+    // use the index resolved while building the result, if available
+    if (result instanceof DefaultDerivedRequirementResult) {
+      int index = ((DefaultDerivedRequirementResult) result).getRequirementIndex();
+      if (index >= 0) {
+        return index;
+      }
     }
+    return requirementsManager.getDerivedRequirementIndex(result.getDerivedRequirement().getId());
   }
 }
@@ -41,6 +41,7 @@ public class DefaultBaseRequirementResult
     implements BaseRequirementResult {
   private final BaseRequirement baseRequirement;
   private final Map<String, DefaultDerivedRequirementResult> derivedRequirementnResults = new LinkedHashMap<>();
+  private int requirementIndex = -1;
 
   public DefaultBaseRequirementResult(BaseRequirement baseRequirement, ResultStatus initialStatus) {
     super(initialStatus);
@@ -76,6 +77,20 @@ public class DefaultBaseRequirementResult
     }
   }
 
+  /**
+   * Retrieves the dense index of the base requirement, as assigned by the requirements manager the
+   * result was built for.
+   * 
+   * @return the index, or {@code -1} if the index is not known
+   */
+  int getRequirementIndex() {
+    return requirementIndex;
+  }
+
+  void setRequirementIndex(int requirementIndex) {
+    this.requirementIndex = requirementIndex;
+  }
+
   @Override
   public String toString() {
     return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("id", getBaseRequirement().getId())
@@ -41,6 +41,7 @@ public class DefaultDerivedRequirementResult
     implements DerivedRequirementResult {
   private final DerivedRequirement derivedRequirement;
   private final List<TestResult> assertionResults = new LinkedList<>();
+  private int requirementIndex = -1;
 
   /**
    * Construct a new derived requirement result with a specific result status.
@@ -97,6 +98,20 @@ public class DefaultDerivedRequirementResult
     }
   }
 
+  /**
+   * Retrieves the dense index of the derived requirement, as assigned by the requirements manager the
+   * result was built for.
+   * 
+   * @return the index, or {@code -1} if the index is not known
+   */
+  int getRequirementIndex() {
+    return requirementIndex;
+  }
+
+  void setRequirementIndex(int requirementIndex) {
+    this.requirementIndex = requirementIndex;
+  }
+
   @Override
   public String toString() {
     return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("id", getDerivedRequirement().getId())
@@ -0,0 +1,217 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.core.assessment.result;
+
+import gov.nist.secauto.decima.core.util.StringPool;
+
+import java.util.Arrays;
+
+/**
+ * A table of location paths (e.g., XPaths) stored as a tree of shared steps. Each step is split
+ * into a name, which is pooled, and an optional trailing numeric position predicate. Paths that
+ * share ancestors share the table entries for those ancestors, so a path is identified by a single
+ * {@code int} referencing its last step.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class PathTable {
+  private static final int NO_POSITION = -1;
+
+  private final StringPool stepNames = new StringPool(64);
+  private int size;
+  private int[] parents;
+  private int[] names;
+  private int[] positions;
+  /**
+   * An open addressing hash table of entry index + 1, with {@code 0} representing an empty slot. The
+   * table is resized when it becomes 75% full.
+   */
+  private int[] table;
+
+  public PathTable() {
+    this.parents = new int[64];
+    this.names = new int[64];
+    this.positions = new int[64];
+    this.table = new int[128];
+  }
+
+  /**
+   * Adds the provided path to the table.
+   * 
+   * @param path
+   *          the path to add
+   * @return the identifier of the path
+   */
+  public int add(String path) {
+    int parent = -1;
+    int stepStart = 0;
+    int depth = 0;
+    char quote = 0;
+    for (int i = 0, len = path.length(); i < len; i++) {
+      char ch = path.charAt(i);
+      if (quote != 0) {
+        if (ch == quote) {
+          quote = 0;
+        }
+      } else if (ch == '\'' || ch == '"') {
+        quote = ch;
+      } else if (ch == '[') {
+        depth++;
+      } else if (ch == ']') {
+        depth--;
+      } else if (ch == '/' && depth == 0 && i > stepStart) {
+        parent = addStep(parent, path, stepStart, i);
+        stepStart = i;
+      }
+    }
+    return addStep(parent, path, stepStart, path.length());
+  }
+
+  private int addStep(int parent, String path, int start, int end) {
+    int position = NO_POSITION;
+    int nameEnd = end;
+    if (end - start > 2 && path.charAt(end - 1) == ']') {
+      int bracket = path.lastIndexOf('[', end - 1);
+      int digits = end - bracket - 2;
+      if (bracket > start && digits > 0 && digits <= 9 && (digits == 1 || path.charAt(bracket + 1) != '0')) {
+        int value = 0;
+        for (int i = bracket + 1; i < end - 1; i++) {
+          char ch = path.charAt(i);
+          if (ch < '0' || ch > '9') {
+            value = NO_POSITION;
+            break;
+          }
+          value = value * 10 + (ch - '0');
+        }
+        if (value != NO_POSITION) {
+          position = value;
+          nameEnd = bracket;
+        }
+      }
+    }
+    int name = stepNames.add(path.substring(start, nameEnd));
+    return lookupOrAdd(parent, name, position);
+  }
+
+  private int lookupOrAdd(int parent, int name, int position) {
+    int mask = table.length - 1;
+    int slot = hash(parent, name, position) & mask;
+    while (true) {
+      int entry = table[slot] - 1;
+      if (entry == -1) {
+        break;
+      }
+      if (parents[entry] == parent && names[entry] == name && positions[entry] == position) {
+        return entry;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    if (size == parents.length) {
+      int newLength = size + Math.max(size >> 1, 16);
+      parents = Arrays.copyOf(parents, newLength);
+      names = Arrays.copyOf(names, newLength);
+      positions = Arrays.copyOf(positions, newLength);
+    }
+    int entry = size++;
+    parents[entry] = parent;
+    names[entry] = name;
+    positions[entry] = position;
+    table[slot] = entry + 1;
+
+    if (size * 4 > table.length * 3) {
+      rehash(table.length * 2);
+    }
+    return entry;
+  }
+
+  private void rehash(int length) {
+    int[] newTable = new int[length];
+    int mask = length - 1;
+    for (int entry = 0; entry < size; entry++) {
+      int slot = hash(parents[entry], names[entry], positions[entry]) & mask;
+      while (newTable[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      newTable[slot] = entry + 1;
+    }
+    table = newTable;
+  }
+
+  private static int hash(int parent, int name, int position) {
+    int hash = (parent * 31 + name) * 31 + position;
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Reconstructs the path with the provided identifier.
+   * 
+   * @param id
+   *          a path identifier previously returned by {@link #add(String)}
+   * @return the path
+   */
+  public String get(int id) {
+    int length = 0;
+    for (int entry = id; entry != -1; entry = parents[entry]) {
+      length++;
+    }
+    int[] steps = new int[length];
+    for (int entry = id; entry != -1; entry = parents[entry]) {
+      steps[--length] = entry;
+    }
+
+    StringBuilder builder = new StringBuilder();
+    for (int entry : steps) {
+      builder.append(stepNames.get(names[entry]));
+      if (positions[entry] != NO_POSITION) {
+        builder.append('[').append(positions[entry]).append(']');
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Releases any unused entry capacity.
+   */
+  public void trimToSize() {
+    if (size < parents.length) {
+      int newLength = Math.max(size, 1);
+      parents = Arrays.copyOf(parents, newLength);
+      names = Arrays.copyOf(names, newLength);
+      positions = Arrays.copyOf(positions, newLength);
+    }
+  }
+
+  /**
+   * Retrieves the number of distinct steps stored in the table.
+   * 
+   * @return the count
+   */
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,314 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.core.assessment.result;
+
+import gov.nist.secauto.decima.core.requirement.RequirementsManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tracks the highest {@link TestState} and {@link TestStatus} reported for each derived requirement.
+ * <p>
+ * When a {@link RequirementsManager} that indexes its requirements is provided, the state of each
+ * indexed derived requirement is kept in a primitive array slot, avoiding a map lookup and update
+ * for every reported result. Derived requirements that are not indexed are tracked in a map.
+ * <p>
+ * This class is not thread-safe. Callers must synchronize access.
+ */
+public class RequirementStateTable {
+  private static final TestState[] STATES = TestState.values();
+  private static final TestStatus[] STATUSES = TestStatus.values();
+
+  private final RequirementsManager requirementsManager;
+  /**
+   * The ordinal plus one of the highest reported {@link TestState}, or {@code 0} if none was reported.
+   */
+  private byte[] states;
+  /**
+   * The ordinal plus one of the highest reported {@link TestStatus}, or {@code 0} if none was
+   * reported.
+   */
+  private byte[] statuses;
+  private Map<String, TestState> unindexedStates;
+  private Map<String, TestStatus> unindexedStatuses;
+
+  /**
+   * Construct a new table.
+   * 
+   * @param requirementsManager
+   *          the manager used to index derived requirements, or {@code null} if the derived
+   *          requirements are not known ahead of time
+   */
+  public RequirementStateTable(RequirementsManager requirementsManager) {
+    this.requirementsManager = requirementsManager;
+    // the arrays are sized on first use, since requirements may still be loading
+    this.states = new byte[0];
+    this.statuses = new byte[0];
+  }
+
+  /**
+   * Retrieve the manager used to index derived requirements.
+   * 
+   * @return the manager, or {@code null} if no manager is used
+   */
+  public RequirementsManager getRequirementsManager() {
+    return requirementsManager;
+  }
+
+  /**
+   * Resolves the dense index of the identified derived requirement. Callers that repeatedly access
+   * the same derived requirement can resolve its index once, and use the index based methods of this
+   * table.
+   * 
+   * @param derivedRequirementId
+   *          the derived requirement to resolve
+   * @return the index, or {@code -1} if the derived requirement is not indexed
+   */
+  public int indexOf(String derivedRequirementId) {
+    return requirementsManager == null ? -1 : requirementsManager.getDerivedRequirementIndex(derivedRequirementId);
+  }
+
+  private void ensureCapacity(int index) {
+    if (index >= states.length) {
+      // the requirements manager has grown since this table was created
+      int size = Math.max(index + 1, requirementsManager.getDerivedRequirementCount());
+      states = Arrays.copyOf(states, size);
+      statuses = Arrays.copyOf(statuses, size);
+    }
+  }
+
+  /**
+   * Record the provided state for the identified derived requirement, if it is higher than the
+   * currently recorded state.
+   * 
+   * @param derivedRequirementId
+   *          the derived requirement to record the state for
+   * @param state
+   *          the state to record
+   */
+  public void updateState(String derivedRequirementId, TestState state) {
+    int index = indexOf(derivedRequirementId);
+    if (index < 0) {
+      if (unindexedStates == null) {
+        unindexedStates = new HashMap<>();
+      }
+      unindexedStates.merge(derivedRequirementId, state, (a, b) -> a.ordinal() < b.ordinal() ? b : a);
+    } else {
+      updateState(index, state);
+    }
+  }
+
+  /**
+   * Record the provided state for the derived requirement with the provided index, if it is higher
+   * than the currently recorded state.
+   * 
+   * @param index
+   *          the index of the derived requirement, as returned by {@link #indexOf(String)}
+   * @param state
+   *          the state to record
+   */
+  public void updateState(int index, TestState state) {
+    ensureCapacity(index);
+    byte value = (byte) (state.ordinal() + 1);
+    if (states[index] < value) {
+      states[index] = value;
+    }
+  }
+
+  /**
+   * Record the provided status for the identified derived requirement, if it is higher than the
+   * currently recorded status.
+   * 
+   * @param derivedRequirementId
+   *          the derived requirement to record the status for
+   * @param status
+   *          the status to record
+   */
+  public void updateStatus(String derivedRequirementId, TestStatus status) {
+    int index = indexOf(derivedRequirementId);
+    if (index < 0) {
+      if (unindexedStatuses == null) {
+        unindexedStatuses = new HashMap<>();
+      }
+      unindexedStatuses.merge(derivedRequirementId, status, (a, b) -> a.ordinal() < b.ordinal() ? b : a);
+    } else {
+      updateStatus(index, status);
+    }
+  }
+
+  /**
+   * Record the provided status for the derived requirement with the provided index, if it is higher
+   * than the currently recorded status.
+   * 
+   * @param index
+   *          the index of the derived requirement, as returned by {@link #indexOf(String)}
+   * @param status
+   *          the status to record
+   */
+  public void updateStatus(int index, TestStatus status) {
+    ensureCapacity(index);
+    byte value = (byte) (status.ordinal() + 1);
+    if (statuses[index] < value) {
+      statuses[index] = value;
+    }
+  }
+
+  /**
+   * Retrieve the highest state recorded for the identified derived requirement.
+   * 
+   * @param derivedRequirementId
+   *          the derived requirement to get the state for
+   * @return the state, or {@code null} if no state has been recorded
+   */
+  public TestState getState(String derivedRequirementId) {
+    int index = indexOf(derivedRequirementId);
+    if (index < 0) {
+      return unindexedStates == null ? null : unindexedStates.get(derivedRequirementId);
+    }
+    return getState(index);
+  }
+
+  /**
+   * Retrieve the highest state recorded for the derived requirement with the provided index.
+   * 
+   * @param index
+   *          the index of the derived requirement, as returned by {@link #indexOf(String)}
+   * @return the state, or {@code null} if no state has been recorded
+   */
+  public TestState getState(int index) {
+    return index < states.length && states[index] != 0 ? STATES[states[index] - 1] : null;
+  }
+
+  /**
+   * Retrieve the highest status recorded for the identified derived requirement.
+   * 
+   * @param derivedRequirementId
+   *          the derived requirement to get the status for
+   * @return the status, or {@code null} if no status has been recorded
+   */
+  public TestStatus getStatus(String derivedRequirementId) {
+    int index = indexOf(derivedRequirementId);
+    if (index < 0) {
+      return unindexedStatuses == null ? null : unindexedStatuses.get(derivedRequirementId);
+    }
+    return getStatus(index);
+  }
+
+  /**
+   * Retrieve the highest status recorded for the derived requirement with the provided index.
+   * 
+   * @param index
+   *          the index of the derived requirement, as returned by {@link #indexOf(String)}
+   * @return the status, or {@code null} if no status has been recorded
+   */
+  public TestStatus getStatus(int index) {
+    return index < statuses.length && statuses[index] != 0 ? STATUSES[statuses[index] - 1] : null;
+  }
+
+  /**
+   * Retrieve a snapshot of the recorded states.
+   * 
+   * @return a mapping of derived requirement identifier to the highest recorded state
+   */
+  public Map<String, TestState> getStates() {
+    Map<String, TestState> retval = new LinkedHashMap<>();
+    for (int i = 0; i < states.length; i++) {
+      if (states[i] != 0) {
+        retval.put(requirementsManager.getDerivedRequirementByIndex(i).getId(), STATES[states[i] - 1]);
+      }
+    }
+    if (unindexedStates != null) {
+      retval.putAll(unindexedStates);
+    }
+    return Collections.unmodifiableMap(retval);
+  }
+
+  /**
+   * For each {@link TestState}, count the number of derived requirements that have that state.
+   * 
+   * @return a mapping of each recorded state to the count of derived requirements with that state
+   */
+  public Map<TestState, Integer> countStates() {
+    int[] counts = new int[STATES.length];
+    for (byte state : states) {
+      if (state != 0) {
+        counts[state - 1]++;
+      }
+    }
+    if (unindexedStates != null) {
+      for (TestState state : unindexedStates.values()) {
+        counts[state.ordinal()]++;
+      }
+    }
+
+    Map<TestState, Integer> retval = new EnumMap<>(TestState.class);
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] > 0) {
+        retval.put(STATES[i], counts[i]);
+      }
+    }
+    return Collections.unmodifiableMap(retval);
+  }
+
+  /**
+   * For each {@link TestStatus}, count the number of {@link TestState#TESTED} derived requirements
+   * that have that status. Tested derived requirements without a recorded status are counted as
+   * {@link TestStatus#PASS}.
+   * 
+   * @return a mapping of each status to the count of tested derived requirements with that status
+   */
+  public Map<TestStatus, Integer> countStatuses() {
+    byte tested = (byte) (TestState.TESTED.ordinal() + 1);
+    int[] counts = new int[STATUSES.length];
+    for (int i = 0; i < states.length; i++) {
+      if (states[i] == tested) {
+        counts[statuses[i] == 0 ? TestStatus.PASS.ordinal() : statuses[i] - 1]++;
+      }
+    }
+    if (unindexedStates != null) {
+      for (Map.Entry<String, TestState> entry : unindexedStates.entrySet()) {
+        if (TestState.TESTED.equals(entry.getValue())) {
+          TestStatus status = unindexedStatuses == null ? null : unindexedStatuses.get(entry.getKey());
+          counts[status == null ? TestStatus.PASS.ordinal() : status.ordinal()]++;
+        }
+      }
+    }
+
+    Map<TestStatus, Integer> retval = new EnumMap<>(TestStatus.class);
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] > 0) {
+        retval.put(STATUSES[i], counts[i]);
+      }
+    }
+    return Collections.unmodifiableMap(retval);
+  }
+}
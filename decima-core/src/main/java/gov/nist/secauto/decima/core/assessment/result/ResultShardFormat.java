@@ -0,0 +1,738 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment.result;
+
+import gov.nist.secauto.decima.core.document.Context;
+import gov.nist.secauto.decima.core.document.Document;
+import gov.nist.secauto.decima.core.document.SourceInfo;
+import gov.nist.secauto.decima.core.requirement.RequirementsManager;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Reads and writes result shards, which hold the partial results of an assessment that has been
+ * split across multiple processes or machines, and merges them into a single set of results.
+ * <p>
+ * A shard is a compact, versioned binary record of an {@link DefaultAssessmentResultBuilder}'s
+ * content: the assessment start and end times, properties, assessed subjects, the
+ * {@link TestState} of each derived requirement, and the test results reported for each derived
+ * requirement. Requirements are written in identifier order, allowing any number of shards to be
+ * combined using a streaming k-way merge. Merging applies the same rules as reporting the results to
+ * a single builder: the greatest {@link TestState} of each requirement is kept, test results are
+ * concatenated in shard order, and the statuses are rolled up when the merged results are built.
+ * The earliest start and latest end time are used, and a property assigned by more than one shard
+ * takes the value from the last of these shards.
+ * <p>
+ * No more than {@link #getMaxOpenShards()} shards are read at the same time. Larger merges are
+ * performed in rounds, using temporary shards.
+ * <p>
+ * Sub-classes can preserve additional location information using {@link #getContextPath(Context)}
+ * and {@link #newContext(String, int, int, String)}.
+ */
+public class ResultShardFormat {
+  private static final Logger log = LogManager.getLogger(ResultShardFormat.class);
+
+  private static final int MAGIC = 0x44525253;
+  private static final int VERSION = 1;
+  private static final TestState[] TEST_STATES = TestState.values();
+  private static final TestStatus[] TEST_STATUSES = TestStatus.values();
+  private static final int BUFFER_SIZE = 16 * 1024;
+
+  public static final int DEFAULT_MAX_OPEN_SHARDS = 256;
+
+  private int maxOpenShards = DEFAULT_MAX_OPEN_SHARDS;
+
+  public int getMaxOpenShards() {
+    return maxOpenShards;
+  }
+
+  /**
+   * Sets the maximum number of shards to read at the same time when merging.
+   * 
+   * @param maxOpenShards
+   *          the maximum number of open shards, which must be at least 2
+   */
+  public void setMaxOpenShards(int maxOpenShards) {
+    if (maxOpenShards < 2) {
+      throw new IllegalArgumentException("maxOpenShards must be at least 2");
+    }
+    this.maxOpenShards = maxOpenShards;
+  }
+
+  /**
+   * Writes the content of a builder as a shard. The builder is expected to have been started and
+   * ended.
+   * 
+   * @param builder
+   *          the builder holding the partial results
+   * @param file
+   *          the file to write the shard to
+   * @throws IOException
+   *           if an error occurred while writing the shard
+   */
+  public void write(DefaultAssessmentResultBuilder builder, File file) throws IOException {
+    try (OutputStream os = new FileOutputStream(file)) {
+      write(builder, os);
+    }
+  }
+
+  /**
+   * Writes the content of a builder as a shard. The builder is expected to have been started and
+   * ended.
+   * 
+   * @param builder
+   *          the builder holding the partial results
+   * @param out
+   *          the stream to write the shard to, which is not closed
+   * @throws IOException
+   *           if an error occurred while writing the shard
+   */
+  public void write(DefaultAssessmentResultBuilder builder, OutputStream out) throws IOException {
+    ZonedDateTime start = builder.getStartDateTime();
+    ZonedDateTime end = builder.getEndDateTime();
+    if (start == null || end == null) {
+      throw new IllegalStateException("The builder must be started and ended before writing a shard");
+    }
+
+    Map<String, URI> subjects = new LinkedHashMap<>();
+    for (Document document : builder.getAssessmentTargets().values()) {
+      for (SourceInfo info : document.getSourceInfo()) {
+        subjects.putIfAbsent(info.getSystemId(), info.getSource());
+      }
+    }
+
+    ShardWriter writer = new ShardWriter(out);
+    writer.header(start, end, builder.getProperties(), subjects);
+    for (Map.Entry<String, TestState> entry : new TreeMap<>(builder.getTestStateByDerivedRequirementId())
+        .entrySet()) {
+      List<TestResult> results = builder.getAssertionResultsByDerivedRequirementId(entry.getKey());
+      writer.startRequirement(entry.getKey(), entry.getValue(), results.size());
+      for (TestResult result : results) {
+        writer.result(result);
+      }
+    }
+    writer.finish();
+  }
+
+  /**
+   * Merges shards into a single shard.
+   * 
+   * @param shards
+   *          the shards to merge
+   * @param out
+   *          the stream to write the merged shard to, which is not closed
+   * @throws IOException
+   *           if an error occurred while reading or writing a shard
+   */
+  public void merge(List<File> shards, OutputStream out) throws IOException {
+    merge(shards, new ShardWriter(out));
+  }
+
+  /**
+   * Merges shards into a single set of assessment results.
+   * 
+   * @param shards
+   *          the shards to merge
+   * @param requirementsManager
+   *          the requirements the shards were assessed against
+   * @return the merged results
+   * @throws IOException
+   *           if an error occurred while reading a shard
+   */
+  public AssessmentResults merge(List<File> shards, RequirementsManager requirementsManager) throws IOException {
+    Objects.requireNonNull(requirementsManager, "requirementsManager");
+    DefaultAssessmentResultBuilder builder = newAssessmentResultBuilder(requirementsManager);
+    merge(shards, new BuilderTarget(builder));
+    return builder.build(requirementsManager);
+  }
+
+  /**
+   * Creates the builder used to produce merged assessment results.
+   * 
+   * @param requirementsManager
+   *          the requirements the shards were assessed against
+   * @return a new builder
+   */
+  protected DefaultAssessmentResultBuilder newAssessmentResultBuilder(RequirementsManager requirementsManager) {
+    return new DefaultAssessmentResultBuilder(new DefaultResultStatusBehavior(), null, requirementsManager);
+  }
+
+  /**
+   * Retrieves additional location information from a test result context to record in a shard.
+   * 
+   * @param context
+   *          the context to get the path for
+   * @return the path, or {@code null} if the context has no path
+   */
+  protected String getContextPath(Context context) {
+    return null;
+  }
+
+  /**
+   * Creates a new {@link Context} for location data read from a shard.
+   * 
+   * @param systemId
+   *          the system identifier of the location
+   * @param line
+   *          the line number of the location
+   * @param column
+   *          the column number of the location
+   * @param path
+   *          the path provided by {@link #getContextPath(Context)}, or {@code null}
+   * @return the new context
+   */
+  protected Context newContext(String systemId, int line, int column, String path) {
+    return new ShardContext(systemId, line, column);
+  }
+
+  private void merge(List<File> shards, MergeTarget target) throws IOException {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("at least one shard must be provided");
+    }
+
+    if (shards.size() <= maxOpenShards) {
+      mergeOpen(shards, target);
+      return;
+    }
+
+    // merge groups of shards into temporary shards, until few enough remain to merge at once
+    List<File> temporaryShards = new ArrayList<>();
+    try {
+      List<File> round = shards;
+      while (round.size() > maxOpenShards) {
+        List<File> next = new ArrayList<>();
+        for (int i = 0; i < round.size(); i += maxOpenShards) {
+          File shard = File.createTempFile("decima-shard", ".bin");
+          temporaryShards.add(shard);
+          try (OutputStream os = new FileOutputStream(shard)) {
+            mergeOpen(round.subList(i, Math.min(i + maxOpenShards, round.size())), new ShardWriter(os));
+          }
+          next.add(shard);
+        }
+        log.debug("Merged {} shards into {} temporary shards", round.size(), next.size());
+        round = next;
+      }
+      mergeOpen(round, target);
+    } finally {
+      for (File shard : temporaryShards) {
+        if (!shard.delete()) {
+          log.warn("Unable to delete temporary shard: {}", shard);
+        }
+      }
+    }
+  }
+
+  private void mergeOpen(List<File> shards, MergeTarget target) throws IOException {
+    List<ShardReader> readers = new ArrayList<>(shards.size());
+    try {
+      for (File shard : shards) {
+        InputStream is = new FileInputStream(shard);
+        try {
+          readers.add(new ShardReader(is, readers.size(), shard.getPath()));
+        } catch (IOException | RuntimeException ex) {
+          // the reader does not own the stream until it has been constructed
+          is.close();
+          throw ex;
+        }
+      }
+
+      ZonedDateTime start = null;
+      ZonedDateTime end = null;
+      Map<String, String> properties = new LinkedHashMap<>();
+      Map<String, URI> subjects = new LinkedHashMap<>();
+      for (ShardReader reader : readers) {
+        if (start == null || reader.start.isBefore(start)) {
+          start = reader.start;
+        }
+        if (end == null || reader.end.isAfter(end)) {
+          end = reader.end;
+        }
+        properties.putAll(reader.properties);
+        for (Map.Entry<String, URI> entry : reader.subjects.entrySet()) {
+          subjects.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+      }
+      target.header(start, end, properties, subjects);
+
+      PriorityQueue<ShardReader> queue = new PriorityQueue<>(Math.max(readers.size(), 1));
+      for (ShardReader reader : readers) {
+        if (reader.nextRequirement()) {
+          queue.add(reader);
+        }
+      }
+
+      List<ShardReader> matching = new ArrayList<>();
+      while (!queue.isEmpty()) {
+        // the queue orders by requirement, then by shard, so matching sections are in shard order
+        ShardReader first = queue.poll();
+        matching.add(first);
+        while (!queue.isEmpty() && queue.peek().requirementId.equals(first.requirementId)) {
+          matching.add(queue.poll());
+        }
+
+        TestState state = first.state;
+        int resultCount = 0;
+        for (ShardReader reader : matching) {
+          if (reader.state.ordinal() > state.ordinal()) {
+            state = reader.state;
+          }
+          resultCount += reader.resultCount;
+        }
+
+        target.startRequirement(first.requirementId, state, resultCount);
+        for (ShardReader reader : matching) {
+          for (int i = 0; i < reader.resultCount; i++) {
+            target.result(reader.readResult());
+          }
+          if (reader.nextRequirement()) {
+            queue.add(reader);
+          }
+        }
+        matching.clear();
+      }
+      target.finish();
+    } finally {
+      for (ShardReader reader : readers) {
+        reader.close();
+      }
+    }
+  }
+
+  /**
+   * Receives the content of merged shards.
+   */
+  private interface MergeTarget {
+    void header(ZonedDateTime start, ZonedDateTime end, Map<String, String> properties, Map<String, URI> subjects)
+        throws IOException;
+
+    void startRequirement(String derivedRequirementId, TestState state, int resultCount) throws IOException;
+
+    void result(TestResult result) throws IOException;
+
+    void finish() throws IOException;
+  }
+
+  private class ShardWriter implements MergeTarget {
+    private final DataOutputStream out;
+    private final Map<String, Integer> pool = new HashMap<>();
+
+    public ShardWriter(OutputStream out) {
+      this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+    }
+
+    @Override
+    public void header(ZonedDateTime start, ZonedDateTime end, Map<String, String> properties,
+        Map<String, URI> subjects) throws IOException {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      writeString(start.toString());
+      writeString(end.toString());
+
+      writeVarInt(properties.size());
+      for (Map.Entry<String, String> entry : properties.entrySet()) {
+        writeString(entry.getKey());
+        writeString(entry.getValue());
+      }
+
+      writeVarInt(subjects.size());
+      for (Map.Entry<String, URI> entry : subjects.entrySet()) {
+        writePooledString(entry.getKey());
+        writeString(entry.getValue() == null ? null : entry.getValue().toString());
+      }
+    }
+
+    @Override
+    public void startRequirement(String derivedRequirementId, TestState state, int resultCount) throws IOException {
+      out.writeBoolean(true);
+      writeString(derivedRequirementId);
+      out.writeByte(state.ordinal());
+      writeVarInt(resultCount);
+    }
+
+    @Override
+    public void result(TestResult result) throws IOException {
+      writePooledString(result.getTestId());
+      out.writeByte(result.getStatus().ordinal());
+
+      Context context = result.getContext();
+      out.writeBoolean(context != null);
+      if (context != null) {
+        writePooledString(context.getSystemId());
+        writeSignedVarInt(context.getLine());
+        writeSignedVarInt(context.getColumn());
+        writeString(getContextPath(context));
+      }
+
+      List<String> values = result.getResultValues();
+      writeVarInt(values.size());
+      for (String value : values) {
+        writeString(value);
+      }
+    }
+
+    @Override
+    public void finish() throws IOException {
+      out.writeBoolean(false);
+      out.flush();
+    }
+
+    private void writeVarInt(int value) throws IOException {
+      int remaining = value;
+      while ((remaining & ~0x7F) != 0) {
+        out.writeByte((remaining & 0x7F) | 0x80);
+        remaining >>>= 7;
+      }
+      out.writeByte(remaining);
+    }
+
+    private void writeSignedVarInt(int value) throws IOException {
+      writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes a nullable string as its UTF-8 length plus one, followed by its bytes.
+     */
+    private void writeString(String value) throws IOException {
+      if (value == null) {
+        writeVarInt(0);
+      } else {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        out.write(bytes);
+      }
+    }
+
+    /**
+     * Writes a nullable string that is expected to repeat, such as a system identifier. The first
+     * occurrence is written in full, and later occurrences as a reference to the first.
+     */
+    private void writePooledString(String value) throws IOException {
+      if (value == null) {
+        writeVarInt(0);
+        return;
+      }
+      Integer index = pool.get(value);
+      if (index != null) {
+        writeVarInt(index + 2);
+      } else {
+        pool.put(value, pool.size());
+        writeVarInt(1);
+        writeString(value);
+      }
+    }
+  }
+
+  private class ShardReader implements Comparable<ShardReader>, Closeable {
+    private final DataInputStream in;
+    private final int shardIndex;
+    private final String name;
+    private final List<String> pool = new ArrayList<>();
+    private final ZonedDateTime start;
+    private final ZonedDateTime end;
+    private final Map<String, String> properties;
+    private final Map<String, URI> subjects;
+
+    private String requirementId;
+    private TestState state;
+    private int resultCount;
+
+    public ShardReader(InputStream is, int shardIndex, String name) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(is, BUFFER_SIZE));
+      this.shardIndex = shardIndex;
+      this.name = name;
+
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a result shard: " + name);
+      }
+      int version = in.readUnsignedShort();
+      if (version != VERSION) {
+        throw new IOException("Unsupported result shard version " + version + ": " + name);
+      }
+      start = ZonedDateTime.parse(readString());
+      end = ZonedDateTime.parse(readString());
+
+      int propertyCount = readVarInt();
+      Map<String, String> properties = new LinkedHashMap<>();
+      for (int i = 0; i < propertyCount; i++) {
+        properties.put(readString(), readString());
+      }
+      this.properties = Collections.unmodifiableMap(properties);
+
+      int subjectCount = readVarInt();
+      Map<String, URI> subjects = new LinkedHashMap<>();
+      for (int i = 0; i < subjectCount; i++) {
+        String systemId = readPooledString();
+        String source = readString();
+        subjects.put(systemId, source == null ? null : URI.create(source));
+      }
+      this.subjects = Collections.unmodifiableMap(subjects);
+    }
+
+    /**
+     * Advances to the next requirement section.
+     * 
+     * @return {@code true} if a requirement was read, or {@code false} if the shard has ended
+     */
+    public boolean nextRequirement() throws IOException {
+      if (!in.readBoolean()) {
+        requirementId = null;
+        return false;
+      }
+      String id = readString();
+      if (requirementId != null && requirementId.compareTo(id) >= 0) {
+        throw new IOException("The requirements in the result shard are not ordered: " + name);
+      }
+      requirementId = id;
+      state = TEST_STATES[in.readUnsignedByte()];
+      resultCount = readVarInt();
+      return true;
+    }
+
+    public TestResult readResult() throws IOException {
+      String testId = readPooledString();
+      TestStatus status = TEST_STATUSES[in.readUnsignedByte()];
+
+      Context context = null;
+      if (in.readBoolean()) {
+        String systemId = readPooledString();
+        int line = readSignedVarInt();
+        int column = readSignedVarInt();
+        context = newContext(systemId, line, column, readString());
+      }
+
+      BasicTestResult retval = new BasicTestResult(testId, status, context);
+      int valueCount = readVarInt();
+      for (int i = 0; i < valueCount; i++) {
+        retval.addResultValue(readString());
+      }
+      return retval;
+    }
+
+    private int readVarInt() throws IOException {
+      int retval = 0;
+      for (int shift = 0; shift < 32; shift += 7) {
+        int value = in.readUnsignedByte();
+        retval |= (value & 0x7F) << shift;
+        if ((value & 0x80) == 0) {
+          return retval;
+        }
+      }
+      throw new IOException("Malformed variable length integer in result shard: " + name);
+    }
+
+    private int readSignedVarInt() throws IOException {
+      int value = readVarInt();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    private String readString() throws IOException {
+      int length = readVarInt();
+      if (length == 0) {
+        return null;
+      }
+      byte[] bytes = new byte[length - 1];
+      in.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String readPooledString() throws IOException {
+      int reference = readVarInt();
+      if (reference == 0) {
+        return null;
+      } else if (reference == 1) {
+        String retval = readString();
+        pool.add(retval);
+        return retval;
+      } else if (reference - 2 < pool.size()) {
+        return pool.get(reference - 2);
+      }
+      throw new IOException("Invalid string reference in result shard: " + name);
+    }
+
+    @Override
+    public int compareTo(ShardReader other) {
+      int retval = requirementId.compareTo(other.requirementId);
+      if (retval == 0) {
+        retval = Integer.compare(shardIndex, other.shardIndex);
+      }
+      return retval;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  /**
+   * Replays merged shards into a result builder.
+   */
+  private static class BuilderTarget implements MergeTarget {
+    private final DefaultAssessmentResultBuilder builder;
+    private ZonedDateTime end;
+    private String requirementId;
+
+    public BuilderTarget(DefaultAssessmentResultBuilder builder) {
+      this.builder = builder;
+    }
+
+    @Override
+    public void header(ZonedDateTime start, ZonedDateTime end, Map<String, String> properties,
+        Map<String, URI> subjects) throws IOException {
+      builder.setStartDateTime(start);
+      this.end = end;
+      for (Map.Entry<String, String> entry : properties.entrySet()) {
+        builder.assignProperty(entry.getKey(), entry.getValue());
+      }
+      for (Map.Entry<String, URI> entry : subjects.entrySet()) {
+        builder.addAssessmentTarget(new ShardSubject(entry.getKey(), entry.getValue()));
+      }
+    }
+
+    @Override
+    public void startRequirement(String derivedRequirementId, TestState state, int resultCount) {
+      requirementId = derivedRequirementId;
+      builder.assignTestStatus(null, null, derivedRequirementId, state);
+    }
+
+    @Override
+    public void result(TestResult result) {
+      builder.addTestResult(null, null, requirementId, result);
+    }
+
+    @Override
+    public void finish() {
+      builder.setEndDateTime(end);
+    }
+  }
+
+  /**
+   * A document that was assessed to produce a shard, which is no longer available.
+   */
+  private static class ShardSubject implements Document, SourceInfo {
+    private final String systemId;
+    private final URI source;
+
+    public ShardSubject(String systemId, URI source) {
+      this.systemId = systemId;
+      this.source = source;
+    }
+
+    @Override
+    public String getSystemId() {
+      return systemId;
+    }
+
+    @Override
+    public InputStream newInputStream() {
+      throw new UnsupportedOperationException("The content of a merged assessment subject is not available");
+    }
+
+    @Override
+    public List<SourceInfo> getSourceInfo() {
+      return Collections.singletonList(this);
+    }
+
+    @Override
+    public URL getOriginalLocation() {
+      URL retval = null;
+      if (source != null) {
+        try {
+          retval = source.toURL();
+        } catch (MalformedURLException | IllegalArgumentException ex) {
+          log.debug("The source of a merged assessment subject is not a URL: {}", source);
+        }
+      }
+      return retval;
+    }
+
+    @Override
+    public Document getDocument() {
+      return this;
+    }
+
+    @Override
+    public URI getSource() {
+      return source;
+    }
+  }
+
+  private static class ShardContext implements Context {
+    private final String systemId;
+    private final int line;
+    private final int column;
+
+    public ShardContext(String systemId, int line, int column) {
+      this.systemId = systemId;
+      this.line = line;
+      this.column = column;
+    }
+
+    @Override
+    public String getSystemId() {
+      return systemId;
+    }
+
+    @Override
+    public int getLine() {
+      return line;
+    }
+
+    @Override
+    public int getColumn() {
+      return column;
+    }
+  }
+}
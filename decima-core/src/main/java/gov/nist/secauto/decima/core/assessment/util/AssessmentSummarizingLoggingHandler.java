@@ -27,10 +27,12 @@
 package gov.nist.secauto.decima.core.assessment.util;
 
 import gov.nist.secauto.decima.core.assessment.Assessment;
+import gov.nist.secauto.decima.core.assessment.result.RequirementStateTable;
 import gov.nist.secauto.decima.core.assessment.result.TestResult;
 import gov.nist.secauto.decima.core.assessment.result.TestState;
 import gov.nist.secauto.decima.core.assessment.result.TestStatus;
 import gov.nist.secauto.decima.core.document.Document;
+import gov.nist.secauto.decima.core.requirement.RequirementsManager;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -47,14 +49,34 @@ public class AssessmentSummarizingLoggingHandler
   private final Map<Assessment<?>, AssessmentStatsImpl> assessmentToStatsMap
       = Collections.synchronizedMap(new HashMap<>());
   private final Level summaryLogLevel;
+  private final RequirementsManager requirementsManager;
 
   public AssessmentSummarizingLoggingHandler(Level summaryLogLevel) {
     this(summaryLogLevel, null);
   }
 
   public AssessmentSummarizingLoggingHandler(Level summaryLogLevel, LoggingHandler delegate) {
+    this(summaryLogLevel, delegate, null);
+  }
+
+  /**
+   * Construct a new logging handler that summarizes the results of each assessment. The state of
+   * derived requirements managed by the provided {@link RequirementsManager} are tracked using the
+   * requirement's dense index, instead of by identifier.
+   * 
+   * @param summaryLogLevel
+   *          the logging level to use when logging the summary
+   * @param delegate
+   *          the logging handler to delegate to, or {@code null}
+   * @param requirementsManager
+   *          the requirements test results will be reported against, or {@code null} if not known
+   *          ahead of time
+   */
+  public AssessmentSummarizingLoggingHandler(Level summaryLogLevel, LoggingHandler delegate,
+      RequirementsManager requirementsManager) {
     super(delegate);
     this.summaryLogLevel = summaryLogLevel;
+    this.requirementsManager = requirementsManager;
   }
 
   /**
@@ -144,7 +166,7 @@ public class AssessmentSummarizingLoggingHandler
   }
 
   private AssessmentStats addAssessmentStats(Assessment<?> assessment) {
-    AssessmentStatsImpl retval = new AssessmentStatsImpl();
+    AssessmentStatsImpl retval = new AssessmentStatsImpl(requirementsManager);
     if (assessmentToStatsMap.put(assessment, retval) != null) {
       throw new IllegalStateException("Assessment has already been added");
     }
@@ -168,48 +190,37 @@ public class AssessmentSummarizingLoggingHandler
   }
 
   private static class AssessmentStatsImpl implements AssessmentStats {
-    private final EnumMap<TestStatus, Integer> testResultStatusToCountMap = new EnumMap<>(TestStatus.class);
+    private static final TestStatus[] STATUSES = TestStatus.values();
+    private final int[] testResultStatusCounts = new int[STATUSES.length];
     private int testResultCount = 0;
-    private final Map<String, TestState> derivedRequirementIdsToStateMap = new HashMap<>();
-    private final Map<String, TestStatus> derivedRequirementIdToTestStatusMap = new HashMap<>();
+    private final RequirementStateTable derivedRequirementStates;
+
+    public AssessmentStatsImpl(RequirementsManager requirementsManager) {
+      this.derivedRequirementStates = new RequirementStateTable(requirementsManager);
+    }
 
-    public void addTestResult(String derivedRequirementId, TestResult result) {
+    public synchronized void addTestResult(String derivedRequirementId, TestResult result) {
 
       TestStatus status = result.getStatus();
-      updateState(derivedRequirementId, TestState.TESTED);
-      updateStatus(derivedRequirementId, status);
+      int index = derivedRequirementStates.indexOf(derivedRequirementId);
+      if (index < 0) {
+        derivedRequirementStates.updateState(derivedRequirementId, TestState.TESTED);
+        derivedRequirementStates.updateStatus(derivedRequirementId, status);
+      } else {
+        derivedRequirementStates.updateState(index, TestState.TESTED);
+        derivedRequirementStates.updateStatus(index, status);
+      }
 
       // increment the status
-      Integer count = testResultStatusToCountMap.get(status);
-      if (count == null) {
-        count = 0;
-      }
-      count++;
-      testResultStatusToCountMap.put(status, count);
+      testResultStatusCounts[status.ordinal()]++;
 
       // increment the count of reported TestResult instances
       testResultCount++;
 
     }
 
-    public void assignTestStatus(String derivedRequirementId, TestState state) {
-      updateState(derivedRequirementId, state);
-    }
-
-    private void updateStatus(String derivedRequirementId, TestStatus status) {
-      // record the derived requirement result
-      TestStatus oldStatus = derivedRequirementIdToTestStatusMap.get(derivedRequirementId);
-      if (oldStatus == null || oldStatus.ordinal() < status.ordinal()) {
-        derivedRequirementIdToTestStatusMap.put(derivedRequirementId, status);
-      }
-    }
-
-    private void updateState(String derivedRequirementId, TestState state) {
-      // record the derived requirement result
-      TestState oldState = derivedRequirementIdsToStateMap.get(derivedRequirementId);
-      if (oldState == null || oldState.ordinal() < state.ordinal()) {
-        derivedRequirementIdsToStateMap.put(derivedRequirementId, state);
-      }
+    public synchronized void assignTestStatus(String derivedRequirementId, TestState state) {
+      derivedRequirementStates.updateState(derivedRequirementId, state);
     }
 
     /*
@@ -220,17 +231,7 @@ public class AssessmentSummarizingLoggingHandler
      */
     @Override
     public synchronized Map<TestState, Integer> getDerivedRequirementStateCount() {
-      Map<TestState, Integer> retval = new EnumMap<>(TestState.class);
-      for (Map.Entry<String, TestState> entry : derivedRequirementIdsToStateMap.entrySet()) {
-
-        TestState state = entry.getValue();
-        Integer count = retval.get(state);
-        if (count == null) {
-          count = 0;
-        }
-        retval.put(state, ++count);
-      }
-      return Collections.unmodifiableMap(retval);
+      return derivedRequirementStates.countStates();
     }
 
     /*
@@ -241,24 +242,7 @@ public class AssessmentSummarizingLoggingHandler
      */
     @Override
     public synchronized Map<TestStatus, Integer> getDerivedRequirementStatusCount() {
-      Map<TestStatus, Integer> retval = new EnumMap<>(TestStatus.class);
-      for (Map.Entry<String, TestState> entry : derivedRequirementIdsToStateMap.entrySet()) {
-        if (!TestState.TESTED.equals(entry.getValue())) {
-          continue;
-        }
-
-        String derivedRequirementId = entry.getKey();
-        TestStatus status = derivedRequirementIdToTestStatusMap.get(derivedRequirementId);
-        if (status == null) {
-          status = TestStatus.PASS;
-        }
-        Integer count = retval.get(status);
-        if (count == null) {
-          count = 0;
-        }
-        retval.put(status, ++count);
-      }
-      return Collections.unmodifiableMap(retval);
+      return derivedRequirementStates.countStatuses();
     }
 
     /*
@@ -268,7 +252,13 @@ public class AssessmentSummarizingLoggingHandler
      */
     @Override
     public synchronized Map<TestStatus, Integer> getTestResultStatusCount() {
-      return Collections.unmodifiableMap(testResultStatusToCountMap);
+      Map<TestStatus, Integer> retval = new EnumMap<>(TestStatus.class);
+      for (int i = 0; i < testResultStatusCounts.length; i++) {
+        if (testResultStatusCounts[i] > 0) {
+          retval.put(STATUSES[i], testResultStatusCounts[i]);
+        }
+      }
+      return Collections.unmodifiableMap(retval);
     }
 
     /*
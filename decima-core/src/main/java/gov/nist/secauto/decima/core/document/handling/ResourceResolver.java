@@ -33,4 +33,16 @@ import java.net.URL;
 
 public interface ResourceResolver<DOC extends Document> {
   DOC resolve(URL url) throws DocumentException;
+
+  /**
+   * Determines if a resolved document may also be provided to other callers, for example when
+   * resolved documents are cached. A caller that modifies a resolved document must first copy it,
+   * unless this method returns {@code false}.
+   * 
+   * @return {@code true} if resolved documents may be shared, or {@code false} if each resolved
+   *         document is a new instance that belongs to the caller
+   */
+  default boolean providesSharedDocuments() {
+    return true;
+  }
 }
@@ -85,6 +85,16 @@ public class DefaultDerivedRequirement
     return conditional;
   }
 
+  /**
+   * Retrieves the message template used to produce the message text.
+   * 
+   * @return the message template, or {@code null} if no template was provided
+   * @see #getMessageText(String...)
+   */
+  public String getMessage() {
+    return message;
+  }
+
   @Override
   public String getMessageText(String... args) {
     String retval = null;
@@ -29,18 +29,28 @@ package gov.nist.secauto.decima.core.requirement;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 public class DefaultRequirementsManager implements MutableRequirementsManager, RequirementAppender {
 
   private List<URI> requirementDefinitions = new LinkedList<>();
-  private Map<String, BaseRequirement> baseRequirements = new LinkedHashMap<>();
-  private Map<String, DerivedRequirement> derivedRequirements = new LinkedHashMap<>();
+  private List<BaseRequirement> baseRequirements = new ArrayList<>();
+  private Map<String, Integer> baseRequirementIndexMap = new HashMap<>();
+  private List<DerivedRequirement> derivedRequirements = new ArrayList<>();
+  private Map<String, Integer> derivedRequirementIndexMap = new HashMap<>();
 
   public DefaultRequirementsManager() {
   }
@@ -57,32 +67,69 @@ public class DefaultRequirementsManager implements MutableRequirementsManager, R
 
   @Override
   public BaseRequirement getBaseRequirementById(String id) {
-    return baseRequirements.get(id);
+    Integer index = baseRequirementIndexMap.get(id);
+    return index == null ? null : baseRequirements.get(index);
   }
 
   @Override
   public Collection<BaseRequirement> getBaseRequirements() {
-    return baseRequirements.values();
+    return Collections.unmodifiableList(baseRequirements);
   }
 
   @Override
   public DerivedRequirement getDerivedRequirementById(String id) {
-    return derivedRequirements.get(id);
+    Integer index = derivedRequirementIndexMap.get(id);
+    return index == null ? null : derivedRequirements.get(index);
+  }
+
+  @Override
+  public int getBaseRequirementIndex(String id) {
+    Integer index = baseRequirementIndexMap.get(id);
+    return index == null ? -1 : index;
+  }
+
+  @Override
+  public int getBaseRequirementCount() {
+    return baseRequirements.size();
+  }
+
+  @Override
+  public int getDerivedRequirementIndex(String id) {
+    Integer index = derivedRequirementIndexMap.get(id);
+    return index == null ? -1 : index;
+  }
+
+  @Override
+  public int getDerivedRequirementCount() {
+    return derivedRequirements.size();
+  }
+
+  @Override
+  public DerivedRequirement getDerivedRequirementByIndex(int index) {
+    return derivedRequirements.get(index);
   }
 
   @Override
   public DefaultRequirementsManager addBaseRequirement(BaseRequirement baseRequirement) {
-    if (baseRequirements.containsKey(baseRequirement.getId())) {
+    if (baseRequirementIndexMap.containsKey(baseRequirement.getId())) {
       throw new IllegalArgumentException("A base requirement already exists with the id: " + baseRequirement.getId());
     }
-    baseRequirements.put(baseRequirement.getId(), baseRequirement);
 
-    for (DerivedRequirement derivedRequirement : baseRequirement.getDerivedRequirements()) {
-      if (derivedRequirements.containsKey(derivedRequirement.getId())) {
+    // check the derived requirements first, so that a failure leaves the indexes unchanged
+    Collection<DerivedRequirement> derived = baseRequirement.getDerivedRequirements();
+    for (DerivedRequirement derivedRequirement : derived) {
+      if (derivedRequirementIndexMap.containsKey(derivedRequirement.getId())) {
         throw new IllegalArgumentException(
             "A derived requirement already exists with the id: " + derivedRequirement.getId());
       }
-      derivedRequirements.put(derivedRequirement.getId(), derivedRequirement);
+    }
+
+    baseRequirementIndexMap.put(baseRequirement.getId(), baseRequirements.size());
+    baseRequirements.add(baseRequirement);
+
+    for (DerivedRequirement derivedRequirement : derived) {
+      derivedRequirementIndexMap.put(derivedRequirement.getId(), derivedRequirements.size());
+      derivedRequirements.add(derivedRequirement);
     }
     return this;
   }
@@ -94,4 +141,77 @@ public class DefaultRequirementsManager implements MutableRequirementsManager, R
     // addRequirementDefinition(url.toURI());
     return this;
   }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The definitions are parsed concurrently using the executor. Parsers are reused once a parse has
+   * completed. Once all definitions have been parsed, the requirements are added in the order the
+   * definitions are provided. If any definition fails to parse, no requirements are added and the
+   * error for the first such definition is thrown.
+   */
+  @Override
+  public DefaultRequirementsManager loadAll(List<URL> urls, Supplier<? extends RequirementsParser> parserFactory,
+      Executor executor) throws RequirementsParserException, URISyntaxException {
+    Objects.requireNonNull(urls, "urls");
+    Objects.requireNonNull(parserFactory, "parserFactory");
+    Objects.requireNonNull(executor, "executor");
+
+    // parsers that are not currently in use
+    Queue<RequirementsParser> parsers = new ConcurrentLinkedQueue<>();
+
+    List<CompletableFuture<DefaultRequirementsManager>> futures = new ArrayList<>(urls.size());
+    for (URL url : urls) {
+      CompletableFuture<DefaultRequirementsManager> future = new CompletableFuture<>();
+      futures.add(future);
+      executor.execute(() -> {
+        try {
+          RequirementsParser parser = parsers.poll();
+          if (parser == null) {
+            parser = parserFactory.get();
+          }
+          try {
+            // each definition is parsed into its own manager, which are merged once all are parsed
+            DefaultRequirementsManager definition = new DefaultRequirementsManager();
+            parser.parse(url, definition);
+            future.complete(definition);
+          } finally {
+            parsers.offer(parser);
+          }
+        } catch (Throwable ex) {
+          // the future must always complete, since it is waited on below
+          future.completeExceptionally(ex);
+        }
+      });
+    }
+
+    List<DefaultRequirementsManager> definitions = new ArrayList<>(futures.size());
+    for (CompletableFuture<DefaultRequirementsManager> future : futures) {
+      try {
+        definitions.add(future.join());
+      } catch (CompletionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof RequirementsParserException) {
+          throw (RequirementsParserException) cause;
+        } else if (cause instanceof URISyntaxException) {
+          throw (URISyntaxException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw ex;
+      }
+    }
+
+    for (DefaultRequirementsManager definition : definitions) {
+      for (URI uri : definition.getRequirementDefinitions()) {
+        addRequirementDefinition(uri);
+      }
+      for (BaseRequirement baseRequirement : definition.getBaseRequirements()) {
+        addBaseRequirement(baseRequirement);
+      }
+    }
+    return this;
+  }
 }
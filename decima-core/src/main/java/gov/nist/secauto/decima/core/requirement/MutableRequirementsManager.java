@@ -28,9 +28,46 @@ package gov.nist.secauto.decima.core.requirement;
 
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 public interface MutableRequirementsManager extends RequirementsManager {
 
   MutableRequirementsManager load(URL url, RequirementsParser parser)
       throws RequirementsParserException, URISyntaxException;
+
+  /**
+   * Loads multiple requirements definitions, resulting in the same requirement ordering and duplicate
+   * identifier detection as calling {@link #load(URL, RequirementsParser)} for each definition in
+   * turn. Since a {@link RequirementsParser} is not required to be thread safe, a parser used to
+   * parse definitions concurrently is obtained from the provided factory.
+   * <p>
+   * The default implementation loads the definitions one at a time on the calling thread, using a
+   * single parser, and ignores the executor. Implementations can parse the definitions concurrently
+   * using the executor.
+   * 
+   * @param urls
+   *          the requirements definitions to load
+   * @param parserFactory
+   *          a factory that creates a new parser each time it is called
+   * @param executor
+   *          the executor to parse the definitions with
+   * @return the updated requirements manager
+   * @throws RequirementsParserException
+   *           if an error occurred while parsing a requirements definition
+   * @throws URISyntaxException
+   *           if a requirements definition location is not a valid URI
+   */
+  default MutableRequirementsManager loadAll(List<URL> urls, Supplier<? extends RequirementsParser> parserFactory,
+      Executor executor) throws RequirementsParserException, URISyntaxException {
+    MutableRequirementsManager retval = this;
+    if (!urls.isEmpty()) {
+      RequirementsParser parser = parserFactory.get();
+      for (URL url : urls) {
+        retval = retval.load(url, parser);
+      }
+    }
+    return retval;
+  }
 }
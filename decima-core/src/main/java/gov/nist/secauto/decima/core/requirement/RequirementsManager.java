@@ -58,4 +58,65 @@ public interface RequirementsManager {
    * @return the requirement or <code>null</code> if not found
    */
   DerivedRequirement getDerivedRequirementById(String requirementID);
+
+  /**
+   * Returns the dense index assigned to the identified base requirement. Indexes are stable for the
+   * life of this manager and range from {@code 0} to {@link #getBaseRequirementCount()} - 1, allowing
+   * per-requirement data to be kept in arrays instead of maps keyed by identifier.
+   * <p>
+   * Implementations that do not index their requirements return {@code -1}.
+   * 
+   * @param requirementID
+   *          the identifier string of the requirement
+   * @return the index, or {@code -1} if the requirement is not found or is not indexed
+   */
+  default int getBaseRequirementIndex(String requirementID) {
+    return -1;
+  }
+
+  /**
+   * Returns the number of indexed base requirements.
+   * 
+   * @return the count, or {@code 0} if the requirements are not indexed
+   */
+  default int getBaseRequirementCount() {
+    return 0;
+  }
+
+  /**
+   * Returns the dense index assigned to the identified derived requirement. Indexes are stable for
+   * the life of this manager and range from {@code 0} to {@link #getDerivedRequirementCount()} - 1.
+   * The derived requirements of a given base requirement are assigned consecutive indexes.
+   * <p>
+   * Implementations that do not index their requirements return {@code -1}.
+   * 
+   * @param requirementID
+   *          the identifier string of the requirement
+   * @return the index, or {@code -1} if the requirement is not found or is not indexed
+   */
+  default int getDerivedRequirementIndex(String requirementID) {
+    return -1;
+  }
+
+  /**
+   * Returns the number of indexed derived requirements.
+   * 
+   * @return the count, or {@code 0} if the requirements are not indexed
+   */
+  default int getDerivedRequirementCount() {
+    return 0;
+  }
+
+  /**
+   * Returns the DerivedRequirement assigned to the provided index.
+   * 
+   * @param index
+   *          an index returned by {@link #getDerivedRequirementIndex(String)}
+   * @return the requirement
+   * @throws IndexOutOfBoundsException
+   *           if the index is not assigned
+   */
+  default DerivedRequirement getDerivedRequirementByIndex(int index) {
+    throw new IndexOutOfBoundsException(Integer.toString(index));
+  }
 }
@@ -0,0 +1,484 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.requirement;
+
+import gov.nist.secauto.decima.core.util.InputStreamUtil;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compact binary representation of the requirements held by a {@link RequirementsManager},
+ * including the specifications, metadata and message templates of each requirement. Loading a
+ * snapshot avoids validating and parsing the requirements definitions, and is performed using a
+ * single sequential read.
+ * <p>
+ * A snapshot records a SHA-256 hash of the content of each requirements definition it was created
+ * from. Before using a snapshot, callers are expected to check that it is current using
+ * {@link #matches(List)} or {@link #isCurrent()}. The {@link #load(URL, List, RequirementsParser)}
+ * method performs this check, falling back to parsing the definitions if the snapshot is missing or
+ * out of date.
+ * <p>
+ * All strings are stored once in a shared string table, and referenced by index.
+ */
+public final class RequirementsSnapshot {
+  private static final Logger log = LogManager.getLogger(RequirementsSnapshot.class);
+  private static final int MAGIC = 0x44525153; // "DRQS"
+  private static final int VERSION = 1;
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final RequirementType[] REQUIREMENT_TYPES = RequirementType.values();
+
+  private final List<URI> definitions;
+  private final List<byte[]> definitionHashes;
+  private final DefaultRequirementsManager requirementsManager;
+
+  private RequirementsSnapshot(List<URI> definitions, List<byte[]> definitionHashes,
+      DefaultRequirementsManager requirementsManager) {
+    this.definitions = Collections.unmodifiableList(definitions);
+    this.definitionHashes = definitionHashes;
+    this.requirementsManager = requirementsManager;
+  }
+
+  /**
+   * Retrieves the requirements definitions the snapshot was created from.
+   * 
+   * @return the locations of the requirements definitions
+   */
+  public List<URI> getRequirementDefinitions() {
+    return definitions;
+  }
+
+  /**
+   * Retrieves the requirements stored in the snapshot.
+   * 
+   * @return a manager containing the requirements
+   */
+  public DefaultRequirementsManager getRequirementsManager() {
+    return requirementsManager;
+  }
+
+  /**
+   * Determines if the content of the provided requirements definitions is the same as the content
+   * the snapshot was created from. The definitions are compared in order, which allows the
+   * definitions to be located differently than when the snapshot was created.
+   * 
+   * @param sources
+   *          the current requirements definitions
+   * @return {@code true} if the snapshot matches the definitions, or {@code false} otherwise
+   */
+  public boolean matches(List<URL> sources) {
+    if (sources.size() != definitionHashes.size()) {
+      return false;
+    }
+    for (int i = 0; i < sources.size(); i++) {
+      try {
+        if (!Arrays.equals(definitionHashes.get(i), hash(sources.get(i)))) {
+          log.debug("The requirements definition has changed since the snapshot was created: {}", sources.get(i));
+          return false;
+        }
+      } catch (IOException ex) {
+        log.debug("Unable to read the requirements definition: " + sources.get(i), ex);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Determines if the requirements definitions the snapshot was created from are unchanged, reading
+   * them from their recorded locations.
+   * 
+   * @return {@code true} if the snapshot is current, or {@code false} otherwise
+   */
+  public boolean isCurrent() {
+    List<URL> sources = new ArrayList<>(definitions.size());
+    for (URI definition : definitions) {
+      try {
+        sources.add(definition.toURL());
+      } catch (IOException | IllegalArgumentException ex) {
+        return false;
+      }
+    }
+    return matches(sources);
+  }
+
+  /**
+   * Loads requirements from a snapshot, if it is current for the provided requirements definitions.
+   * Otherwise, the requirements are parsed from the definitions using the provided parser.
+   * 
+   * @param snapshot
+   *          the location of the snapshot
+   * @param sources
+   *          the requirements definitions the snapshot is expected to be created from
+   * @param parser
+   *          the parser to use if the snapshot cannot be used
+   * @return a manager containing the requirements
+   * @throws RequirementsParserException
+   *           if an error occurred while parsing the requirements definitions
+   * @throws URISyntaxException
+   *           if a requirements definition location is not a valid URI
+   */
+  public static RequirementsManager load(URL snapshot, List<URL> sources, RequirementsParser parser)
+      throws RequirementsParserException, URISyntaxException {
+    try (InputStream is = InputStreamUtil.open(snapshot)) {
+      RequirementsSnapshot retval = read(is);
+      if (retval.matches(sources)) {
+        log.debug("Loaded requirements from the snapshot: {}", snapshot);
+        return retval.getRequirementsManager();
+      }
+      log.info("The requirements snapshot is out of date, parsing the requirements definitions instead: {}",
+          snapshot);
+    } catch (IOException ex) {
+      log.info("Unable to load the requirements snapshot, parsing the requirements definitions instead: {}",
+          snapshot);
+      log.debug("Unable to load the requirements snapshot", ex);
+    }
+
+    DefaultRequirementsManager retval = new DefaultRequirementsManager();
+    for (URL source : sources) {
+      retval.load(source, parser);
+    }
+    return retval;
+  }
+
+  /**
+   * Writes a snapshot of the provided requirements to a file.
+   * 
+   * @param requirementsManager
+   *          the requirements to write
+   * @param file
+   *          the file to write to
+   * @throws IOException
+   *           if an error occurred while reading a requirements definition or writing the snapshot
+   */
+  public static void write(RequirementsManager requirementsManager, File file) throws IOException {
+    try (OutputStream os = new FileOutputStream(file)) {
+      write(requirementsManager, os);
+    }
+  }
+
+  /**
+   * Writes a snapshot of the provided requirements. The requirements definitions of the manager are
+   * read to record their content hash.
+   * 
+   * @param requirementsManager
+   *          the requirements to write
+   * @param os
+   *          the stream to write to, which is not closed
+   * @throws IOException
+   *           if an error occurred while reading a requirements definition or writing the snapshot
+   */
+  public static void write(RequirementsManager requirementsManager, OutputStream os) throws IOException {
+    StringTable strings = new StringTable();
+
+    // the body is written first, since it determines the content of the string table
+    ByteArrayOutputStream body = new ByteArrayOutputStream(BUFFER_SIZE);
+    DataOutputStream out = new DataOutputStream(body);
+
+    Map<Specification, Integer> specificationIndexes = new IdentityHashMap<>();
+    List<Specification> specifications = new ArrayList<>();
+    for (BaseRequirement base : requirementsManager.getBaseRequirements()) {
+      Specification specification = base.getSpecificationReference().getSpecification();
+      if (specification != null && !specificationIndexes.containsKey(specification)) {
+        specificationIndexes.put(specification, specifications.size());
+        specifications.add(specification);
+      }
+    }
+
+    out.writeInt(specifications.size());
+    for (Specification specification : specifications) {
+      out.writeInt(strings.indexOf(specification.getId()));
+      out.writeInt(strings.indexOf(specification.getHref() == null ? null : specification.getHref().toString()));
+    }
+
+    Collection<BaseRequirement> baseRequirements = requirementsManager.getBaseRequirements();
+    out.writeInt(baseRequirements.size());
+    for (BaseRequirement base : baseRequirements) {
+      out.writeInt(strings.indexOf(base.getId()));
+      out.writeInt(strings.indexOf(base.getStatement()));
+
+      SpecificationReference reference = base.getSpecificationReference();
+      Specification specification = reference.getSpecification();
+      out.writeInt(specification == null ? -1 : specificationIndexes.get(specification));
+      out.writeInt(strings.indexOf(reference.getSection()));
+      out.writeInt(strings.indexOf(getSectionFragment(reference)));
+      out.writeInt(strings.indexOf(getRequirementFragment(reference)));
+      writeMetadata(base.getMetadataTagValueMap(), out, strings);
+
+      Collection<DerivedRequirement> derivedRequirements = base.getDerivedRequirements();
+      out.writeInt(derivedRequirements.size());
+      for (DerivedRequirement derived : derivedRequirements) {
+        out.writeInt(strings.indexOf(derived.getId()));
+        out.writeInt(strings.indexOf(derived.getStatement()));
+        out.writeByte(derived.getType().ordinal());
+        out.writeBoolean(derived.isConditional());
+        String message = derived instanceof DefaultDerivedRequirement
+            ? ((DefaultDerivedRequirement) derived).getMessage()
+            : derived.getMessageText();
+        out.writeInt(strings.indexOf(message));
+        // the base requirement's metadata is merged in again when loaded, which has no effect
+        writeMetadata(derived.getMetadataTagValueMap(), out, strings);
+      }
+    }
+    out.flush();
+
+    DataOutputStream header = new DataOutputStream(new BufferedOutputStream(os, BUFFER_SIZE));
+    header.writeInt(MAGIC);
+    header.writeInt(VERSION);
+
+    List<URI> definitions = requirementsManager.getRequirementDefinitions();
+    header.writeInt(definitions.size());
+    for (URI definition : definitions) {
+      writeString(definition.toString(), header);
+      header.write(hash(definition.toURL()));
+    }
+
+    List<String> table = strings.getStrings();
+    header.writeInt(table.size());
+    for (String str : table) {
+      writeString(str, header);
+    }
+    body.writeTo(header);
+    header.flush();
+  }
+
+  /**
+   * Reads a snapshot.
+   * 
+   * @param is
+   *          the stream to read from, which is not closed
+   * @return the snapshot
+   * @throws IOException
+   *           if an error occurred while reading the snapshot, or the stream is not a valid snapshot
+   */
+  public static RequirementsSnapshot read(InputStream is) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(is, BUFFER_SIZE));
+    if (in.readInt() != MAGIC) {
+      throw new IOException("The stream does not contain a requirements snapshot");
+    }
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported requirements snapshot version: " + version);
+    }
+
+    int definitionCount = in.readInt();
+    List<URI> definitions = new ArrayList<>(definitionCount);
+    List<byte[]> definitionHashes = new ArrayList<>(definitionCount);
+    for (int i = 0; i < definitionCount; i++) {
+      definitions.add(URI.create(readString(in)));
+      byte[] hash = new byte[newDigest().getDigestLength()];
+      in.readFully(hash);
+      definitionHashes.add(hash);
+    }
+
+    String[] strings = new String[in.readInt()];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = readString(in);
+    }
+
+    DefaultRequirementsManager requirementsManager = new DefaultRequirementsManager();
+    for (URI definition : definitions) {
+      requirementsManager.addRequirementDefinition(definition);
+    }
+
+    Specification[] specifications = new Specification[in.readInt()];
+    for (int i = 0; i < specifications.length; i++) {
+      String id = lookup(strings, in.readInt());
+      String href = lookup(strings, in.readInt());
+      specifications[i] = new DefaultSpecification(id, href == null ? null : URI.create(href));
+    }
+
+    int baseCount = in.readInt();
+    for (int i = 0; i < baseCount; i++) {
+      String id = lookup(strings, in.readInt());
+      String statement = lookup(strings, in.readInt());
+      int specificationIndex = in.readInt();
+      SpecificationReference reference = new DefaultSpecificationReference(
+          specificationIndex < 0 ? null : specifications[specificationIndex], lookup(strings, in.readInt()),
+          lookup(strings, in.readInt()), lookup(strings, in.readInt()));
+      DefaultBaseRequirement base = new DefaultBaseRequirement(id, statement, reference);
+      readMetadata(base, in, strings);
+
+      int derivedCount = in.readInt();
+      for (int j = 0; j < derivedCount; j++) {
+        String derivedId = lookup(strings, in.readInt());
+        String derivedStatement = lookup(strings, in.readInt());
+        RequirementType type = REQUIREMENT_TYPES[in.readUnsignedByte()];
+        boolean conditional = in.readBoolean();
+        String message = lookup(strings, in.readInt());
+        DefaultDerivedRequirement derived
+            = new DefaultDerivedRequirement(base, derivedId, derivedStatement, type, conditional, message);
+        readMetadata(derived, in, strings);
+        base.addDerivedRequirement(derived);
+      }
+      requirementsManager.addBaseRequirement(base);
+    }
+    return new RequirementsSnapshot(definitions, definitionHashes, requirementsManager);
+  }
+
+  private static String getSectionFragment(SpecificationReference reference) throws IOException {
+    if (reference instanceof DefaultSpecificationReference) {
+      return ((DefaultSpecificationReference) reference).getSectionFragment();
+    }
+    try {
+      return reference.getSpecification() == null ? null : reference.getSectionURI().getFragment();
+    } catch (URISyntaxException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  private static String getRequirementFragment(SpecificationReference reference) throws IOException {
+    if (reference instanceof DefaultSpecificationReference) {
+      return ((DefaultSpecificationReference) reference).getRequirementFragment();
+    }
+    try {
+      return reference.getSpecification() == null ? null : reference.getRequirementURI().getFragment();
+    } catch (URISyntaxException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  private static void writeMetadata(Map<String, Set<String>> metadata, DataOutputStream out, StringTable strings)
+      throws IOException {
+    out.writeInt(metadata.size());
+    for (Map.Entry<String, Set<String>> entry : metadata.entrySet()) {
+      out.writeInt(strings.indexOf(entry.getKey()));
+      out.writeInt(entry.getValue().size());
+      for (String value : entry.getValue()) {
+        out.writeInt(strings.indexOf(value));
+      }
+    }
+  }
+
+  private static void readMetadata(AbstractRequirement requirement, DataInputStream in, String[] strings)
+      throws IOException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      String name = lookup(strings, in.readInt());
+      int valueCount = in.readInt();
+      for (int j = 0; j < valueCount; j++) {
+        requirement.addMetadata(name, lookup(strings, in.readInt()));
+      }
+    }
+  }
+
+  private static void writeString(String str, DataOutputStream out) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static String lookup(String[] strings, int index) throws IOException {
+    if (index < 0) {
+      return null;
+    }
+    if (index >= strings.length) {
+      throw new IOException("Invalid string reference in the requirements snapshot: " + index);
+    }
+    return strings[index];
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(HASH_ALGORITHM);
+    } catch (NoSuchAlgorithmException ex) {
+      // every Java platform is required to support SHA-256
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static byte[] hash(URL source) throws IOException {
+    MessageDigest digest = newDigest();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (InputStream is = InputStreamUtil.open(source)) {
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Assigns each distinct string an index, in the order the strings are first seen.
+   */
+  private static class StringTable {
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    public int indexOf(String str) {
+      if (str == null) {
+        return -1;
+      }
+      Integer retval = indexes.get(str);
+      if (retval == null) {
+        retval = strings.size();
+        indexes.put(str, retval);
+        strings.add(str);
+      }
+      return retval;
+    }
+
+    public List<String> getStrings() {
+      return strings;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.util;
+
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Provides a means to bound how many CPU-bound operations, such as XSL transformations, run at
+ * once. An executor running many tasks on cheap threads can {@link #bind(Semaphore, Runnable)} a
+ * shared {@link Semaphore} to each task. Code performing a CPU-bound operation then surrounds it
+ * with a {@link Permit} obtained from {@link #acquire()}. When no semaphore is bound to the current
+ * thread, acquiring a permit does nothing.
+ */
+public class ComputePermitUtil {
+  private static final ThreadLocal<Semaphore> SEMAPHORE = new ThreadLocal<>();
+  private static final Permit NO_PERMIT = () -> {
+  };
+
+  private ComputePermitUtil() {
+    // disable construction
+  }
+
+  /**
+   * Wraps the provided task, so that the provided semaphore bounds the CPU-bound operations performed
+   * while the task runs.
+   * 
+   * @param semaphore
+   *          the semaphore to acquire permits from
+   * @param task
+   *          the task to wrap
+   * @return the wrapped task
+   */
+  public static Runnable bind(Semaphore semaphore, Runnable task) {
+    Objects.requireNonNull(semaphore, "semaphore");
+    Objects.requireNonNull(task, "task");
+    return () -> {
+      Semaphore previous = SEMAPHORE.get();
+      SEMAPHORE.set(semaphore);
+      try {
+        task.run();
+      } finally {
+        if (previous == null) {
+          SEMAPHORE.remove();
+        } else {
+          SEMAPHORE.set(previous);
+        }
+      }
+    };
+  }
+
+  /**
+   * Acquires a permit from the semaphore bound to the current thread, waiting if needed. The permit
+   * must be closed once the CPU-bound operation completes.
+   * 
+   * @return the acquired permit
+   * @throws InterruptedException
+   *           if the current thread was interrupted while waiting for a permit
+   */
+  public static Permit acquire() throws InterruptedException {
+    Semaphore semaphore = SEMAPHORE.get();
+    if (semaphore == null) {
+      return NO_PERMIT;
+    }
+    semaphore.acquire();
+    return semaphore::release;
+  }
+
+  /**
+   * A permit to perform a CPU-bound operation, which is released when closed.
+   */
+  @FunctionalInterface
+  public interface Permit extends AutoCloseable {
+    @Override
+    void close();
+  }
+}
@@ -0,0 +1,194 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.util;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Opens document input streams, reading large local files through a memory mapping and
+ * transparently decompressing gzip, zip, and Zstandard encoded content.
+ * <p>
+ * The compression format is detected from the leading bytes of the content, so the file extension
+ * does not need to match. A zip archive is read from its first file entry; a specific entry of a
+ * multi-entry archive can be loaded using a {@code jar:} URL (i.e.
+ * {@code jar:file:/bundle.zip!/document.xml}). Zstandard decoding requires the optional
+ * {@code com.github.luben:zstd-jni} library on the classpath.
+ */
+public class InputStreamUtil {
+  /**
+   * The size in bytes at or above which local files are read through a memory mapping.
+   */
+  public static final long MAPPING_THRESHOLD = 1024 * 1024;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MAGIC_LENGTH = 4;
+  private static final String ZSTD_INPUT_STREAM_CLASS = "com.github.luben.zstd.ZstdInputStream";
+
+  /**
+   * Opens the provided local file for reading, decompressing the content if needed.
+   * 
+   * @param file
+   *          the file to read
+   * @return a stream of the file's decompressed content
+   * @throws FileNotFoundException
+   *           if the file does not exist or is not a regular file
+   * @throws IOException
+   *           if an error occurred while opening the file
+   */
+  public static InputStream open(File file) throws IOException {
+    InputStream is;
+    if (file.length() >= MAPPING_THRESHOLD) {
+      is = new MappedFileInputStream(file);
+    } else {
+      is = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+    }
+    try {
+      return decode(is);
+    } catch (IOException e) {
+      is.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens the provided URL for reading, decompressing the content if needed. {@code file:} URLs are
+   * read as a local file using {@link #open(File)}.
+   * 
+   * @param url
+   *          the location to read
+   * @return a stream of the location's decompressed content
+   * @throws IOException
+   *           if an error occurred while opening the location
+   */
+  public static InputStream open(URL url) throws IOException {
+    if ("file".equals(url.getProtocol())) {
+      File file;
+      try {
+        file = new File(url.toURI());
+      } catch (URISyntaxException | IllegalArgumentException e) {
+        file = null;
+      }
+      if (file != null) {
+        return open(file);
+      }
+    }
+
+    InputStream is = new BufferedInputStream(url.openStream(), BUFFER_SIZE);
+    try {
+      return decode(is);
+    } catch (IOException e) {
+      is.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Wraps the provided stream with a decoder matching the compression format identified by the
+   * stream's leading bytes. Content that is not compressed is returned as-is.
+   * 
+   * @param is
+   *          the stream to decode, which is closed when the returned stream is closed
+   * @return a stream of the decompressed content
+   * @throws IOException
+   *           if an error occurred while reading the stream, or if the compression format is not
+   *           supported
+   */
+  public static InputStream decode(InputStream is) throws IOException {
+    PushbackInputStream pis = new PushbackInputStream(is, MAGIC_LENGTH);
+    byte[] magic = new byte[MAGIC_LENGTH];
+    int length = 0;
+    int count;
+    while (length < MAGIC_LENGTH && (count = pis.read(magic, length, MAGIC_LENGTH - length)) != -1) {
+      length += count;
+    }
+    pis.unread(magic, 0, length);
+
+    InputStream retval;
+    if (matches(magic, length, 0x1F, 0x8B)) {
+      retval = new GZIPInputStream(pis, BUFFER_SIZE);
+    } else if (matches(magic, length, 'P', 'K', 0x03, 0x04)) {
+      retval = newZipEntryStream(pis);
+    } else if (matches(magic, length, 0x28, 0xB5, 0x2F, 0xFD)) {
+      retval = newZstdStream(pis);
+    } else {
+      retval = pis;
+    }
+    return retval;
+  }
+
+  private static boolean matches(byte[] magic, int length, int... expected) {
+    if (length < expected.length) {
+      return false;
+    }
+    for (int i = 0; i < expected.length; i++) {
+      if ((magic[i] & 0xFF) != expected[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static InputStream newZipEntryStream(InputStream is) throws IOException {
+    ZipInputStream zis = new ZipInputStream(is);
+    ZipEntry entry;
+    while ((entry = zis.getNextEntry()) != null) {
+      if (!entry.isDirectory()) {
+        return zis;
+      }
+    }
+    throw new IOException("The zip archive does not contain a file entry");
+  }
+
+  private static InputStream newZstdStream(InputStream is) throws IOException {
+    try {
+      Class<?> clazz = Class.forName(ZSTD_INPUT_STREAM_CLASS);
+      return new BufferedInputStream((InputStream) clazz.getConstructor(InputStream.class).newInstance(is),
+          BUFFER_SIZE);
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Zstandard compressed content requires '" + ZSTD_INPUT_STREAM_CLASS
+          + "' from com.github.luben:zstd-jni on the classpath", e);
+    } catch (ReflectiveOperationException e) {
+      throw new IOException("Unable to initialize the Zstandard decoder", e);
+    }
+  }
+
+  private InputStreamUtil() {
+    // disable construction
+  }
+}
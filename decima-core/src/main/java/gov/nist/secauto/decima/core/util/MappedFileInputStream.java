@@ -0,0 +1,172 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.util;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An {@link InputStream} that reads a local file through a read-only memory mapping of its
+ * {@link FileChannel}. The file is mapped in windows of at most {@link #DEFAULT_WINDOW_SIZE} bytes,
+ * allowing files larger than a single mapping to be read.
+ * <p>
+ * The mappings are released by the garbage collector once the stream is no longer referenced.
+ * Instances are not thread-safe.
+ */
+public class MappedFileInputStream
+    extends InputStream {
+  public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  private final FileChannel channel;
+  private final long size;
+  private final int windowSize;
+  private long windowStart;
+  private ByteBuffer buffer;
+
+  public MappedFileInputStream(File file) throws IOException {
+    this(file, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Opens the provided file for reading.
+   * 
+   * @param file
+   *          the file to read
+   * @param windowSize
+   *          the maximum number of bytes to map at one time
+   * @throws FileNotFoundException
+   *           if the file does not exist or is not a regular file
+   * @throws IOException
+   *           if an error occurred while opening or mapping the file
+   */
+  public MappedFileInputStream(File file, int windowSize) throws IOException {
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("windowSize must be positive");
+    }
+    if (!file.isFile()) {
+      throw new FileNotFoundException(file.getPath());
+    }
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    this.size = channel.size();
+    this.windowSize = windowSize;
+    this.windowStart = 0;
+    try {
+      this.buffer = map(0);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private MappedByteBuffer map(long position) throws IOException {
+    long length = Math.min(windowSize, size - position);
+    return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+  }
+
+  /**
+   * Makes sure the current window has remaining bytes, advancing to the next window if needed.
+   * 
+   * @return {@code true} if there are bytes to read, or {@code false} at the end of the file
+   * @throws IOException
+   *           if the stream is closed or the next window cannot be mapped
+   */
+  private boolean ensureRemaining() throws IOException {
+    if (buffer == null) {
+      throw new IOException("Stream closed");
+    }
+    if (!buffer.hasRemaining()) {
+      long next = windowStart + buffer.limit();
+      if (next >= size) {
+        return false;
+      }
+      windowStart = next;
+      buffer = map(next);
+    }
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return ensureRemaining() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    if (offset < 0 || length < 0 || length > bytes.length - offset) {
+      throw new IndexOutOfBoundsException();
+    } else if (length == 0) {
+      return 0;
+    }
+    if (!ensureRemaining()) {
+      return -1;
+    }
+    int count = Math.min(length, buffer.remaining());
+    buffer.get(bytes, offset, count);
+    return count;
+  }
+
+  @Override
+  public long skip(long count) throws IOException {
+    if (count <= 0 || !ensureRemaining()) {
+      return 0;
+    }
+    long position = windowStart + buffer.position();
+    long skipped = Math.min(count, size - position);
+    long target = position + skipped;
+    if (target < windowStart + buffer.limit()) {
+      buffer.position((int) (target - windowStart));
+    } else if (target < size) {
+      windowStart = target;
+      buffer = map(target);
+    } else {
+      windowStart = size;
+      buffer = ByteBuffer.allocate(0);
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    if (buffer == null) {
+      throw new IOException("Stream closed");
+    }
+    return (int) Math.min(Integer.MAX_VALUE, size - windowStart - buffer.position());
+  }
+
+  @Override
+  public void close() throws IOException {
+    buffer = null;
+    channel.close();
+  }
+}
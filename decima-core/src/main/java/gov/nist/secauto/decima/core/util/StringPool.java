@@ -0,0 +1,124 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.core.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns a dense, stable integer identifier to each distinct string added to the pool. This allows
+ * values that repeat across a large number of records (e.g., requirement identifiers, system
+ * identifiers) to be stored once and referenced by index from primitive arrays.
+ * <p>
+ * This class is not thread-safe. Callers must provide their own synchronization.
+ */
+public class StringPool {
+  private final Map<String, Integer> stringToIndexMap;
+  private String[] strings;
+  private int size;
+
+  public StringPool() {
+    this(16);
+  }
+
+  /**
+   * Construct a new pool with the provided initial capacity.
+   * 
+   * @param initialCapacity
+   *          the number of distinct strings to size the pool for
+   */
+  public StringPool(int initialCapacity) {
+    this.stringToIndexMap = new HashMap<>(initialCapacity);
+    this.strings = new String[Math.max(initialCapacity, 1)];
+  }
+
+  /**
+   * Retrieves the index of the provided string, adding the string to the pool if it has not been
+   * previously added.
+   * 
+   * @param value
+   *          the string to add, or {@code null}
+   * @return the index of the string, or {@code -1} if the value is {@code null}
+   */
+  public int add(String value) {
+    if (value == null) {
+      return -1;
+    }
+
+    Integer index = stringToIndexMap.get(value);
+    if (index == null) {
+      if (size == strings.length) {
+        strings = Arrays.copyOf(strings, size * 2);
+      }
+      index = size;
+      strings[size++] = value;
+      stringToIndexMap.put(value, index);
+    }
+    return index;
+  }
+
+  /**
+   * Retrieves the index of the provided string without adding it to the pool.
+   * 
+   * @param value
+   *          the string to lookup
+   * @return the index of the string, or {@code -1} if the string is not in the pool
+   */
+  public int indexOf(String value) {
+    Integer index = value == null ? null : stringToIndexMap.get(value);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Retrieves the pooled string for the provided index.
+   * 
+   * @param index
+   *          an index previously returned by {@link #add(String)}, or {@code -1}
+   * @return the string, or {@code null} if the index is {@code -1}
+   * @throws IndexOutOfBoundsException
+   *           if the index does not refer to a string in the pool
+   */
+  public String get(int index) {
+    if (index == -1) {
+      return null;
+    }
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(Integer.toString(index));
+    }
+    return strings[index];
+  }
+
+  /**
+   * Retrieves the number of distinct strings in the pool.
+   * 
+   * @return the count
+   */
+  public int size() {
+    return size;
+  }
+}
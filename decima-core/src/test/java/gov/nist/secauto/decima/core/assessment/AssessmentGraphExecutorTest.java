@@ -0,0 +1,241 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment;
+
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.BasicTestResult;
+import gov.nist.secauto.decima.core.assessment.result.DefaultAssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.TestState;
+import gov.nist.secauto.decima.core.assessment.result.TestStatus;
+import gov.nist.secauto.decima.core.document.Document;
+
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AssessmentGraphExecutorTest {
+  @Rule
+  public JUnitRuleMockery context = new JUnitRuleMockery();
+
+  private ExecutorService executorService;
+  private Document document;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newFixedThreadPool(4);
+    // the assessments used by these tests never access the document
+    document = context.mock(Document.class);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testIndependentNodesRunConcurrently() throws AssessmentException {
+    // each assessment waits for the other, which only completes if they run at the same time
+    CountDownLatch latch = new CountDownLatch(2);
+    AssessmentGraph<Document> graph = new AssessmentGraph<>();
+    AssessmentGraph.Node<Document> schema = graph.addAssessment("schema", new ReportingAssessment("req-1", null));
+    graph.addAssessment("a", new RendezvousAssessment(latch, "req-2")).dependsOn(schema)
+        .gatedBy(AssessmentGate.whenUpstreamPassed());
+    graph.addAssessment("b", new RendezvousAssessment(latch, "req-3")).dependsOn(schema)
+        .gatedBy(AssessmentGate.whenUpstreamPassed());
+
+    DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+    new AssessmentGraphExecutor<>(executorService, graph).execute(document, builder);
+
+    Map<String, TestState> states = builder.getTestStateByDerivedRequirementId();
+    Assert.assertEquals(TestState.TESTED, states.get("req-1"));
+    Assert.assertEquals(TestState.TESTED, states.get("req-2"));
+    Assert.assertEquals(TestState.TESTED, states.get("req-3"));
+  }
+
+  @Test
+  public void testSkippedSubtree() throws AssessmentException {
+    AssessmentGraph<Document> graph = new AssessmentGraph<>();
+    AssessmentGraph.Node<Document> schema
+        = graph.addAssessment("schema", new ReportingAssessment("schema-req", TestStatus.FAIL));
+    AssessmentGraph.Node<Document> rules = graph.addAssessment("rules", new ReportingAssessment("rules-req", null))
+        .dependsOn(schema).gatedBy(AssessmentGate.whenUpstreamPassed()).covering("rules-req");
+    graph.addAssessment("rules-detail", new ReportingAssessment("detail-req", null)).dependsOn(rules)
+        .covering("detail-req");
+    AssessmentGraph.Node<Document> optional
+        = graph.addAssessment("optional", new ReportingAssessment("optional-req", null))
+            .gatedBy(AssessmentGate.whenApplicable(doc -> false)).covering("optional-req");
+    graph.addAssessment("optional-detail", new ReportingAssessment("optional-detail-req", null))
+        .dependsOn(optional).covering("optional-detail-req");
+    graph.addAssessment("independent", new ReportingAssessment("independent-req", null));
+
+    DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+    new AssessmentGraphExecutor<>(executorService, graph).execute(document, builder);
+
+    Map<String, TestState> states = builder.getTestStateByDerivedRequirementId();
+    Assert.assertEquals(TestState.TESTED, states.get("schema-req"));
+    Assert.assertEquals(TestState.NOT_TESTED, states.get("rules-req"));
+    Assert.assertEquals(TestState.NOT_TESTED, states.get("detail-req"));
+    Assert.assertEquals(TestState.NOT_APPLICABLE, states.get("optional-req"));
+    Assert.assertEquals(TestState.NOT_APPLICABLE, states.get("optional-detail-req"));
+    Assert.assertEquals(TestState.TESTED, states.get("independent-req"));
+  }
+
+  @Test
+  public void testGateConditionEvaluatedOnce() throws AssessmentException {
+    AtomicInteger evaluations = new AtomicInteger();
+    Condition<Document> condition = doc -> evaluations.incrementAndGet() > 0;
+    AssessmentGraph<Document> graph = new AssessmentGraph<>();
+    graph.addAssessment("a", new ReportingAssessment("req-1", null)).gatedBy(AssessmentGate.whenApplicable(condition))
+        .covering("req-1");
+    graph.addAssessment("b", new ReportingAssessment("req-2", null)).gatedBy(AssessmentGate.whenApplicable(condition))
+        .covering("req-2");
+
+    DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+    new AssessmentGraphExecutor<>(executorService, graph).execute(document, builder);
+
+    Map<String, TestState> states = builder.getTestStateByDerivedRequirementId();
+    Assert.assertEquals(TestState.TESTED, states.get("req-1"));
+    Assert.assertEquals(TestState.TESTED, states.get("req-2"));
+    // the gates are evaluated in the executor's threads, using the scope of the execution
+    Assert.assertEquals(1, evaluations.get());
+  }
+
+  @Test
+  public void testFailure() {
+    AssessmentGraph<Document> graph = new AssessmentGraph<>();
+    AssessmentGraph.Node<Document> failing = graph.addAssessment("failing", new FailingAssessment());
+    graph.addAssessment("dependent", new ReportingAssessment("dependent-req", null)).dependsOn(failing);
+
+    DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+    try {
+      new AssessmentGraphExecutor<>(executorService, graph).execute(document, builder);
+      Assert.fail("the failing assessment should have failed the execution");
+    } catch (AssessmentException ex) {
+      Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+    }
+    Assert.assertNull(builder.getTestStateByDerivedRequirementId().get("dependent-req"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testForwardDependency() {
+    AssessmentGraph<Document> graph = new AssessmentGraph<>();
+    AssessmentGraph.Node<Document> first = graph.addAssessment("first", new ReportingAssessment("first", null));
+    AssessmentGraph.Node<Document> second = graph.addAssessment("second", new ReportingAssessment("second", null));
+    first.dependsOn(second);
+  }
+
+  private abstract static class TestAssessment implements Assessment<Document> {
+    @Override
+    public String getAssessmentType() {
+      return "test";
+    }
+
+    @Override
+    public String getName(boolean includeDetail) {
+      return getClass().getSimpleName();
+    }
+
+    @Override
+    public List<Assessment<Document>> getExecutableAssessments(Document document) {
+      return Collections.singletonList(this);
+    }
+  }
+
+  private static class ReportingAssessment
+      extends TestAssessment {
+    private final String derivedRequirementId;
+    private final TestStatus status;
+
+    /**
+     * Creates an assessment that tests a single derived requirement.
+     * 
+     * @param derivedRequirementId
+     *          the tested derived requirement
+     * @param status
+     *          the status of the reported test result, or {@code null} to report no result
+     */
+    public ReportingAssessment(String derivedRequirementId, TestStatus status) {
+      this.derivedRequirementId = derivedRequirementId;
+      this.status = status;
+    }
+
+    @Override
+    public void execute(Document document, AssessmentResultBuilder builder) {
+      if (status == null) {
+        builder.assignTestStatus(this, document, derivedRequirementId, TestState.TESTED);
+      } else {
+        builder.addTestResult(this, document, derivedRequirementId,
+            new BasicTestResult(derivedRequirementId, status, null));
+      }
+    }
+  }
+
+  private static class RendezvousAssessment
+      extends ReportingAssessment {
+    private final CountDownLatch latch;
+
+    public RendezvousAssessment(CountDownLatch latch, String derivedRequirementId) {
+      super(derivedRequirementId, null);
+      this.latch = latch;
+    }
+
+    @Override
+    public void execute(Document document, AssessmentResultBuilder builder) {
+      latch.countDown();
+      try {
+        if (!latch.await(10, TimeUnit.SECONDS)) {
+          throw new IllegalStateException("the other assessment did not run concurrently");
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(ex);
+      }
+      super.execute(document, builder);
+    }
+  }
+
+  private static class FailingAssessment
+      extends TestAssessment {
+    @Override
+    public void execute(Document document, AssessmentResultBuilder builder) {
+      throw new IllegalStateException("failed");
+    }
+  }
+}
@@ -26,14 +26,20 @@
 
 package gov.nist.secauto.decima.core.assessment;
 
+import gov.nist.secauto.decima.core.Decima;
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.DefaultAssessmentResultBuilder;
 import gov.nist.secauto.decima.core.document.Document;
 
+import org.jmock.Expectations;
 import org.jmock.integration.junit4.JUnitRuleMockery;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class BasicAssessmentExecutorTest {
   @Rule
@@ -50,4 +56,25 @@ public class BasicAssessmentExecutorTest {
     new BasicAssessmentExecutor<Document>(Collections.emptyList());
     Assert.fail("An exception should have been thrown");
   }
+
+  @Test
+  public void testSharedConditionEvaluatedOnce() throws AssessmentException {
+    Document document = context.mock(Document.class);
+    @SuppressWarnings("unchecked")
+    Assessment<Document> delegate = context.mock(Assessment.class);
+    AtomicInteger evaluations = new AtomicInteger();
+    Condition<Document> condition = doc -> evaluations.incrementAndGet() > 0;
+
+    context.checking(new Expectations() {
+      {
+        exactly(2).of(delegate).execute(with(same(document)), with(any(AssessmentResultBuilder.class)));
+      }
+    });
+
+    new BasicAssessmentExecutor<>(Arrays.asList(Decima.newConditionalAssessment(delegate, condition),
+        Decima.newConditionalAssessment(delegate, condition))).execute(document, new DefaultAssessmentResultBuilder());
+
+    Assert.assertEquals(1, evaluations.get());
+    Assert.assertNull(ConditionEvaluationScope.current(document));
+  }
 }
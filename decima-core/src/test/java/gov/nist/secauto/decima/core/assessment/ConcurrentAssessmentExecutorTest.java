@@ -0,0 +1,370 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment;
+
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResults;
+import gov.nist.secauto.decima.core.assessment.result.DefaultAssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.util.NoOpLoggingHandler;
+import gov.nist.secauto.decima.core.document.Document;
+import gov.nist.secauto.decima.core.requirement.DefaultRequirementsManager;
+import gov.nist.secauto.decima.core.util.ComputePermitUtil;
+
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentAssessmentExecutorTest {
+  @Rule
+  public JUnitRuleMockery context = new JUnitRuleMockery();
+
+  private ExecutorService executorService;
+  private Document document;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newFixedThreadPool(2);
+    // the assessments used by these tests never access the document
+    document = context.mock(Document.class);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testExecuteAsync() throws InterruptedException, ExecutionException {
+    List<Assessment<?>> completed = new CopyOnWriteArrayList<>();
+    List<StubAssessment> assessments = Arrays.asList(new StubAssessment("a"), new StubAssessment("b"),
+        new StubAssessment("c"));
+    ConcurrentAssessmentExecutor<Document> executor = new ConcurrentAssessmentExecutor<>(executorService, assessments);
+
+    AsyncExecutionOptions options
+        = AsyncExecutionOptions.defaults().withCompletionListener((assessment, error) -> completed.add(assessment));
+    executor.executeAsync(document, new DefaultAssessmentResultBuilder(), options).get();
+
+    Assert.assertEquals(3, completed.size());
+    Assert.assertTrue(completed.containsAll(assessments));
+  }
+
+  @Test
+  public void testAssessmentTimeout() throws InterruptedException {
+    BlockingAssessment blocking = new BlockingAssessment();
+    ConcurrentAssessmentExecutor<Document> executor
+        = new ConcurrentAssessmentExecutor<>(executorService, Collections.singletonList(blocking));
+
+    AsyncExecutionOptions options = AsyncExecutionOptions.defaults().withAssessmentTimeout(Duration.ofMillis(50));
+    CompletableFuture<Void> future = executor.executeAsync(document, new DefaultAssessmentResultBuilder(), options);
+
+    try {
+      future.get(10, TimeUnit.SECONDS);
+      Assert.fail("the assessment should have timed out");
+    } catch (ExecutionException ex) {
+      Assert.assertTrue(ex.getCause() instanceof AssessmentException);
+      Assert.assertTrue(ex.getCause().getCause() instanceof TimeoutException);
+    } catch (TimeoutException ex) {
+      Assert.fail("the assessment deadline was not enforced");
+    }
+    Assert.assertTrue("the running assessment was not interrupted", blocking.interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testAssessmentTimeoutBeforeStart() throws InterruptedException {
+    ConcurrentAssessmentExecutor<Document> executor
+        = new ConcurrentAssessmentExecutor<>(executorService, Collections.singletonList(new StubAssessment("a")));
+
+    // the deadline expires while the assessment is still being reported as started
+    DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+    builder.setLoggingHandler(new NoOpLoggingHandler() {
+      @Override
+      public <DOC extends Document> void assessmentStarted(Assessment<? extends DOC> assessment, DOC document) {
+        long end = System.currentTimeMillis() + 200;
+        while (System.currentTimeMillis() < end) {
+          try {
+            Thread.sleep(end - System.currentTimeMillis());
+          } catch (InterruptedException ex) {
+            // keep the slow start going
+          }
+        }
+      }
+    });
+
+    AsyncExecutionOptions options = AsyncExecutionOptions.defaults().withAssessmentTimeout(Duration.ofMillis(1));
+    CompletableFuture<Void> future = executor.executeAsync(document, builder, options);
+    try {
+      future.get(10, TimeUnit.SECONDS);
+      Assert.fail("the assessment should have timed out");
+    } catch (ExecutionException ex) {
+      Assert.assertTrue(ex.getCause().getCause() instanceof TimeoutException);
+    } catch (TimeoutException ex) {
+      Assert.fail("the execution did not complete");
+    }
+  }
+
+  @Test
+  public void testExecutionTimeout() {
+    ConcurrentAssessmentExecutor<Document> executor
+        = new ConcurrentAssessmentExecutor<>(executorService, Collections.singletonList(new BlockingAssessment()));
+
+    AsyncExecutionOptions options = AsyncExecutionOptions.defaults().withExecutionTimeout(Duration.ofMillis(50));
+    try {
+      AssessmentExecutionHelper
+          .await(executor.executeAsync(document, new DefaultAssessmentResultBuilder(), options));
+      Assert.fail("the execution should have timed out");
+    } catch (AssessmentException ex) {
+      Assert.assertTrue(ex.getCause() instanceof TimeoutException);
+    }
+  }
+
+  @Test
+  public void testCancel() throws InterruptedException {
+    BlockingAssessment blocking = new BlockingAssessment();
+    ConcurrentAssessmentExecutor<Document> executor
+        = new ConcurrentAssessmentExecutor<>(executorService, Collections.singletonList(blocking));
+
+    CompletableFuture<Void> future = executor.executeAsync(document, new DefaultAssessmentResultBuilder());
+    Assert.assertTrue(blocking.started.await(10, TimeUnit.SECONDS));
+    future.cancel(true);
+
+    Assert.assertTrue("the running assessment was not interrupted", blocking.interrupted.await(10, TimeUnit.SECONDS));
+    try {
+      future.join();
+      Assert.fail("the execution should have been cancelled");
+    } catch (CancellationException ex) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testFailure() {
+    List<Assessment<Document>> assessments = Arrays.asList(new StubAssessment("ok"), new StubAssessment(null));
+    ConcurrentAssessmentExecutor<Document> executor = new ConcurrentAssessmentExecutor<>(executorService, assessments);
+
+    try {
+      executor.execute(document, new DefaultAssessmentResultBuilder());
+      Assert.fail("the failing assessment should have failed the execution");
+    } catch (AssessmentException ex) {
+      // the unexpected exception is reported as an assessment error
+      Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void testConfiguredTimeout() throws InterruptedException {
+    AsyncExecutionOptions options = AsyncExecutionOptions.defaults().withAssessmentTimeout(Duration.ofMillis(50));
+    ConcurrentAssessmentExecutorFactory factory = new ConcurrentAssessmentExecutorFactory(executorService, options);
+    BlockingAssessment blocking = new BlockingAssessment();
+    StubAssessment other = new StubAssessment("other");
+    ConcurrentAssessmentExecutor<Document> executor
+        = factory.newAssessmentExecutor(Arrays.<Assessment<Document>>asList(blocking, other));
+
+    RecordingLoggingHandler handler = new RecordingLoggingHandler();
+    DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+    builder.setLoggingHandler(handler);
+    try {
+      executor.execute(document, builder);
+      Assert.fail("the assessment should have timed out");
+    } catch (AssessmentException ex) {
+      Assert.assertTrue(ex.getCause() instanceof TimeoutException);
+    }
+    Assert.assertTrue("the running assessment was not interrupted", blocking.interrupted.await(10, TimeUnit.SECONDS));
+
+    // the stuck assessment is reported as an error exactly once
+    Assert.assertEquals(Collections.singletonList(blocking), handler.errors);
+    Assert.assertEquals(1, factory.getTimeoutMetrics().getAssessmentTimeouts());
+    Assert.assertEquals(0, factory.getTimeoutMetrics().getExecutionTimeouts());
+  }
+
+  @Test
+  public void testConfiguredExecutionTimeout() throws InterruptedException {
+    // the deadline also covers the time to start the assessment, so allow for a slow start
+    AsyncExecutionOptions options = AsyncExecutionOptions.defaults().withExecutionTimeout(Duration.ofMillis(500));
+    ConcurrentAssessmentExecutorFactory factory = new ConcurrentAssessmentExecutorFactory(executorService, options);
+    BlockingAssessment blocking = new BlockingAssessment();
+    ConcurrentAssessmentExecutor<Document> executor
+        = factory.newAssessmentExecutor(Collections.singletonList(blocking));
+
+    RecordingLoggingHandler handler = new RecordingLoggingHandler();
+    DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+    builder.setLoggingHandler(handler);
+    try {
+      executor.execute(document, builder);
+      Assert.fail("the execution should have timed out");
+    } catch (AssessmentException ex) {
+      Assert.assertTrue(ex.getCause() instanceof TimeoutException);
+    }
+    Assert.assertTrue("the running assessment was not interrupted", blocking.interrupted.await(10, TimeUnit.SECONDS));
+
+    Assert.assertEquals(Collections.singletonList(blocking), handler.errors);
+    Assert.assertEquals(1, factory.getTimeoutMetrics().getExecutionTimeouts());
+    Assert.assertEquals(1, factory.getTimeoutMetrics().getStoppedAssessments());
+  }
+
+  @Test
+  public void testReactAsync() throws InterruptedException, ExecutionException {
+    AssessmentReactor reactor = new AssessmentReactor(new DefaultRequirementsManager());
+    reactor.pushAssessmentExecution(document,
+        new ConcurrentAssessmentExecutor<>(executorService, Collections.singletonList(new StubAssessment("a"))));
+    reactor.pushAssessmentExecution(document,
+        new BasicAssessmentExecutor<>(Collections.singletonList(new StubAssessment("b"))));
+
+    AssessmentResults results = reactor.reactAsync().get();
+    Assert.assertNotNull(results);
+  }
+
+  @Test
+  public void testVirtualThreadFactory() throws AssessmentException {
+    VirtualThreadAssessmentExecutorFactory factory = new VirtualThreadAssessmentExecutorFactory(2);
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger maxActive = new AtomicInteger();
+    List<ComputingAssessment> assessments = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      assessments.add(new ComputingAssessment(active, maxActive));
+    }
+
+    factory.newAssessmentExecutor(assessments).execute(document, new DefaultAssessmentResultBuilder());
+
+    for (ComputingAssessment assessment : assessments) {
+      Assert.assertTrue(assessment.computed);
+    }
+    Assert.assertTrue("too many computations ran at once", maxActive.get() <= 2);
+    Assert.assertEquals(2, factory.getAvailableComputePermits());
+  }
+
+  private static class RecordingLoggingHandler
+      extends NoOpLoggingHandler {
+    private final List<Assessment<?>> errors = new CopyOnWriteArrayList<>();
+
+    @Override
+    public <DOC extends Document> void assessmentError(Assessment<? extends DOC> assessment, DOC document,
+        Throwable th) {
+      errors.add(assessment);
+    }
+  }
+
+  private static class StubAssessment implements Assessment<Document> {
+    private final String name;
+
+    /**
+     * Creates an assessment that does nothing.
+     * 
+     * @param name
+     *          the name of the assessment, or {@code null} if the assessment fails
+     */
+    public StubAssessment(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String getAssessmentType() {
+      return "stub";
+    }
+
+    @Override
+    public void execute(Document document, AssessmentResultBuilder builder) {
+      if (name == null) {
+        throw new IllegalStateException("failed");
+      }
+    }
+
+    @Override
+    public String getName(boolean includeDetail) {
+      return String.valueOf(name);
+    }
+
+    @Override
+    public List<Assessment<Document>> getExecutableAssessments(Document document) {
+      return Collections.singletonList(this);
+    }
+  }
+
+  private static class ComputingAssessment
+      extends StubAssessment {
+    private final AtomicInteger active;
+    private final AtomicInteger maxActive;
+    private volatile boolean computed;
+
+    public ComputingAssessment(AtomicInteger active, AtomicInteger maxActive) {
+      super("computing");
+      this.active = active;
+      this.maxActive = maxActive;
+    }
+
+    @Override
+    public void execute(Document document, AssessmentResultBuilder builder) {
+      try (ComputePermitUtil.Permit permit = ComputePermitUtil.acquire()) {
+        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+        Thread.sleep(20);
+        active.decrementAndGet();
+        computed = true;
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static class BlockingAssessment
+      extends StubAssessment {
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+
+    public BlockingAssessment() {
+      super("blocking");
+    }
+
+    @Override
+    public void execute(Document document, AssessmentResultBuilder builder) {
+      started.countDown();
+      try {
+        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+      } catch (InterruptedException ex) {
+        interrupted.countDown();
+      }
+    }
+  }
+}
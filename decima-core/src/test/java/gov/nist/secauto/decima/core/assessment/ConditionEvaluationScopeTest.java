@@ -0,0 +1,113 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment;
+
+import gov.nist.secauto.decima.core.document.Document;
+
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConditionEvaluationScopeTest {
+  @Rule
+  public JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Test
+  public void testNestedOpens() {
+    Document document = context.mock(Document.class, "document");
+    Document other = context.mock(Document.class, "other");
+
+    ConditionEvaluationScope scope = ConditionEvaluationScope.open(document, Collections.emptyList());
+    Assert.assertSame(scope, ConditionEvaluationScope.current(document));
+    Assert.assertNull(ConditionEvaluationScope.current(other));
+
+    // a nested open starts a separate scope, until it is closed
+    ConditionEvaluationScope nested = ConditionEvaluationScope.open(document, Collections.emptyList());
+    Assert.assertNotSame(scope, nested);
+    Assert.assertSame(nested, ConditionEvaluationScope.current(document));
+    nested.close();
+    Assert.assertSame(scope, ConditionEvaluationScope.current(document));
+
+    scope.close();
+    Assert.assertNull(ConditionEvaluationScope.current(document));
+  }
+
+  @Test
+  public void testExecutionsNotShared() throws InterruptedException, ExecutionException, AssessmentException {
+    Document document = context.mock(Document.class);
+    AtomicInteger evaluations = new AtomicInteger();
+    Condition<Document> condition = doc -> evaluations.incrementAndGet() > 0;
+
+    try (ConditionEvaluationScope scope = ConditionEvaluationScope.open(document, Collections.emptyList())) {
+      Assert.assertTrue(scope.appliesTo(condition, document));
+
+      // another execution over the same document, while the first is still open
+      ConditionEvaluationScope concurrent = CompletableFuture.supplyAsync(() -> {
+        Assert.assertNull(ConditionEvaluationScope.current(document));
+        try (ConditionEvaluationScope other = ConditionEvaluationScope.open(document, Collections.emptyList())) {
+          other.appliesTo(condition, document);
+          return other;
+        } catch (AssessmentException ex) {
+          throw new IllegalStateException(ex);
+        }
+      }).get();
+      Assert.assertNotSame(scope, concurrent);
+      Assert.assertSame(scope, ConditionEvaluationScope.current(document));
+
+      Assert.assertTrue(scope.appliesTo(condition, document));
+      Assert.assertEquals(2, evaluations.get());
+    }
+  }
+
+  @Test
+  public void testBind() throws InterruptedException, ExecutionException {
+    Document document = context.mock(Document.class);
+
+    try (ConditionEvaluationScope scope = ConditionEvaluationScope.open(document, Collections.emptyList())) {
+      Assert.assertTrue(CompletableFuture.supplyAsync(() -> {
+        boolean bound;
+        try (ConditionEvaluationScope.Binding binding = ConditionEvaluationScope.bind(scope)) {
+          bound = ConditionEvaluationScope.current(document) == scope;
+        }
+        return bound && ConditionEvaluationScope.current(document) == null;
+      }).get());
+
+      try (ConditionEvaluationScope.Binding binding = ConditionEvaluationScope.bind(null)) {
+        Assert.assertNull(ConditionEvaluationScope.current(document));
+      }
+      Assert.assertSame(scope, ConditionEvaluationScope.current(document));
+    }
+    Assert.assertNull(ConditionEvaluationScope.current(document));
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.core.assessment.result;
+
+import gov.nist.secauto.decima.core.document.Context;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class CompactTestResultStoreTest {
+
+  @Test
+  public void testAddAndRetrieve() {
+    CompactTestResultStore store = new CompactTestResultStore(1);
+
+    Context context = new Context() {
+
+      @Override
+      public String getSystemId() {
+        return "file:/test.xml";
+      }
+
+      @Override
+      public int getLine() {
+        return 10;
+      }
+
+      @Override
+      public int getColumn() {
+        return 5;
+      }
+    };
+
+    BasicTestResult result1 = new BasicTestResult("TEST-1", TestStatus.FAIL, context);
+    result1.addResultValues(Arrays.asList("a", "b"));
+    BasicTestResult result2 = new BasicTestResult(null, TestStatus.WARNING, null);
+    BasicTestResult result3 = new BasicTestResult("TEST-3", TestStatus.PASS, context);
+
+    store.add("DER-1", result1);
+    store.add("DER-2", result2);
+    store.add("DER-1", result3);
+
+    Assert.assertEquals(3, store.size());
+    Assert.assertTrue(store.getTestResults("DER-3").isEmpty());
+
+    List<TestResult> results = store.getTestResults("DER-1");
+    Assert.assertEquals(2, results.size());
+
+    TestResult stored = results.get(0);
+    Assert.assertEquals("TEST-1", stored.getTestId());
+    Assert.assertSame(TestStatus.FAIL, stored.getStatus());
+    Assert.assertEquals(Arrays.asList("a", "b"), stored.getResultValues());
+    Assert.assertEquals("file:/test.xml", stored.getContext().getSystemId());
+    Assert.assertEquals(10, stored.getContext().getLine());
+    Assert.assertEquals(5, stored.getContext().getColumn());
+
+    Assert.assertEquals("TEST-3", results.get(1).getTestId());
+    Assert.assertSame(TestStatus.PASS, results.get(1).getStatus());
+    Assert.assertTrue(results.get(1).getResultValues().isEmpty());
+
+    results = store.getTestResults("DER-2");
+    Assert.assertEquals(1, results.size());
+    Assert.assertNull(results.get(0).getTestId());
+    Assert.assertNull(results.get(0).getContext());
+  }
+
+  @Test
+  public void testNullResultValues() {
+    CompactTestResultStore store = new CompactTestResultStore(1);
+
+    BasicTestResult result = new BasicTestResult("TEST-1", TestStatus.FAIL, null);
+    result.addResultValues(Arrays.asList("a", null, ""));
+    store.add("DER-1", result);
+
+    List<String> values = store.getTestResults("DER-1").get(0).getResultValues();
+    Assert.assertEquals(Arrays.asList("a", null, ""), values);
+  }
+}
@@ -0,0 +1,174 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.core.assessment.result;
+
+import gov.nist.secauto.decima.core.assessment.Assessment;
+import gov.nist.secauto.decima.core.document.Document;
+import gov.nist.secauto.decima.core.requirement.BaseRequirement;
+import gov.nist.secauto.decima.core.requirement.DefaultBaseRequirement;
+import gov.nist.secauto.decima.core.requirement.DefaultDerivedRequirement;
+import gov.nist.secauto.decima.core.requirement.DefaultRequirementsManager;
+import gov.nist.secauto.decima.core.requirement.RequirementType;
+import gov.nist.secauto.decima.core.requirement.SpecificationReference;
+
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+public class RequirementStateTableTest {
+
+  @Rule
+  public JUnitRuleMockery context = new JUnitRuleMockery();
+
+  private DefaultRequirementsManager newRequirementsManager(int baseCount, int derivedPerBase) {
+    SpecificationReference reference = context.mock(SpecificationReference.class);
+    DefaultRequirementsManager retval = new DefaultRequirementsManager();
+    for (int i = 0; i < baseCount; i++) {
+      DefaultBaseRequirement base = new DefaultBaseRequirement("BASE-" + i, "statement", reference);
+      for (int j = 0; j < derivedPerBase; j++) {
+        base.addDerivedRequirement(
+            new DefaultDerivedRequirement(base, "DER-" + i + "-" + j, "statement", RequirementType.MUST, false, null));
+      }
+      retval.addBaseRequirement(base);
+    }
+    return retval;
+  }
+
+  @Test
+  public void testRequirementIndexes() {
+    DefaultRequirementsManager manager = newRequirementsManager(3, 2);
+    Assert.assertEquals(3, manager.getBaseRequirementCount());
+    Assert.assertEquals(6, manager.getDerivedRequirementCount());
+    Assert.assertEquals(2, manager.getBaseRequirementIndex("BASE-2"));
+    Assert.assertEquals(-1, manager.getBaseRequirementIndex("BASE-3"));
+    // the derived requirements of a base requirement are consecutive
+    Assert.assertEquals(2, manager.getDerivedRequirementIndex("DER-1-0"));
+    Assert.assertEquals(3, manager.getDerivedRequirementIndex("DER-1-1"));
+    Assert.assertEquals("DER-1-1", manager.getDerivedRequirementByIndex(3).getId());
+    Assert.assertEquals(-1, manager.getDerivedRequirementIndex("DER-3-0"));
+  }
+
+  @Test
+  public void testIndexedAndUnindexedStates() {
+    RequirementStateTable table = new RequirementStateTable(newRequirementsManager(2, 2));
+
+    table.updateState("DER-0-0", TestState.NOT_APPLICABLE);
+    table.updateState("DER-0-0", TestState.TESTED);
+    table.updateState("DER-0-0", TestState.NOT_TESTED);
+    table.updateStatus("DER-0-0", TestStatus.FAIL);
+    table.updateStatus("DER-0-0", TestStatus.PASS);
+    table.updateState("DER-1-1", TestState.TESTED);
+    // not managed by the requirements manager
+    table.updateState("OTHER", TestState.TESTED);
+    table.updateStatus("OTHER", TestStatus.WARNING);
+    table.updateState("OTHER-2", TestState.NOT_APPLICABLE);
+
+    Assert.assertSame(TestState.TESTED, table.getState("DER-0-0"));
+    Assert.assertSame(TestStatus.FAIL, table.getStatus("DER-0-0"));
+    Assert.assertNull(table.getState("DER-0-1"));
+    Assert.assertNull(table.getStatus("DER-1-1"));
+    Assert.assertSame(TestStatus.WARNING, table.getStatus("OTHER"));
+
+    Map<String, TestState> states = table.getStates();
+    Assert.assertEquals(4, states.size());
+    Assert.assertSame(TestState.TESTED, states.get("DER-1-1"));
+    Assert.assertSame(TestState.NOT_APPLICABLE, states.get("OTHER-2"));
+
+    Map<TestState, Integer> stateCounts = table.countStates();
+    Assert.assertEquals(3, (int) stateCounts.get(TestState.TESTED));
+    Assert.assertEquals(1, (int) stateCounts.get(TestState.NOT_APPLICABLE));
+    Assert.assertNull(stateCounts.get(TestState.NOT_TESTED));
+
+    Map<TestStatus, Integer> statusCounts = table.countStatuses();
+    Assert.assertEquals(1, (int) statusCounts.get(TestStatus.FAIL));
+    Assert.assertEquals(1, (int) statusCounts.get(TestStatus.PASS));
+    Assert.assertEquals(1, (int) statusCounts.get(TestStatus.WARNING));
+  }
+
+  @Test
+  public void testIndexedBuild() {
+    @SuppressWarnings("unchecked")
+    Assessment<Document> assessment = (Assessment<Document>) context.mock(Assessment.class);
+    Document document = context.mock(Document.class);
+    TestResult testResult = new BasicTestResult("test", TestStatus.FAIL, null);
+
+    // a large requirement set, resolved by index
+    DefaultRequirementsManager manager = newRequirementsManager(5000, 2);
+    DefaultAssessmentResultBuilder builder
+        = new DefaultAssessmentResultBuilder(new DefaultResultStatusBehavior(), null, manager);
+    builder.addTestResult(assessment, document, "DER-4999-1", testResult);
+    builder.assignTestStatus(assessment, document, "DER-10-0", TestState.NOT_APPLICABLE);
+    builder.assignTestStatus(assessment, document, "DER-10-1", TestState.TESTED);
+
+    AssessmentResults results = builder.end().build(manager);
+    Assert.assertEquals(5000, results.getBaseRequirementResults().size());
+    Assert.assertSame(ResultStatus.FAIL, results.getDerivedRequirementResult("DER-4999-1").getStatus());
+    Assert.assertSame(ResultStatus.FAIL, results.getBaseRequirementResult("BASE-4999").getStatus());
+    Assert.assertSame(ResultStatus.NOT_APPLICABLE, results.getDerivedRequirementResult("DER-10-0").getStatus());
+    Assert.assertSame(ResultStatus.PASS, results.getDerivedRequirementResult("DER-10-1").getStatus());
+    Assert.assertSame(ResultStatus.NOT_TESTED, results.getDerivedRequirementResult("DER-0-0").getStatus());
+    Assert.assertEquals("BASE-0", results.getBaseRequirementResults().iterator().next().getBaseRequirement().getId());
+  }
+
+  @Test
+  public void testIndexAccess() {
+    RequirementStateTable table = new RequirementStateTable(newRequirementsManager(2, 2));
+
+    int index = table.indexOf("DER-1-0");
+    Assert.assertEquals(2, index);
+    Assert.assertEquals(-1, table.indexOf("OTHER"));
+
+    table.updateState(index, TestState.TESTED);
+    table.updateStatus(index, TestStatus.WARNING);
+    Assert.assertSame(TestState.TESTED, table.getState(index));
+    Assert.assertSame(TestStatus.WARNING, table.getStatus("DER-1-0"));
+    Assert.assertNull(table.getState(table.indexOf("DER-1-1")));
+  }
+
+  @Test
+  public void testReplaceIndexedResult() {
+    DefaultRequirementsManager manager = newRequirementsManager(3, 1);
+    DefaultAssessmentResults results = new DefaultAssessmentResults(manager, null, null, true);
+    for (BaseRequirement base : manager.getBaseRequirements()) {
+      results.addValidationResult(new DefaultBaseRequirementResult(base, ResultStatus.PASS));
+    }
+
+    BaseRequirement base = manager.getBaseRequirementById("BASE-1");
+    DefaultBaseRequirementResult replacement = new DefaultBaseRequirementResult(base, ResultStatus.FAIL);
+    replacement.setRequirementIndex(1);
+    results.addValidationResult(replacement);
+
+    Assert.assertEquals(3, results.getBaseRequirementResults().size());
+    Assert.assertSame(replacement, results.getBaseRequirementResult("BASE-1"));
+    // the replacement retains the position of the original result
+    Assert.assertSame(replacement, new ArrayList<>(results.getBaseRequirementResults()).get(1));
+  }
+}
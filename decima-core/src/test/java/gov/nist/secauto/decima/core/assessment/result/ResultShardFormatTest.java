@@ -0,0 +1,260 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.assessment.result;
+
+import gov.nist.secauto.decima.core.document.Context;
+import gov.nist.secauto.decima.core.document.DefaultSourceInfo;
+import gov.nist.secauto.decima.core.document.Document;
+import gov.nist.secauto.decima.core.requirement.DefaultBaseRequirement;
+import gov.nist.secauto.decima.core.requirement.DefaultDerivedRequirement;
+import gov.nist.secauto.decima.core.requirement.DefaultRequirementsManager;
+import gov.nist.secauto.decima.core.requirement.DefaultSpecification;
+import gov.nist.secauto.decima.core.requirement.DefaultSpecificationReference;
+import gov.nist.secauto.decima.core.requirement.DerivedRequirement;
+import gov.nist.secauto.decima.core.requirement.RequirementType;
+
+import org.jmock.Expectations;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ResultShardFormatTest {
+  @Rule
+  public JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private DefaultRequirementsManager manager;
+  private Document documentA;
+  private Document documentB;
+
+  /**
+   * Creates the requirements and documents used by the tests.
+   * 
+   * @throws IOException
+   *           if a document location is invalid
+   */
+  @Before
+  public void setUp() throws IOException {
+    manager = new DefaultRequirementsManager();
+    for (int i = 1; i <= 3; i++) {
+      DefaultBaseRequirement base = new DefaultBaseRequirement("REQ-" + i, "statement",
+          new DefaultSpecificationReference(new DefaultSpecification("spec", URI.create("spec.html")), null, null,
+              null));
+      base.addDerivedRequirement(
+          new DefaultDerivedRequirement(base, "REQ-" + i + "-1", "statement", RequirementType.MUST, false, null));
+      manager.addBaseRequirement(base);
+    }
+    documentA = newDocument("a");
+    documentB = newDocument("b");
+  }
+
+  private Document newDocument(String name) throws IOException {
+    Document retval = context.mock(Document.class, name);
+    URL location = new URL("file:/" + name + ".xml");
+    context.checking(new Expectations() {
+      {
+        allowing(retval).getSystemId();
+        will(returnValue(location.toString()));
+        allowing(retval).getOriginalLocation();
+        will(returnValue(location));
+        allowing(retval).getSourceInfo();
+        will(returnValue(Collections.singletonList(new DefaultSourceInfo(retval))));
+      }
+    });
+    return retval;
+  }
+
+  private static TestResult newFailure(String testId, String systemId, int line) {
+    BasicTestResult retval = new BasicTestResult(testId, TestStatus.FAIL, new CompactContext(systemId, line));
+    retval.addResultValue(testId + "-value");
+    return retval;
+  }
+
+  /**
+   * Reports the results of the shard with the provided index to a builder. Each shard reports
+   * different states and results for an overlapping set of requirements.
+   */
+  private void report(int shard, DefaultAssessmentResultBuilder builder) {
+    builder.start();
+    switch (shard % 3) {
+    case 0:
+      builder.addAssessmentTarget(documentA);
+      builder.assignProperty("run", "a");
+      builder.addTestResult(null, null, "REQ-1-1", newFailure("T-" + shard, "file:/a.xml", shard));
+      builder.assignTestStatus(null, null, "REQ-2-1", TestState.NOT_APPLICABLE);
+      break;
+    case 1:
+      builder.addAssessmentTarget(documentB);
+      builder.assignProperty("run", "b");
+      builder.assignTestStatus(null, null, "REQ-2-1", TestState.TESTED);
+      builder.addTestResult(null, null, "REQ-3-1", newFailure("T-" + shard, "file:/b.xml", shard));
+      break;
+    default:
+      builder.addTestResult(null, null, "REQ-1-1", newFailure("T-" + shard, "file:/a.xml", shard));
+      break;
+    }
+    builder.end();
+  }
+
+  private List<File> writeShards(int count) throws IOException {
+    ResultShardFormat format = new ResultShardFormat();
+    List<File> retval = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+      report(i, builder);
+      File shard = folder.newFile();
+      format.write(builder, shard);
+      retval.add(shard);
+    }
+    return retval;
+  }
+
+  private AssessmentResults buildExpected(int count) {
+    DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+    for (int i = 0; i < count; i++) {
+      report(i, builder);
+      // allow the next shard to report results
+      builder.setEndDateTime(null);
+    }
+    return builder.end().build(manager);
+  }
+
+  private static void assertResultsEquals(AssessmentResults expected, AssessmentResults actual) {
+    Assert.assertEquals(expected.getProperties(), actual.getProperties());
+    Assert.assertEquals(expected.getAssessmentSubjects().keySet(), actual.getAssessmentSubjects().keySet());
+    for (String id : expected.getAssessmentSubjects().keySet()) {
+      Assert.assertEquals(expected.getAssessmentSubjects().get(id).getSource(),
+          actual.getAssessmentSubjects().get(id).getSource());
+    }
+
+    for (BaseRequirementResult base : expected.getBaseRequirementResults()) {
+      Assert.assertEquals(base.getStatus(), actual.getBaseRequirementResult(base.getBaseRequirement().getId())
+          .getStatus());
+      for (DerivedRequirementResult derived : base.getDerivedRequirementResults()) {
+        DerivedRequirement requirement = derived.getDerivedRequirement();
+        DerivedRequirementResult other = actual.getDerivedRequirementResult(requirement.getId());
+        Assert.assertEquals(requirement.getId(), derived.getStatus(), other.getStatus());
+
+        List<TestResult> expectedTests = derived.getTestResults();
+        List<TestResult> actualTests = other.getTestResults();
+        Assert.assertEquals(expectedTests.size(), actualTests.size());
+        for (int i = 0; i < expectedTests.size(); i++) {
+          TestResult expectedTest = expectedTests.get(i);
+          TestResult actualTest = actualTests.get(i);
+          Assert.assertEquals(expectedTest.getTestId(), actualTest.getTestId());
+          Assert.assertEquals(expectedTest.getStatus(), actualTest.getStatus());
+          Assert.assertEquals(expectedTest.getResultValues(), actualTest.getResultValues());
+          Assert.assertEquals(expectedTest.getContext().getSystemId(), actualTest.getContext().getSystemId());
+          Assert.assertEquals(expectedTest.getContext().getLine(), actualTest.getContext().getLine());
+          Assert.assertEquals(expectedTest.getContext().getColumn(), actualTest.getContext().getColumn());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMerge() throws IOException {
+    AssessmentResults actual = new ResultShardFormat().merge(writeShards(3), manager);
+    AssessmentResults expected = buildExpected(3);
+
+    assertResultsEquals(expected, actual);
+    Assert.assertEquals(ResultStatus.FAIL, actual.getDerivedRequirementResult("REQ-1-1").getStatus());
+    Assert.assertEquals(Arrays.asList("T-0", "T-2"), Arrays.asList(
+        actual.getDerivedRequirementResult("REQ-1-1").getTestResults().get(0).getTestId(),
+        actual.getDerivedRequirementResult("REQ-1-1").getTestResults().get(1).getTestId()));
+    Assert.assertEquals(ResultStatus.PASS, actual.getDerivedRequirementResult("REQ-2-1").getStatus());
+    Assert.assertEquals("b", actual.getProperties().get("run"));
+  }
+
+  @Test
+  public void testMergeInRounds() throws IOException {
+    List<File> shards = writeShards(11);
+    AssessmentResults expected = buildExpected(11);
+
+    ResultShardFormat format = new ResultShardFormat();
+    format.setMaxOpenShards(2);
+    assertResultsEquals(expected, format.merge(shards, manager));
+
+    // a merged shard can be merged again
+    File merged = folder.newFile();
+    try (OutputStream os = new FileOutputStream(merged)) {
+      format.merge(shards, os);
+    }
+    assertResultsEquals(expected, format.merge(Collections.singletonList(merged), manager));
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidShard() throws IOException {
+    File shard = folder.newFile();
+    try (OutputStream os = new FileOutputStream(shard)) {
+      os.write(new byte[] { 1, 2, 3, 4, 5, 6 });
+    }
+    new ResultShardFormat().merge(Collections.singletonList(shard), manager);
+  }
+
+  private static class CompactContext implements Context {
+    private final String systemId;
+    private final int line;
+
+    public CompactContext(String systemId, int line) {
+      this.systemId = systemId;
+      this.line = line;
+    }
+
+    @Override
+    public String getSystemId() {
+      return systemId;
+    }
+
+    @Override
+    public int getLine() {
+      return line;
+    }
+
+    @Override
+    public int getColumn() {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.requirement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DefaultRequirementsManagerTest {
+
+  private static URL newURL(String name) throws MalformedURLException {
+    return new URL("file:///requirements/" + name + ".xml");
+  }
+
+  /**
+   * A parser that adds one base requirement for each definition, using the definition name as the
+   * identifier.
+   */
+  private static RequirementsParser newParser() {
+    return (url, appender) -> {
+      appender.addRequirementDefinition(url.toURI());
+      String path = url.getPath();
+      String id = path.substring(path.lastIndexOf('/') + 1, path.lastIndexOf('.'));
+      if (id.startsWith("bad")) {
+        throw new RequirementsParserException("unable to load requirements: " + id);
+      }
+      DefaultBaseRequirement base = new DefaultBaseRequirement(id, "statement", new DefaultSpecificationReference(
+          new DefaultSpecification("spec", URI.create("spec.html")), null, null, null));
+      base.addDerivedRequirement(new DefaultDerivedRequirement(base, id + "-1", "statement", RequirementType.MUST,
+          false, null));
+      appender.addBaseRequirement(base);
+    };
+  }
+
+  /**
+   * Holds the submitted tasks until the expected number of tasks have been submitted, and then runs
+   * them in the reverse of the order they were submitted.
+   */
+  private static class ReversingExecutor implements Executor {
+    private final int expectedTasks;
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    public ReversingExecutor(int expectedTasks) {
+      this.expectedTasks = expectedTasks;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      tasks.add(command);
+      if (tasks.size() == expectedTasks) {
+        Collections.reverse(tasks);
+        tasks.forEach(Runnable::run);
+      }
+    }
+  }
+
+  @Test
+  public void testLoadAllPreservesOrder()
+      throws RequirementsParserException, URISyntaxException, MalformedURLException {
+    List<URL> urls = Arrays.asList(newURL("A"), newURL("B"), newURL("C"));
+    ReversingExecutor executor = new ReversingExecutor(urls.size());
+    AtomicInteger parserCount = new AtomicInteger();
+
+    DefaultRequirementsManager manager = new DefaultRequirementsManager();
+    assertSame(manager, manager.loadAll(urls, () -> {
+      parserCount.incrementAndGet();
+      return newParser();
+    }, executor));
+
+    assertEquals(Arrays.asList(new URI("file:///requirements/A.xml"), new URI("file:///requirements/B.xml"),
+        new URI("file:///requirements/C.xml")), manager.getRequirementDefinitions());
+    assertEquals(0, manager.getBaseRequirementIndex("A"));
+    assertEquals(1, manager.getBaseRequirementIndex("B"));
+    assertEquals(2, manager.getBaseRequirementIndex("C"));
+    assertEquals(2, manager.getDerivedRequirementIndex("C-1"));
+    // the tasks ran one after another, so the first parser was reused
+    assertEquals(1, parserCount.get());
+  }
+
+  @Test
+  public void testLoadAllDetectsDuplicates() throws RequirementsParserException, URISyntaxException,
+      MalformedURLException {
+    DefaultRequirementsManager manager = new DefaultRequirementsManager();
+    manager.load(newURL("A"), newParser());
+    try {
+      manager.loadAll(Arrays.asList(newURL("B"), newURL("A")), DefaultRequirementsManagerTest::newParser,
+          Runnable::run);
+      fail("expected a duplicate requirement");
+    } catch (IllegalArgumentException ex) {
+      assertTrue(ex.getMessage().contains("A"));
+    }
+    // the definitions before the duplicate are added, matching sequential loading
+    assertEquals(1, manager.getBaseRequirementIndex("B"));
+  }
+
+  @Test
+  public void testLoadAllParseError() throws URISyntaxException, MalformedURLException {
+    DefaultRequirementsManager manager = new DefaultRequirementsManager();
+    try {
+      manager.loadAll(Arrays.asList(newURL("A"), newURL("bad1"), newURL("bad2")),
+          DefaultRequirementsManagerTest::newParser, Runnable::run);
+      fail("expected a parse error");
+    } catch (RequirementsParserException ex) {
+      assertTrue(ex.getMessage().contains("bad1"));
+    }
+    assertEquals(0, manager.getBaseRequirementCount());
+    assertEquals(0, manager.getRequirementDefinitions().size());
+  }
+}
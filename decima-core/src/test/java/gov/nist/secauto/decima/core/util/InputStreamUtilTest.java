@@ -0,0 +1,151 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.core.util;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class InputStreamUtilTest {
+  private static final byte[] CONTENT = "<root><child/></root>".getBytes(StandardCharsets.UTF_8);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testPlain() throws IOException {
+    File file = folder.newFile("plain.xml");
+    Files.write(file.toPath(), CONTENT);
+    assertContent(CONTENT, file);
+  }
+
+  @Test
+  public void testGzip() throws IOException {
+    // the format is detected by content, not by extension
+    File file = folder.newFile("compressed.xml");
+    try (OutputStream os = new GZIPOutputStream(new FileOutputStream(file))) {
+      os.write(CONTENT);
+    }
+    assertContent(CONTENT, file);
+  }
+
+  @Test
+  public void testZip() throws IOException {
+    File file = folder.newFile("bundle.zip");
+    try (ZipOutputStream os = new ZipOutputStream(new FileOutputStream(file))) {
+      os.putNextEntry(new ZipEntry("dir/"));
+      os.closeEntry();
+      os.putNextEntry(new ZipEntry("dir/document.xml"));
+      os.write(CONTENT);
+      os.closeEntry();
+      os.putNextEntry(new ZipEntry("other.xml"));
+      os.write("<other/>".getBytes(StandardCharsets.UTF_8));
+      os.closeEntry();
+    }
+    assertContent(CONTENT, file);
+  }
+
+  @Test(expected = IOException.class)
+  public void testZstdWithoutDecoder() throws IOException {
+    File file = folder.newFile("compressed.xml.zst");
+    Files.write(file.toPath(), new byte[] { 0x28, (byte) 0xB5, 0x2F, (byte) 0xFD, 0x00 });
+    InputStreamUtil.open(file).close();
+  }
+
+  @Test
+  public void testShortContent() throws IOException {
+    File file = folder.newFile("short.txt");
+    Files.write(file.toPath(), new byte[] { 0x1F });
+    assertContent(new byte[] { 0x1F }, file);
+  }
+
+  @Test
+  public void testMappedWindows() throws IOException {
+    byte[] content = new byte[10000];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    File file = folder.newFile("mapped.bin");
+    Files.write(file.toPath(), content);
+
+    try (InputStream is = new MappedFileInputStream(file, 1024)) {
+      Assert.assertEquals(content[0] & 0xFF, is.read());
+      Assert.assertEquals(2047, is.skip(2047));
+      byte[] buffer = new byte[3000];
+      int length = is.read(buffer, 0, buffer.length);
+      // reads stop at the end of a mapped window
+      Assert.assertEquals(1024, length);
+      Assert.assertEquals(content[2048], buffer[0]);
+      Assert.assertEquals(content.length - 2048 - 1024, is.available());
+      Assert.assertEquals(content.length - 2048 - 1024, is.skip(Long.MAX_VALUE));
+      Assert.assertEquals(-1, is.read());
+    }
+
+    try (InputStream is = new MappedFileInputStream(file, 1024)) {
+      Assert.assertArrayEquals(content, readAll(is));
+    }
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void testMissingFile() throws IOException {
+    new MappedFileInputStream(new File(folder.getRoot(), "missing.xml")).close();
+  }
+
+  private static void assertContent(byte[] expected, File file) throws IOException {
+    try (InputStream is = InputStreamUtil.open(file)) {
+      Assert.assertArrayEquals(expected, readAll(is));
+    }
+    try (InputStream is = InputStreamUtil.open(file.toURI().toURL())) {
+      Assert.assertArrayEquals(expected, readAll(is));
+    }
+  }
+
+  private static byte[] readAll(InputStream is) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    int length;
+    while ((length = is.read(buffer)) != -1) {
+      os.write(buffer, 0, length);
+    }
+    return os.toByteArray();
+  }
+}
@@ -0,0 +1,219 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.batch;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds the documents to validate in a batch. Each input is one of the following:
+ * <ul>
+ * <li>a file, which is validated;</li>
+ * <li>a directory, which is searched recursively for files whose name matches the include
+ * pattern; or</li>
+ * <li>a glob pattern, such as {@code docs/**.xml}, which is matched against the paths of the files
+ * below the longest leading directory of the pattern that contains no glob characters.</li>
+ * </ul>
+ * Directories are searched in parallel. Symbolic links to directories are not followed.
+ */
+public class BatchInputCollector {
+  public static final String DEFAULT_INCLUDE_PATTERN = "*.xml";
+
+  private static final String GLOB_CHARACTERS = "*?[{";
+
+  private final ForkJoinPool pool;
+  private String includePattern = DEFAULT_INCLUDE_PATTERN;
+
+  /**
+   * Constructs a new collector that searches directories using the provided pool.
+   * 
+   * @param pool
+   *          the pool used to search directories in parallel
+   */
+  public BatchInputCollector(ForkJoinPool pool) {
+    Objects.requireNonNull(pool, "pool");
+    this.pool = pool;
+  }
+
+  public String getIncludePattern() {
+    return includePattern;
+  }
+
+  /**
+   * Sets the glob pattern used to select the files to validate when searching a directory input.
+   * The pattern is matched against the file name.
+   * 
+   * @param includePattern
+   *          the glob pattern to match file names against
+   */
+  public void setIncludePattern(String includePattern) {
+    Objects.requireNonNull(includePattern, "includePattern");
+    this.includePattern = includePattern;
+  }
+
+  /**
+   * Finds the documents identified by the provided inputs. Documents are returned in the order of
+   * the inputs, and the documents found for each input are sorted by their relative path. A document
+   * identified by more than one input is returned once.
+   * 
+   * @param inputs
+   *          the files, directories and glob patterns to find documents for
+   * @return the documents found
+   * @throws IOException
+   *           if an input does not identify an existing file or directory, or an error occurred
+   *           while searching a directory
+   */
+  public List<BatchInput> collect(List<String> inputs) throws IOException {
+    Map<Path, BatchInput> retval = new LinkedHashMap<>();
+    for (String input : inputs) {
+      for (BatchInput found : collect(input)) {
+        retval.putIfAbsent(found.getFile().toPath(), found);
+      }
+    }
+    return new ArrayList<>(retval.values());
+  }
+
+  private List<BatchInput> collect(String input) throws IOException {
+    Path path = Paths.get(input).toAbsolutePath().normalize();
+    Path baseDir;
+    PathMatcher matcher;
+    boolean matchFileName;
+    if (Files.isRegularFile(path)) {
+      List<BatchInput> retval = new ArrayList<>(1);
+      retval.add(new BatchInput(path.toFile(), path.getFileName()));
+      return retval;
+    } else if (Files.isDirectory(path)) {
+      baseDir = path;
+      matcher = FileSystems.getDefault().getPathMatcher("glob:" + includePattern);
+      matchFileName = true;
+    } else {
+      int globIndex = indexOfGlob(input);
+      if (globIndex < 0) {
+        throw new FileNotFoundException("The batch input does not exist: " + input);
+      }
+      int separatorIndex
+          = Math.max(input.lastIndexOf('/', globIndex), input.lastIndexOf(File.separatorChar, globIndex));
+      baseDir = Paths.get(separatorIndex < 0 ? "" : input.substring(0, separatorIndex + 1)).toAbsolutePath()
+          .normalize();
+      matcher = FileSystems.getDefault().getPathMatcher("glob:" + input.substring(separatorIndex + 1));
+      matchFileName = false;
+      if (!Files.isDirectory(baseDir)) {
+        throw new FileNotFoundException("The directory for the batch input does not exist: " + input);
+      }
+    }
+
+    List<Path> files;
+    try {
+      files = pool.invoke(new DirectorySearchTask(baseDir, baseDir, matcher, matchFileName));
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+
+    files.sort(Comparator.naturalOrder());
+    List<BatchInput> retval = new ArrayList<>(files.size());
+    for (Path file : files) {
+      retval.add(new BatchInput(baseDir.resolve(file).toFile(), file));
+    }
+    return retval;
+  }
+
+  private static int indexOfGlob(String input) {
+    for (int i = 0; i < input.length(); i++) {
+      if (GLOB_CHARACTERS.indexOf(input.charAt(i)) >= 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Searches a directory, forking a sub-task for each sub-directory. Returns the paths of the
+   * matching files relative to the base directory.
+   */
+  private static class DirectorySearchTask
+      extends RecursiveTask<List<Path>> {
+    /** The serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    private final Path baseDir;
+    private final Path dir;
+    private final transient PathMatcher matcher;
+    private final boolean matchFileName;
+
+    public DirectorySearchTask(Path baseDir, Path dir, PathMatcher matcher, boolean matchFileName) {
+      this.baseDir = baseDir;
+      this.dir = dir;
+      this.matcher = matcher;
+      this.matchFileName = matchFileName;
+    }
+
+    @Override
+    protected List<Path> compute() {
+      List<Path> retval = new ArrayList<>();
+      List<DirectorySearchTask> subtasks = new ArrayList<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+        for (Path path : stream) {
+          if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            DirectorySearchTask subtask = new DirectorySearchTask(baseDir, path, matcher, matchFileName);
+            subtask.fork();
+            subtasks.add(subtask);
+          } else if (Files.isRegularFile(path)) {
+            Path relativePath = baseDir.relativize(path);
+            if (matcher.matches(matchFileName ? path.getFileName() : relativePath)) {
+              retval.add(relativePath);
+            }
+          }
+        }
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+
+      for (DirectorySearchTask subtask : subtasks) {
+        retval.addAll(subtask.join());
+      }
+      return retval;
+    }
+  }
+}
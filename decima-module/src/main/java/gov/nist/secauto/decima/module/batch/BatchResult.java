@@ -0,0 +1,109 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.batch;
+
+import java.io.File;
+import java.util.Objects;
+
+/**
+ * The outcome of validating a single document in a batch.
+ */
+public final class BatchResult {
+  public enum Status {
+    /**
+     * The document was validated, and the validation results and report were written.
+     */
+    VALIDATED,
+    /**
+     * An error occurred while validating the document.
+     */
+    FAILED;
+  }
+
+  private final BatchInput input;
+  private final Status status;
+  private final File resultFile;
+  private final File reportFile;
+  private final String message;
+  private final long durationMillis;
+
+  /**
+   * Constructs a new batch result.
+   * 
+   * @param input
+   *          the document that was validated
+   * @param status
+   *          the outcome of the validation
+   * @param resultFile
+   *          the file the validation results were written to
+   * @param reportFile
+   *          the file the HTML validation report was written to
+   * @param message
+   *          a message describing the error that occurred, or {@code null} if the validation
+   *          completed
+   * @param durationMillis
+   *          the time taken to validate the document
+   */
+  public BatchResult(BatchInput input, Status status, File resultFile, File reportFile, String message,
+      long durationMillis) {
+    Objects.requireNonNull(input, "input");
+    Objects.requireNonNull(status, "status");
+    Objects.requireNonNull(resultFile, "resultFile");
+    Objects.requireNonNull(reportFile, "reportFile");
+    this.input = input;
+    this.status = status;
+    this.resultFile = resultFile;
+    this.reportFile = reportFile;
+    this.message = message;
+    this.durationMillis = durationMillis;
+  }
+
+  public BatchInput getInput() {
+    return input;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public File getResultFile() {
+    return resultFile;
+  }
+
+  public File getReportFile() {
+    return reportFile;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public long getDurationMillis() {
+    return durationMillis;
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.batch;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * The combined outcome of validating a batch of documents.
+ */
+public class BatchSummary {
+  private final List<BatchResult> results;
+  private final long durationMillis;
+
+  /**
+   * Constructs a new summary.
+   * 
+   * @param results
+   *          the outcome of each validated document, in input order
+   * @param durationMillis
+   *          the time taken to validate the batch
+   */
+  public BatchSummary(List<BatchResult> results, long durationMillis) {
+    Objects.requireNonNull(results, "results");
+    this.results = Collections.unmodifiableList(results);
+    this.durationMillis = durationMillis;
+  }
+
+  public List<BatchResult> getResults() {
+    return results;
+  }
+
+  public long getDurationMillis() {
+    return durationMillis;
+  }
+
+  /**
+   * Retrieves the number of documents that could not be validated.
+   * 
+   * @return the number of failed validations
+   */
+  public int getFailedCount() {
+    int retval = 0;
+    for (BatchResult result : results) {
+      if (BatchResult.Status.FAILED.equals(result.getStatus())) {
+        retval++;
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * Writes an XML index of the batch. Each validated document is listed with its status and the
+   * location of its validation results and report, relative to the directory containing the index.
+   * 
+   * @param file
+   *          the file to write the index to
+   * @throws IOException
+   *           if an error occurred while writing the index
+   */
+  public void write(File file) throws IOException {
+    Path baseDir = file.getAbsoluteFile().getParentFile().toPath();
+    try (OutputStream os = new BufferedOutputStream(new FileOutputStream(file))) {
+      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(os, "UTF-8");
+      writer.writeStartDocument("UTF-8", "1.0");
+      writer.writeCharacters("\n");
+      writer.writeStartElement("batch-summary");
+      writer.writeAttribute("documents", Integer.toString(results.size()));
+      writer.writeAttribute("failed", Integer.toString(getFailedCount()));
+      writer.writeAttribute("duration-ms", Long.toString(durationMillis));
+      for (BatchResult result : results) {
+        writer.writeCharacters("\n  ");
+        writer.writeStartElement("document");
+        writer.writeAttribute("path", toURIPath(result.getInput().getRelativePath()));
+        writer.writeAttribute("source", result.getInput().getFile().toURI().toString());
+        writer.writeAttribute("status", result.getStatus().name().toLowerCase());
+        writer.writeAttribute("duration-ms", Long.toString(result.getDurationMillis()));
+        if (BatchResult.Status.VALIDATED.equals(result.getStatus())) {
+          writer.writeAttribute("result", relativize(baseDir, result.getResultFile()));
+          writer.writeAttribute("report", relativize(baseDir, result.getReportFile()));
+        }
+        if (result.getMessage() != null) {
+          writer.writeCharacters(result.getMessage());
+        }
+        writer.writeEndElement();
+      }
+      writer.writeCharacters("\n");
+      writer.writeEndElement();
+      writer.writeEndDocument();
+      writer.close();
+    } catch (XMLStreamException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  private static String relativize(Path baseDir, File file) {
+    return toURIPath(baseDir.relativize(file.getAbsoluteFile().toPath()));
+  }
+
+  private static String toURIPath(Path path) {
+    StringBuilder builder = new StringBuilder();
+    for (Path element : path) {
+      if (builder.length() > 0) {
+        builder.append('/');
+      }
+      builder.append(element.toString());
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,218 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.batch;
+
+import gov.nist.secauto.decima.module.cli.CLIParser;
+import gov.nist.secauto.decima.module.server.ValidationException;
+import gov.nist.secauto.decima.module.server.ValidationHandler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates a batch of documents using a single {@link ValidationHandler}, allowing the
+ * requirements and assessments loaded by the handler to be shared by every document in the batch.
+ * <p>
+ * Documents are validated concurrently, up to the configured number of threads. The validation
+ * results and report for each document are written as soon as the document has been validated, to
+ * a directory below the output directory that mirrors the location of the document relative to the
+ * input it was found by. For example, the document {@code docs/a/b.xml} found using the input
+ * {@code docs} is written to {@code <output>/a/b.xml/validation-result.xml}. A summary index of
+ * the batch is written to the output directory once all documents have been validated.
+ */
+public class BatchValidator {
+  private static final Logger log = LogManager.getLogger(BatchValidator.class);
+
+  public static final String DEFAULT_SUMMARY_FILE = "batch-summary.xml";
+
+  private final ValidationHandler handler;
+  private final File outputDirectory;
+  private final int threads;
+  private String includePattern = BatchInputCollector.DEFAULT_INCLUDE_PATTERN;
+  private String summaryFileName = DEFAULT_SUMMARY_FILE;
+
+  /**
+   * Constructs a new batch validator.
+   * 
+   * @param handler
+   *          the handler to perform validations with, which must support concurrent use
+   * @param outputDirectory
+   *          the directory to write the validation output to
+   * @param threads
+   *          the maximum number of documents to validate at the same time
+   */
+  public BatchValidator(ValidationHandler handler, File outputDirectory, int threads) {
+    Objects.requireNonNull(handler, "handler");
+    Objects.requireNonNull(outputDirectory, "outputDirectory");
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be positive");
+    }
+    this.handler = handler;
+    this.outputDirectory = outputDirectory;
+    this.threads = threads;
+  }
+
+  public File getOutputDirectory() {
+    return outputDirectory;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public String getIncludePattern() {
+    return includePattern;
+  }
+
+  /**
+   * Sets the glob pattern used to select the files to validate when searching a directory input.
+   * 
+   * @param includePattern
+   *          the glob pattern to match file names against
+   * @see BatchInputCollector#setIncludePattern(String)
+   */
+  public void setIncludePattern(String includePattern) {
+    Objects.requireNonNull(includePattern, "includePattern");
+    this.includePattern = includePattern;
+  }
+
+  public String getSummaryFileName() {
+    return summaryFileName;
+  }
+
+  public void setSummaryFileName(String summaryFileName) {
+    Objects.requireNonNull(summaryFileName, "summaryFileName");
+    this.summaryFileName = summaryFileName;
+  }
+
+  /**
+   * Finds and validates the documents identified by the provided inputs, and writes the summary
+   * index.
+   * 
+   * @param inputs
+   *          the files, directories and glob patterns identifying the documents to validate
+   * @return the summary of the batch
+   * @throws IOException
+   *           if an error occurred while finding the documents or writing the summary
+   * @see BatchInputCollector
+   */
+  public BatchSummary validate(List<String> inputs) throws IOException {
+    long start = System.currentTimeMillis();
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      BatchInputCollector collector = new BatchInputCollector(pool);
+      collector.setIncludePattern(includePattern);
+      List<BatchInput> documents = collector.collect(inputs);
+      log.info("Validating {} document(s) using {} thread(s)", documents.size(), threads);
+
+      List<BatchResult> results = validate(documents, pool);
+      BatchSummary retval = new BatchSummary(results, System.currentTimeMillis() - start);
+      File summaryFile = new File(outputDirectory, summaryFileName);
+      retval.write(summaryFile);
+      log.info("Validated {} document(s), {} failed. Summary written to: {}", results.size(),
+          retval.getFailedCount(), summaryFile);
+      return retval;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private List<BatchResult> validate(List<BatchInput> documents, ForkJoinPool pool) throws IOException {
+    if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+      throw new IOException("Unable to create the output directory: " + outputDirectory);
+    }
+
+    AtomicInteger completed = new AtomicInteger();
+    Set<File> usedDirectories = new HashSet<>();
+    List<CompletableFuture<BatchResult>> futures = new ArrayList<>(documents.size());
+    for (BatchInput document : documents) {
+      File documentOutputDirectory = newOutputDirectory(document, usedDirectories);
+      futures.add(CompletableFuture.supplyAsync(() -> {
+        BatchResult result = validate(document, documentOutputDirectory);
+        log.info("[{}/{}] {} {}", completed.incrementAndGet(), documents.size(),
+            result.getStatus().name().toLowerCase(), document);
+        return result;
+      }, pool));
+    }
+
+    List<BatchResult> retval = new ArrayList<>(futures.size());
+    for (CompletableFuture<BatchResult> future : futures) {
+      retval.add(future.join());
+    }
+    return retval;
+  }
+
+  /**
+   * Determines the directory to write the output for a document to, keeping documents with the same
+   * relative path found by different inputs apart.
+   */
+  private File newOutputDirectory(BatchInput document, Set<File> usedDirectories) {
+    File retval = new File(outputDirectory, document.getRelativePath().toString());
+    for (int i = 2; !usedDirectories.add(retval); i++) {
+      retval = new File(outputDirectory, document.getRelativePath().toString() + "-" + i);
+    }
+    return retval;
+  }
+
+  private BatchResult validate(BatchInput document, File documentOutputDirectory) {
+    File resultFile = new File(documentOutputDirectory, CLIParser.DEFAULT_VALIDATION_RESULT_FILE);
+    File reportFile = new File(documentOutputDirectory, CLIParser.DEFAULT_VALIDATION_REPORT_FILE);
+
+    long start = System.nanoTime();
+    BatchResult.Status status;
+    String message;
+    if (!documentOutputDirectory.isDirectory() && !documentOutputDirectory.mkdirs()) {
+      status = BatchResult.Status.FAILED;
+      message = "Unable to create the output directory: " + documentOutputDirectory;
+    } else {
+      try {
+        handler.validate(document.getFile(), resultFile, reportFile);
+        status = BatchResult.Status.VALIDATED;
+        message = null;
+      } catch (ValidationException | RuntimeException ex) {
+        log.error("Unable to validate: " + document.getFile(), ex);
+        status = BatchResult.Status.FAILED;
+        message = ex.getLocalizedMessage() == null ? ex.toString() : ex.getLocalizedMessage();
+      }
+    }
+    long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    return new BatchResult(document, status, resultFile, reportFile, message, duration);
+  }
+}
@@ -26,8 +26,19 @@
 
 package gov.nist.secauto.decima.module.cli;
 
+import gov.nist.secauto.decima.module.batch.BatchInputCollector;
+import gov.nist.secauto.decima.module.batch.BatchValidator;
+import gov.nist.secauto.decima.module.cli.commons.cli.OptionAddressValidator;
+import gov.nist.secauto.decima.module.cli.commons.cli.OptionPatternValidator;
+import gov.nist.secauto.decima.module.cli.commons.cli.OptionRangeValidator;
 import gov.nist.secauto.decima.module.cli.commons.cli.OptionValidator;
+import gov.nist.secauto.decima.module.distributed.ValidationCoordinator;
 import gov.nist.secauto.decima.module.logging.DecimaLoggingConfigurationFactory;
+import gov.nist.secauto.decima.module.server.ValidationClient;
+import gov.nist.secauto.decima.module.server.ValidationHandler;
+import gov.nist.secauto.decima.module.server.ValidationServer;
+import gov.nist.secauto.decima.module.watch.ValidationHandlerFactory;
+import gov.nist.secauto.decima.module.watch.ValidationWatcher;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -39,9 +50,16 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.logging.log4j.Level;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
 public class CLIParser {
   // private static final Logger log = LogManager.getLogger(CLIParser.class);
@@ -49,12 +67,36 @@ public class CLIParser {
   private static final String OPTION_QUIET = "quiet";
   private static final String OPTION_VERSION = "version";
   private static final String OPTION_HELP = "h";
+  private static final int MAX_PORT = 65535;
 
   public static final String OPTION_VALIDATION_RESULT_FILE = "valresultfile";
   public static final String OPTION_VALIDATION_REPORT_FILE = "valreportfile";
   public static final String DEFAULT_VALIDATION_RESULT_FILE = "validation-result.xml";
   public static final String DEFAULT_VALIDATION_REPORT_FILE = "validation-report.html";
 
+  public static final String OPTION_SERVER = "server";
+  public static final String OPTION_SERVER_THREADS = "serverthreads";
+  public static final String OPTION_SERVER_QUEUE = "serverqueue";
+  public static final String OPTION_CLIENT = "client";
+  public static final int DEFAULT_SERVER_QUEUE = 64;
+
+  public static final String OPTION_BATCH = "batch";
+  public static final String OPTION_BATCH_THREADS = "batchthreads";
+  public static final String OPTION_BATCH_OUTPUT_DIR = "batchoutdir";
+  public static final String OPTION_BATCH_INCLUDE = "batchinclude";
+  public static final String OPTION_BATCH_SUMMARY = "batchsummary";
+  public static final String DEFAULT_BATCH_OUTPUT_DIR = "validation-results";
+
+  public static final String OPTION_WATCH = "watch";
+  public static final String OPTION_WATCH_RULES = "watchrules";
+  public static final String OPTION_WATCH_DEBOUNCE = "watchdebounce";
+
+  public static final String OPTION_WORKER = "worker";
+  public static final String OPTION_WORKERS = "workers";
+  public static final String OPTION_WORKER_TASKS = "workertasks";
+  public static final String OPTION_WORKER_ATTEMPTS = "workerattempts";
+  public static final String OPTION_WORKER_TIMEOUT = "workertimeout";
+
   private final Map<Option, OptionValidator> optionValidatorMap = new HashMap<>();
   private final Options options = new Options();
   private final String cmdLineSyntax;
@@ -116,6 +158,275 @@ public class CLIParser {
     return this;
   }
 
+  /**
+   * Adds the options used to run a tool as a long-running {@link ValidationServer}, or to send
+   * documents to such a server using a {@link ValidationClient}.
+   * 
+   * @return the current class instance
+   * @see #newValidationServer(CommandLine, ValidationHandler)
+   * @see #newValidationClient(CommandLine)
+   */
+  public CLIParser addServerOptions() {
+    Option server = Option.builder(OPTION_SERVER)
+        .desc("Run as a validation server listening on the localhost PORT (0 selects any free port)").hasArg()
+        .argName("PORT").build();
+    Option client = Option.builder(OPTION_CLIENT)
+        .desc("Send documents to the validation server listening on the localhost PORT").hasArg().argName("PORT")
+        .build();
+    addOption(new OptionRangeValidator(server, 0, MAX_PORT));
+    addOption(new OptionRangeValidator(client, 1, MAX_PORT));
+    addOptionGroup(new OptionGroup().addOption(server).addOption(client));
+
+    Option threads = Option.builder(OPTION_SERVER_THREADS)
+        .desc("The maximum number of concurrent validations performed by the server (default: available processors)")
+        .hasArg().argName("COUNT").build();
+    Option queue = Option.builder(OPTION_SERVER_QUEUE)
+        .desc("The maximum number of requests waiting to be validated by the server (default: " + DEFAULT_SERVER_QUEUE
+            + ")")
+        .hasArg().argName("COUNT").build();
+    addOption(new OptionRangeValidator(threads, 1, Integer.MAX_VALUE));
+    addOption(new OptionRangeValidator(queue, 0, Integer.MAX_VALUE));
+    return this;
+  }
+
+  /**
+   * Creates a validation server configured using the options added by {@link #addServerOptions()}.
+   * 
+   * @param cmd
+   *          the parsed command line, which has the {@link #OPTION_SERVER} option
+   * @param handler
+   *          the handler to perform validations with
+   * @return a new server, which has not been started
+   */
+  public static ValidationServer newValidationServer(CommandLine cmd, ValidationHandler handler) {
+    int port = Integer.parseInt(cmd.getOptionValue(OPTION_SERVER));
+    int threads = cmd.hasOption(OPTION_SERVER_THREADS) ? Integer.parseInt(cmd.getOptionValue(OPTION_SERVER_THREADS))
+        : Runtime.getRuntime().availableProcessors();
+    int queue = cmd.hasOption(OPTION_SERVER_QUEUE) ? Integer.parseInt(cmd.getOptionValue(OPTION_SERVER_QUEUE))
+        : DEFAULT_SERVER_QUEUE;
+    return new ValidationServer(handler, port, threads, queue);
+  }
+
+  /**
+   * Creates a validation client configured using the options added by {@link #addServerOptions()}.
+   * 
+   * @param cmd
+   *          the parsed command line, which has the {@link #OPTION_CLIENT} option
+   * @return a new client
+   */
+  public static ValidationClient newValidationClient(CommandLine cmd) {
+    return new ValidationClient(Integer.parseInt(cmd.getOptionValue(OPTION_CLIENT)));
+  }
+
+  /**
+   * Adds the options used to validate a batch of documents in a single run of a tool using a
+   * {@link BatchValidator}.
+   * 
+   * @return the current class instance
+   * @see #newBatchValidator(CommandLine, ValidationHandler)
+   */
+  public CLIParser addBatchOptions() {
+    Option batch = Option.builder(OPTION_BATCH)
+        .desc("Validate the files, directories and glob patterns provided instead of a single document").hasArgs()
+        .argName("INPUT").build();
+    Option threads = Option.builder(OPTION_BATCH_THREADS)
+        .desc("The number of documents to validate at the same time (default: available processors)").hasArg()
+        .argName("COUNT").build();
+    Option outputDir = Option.builder(OPTION_BATCH_OUTPUT_DIR)
+        .desc("The directory to write the batch validation results and reports to (default: "
+            + DEFAULT_BATCH_OUTPUT_DIR + ")")
+        .hasArg().argName("DIR").build();
+    Option include = Option.builder(OPTION_BATCH_INCLUDE)
+        .desc("The glob pattern of the file names to validate in a directory (default: "
+            + BatchInputCollector.DEFAULT_INCLUDE_PATTERN + ")")
+        .hasArg().argName("GLOB").build();
+    Option summary = Option.builder(OPTION_BATCH_SUMMARY)
+        .desc("The name of the batch summary file in the output directory (default: "
+            + BatchValidator.DEFAULT_SUMMARY_FILE + ")")
+        .hasArg().argName("FILE").build();
+
+    addOption(batch);
+    addOption(new OptionPatternValidator(threads, Pattern.compile("[1-9]\\d*")));
+    addOption(outputDir);
+    addOption(include);
+    addOption(summary);
+    return this;
+  }
+
+  /**
+   * Creates a batch validator configured using the options added by {@link #addBatchOptions()}. The
+   * inputs to validate are the values of the {@link #OPTION_BATCH} option.
+   * 
+   * @param cmd
+   *          the parsed command line, which has the {@link #OPTION_BATCH} option
+   * @param handler
+   *          the handler to perform validations with, which must support concurrent use
+   * @return a new batch validator
+   */
+  public static BatchValidator newBatchValidator(CommandLine cmd, ValidationHandler handler) {
+    int threads = cmd.hasOption(OPTION_BATCH_THREADS) ? Integer.parseInt(cmd.getOptionValue(OPTION_BATCH_THREADS))
+        : Runtime.getRuntime().availableProcessors();
+    File outputDir = new File(cmd.getOptionValue(OPTION_BATCH_OUTPUT_DIR, DEFAULT_BATCH_OUTPUT_DIR));
+
+    BatchValidator retval = new BatchValidator(handler, outputDir, threads);
+    if (cmd.hasOption(OPTION_BATCH_INCLUDE)) {
+      retval.setIncludePattern(cmd.getOptionValue(OPTION_BATCH_INCLUDE));
+    }
+    if (cmd.hasOption(OPTION_BATCH_SUMMARY)) {
+      retval.setSummaryFileName(cmd.getOptionValue(OPTION_BATCH_SUMMARY));
+    }
+    return retval;
+  }
+
+  /**
+   * Adds the options used to re-validate documents as they change using a
+   * {@link ValidationWatcher}.
+   * 
+   * @return the current class instance
+   * @see #newValidationWatcher(CommandLine, ValidationHandlerFactory)
+   */
+  public CLIParser addWatchOptions() {
+    Option watch = Option.builder(OPTION_WATCH)
+        .desc("Keep running, and re-validate the document whenever it or the rules it is validated against change")
+        .build();
+    Option rules = Option.builder(OPTION_WATCH_RULES)
+        .desc("Additional rule files, such as Schematron includes, that cause a re-validation when changed")
+        .hasArgs().argName("FILE").build();
+    Option debounce = Option.builder(OPTION_WATCH_DEBOUNCE)
+        .desc("The time to wait for further changes before re-validating, in milliseconds (default: "
+            + ValidationWatcher.DEFAULT_DEBOUNCE_MILLIS + ")")
+        .hasArg().argName("MILLIS").build();
+
+    addOption(watch);
+    addOption(rules);
+    addOption(new OptionPatternValidator(debounce, Pattern.compile("\\d+")));
+    return this;
+  }
+
+  /**
+   * Creates a validation watcher configured using the options added by {@link #addWatchOptions()}.
+   * The rule files provided by the {@link #OPTION_WATCH_RULES} option are registered. The tool is
+   * expected to register the documents to validate, and the rule sources it loads itself.
+   * 
+   * @param cmd
+   *          the parsed command line, which has the {@link #OPTION_WATCH} option
+   * @param handlerFactory
+   *          the factory used to create the validation handler
+   * @return a new watcher, which has not been run
+   * @throws IOException
+   *           if the rule files cannot be watched
+   */
+  public static ValidationWatcher newValidationWatcher(CommandLine cmd, ValidationHandlerFactory handlerFactory)
+      throws IOException {
+    ValidationWatcher retval = new ValidationWatcher(handlerFactory);
+    if (cmd.hasOption(OPTION_WATCH_DEBOUNCE)) {
+      retval.setDebounceMillis(Long.parseLong(cmd.getOptionValue(OPTION_WATCH_DEBOUNCE)));
+    }
+    String[] ruleFiles = cmd.getOptionValues(OPTION_WATCH_RULES);
+    if (ruleFiles != null) {
+      for (String ruleFile : ruleFiles) {
+        retval.watchRuleSource(new File(ruleFile));
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * Adds the options used to run a tool as a worker for a {@link ValidationCoordinator}, or to
+   * spread the batch identified by the {@link #OPTION_BATCH} option across such workers. The
+   * options added by {@link #addServerOptions()} and {@link #addBatchOptions()} are expected to be
+   * added as well.
+   * 
+   * @return the current class instance
+   * @see #newValidationWorker(CommandLine, ValidationHandler)
+   * @see #newValidationCoordinator(CommandLine)
+   */
+  public CLIParser addDistributedOptions() {
+    Option worker = Option.builder(OPTION_WORKER)
+        .desc("Run as a worker for a validation coordinator, listening on HOST:PORT (use 0.0.0.0 to accept "
+            + "requests from other hosts)")
+        .hasArg().argName("HOST:PORT").build();
+    Option workers = Option.builder(OPTION_WORKERS)
+        .desc("Validate the batch using the workers listening on each HOST:PORT, instead of this process")
+        .hasArgs().argName("HOST:PORT").build();
+    Option tasks = Option.builder(OPTION_WORKER_TASKS)
+        .desc("The number of documents sent to each worker at the same time (default: "
+            + ValidationCoordinator.DEFAULT_TASKS_PER_WORKER + ")")
+        .hasArg().argName("COUNT").build();
+    Option attempts = Option.builder(OPTION_WORKER_ATTEMPTS)
+        .desc("The number of times a document is sent to a worker when workers are lost or busy (default: "
+            + ValidationCoordinator.DEFAULT_MAX_ATTEMPTS + ")")
+        .hasArg().argName("COUNT").build();
+    Option timeout = Option.builder(OPTION_WORKER_TIMEOUT)
+        .desc("The time to wait for a worker to respond before it is considered lost, in milliseconds (default: "
+            + "no limit)")
+        .hasArg().argName("MILLIS").build();
+
+    addOption(new OptionAddressValidator(worker, 1, MAX_PORT));
+    addOption(new OptionAddressValidator(workers, 1, MAX_PORT));
+    addOption(new OptionRangeValidator(tasks, 1, Integer.MAX_VALUE));
+    addOption(new OptionRangeValidator(attempts, 1, Integer.MAX_VALUE));
+    addOption(new OptionRangeValidator(timeout, 0, Integer.MAX_VALUE));
+    return this;
+  }
+
+  /**
+   * Creates a validation server that acts as a worker, configured using the options added by
+   * {@link #addDistributedOptions()} and {@link #addServerOptions()}.
+   * 
+   * @param cmd
+   *          the parsed command line, which has the {@link #OPTION_WORKER} option
+   * @param handler
+   *          the handler to perform validations with
+   * @return a new server, which has not been started
+   * @throws IOException
+   *           if the host to listen on cannot be resolved
+   */
+  public static ValidationServer newValidationWorker(CommandLine cmd, ValidationHandler handler) throws IOException {
+    InetSocketAddress address = ValidationCoordinator.parseAddress(cmd.getOptionValue(OPTION_WORKER));
+    int threads = cmd.hasOption(OPTION_SERVER_THREADS) ? Integer.parseInt(cmd.getOptionValue(OPTION_SERVER_THREADS))
+        : Runtime.getRuntime().availableProcessors();
+    int queue = cmd.hasOption(OPTION_SERVER_QUEUE) ? Integer.parseInt(cmd.getOptionValue(OPTION_SERVER_QUEUE))
+        : DEFAULT_SERVER_QUEUE;
+    return new ValidationServer(handler, InetAddress.getByName(address.getHostString()), address.getPort(), threads,
+        queue);
+  }
+
+  /**
+   * Creates a validation coordinator configured using the options added by
+   * {@link #addDistributedOptions()} and {@link #addBatchOptions()}. The inputs to validate are the
+   * values of the {@link #OPTION_BATCH} option.
+   * 
+   * @param cmd
+   *          the parsed command line, which has the {@link #OPTION_WORKERS} option
+   * @return a new coordinator
+   */
+  public static ValidationCoordinator newValidationCoordinator(CommandLine cmd) {
+    List<InetSocketAddress> workers = new ArrayList<>();
+    for (String worker : cmd.getOptionValues(OPTION_WORKERS)) {
+      workers.add(ValidationCoordinator.parseAddress(worker));
+    }
+    File outputDir = new File(cmd.getOptionValue(OPTION_BATCH_OUTPUT_DIR, DEFAULT_BATCH_OUTPUT_DIR));
+
+    ValidationCoordinator retval = new ValidationCoordinator(workers, outputDir);
+    if (cmd.hasOption(OPTION_WORKER_TASKS)) {
+      retval.setTasksPerWorker(Integer.parseInt(cmd.getOptionValue(OPTION_WORKER_TASKS)));
+    }
+    if (cmd.hasOption(OPTION_WORKER_ATTEMPTS)) {
+      retval.setMaxAttempts(Integer.parseInt(cmd.getOptionValue(OPTION_WORKER_ATTEMPTS)));
+    }
+    if (cmd.hasOption(OPTION_WORKER_TIMEOUT)) {
+      retval.setReadTimeoutMillis(Integer.parseInt(cmd.getOptionValue(OPTION_WORKER_TIMEOUT)));
+    }
+    if (cmd.hasOption(OPTION_BATCH_INCLUDE)) {
+      retval.setIncludePattern(cmd.getOptionValue(OPTION_BATCH_INCLUDE));
+    }
+    if (cmd.hasOption(OPTION_BATCH_SUMMARY)) {
+      retval.setSummaryFileName(cmd.getOptionValue(OPTION_BATCH_SUMMARY));
+    }
+    return retval;
+  }
+
   public CLIParser addOption(Option option) {
     getOptions().addOption(option);
     return this;
@@ -0,0 +1,69 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.cli.commons.cli;
+
+import org.apache.commons.cli.Option;
+
+public class OptionAddressValidator
+    extends OptionRangeValidator {
+
+  /** the serial version UID. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructs an option validator that validates {@code HOST:PORT} option values, with a port
+   * within an inclusive range.
+   * 
+   * @param option
+   *          the option to validate
+   * @param minimumPort
+   *          the smallest allowed port
+   * @param maximumPort
+   *          the largest allowed port
+   */
+  public OptionAddressValidator(Option option, int minimumPort, int maximumPort) {
+    super(option, minimumPort, maximumPort);
+  }
+
+  @Override
+  public String getAllowedValuesMessage() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("Allowed values must have the form HOST:PORT, with a port from ");
+    builder.append(getMinimum());
+    builder.append(" to ");
+    builder.append(getMaximum());
+    builder.append('.');
+    return builder.toString();
+  }
+
+  @Override
+  protected boolean validateValue(String value) {
+    int index = value.lastIndexOf(':');
+    return index > 0 && super.validateValue(value.substring(index + 1));
+  }
+}
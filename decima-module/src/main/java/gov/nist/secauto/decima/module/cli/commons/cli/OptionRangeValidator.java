@@ -0,0 +1,97 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.cli.commons.cli;
+
+import org.apache.commons.cli.Option;
+
+import java.util.Objects;
+
+public class OptionRangeValidator
+    extends AbstractOptionValidator {
+
+  /** the serial version UID. */
+  private static final long serialVersionUID = 1L;
+
+  private final long minimum;
+  private final long maximum;
+
+  /**
+   * Constructs an option validator that validates option values that are decimal integers within
+   * an inclusive range.
+   * 
+   * @param option
+   *          the option to validate
+   * @param minimum
+   *          the smallest allowed value
+   * @param maximum
+   *          the largest allowed value
+   */
+  public OptionRangeValidator(Option option, long minimum, long maximum) {
+    super(option);
+    Objects.requireNonNull(option);
+    if (minimum > maximum) {
+      throw new IllegalArgumentException("The minimum must not be greater than the maximum");
+    }
+    this.minimum = minimum;
+    this.maximum = maximum;
+  }
+
+  @Override
+  public String getAllowedValuesMessage() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("Allowed values must be integers from ");
+    builder.append(getMinimum());
+    builder.append(" to ");
+    builder.append(getMaximum());
+    builder.append('.');
+    return builder.toString();
+  }
+
+  public long getMinimum() {
+    return minimum;
+  }
+
+  public long getMaximum() {
+    return maximum;
+  }
+
+  @Override
+  protected boolean validateValue(String value) {
+    if (value.isEmpty() || !value.chars().allMatch(ch -> ch >= '0' && ch <= '9')) {
+      return false;
+    }
+
+    long number;
+    try {
+      number = Long.parseLong(value);
+    } catch (NumberFormatException ex) {
+      return false;
+    }
+    return number >= getMinimum() && number <= getMaximum();
+  }
+}
@@ -0,0 +1,458 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.distributed;
+
+import gov.nist.secauto.decima.module.batch.BatchInput;
+import gov.nist.secauto.decima.module.batch.BatchInputCollector;
+import gov.nist.secauto.decima.module.batch.BatchResult;
+import gov.nist.secauto.decima.module.batch.BatchSummary;
+import gov.nist.secauto.decima.module.batch.BatchValidator;
+import gov.nist.secauto.decima.module.cli.CLIParser;
+import gov.nist.secauto.decima.module.server.ValidationClient;
+import gov.nist.secauto.decima.module.server.ValidationException;
+import gov.nist.secauto.decima.module.server.ValidationServer;
+import gov.nist.secauto.decima.module.server.ValidationStatusException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Validates a batch of documents by spreading them across several worker processes, which may run
+ * on the same machine or on other hosts. Each worker is a {@link ValidationServer} listening on a
+ * {@code host:port} address. Since a worker reuses its loaded requirements, Schematron and schema
+ * for every document it validates, its compiled rules stay warm between tasks.
+ * <p>
+ * Documents are handed out from a shared queue, allowing faster workers to take on more of the
+ * batch. Each worker is sent up to a configured number of documents at the same time. A document
+ * that a worker fails to validate is reported as failed, since another worker would fail in the same
+ * way, as is a document that a worker responds to with an unexpected HTTP status. A document that a
+ * worker remained too busy to accept is returned to the queue. A worker that cannot be reached, or
+ * does not respond within the configured timeouts, is considered lost, and is sent no further
+ * documents. The document it was validating is returned to the queue for another worker. A document
+ * is sent up to a configured number of attempts. If all workers are lost, the remaining documents
+ * are reported as failed.
+ * <p>
+ * The validation results and reports returned by the workers are written to the output directory
+ * using the same layout as the {@link BatchValidator}, and are combined in a single
+ * {@link BatchSummary}.
+ */
+public class ValidationCoordinator {
+  private static final Logger log = LogManager.getLogger(ValidationCoordinator.class);
+
+  public static final int DEFAULT_TASKS_PER_WORKER = 2;
+  public static final int DEFAULT_MAX_ATTEMPTS = 3;
+  /**
+   * The time a worker thread waits for a document to be returned to the queue, before checking if
+   * the batch has completed.
+   */
+  private static final long POLL_MILLIS = 100;
+
+  private final List<InetSocketAddress> workers;
+  private final File outputDirectory;
+  private int tasksPerWorker = DEFAULT_TASKS_PER_WORKER;
+  private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+  private int connectTimeoutMillis = ValidationClient.DEFAULT_CONNECT_TIMEOUT_MILLIS;
+  private int readTimeoutMillis;
+  private String includePattern = BatchInputCollector.DEFAULT_INCLUDE_PATTERN;
+  private String summaryFileName = BatchValidator.DEFAULT_SUMMARY_FILE;
+
+  /**
+   * Constructs a new coordinator.
+   * 
+   * @param workers
+   *          the addresses of the worker processes
+   * @param outputDirectory
+   *          the directory to write the validation output to
+   */
+  public ValidationCoordinator(List<InetSocketAddress> workers, File outputDirectory) {
+    Objects.requireNonNull(workers, "workers");
+    Objects.requireNonNull(outputDirectory, "outputDirectory");
+    if (workers.isEmpty()) {
+      throw new IllegalArgumentException("at least one worker is required");
+    }
+    this.workers = Collections.unmodifiableList(new ArrayList<>(workers));
+    this.outputDirectory = outputDirectory;
+  }
+
+  /**
+   * Parses a worker address of the form {@code host:port}. An IPv6 host address must be enclosed in
+   * square brackets.
+   * 
+   * @param address
+   *          the address to parse
+   * @return the unresolved address
+   * @throws IllegalArgumentException
+   *           if the address is not of the form {@code host:port}
+   */
+  public static InetSocketAddress parseAddress(String address) {
+    int index = address.lastIndexOf(':');
+    if (index < 1 || index == address.length() - 1) {
+      throw new IllegalArgumentException("Invalid address, expected HOST:PORT: " + address);
+    }
+    String host = address.substring(0, index);
+    if (host.startsWith("[") && host.endsWith("]")) {
+      host = host.substring(1, host.length() - 1);
+    }
+    int port;
+    try {
+      port = Integer.parseInt(address.substring(index + 1));
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Invalid port: " + address, ex);
+    }
+    return InetSocketAddress.createUnresolved(host, port);
+  }
+
+  public List<InetSocketAddress> getWorkers() {
+    return workers;
+  }
+
+  public File getOutputDirectory() {
+    return outputDirectory;
+  }
+
+  public int getTasksPerWorker() {
+    return tasksPerWorker;
+  }
+
+  /**
+   * Sets the number of documents sent to each worker at the same time. Values above the number of
+   * concurrent validations performed by a worker keep the worker busy while documents and results
+   * are being transferred.
+   * 
+   * @param tasksPerWorker
+   *          the number of documents, which must be positive
+   */
+  public void setTasksPerWorker(int tasksPerWorker) {
+    if (tasksPerWorker < 1) {
+      throw new IllegalArgumentException("tasksPerWorker must be positive");
+    }
+    this.tasksPerWorker = tasksPerWorker;
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Sets the number of times a document is sent to a worker before it is reported as failed, when
+   * the workers it is sent to are lost or too busy to accept it.
+   * 
+   * @param maxAttempts
+   *          the maximum number of attempts, which must be positive
+   */
+  public void setMaxAttempts(int maxAttempts) {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("maxAttempts must be positive");
+    }
+    this.maxAttempts = maxAttempts;
+  }
+
+  public int getConnectTimeoutMillis() {
+    return connectTimeoutMillis;
+  }
+
+  /**
+   * Sets the time to wait for a connection to a worker to be established, before the worker is
+   * considered lost.
+   * 
+   * @param connectTimeoutMillis
+   *          the timeout in milliseconds, or {@code 0} to wait indefinitely
+   * @see ValidationClient#setConnectTimeoutMillis(int)
+   */
+  public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+    if (connectTimeoutMillis < 0) {
+      throw new IllegalArgumentException("connectTimeoutMillis must not be negative");
+    }
+    this.connectTimeoutMillis = connectTimeoutMillis;
+  }
+
+  public int getReadTimeoutMillis() {
+    return readTimeoutMillis;
+  }
+
+  /**
+   * Sets the time to wait for data from a worker, including the time it takes to validate a
+   * document, before the worker is considered lost.
+   * 
+   * @param readTimeoutMillis
+   *          the timeout in milliseconds, or {@code 0} to wait indefinitely, which is the default
+   * @see ValidationClient#setReadTimeoutMillis(int)
+   */
+  public void setReadTimeoutMillis(int readTimeoutMillis) {
+    if (readTimeoutMillis < 0) {
+      throw new IllegalArgumentException("readTimeoutMillis must not be negative");
+    }
+    this.readTimeoutMillis = readTimeoutMillis;
+  }
+
+  public String getIncludePattern() {
+    return includePattern;
+  }
+
+  /**
+   * Sets the glob pattern used to select the files to validate when searching a directory input.
+   * 
+   * @param includePattern
+   *          the glob pattern to match file names against
+   * @see BatchInputCollector#setIncludePattern(String)
+   */
+  public void setIncludePattern(String includePattern) {
+    Objects.requireNonNull(includePattern, "includePattern");
+    this.includePattern = includePattern;
+  }
+
+  public String getSummaryFileName() {
+    return summaryFileName;
+  }
+
+  public void setSummaryFileName(String summaryFileName) {
+    Objects.requireNonNull(summaryFileName, "summaryFileName");
+    this.summaryFileName = summaryFileName;
+  }
+
+  /**
+   * Finds the documents identified by the provided inputs, validates them using the workers, and
+   * writes the summary index.
+   * 
+   * @param inputs
+   *          the files, directories and glob patterns identifying the documents to validate
+   * @return the summary of the batch
+   * @throws IOException
+   *           if an error occurred while finding the documents or writing the summary
+   * @throws InterruptedException
+   *           if the thread was interrupted while waiting for the workers
+   * @see BatchInputCollector
+   */
+  public BatchSummary validate(List<String> inputs) throws IOException, InterruptedException {
+    long start = System.currentTimeMillis();
+    List<BatchInput> documents;
+    ForkJoinPool pool = new ForkJoinPool();
+    try {
+      BatchInputCollector collector = new BatchInputCollector(pool);
+      collector.setIncludePattern(includePattern);
+      documents = collector.collect(inputs);
+    } finally {
+      pool.shutdown();
+    }
+
+    if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+      throw new IOException("Unable to create the output directory: " + outputDirectory);
+    }
+    log.info("Validating {} document(s) using {} worker(s)", documents.size(), workers.size());
+
+    List<BatchResult> results = new Run(documents).execute();
+    BatchSummary retval = new BatchSummary(results, System.currentTimeMillis() - start);
+    File summaryFile = new File(outputDirectory, summaryFileName);
+    retval.write(summaryFile);
+    log.info("Validated {} document(s), {} failed. Summary written to: {}", results.size(),
+        retval.getFailedCount(), summaryFile);
+    return retval;
+  }
+
+  private static String getMessage(Exception ex) {
+    return ex.getLocalizedMessage() == null ? ex.toString() : ex.getLocalizedMessage();
+  }
+
+  private static class Task {
+    private final int index;
+    private final BatchInput input;
+    private final File outputDirectory;
+    private int attempts;
+    private String lastError;
+
+    public Task(int index, BatchInput input, File outputDirectory) {
+      this.index = index;
+      this.input = input;
+      this.outputDirectory = outputDirectory;
+    }
+  }
+
+  /**
+   * Tracks the state of a single call to {@link ValidationCoordinator#validate(List)}.
+   */
+  private class Run {
+    private final BlockingDeque<Task> queue = new LinkedBlockingDeque<>();
+    private final AtomicReferenceArray<BatchResult> results;
+    private final CountDownLatch remaining;
+    private final AtomicInteger liveWorkers = new AtomicInteger(workers.size());
+    private final AtomicInteger completed = new AtomicInteger();
+
+    public Run(List<BatchInput> documents) {
+      this.results = new AtomicReferenceArray<>(documents.size());
+      this.remaining = new CountDownLatch(documents.size());
+
+      // keep documents with the same relative path found by different inputs apart
+      Set<File> usedDirectories = new HashSet<>();
+      for (BatchInput document : documents) {
+        File directory = new File(outputDirectory, document.getRelativePath().toString());
+        for (int i = 2; !usedDirectories.add(directory); i++) {
+          directory = new File(outputDirectory, document.getRelativePath().toString() + "-" + i);
+        }
+        queue.add(new Task(queue.size(), document, directory));
+      }
+    }
+
+    public List<BatchResult> execute() throws InterruptedException {
+      ExecutorService executor = Executors.newFixedThreadPool(workers.size() * tasksPerWorker);
+      try {
+        for (InetSocketAddress worker : workers) {
+          String name = worker.getHostString() + ":" + worker.getPort();
+          ValidationClient client = new ValidationClient(worker.getHostString(), worker.getPort());
+          client.setConnectTimeoutMillis(connectTimeoutMillis);
+          client.setReadTimeoutMillis(readTimeoutMillis);
+          AtomicBoolean lost = new AtomicBoolean();
+          for (int i = 0; i < tasksPerWorker; i++) {
+            executor.execute(() -> runWorkerTasks(name, client, lost));
+          }
+        }
+        remaining.await();
+      } finally {
+        executor.shutdownNow();
+      }
+
+      List<BatchResult> retval = new ArrayList<>(results.length());
+      for (int i = 0; i < results.length(); i++) {
+        retval.add(results.get(i));
+      }
+      return retval;
+    }
+
+    private void runWorkerTasks(String worker, ValidationClient client, AtomicBoolean lost) {
+      try {
+        while (!lost.get() && remaining.getCount() > 0) {
+          Task task = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+          if (task != null) {
+            if (!validate(task, worker, client) && lost.compareAndSet(false, true)) {
+              log.warn("Lost worker {}, {} worker(s) remaining", worker, liveWorkers.decrementAndGet());
+            }
+            // checked after any validation, since a busy worker also returns documents to the queue
+            if (liveWorkers.get() == 0) {
+              // no worker is left to take the documents returned to the queue
+              failRemaining();
+            }
+          }
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * Sends a document to a worker.
+     * 
+     * @return {@code false} if the worker could not be reached, or {@code true} otherwise
+     */
+    private boolean validate(Task task, String worker, ValidationClient client) {
+      File resultFile = new File(task.outputDirectory, CLIParser.DEFAULT_VALIDATION_RESULT_FILE);
+      File reportFile = new File(task.outputDirectory, CLIParser.DEFAULT_VALIDATION_REPORT_FILE);
+      task.attempts++;
+
+      long start = System.nanoTime();
+      BatchResult.Status status;
+      String message;
+      boolean retval = true;
+      boolean retry = false;
+      if (!task.outputDirectory.isDirectory() && !task.outputDirectory.mkdirs()) {
+        status = BatchResult.Status.FAILED;
+        message = "Unable to create the output directory: " + task.outputDirectory;
+      } else {
+        try {
+          client.validate(task.input.getFile(), resultFile, reportFile);
+          status = BatchResult.Status.VALIDATED;
+          message = null;
+        } catch (ValidationException ex) {
+          log.error("Worker " + worker + " was unable to validate: " + task.input.getFile(), ex);
+          status = BatchResult.Status.FAILED;
+          message = getMessage(ex);
+        } catch (ValidationStatusException ex) {
+          // the worker responded, so it is not lost
+          log.warn("Worker {} did not validate {}: {}", worker, task.input.getFile(), getMessage(ex));
+          retry = ex.getStatus() == HttpURLConnection.HTTP_UNAVAILABLE;
+          status = BatchResult.Status.FAILED;
+          message = getMessage(ex);
+        } catch (IOException ex) {
+          log.warn("Unable to reach worker {} while validating {}: {}", worker, task.input.getFile(),
+              getMessage(ex));
+          retval = false;
+          retry = true;
+          status = BatchResult.Status.FAILED;
+          message = "Unable to reach worker " + worker + ": " + getMessage(ex);
+        }
+      }
+
+      if (retry && task.attempts < maxAttempts) {
+        // the worker is lost or busy, another worker may still be able to validate the document
+        task.lastError = message;
+        queue.offerFirst(task);
+      } else {
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        complete(task, new BatchResult(task.input, status, resultFile, reportFile, message, duration));
+      }
+      return retval;
+    }
+
+    private void failRemaining() {
+      Task task;
+      while ((task = queue.poll()) != null) {
+        String message = task.lastError == null ? "No workers are available" : task.lastError;
+        File resultFile = new File(task.outputDirectory, CLIParser.DEFAULT_VALIDATION_RESULT_FILE);
+        File reportFile = new File(task.outputDirectory, CLIParser.DEFAULT_VALIDATION_REPORT_FILE);
+        complete(task, new BatchResult(task.input, BatchResult.Status.FAILED, resultFile, reportFile, message, 0));
+      }
+    }
+
+    private void complete(Task task, BatchResult result) {
+      if (results.compareAndSet(task.index, null, result)) {
+        log.info("[{}/{}] {} {}", completed.incrementAndGet(), results.length(),
+            result.getStatus().name().toLowerCase(), task.input);
+        remaining.countDown();
+      }
+    }
+  }
+}
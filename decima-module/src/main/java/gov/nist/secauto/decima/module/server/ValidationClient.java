@@ -0,0 +1,254 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.server;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * A thin client that sends documents to a {@link ValidationServer}, and writes the returned
+ * validation results and HTML report.
+ */
+public class ValidationClient {
+  private static final Logger log = LogManager.getLogger(ValidationClient.class);
+  private static final int DEFAULT_MAX_ATTEMPTS = 30;
+  public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+
+  private final String host;
+  private final int port;
+  private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+  private int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+  private int readTimeoutMillis;
+
+  /**
+   * Constructs a new client for the server listening on the provided localhost port.
+   * 
+   * @param port
+   *          the port the server is listening on
+   */
+  public ValidationClient(int port) {
+    this(InetAddress.getLoopbackAddress().getHostAddress(), port);
+  }
+
+  /**
+   * Constructs a new client for the server listening on the provided host and port.
+   * 
+   * @param host
+   *          the name or address of the host the server is running on
+   * @param port
+   *          the port the server is listening on
+   */
+  public ValidationClient(String host, int port) {
+    Objects.requireNonNull(host, "host");
+    this.host = host;
+    this.port = port;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Sets the number of times a request is sent while the server is rejecting requests because its
+   * admission queue is full.
+   * 
+   * @param maxAttempts
+   *          the maximum number of attempts, which must be positive
+   */
+  public void setMaxAttempts(int maxAttempts) {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("maxAttempts must be positive");
+    }
+    this.maxAttempts = maxAttempts;
+  }
+
+  public int getConnectTimeoutMillis() {
+    return connectTimeoutMillis;
+  }
+
+  /**
+   * Sets the time to wait for a connection to the server to be established.
+   * 
+   * @param connectTimeoutMillis
+   *          the timeout in milliseconds, or {@code 0} to wait indefinitely
+   */
+  public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+    if (connectTimeoutMillis < 0) {
+      throw new IllegalArgumentException("connectTimeoutMillis must not be negative");
+    }
+    this.connectTimeoutMillis = connectTimeoutMillis;
+  }
+
+  public int getReadTimeoutMillis() {
+    return readTimeoutMillis;
+  }
+
+  /**
+   * Sets the time to wait for data from the server, which includes the time the server takes to
+   * validate a document before responding.
+   * 
+   * @param readTimeoutMillis
+   *          the timeout in milliseconds, or {@code 0} to wait indefinitely, which is the default
+   */
+  public void setReadTimeoutMillis(int readTimeoutMillis) {
+    if (readTimeoutMillis < 0) {
+      throw new IllegalArgumentException("readTimeoutMillis must not be negative");
+    }
+    this.readTimeoutMillis = readTimeoutMillis;
+  }
+
+  /**
+   * Sends a document to the server for validation.
+   * 
+   * @param document
+   *          the document to validate
+   * @param resultFile
+   *          the file to write the validation results to
+   * @param reportFile
+   *          the file to write the HTML validation report to, or {@code null} if the report is not needed
+   * @throws ValidationStatusException
+   *           if the server responded with an unexpected status, including when it remained busy
+   * @throws IOException
+   *           if an error occurred while communicating with the server
+   * @throws ValidationException
+   *           if the server was unable to validate the document
+   */
+  public void validate(File document, File resultFile, File reportFile) throws IOException, ValidationException {
+    URL url = new URL("http", host, port,
+        ValidationServer.VALIDATE_PATH + "?name=" + URLEncoder.encode(document.getName(), "UTF-8"));
+
+    for (int attempt = 1;; attempt++) {
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      try {
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(0);
+        connection.setRequestProperty("Content-Type", "application/octet-stream");
+        try (OutputStream os = connection.getOutputStream()) {
+          Files.copy(document.toPath(), os);
+        }
+
+        int status = connection.getResponseCode();
+        if (status == HttpURLConnection.HTTP_OK) {
+          try (ZipInputStream zis = new ZipInputStream(connection.getInputStream())) {
+            readResults(zis, resultFile, reportFile);
+          }
+          return;
+        } else if (status == HttpURLConnection.HTTP_UNAVAILABLE && attempt < maxAttempts) {
+          long delay = getRetryDelay(connection);
+          log.debug("The validation server is busy, retrying in {} ms", delay);
+          readFully(connection.getErrorStream());
+          Thread.sleep(delay);
+        } else {
+          String message = readFully(connection.getErrorStream());
+          if (status == HttpURLConnection.HTTP_INTERNAL_ERROR) {
+            throw new ValidationException(message);
+          }
+          throw new ValidationStatusException(status,
+              "The validation server responded with status " + status + ": " + message);
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for the validation server", ex);
+      } finally {
+        connection.disconnect();
+      }
+    }
+  }
+
+  private static void readResults(ZipInputStream zis, File resultFile, File reportFile) throws IOException {
+    ZipEntry entry;
+    while ((entry = zis.getNextEntry()) != null) {
+      File file;
+      if (ValidationServer.RESULT_ENTRY_NAME.equals(entry.getName())) {
+        file = resultFile;
+      } else if (ValidationServer.REPORT_ENTRY_NAME.equals(entry.getName())) {
+        file = reportFile;
+      } else {
+        continue;
+      }
+      if (file != null) {
+        Files.copy(zis, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+  }
+
+  private static long getRetryDelay(HttpURLConnection connection) {
+    long retval = 1000;
+    String retryAfter = connection.getHeaderField("Retry-After");
+    if (retryAfter != null) {
+      try {
+        retval = Long.parseLong(retryAfter.trim()) * 1000;
+      } catch (NumberFormatException ex) {
+        // use the default
+      }
+    }
+    return retval;
+  }
+
+  private static String readFully(InputStream is) throws IOException {
+    if (is == null) {
+      return "";
+    }
+    try (InputStream in = is) {
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        os.write(buffer, 0, read);
+      }
+      return new String(os.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+}
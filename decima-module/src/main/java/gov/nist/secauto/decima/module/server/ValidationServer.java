@@ -0,0 +1,380 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A long-running validation server that listens for documents to validate on an HTTP port. By
+ * default, only requests from the local machine are accepted. A server bound to another address
+ * can act as a worker for a {@link gov.nist.secauto.decima.module.distributed.ValidationCoordinator}.
+ * Since the {@link ValidationHandler} is reused for each validation, the cost of loading
+ * requirements, Schematron and schema is paid once, instead of once per document.
+ * <p>
+ * At most a configured number of validations are performed at the same time. Additional requests
+ * wait in an admission queue of a configured size. Requests that arrive when the queue is full are
+ * rejected with a {@code 503} response, which the {@link ValidationClient} retries.
+ * <p>
+ * The server supports the following requests:
+ * <ul>
+ * <li>{@code POST /validate?name=<file name>}: validates the document provided as the request body.
+ * The response is a ZIP archive containing the validation results, as
+ * {@value #RESULT_ENTRY_NAME}, and the HTML report, as {@value #REPORT_ENTRY_NAME}. A validation
+ * error is reported with a {@code 500} response containing the error message.</li>
+ * <li>{@code GET /status}: reports the number of active and queued validations.</li>
+ * </ul>
+ */
+public class ValidationServer {
+  private static final Logger log = LogManager.getLogger(ValidationServer.class);
+
+  public static final String VALIDATE_PATH = "/validate";
+  public static final String STATUS_PATH = "/status";
+  public static final String RESULT_ENTRY_NAME = "validation-result.xml";
+  public static final String REPORT_ENTRY_NAME = "validation-report.html";
+  /**
+   * The number of seconds a rejected client is asked to wait before retrying.
+   */
+  private static final int RETRY_AFTER_SECONDS = 1;
+
+  private final ValidationHandler handler;
+  private final InetAddress bindAddress;
+  private final int requestedPort;
+  private final int maxConcurrentValidations;
+  private final int maxQueuedValidations;
+  /**
+   * Limits the number of requests that are either being validated or waiting to be validated.
+   */
+  private final Semaphore admissionPermits;
+  /**
+   * Limits the number of requests that are being validated.
+   */
+  private final Semaphore validationPermits;
+  private final AtomicInteger activeValidations = new AtomicInteger();
+  private final CountDownLatch stopped = new CountDownLatch(1);
+  private HttpServer server;
+  private ExecutorService executor;
+
+  /**
+   * Constructs a new validation server that accepts requests from the local machine.
+   * 
+   * @param handler
+   *          the handler to perform validations with
+   * @param port
+   *          the localhost port to listen on, or {@code 0} to use any available port
+   * @param maxConcurrentValidations
+   *          the maximum number of validations to perform at the same time
+   * @param maxQueuedValidations
+   *          the maximum number of requests to hold while waiting to be validated
+   */
+  public ValidationServer(ValidationHandler handler, int port, int maxConcurrentValidations,
+      int maxQueuedValidations) {
+    this(handler, InetAddress.getLoopbackAddress(), port, maxConcurrentValidations, maxQueuedValidations);
+  }
+
+  /**
+   * Constructs a new validation server that listens on the provided address.
+   * 
+   * @param handler
+   *          the handler to perform validations with
+   * @param bindAddress
+   *          the local address to listen on, which may be the wildcard address to listen on all
+   *          interfaces
+   * @param port
+   *          the port to listen on, or {@code 0} to use any available port
+   * @param maxConcurrentValidations
+   *          the maximum number of validations to perform at the same time
+   * @param maxQueuedValidations
+   *          the maximum number of requests to hold while waiting to be validated
+   */
+  public ValidationServer(ValidationHandler handler, InetAddress bindAddress, int port,
+      int maxConcurrentValidations, int maxQueuedValidations) {
+    Objects.requireNonNull(handler, "handler");
+    Objects.requireNonNull(bindAddress, "bindAddress");
+    if (maxConcurrentValidations < 1) {
+      throw new IllegalArgumentException("maxConcurrentValidations must be positive");
+    }
+    if (maxQueuedValidations < 0) {
+      throw new IllegalArgumentException("maxQueuedValidations must not be negative");
+    }
+    this.handler = handler;
+    this.bindAddress = bindAddress;
+    this.requestedPort = port;
+    this.maxConcurrentValidations = maxConcurrentValidations;
+    this.maxQueuedValidations = maxQueuedValidations;
+    this.admissionPermits = new Semaphore(maxConcurrentValidations + maxQueuedValidations);
+    this.validationPermits = new Semaphore(maxConcurrentValidations, true);
+  }
+
+  public InetAddress getBindAddress() {
+    return bindAddress;
+  }
+
+  public int getMaxConcurrentValidations() {
+    return maxConcurrentValidations;
+  }
+
+  public int getMaxQueuedValidations() {
+    return maxQueuedValidations;
+  }
+
+  /**
+   * Retrieves the port the server is listening on.
+   * 
+   * @return the port
+   * @throws IllegalStateException
+   *           if the server has not been started
+   */
+  public synchronized int getPort() {
+    if (server == null) {
+      throw new IllegalStateException("The server has not been started");
+    }
+    return server.getAddress().getPort();
+  }
+
+  public int getActiveValidations() {
+    return activeValidations.get();
+  }
+
+  public int getQueuedValidations() {
+    int admitted = maxConcurrentValidations + maxQueuedValidations - admissionPermits.availablePermits();
+    return Math.max(0, admitted - activeValidations.get());
+  }
+
+  /**
+   * Starts listening for requests.
+   * 
+   * @throws IOException
+   *           if the server was unable to listen on the port
+   */
+  public synchronized void start() throws IOException {
+    if (server != null) {
+      throw new IllegalStateException("The server has already been started");
+    }
+    HttpServer newServer = HttpServer.create(new InetSocketAddress(bindAddress, requestedPort), 0);
+    newServer.createContext(VALIDATE_PATH, this::handleValidate);
+    newServer.createContext(STATUS_PATH, this::handleStatus);
+
+    // waiting requests hold a thread, and are bounded by the admission permits
+    executor = Executors.newCachedThreadPool(new ServerThreadFactory());
+    newServer.setExecutor(executor);
+    newServer.start();
+    server = newServer;
+    log.info("Validation server listening on {}:{}", bindAddress.getHostAddress(), getPort());
+  }
+
+  /**
+   * Stops the server, waiting up to the provided number of seconds for active requests to
+   * complete.
+   * 
+   * @param delaySeconds
+   *          the maximum number of seconds to wait
+   */
+  public synchronized void stop(int delaySeconds) {
+    if (server != null) {
+      server.stop(delaySeconds);
+      executor.shutdownNow();
+      server = null;
+      executor = null;
+      stopped.countDown();
+      log.info("Validation server stopped");
+    }
+  }
+
+  /**
+   * Waits until the server is stopped. A shutdown hook is registered that stops the server when the
+   * JVM exits.
+   * 
+   * @throws InterruptedException
+   *           if the thread was interrupted while waiting
+   */
+  public void awaitTermination() throws InterruptedException {
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> stop(1), "decima-validation-server-shutdown"));
+    stopped.await();
+  }
+
+  private void handleStatus(HttpExchange exchange) throws IOException {
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        sendText(exchange, 405, "Method not allowed");
+        return;
+      }
+      sendText(exchange, 200, "active=" + getActiveValidations() + "\nqueued=" + getQueuedValidations() + "\n");
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void handleValidate(HttpExchange exchange) throws IOException {
+    try {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        sendText(exchange, 405, "Method not allowed");
+        return;
+      }
+
+      if (!admissionPermits.tryAcquire()) {
+        exchange.getResponseHeaders().set("Retry-After", Integer.toString(RETRY_AFTER_SECONDS));
+        sendText(exchange, 503, "The validation queue is full");
+        return;
+      }
+      try {
+        validate(exchange);
+      } finally {
+        admissionPermits.release();
+      }
+    } catch (RuntimeException ex) {
+      log.error("Unexpected error while handling a validation request", ex);
+      throw ex;
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void validate(HttpExchange exchange) throws IOException {
+    Path workDir = Files.createTempDirectory("decima-validation");
+    try {
+      File document = workDir.resolve(getDocumentName(exchange)).toFile();
+      try (InputStream is = exchange.getRequestBody()) {
+        Files.copy(is, document.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      File resultFile = workDir.resolve(RESULT_ENTRY_NAME).toFile();
+      File reportFile = workDir.resolve(REPORT_ENTRY_NAME).toFile();
+
+      try {
+        validationPermits.acquire();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        sendText(exchange, 503, "The validation server is stopping");
+        return;
+      }
+      activeValidations.incrementAndGet();
+      try {
+        handler.validate(document, resultFile, reportFile);
+      } catch (ValidationException | RuntimeException ex) {
+        log.error("Unable to validate: " + document.getName(), ex);
+        sendText(exchange, 500, ex.getLocalizedMessage() == null ? ex.toString() : ex.getLocalizedMessage());
+        return;
+      } finally {
+        activeValidations.decrementAndGet();
+        validationPermits.release();
+      }
+
+      exchange.getResponseHeaders().set("Content-Type", "application/zip");
+      exchange.sendResponseHeaders(200, 0);
+      try (ZipOutputStream zos = new ZipOutputStream(exchange.getResponseBody())) {
+        addEntry(zos, RESULT_ENTRY_NAME, resultFile);
+        addEntry(zos, REPORT_ENTRY_NAME, reportFile);
+      }
+    } finally {
+      deleteRecursively(workDir);
+    }
+  }
+
+  /**
+   * Determines the name to store the document as, preserving the file name provided by the client
+   * where possible, since tools may use the file extension.
+   */
+  private static String getDocumentName(HttpExchange exchange) {
+    String retval = "document.xml";
+    String query = exchange.getRequestURI().getQuery();
+    if (query != null) {
+      for (String parameter : query.split("&")) {
+        if (parameter.startsWith("name=")) {
+          String name = parameter.substring("name=".length());
+          // only allow simple file names, which cannot escape the working directory
+          if (name.matches("[\\w][\\w.\\-]*") && !RESULT_ENTRY_NAME.equals(name)
+              && !REPORT_ENTRY_NAME.equals(name)) {
+            retval = name;
+          }
+        }
+      }
+    }
+    return retval;
+  }
+
+  private static void addEntry(ZipOutputStream zos, String name, File file) throws IOException {
+    if (file.isFile()) {
+      zos.putNextEntry(new ZipEntry(name));
+      Files.copy(file.toPath(), zos);
+      zos.closeEntry();
+    }
+  }
+
+  private static void sendText(HttpExchange exchange, int status, String message) throws IOException {
+    byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(bytes);
+    }
+  }
+
+  private static void deleteRecursively(Path dir) {
+    try (Stream<Path> paths = Files.walk(dir)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    } catch (IOException ex) {
+      log.warn("Unable to delete the working directory: " + dir, ex);
+    }
+  }
+
+  private static class ServerThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread retval = new Thread(runnable, "decima-validation-server-" + count.incrementAndGet());
+      retval.setDaemon(true);
+      return retval;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.watch;
+
+import gov.nist.secauto.decima.module.server.ValidationException;
+import gov.nist.secauto.decima.module.server.ValidationHandler;
+
+import java.io.File;
+import java.util.Set;
+
+/**
+ * Creates the {@link ValidationHandler} used by a {@link ValidationWatcher}, loading the rule
+ * sources it depends on. A new handler is created each time a rule source changes.
+ */
+@FunctionalInterface
+public interface ValidationHandlerFactory {
+  /**
+   * Creates a handler using the current content of the rule sources. Implementations can reuse the
+   * rules loaded by the previous handler that do not depend on a changed rule source, so that only
+   * the changed rules are recompiled.
+   * 
+   * @param previous
+   *          the handler being replaced, or {@code null} when creating the first handler
+   * @param changedRuleSources
+   *          the rule sources that changed since the previous handler was created, which is empty
+   *          when creating the first handler
+   * @return the new handler
+   * @throws ValidationException
+   *           if an error occurred while loading the rules
+   */
+  ValidationHandler newValidationHandler(ValidationHandler previous, Set<File> changedRuleSources)
+      throws ValidationException;
+}
@@ -0,0 +1,387 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.watch;
+
+import gov.nist.secauto.decima.module.server.ValidationException;
+import gov.nist.secauto.decima.module.server.ValidationHandler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-validates documents as they are edited. The watcher validates each watched document once, and
+ * then waits for changes to the documents and to the rule sources they are validated against, such
+ * as requirements, Schematron and schema files.
+ * <p>
+ * File system events arriving in a burst, such as those caused by an editor saving a file, are
+ * collected until no event has arrived for the debounce interval, and are then handled together.
+ * Only documents whose content changed are re-validated. When a rule source changes, a new
+ * {@link ValidationHandler} is created using the {@link ValidationHandlerFactory}, and all documents
+ * are re-validated. If the rules cannot be reloaded, the previous handler continues to be used for
+ * the documents that changed, and the reload is retried when a rule source next changes. The
+ * validation result and report files are replaced once the validation has completed, so a partially
+ * written file is never observed.
+ * <p>
+ * Documents and rule sources must be registered before calling {@link #run()}. Calling
+ * {@link #close()} from another thread stops a running watcher.
+ */
+public class ValidationWatcher implements Closeable {
+  private static final Logger log = LogManager.getLogger(ValidationWatcher.class);
+
+  public static final long DEFAULT_DEBOUNCE_MILLIS = 100;
+
+  private final ValidationHandlerFactory handlerFactory;
+  private final WatchService watchService;
+  private final Map<Path, WatchedDocument> documents = new LinkedHashMap<>();
+  private final Set<Path> ruleSources = new LinkedHashSet<>();
+  private final Set<Path> watchedDirectories = new LinkedHashSet<>();
+  /**
+   * The content digest of each watched file when it was last used, which allows events that did not
+   * change the content of a file to be ignored.
+   */
+  private final Map<Path, byte[]> digests = new HashMap<>();
+  private long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+  private ValidationHandler handler;
+
+  /**
+   * Constructs a new watcher.
+   * 
+   * @param handlerFactory
+   *          the factory used to create the validation handler, initially and when a rule source
+   *          changes
+   * @throws IOException
+   *           if the file system cannot be watched
+   */
+  public ValidationWatcher(ValidationHandlerFactory handlerFactory) throws IOException {
+    Objects.requireNonNull(handlerFactory, "handlerFactory");
+    this.handlerFactory = handlerFactory;
+    this.watchService = FileSystems.getDefault().newWatchService();
+  }
+
+  public long getDebounceMillis() {
+    return debounceMillis;
+  }
+
+  /**
+   * Sets the time to wait for further file system events before handling the events received.
+   * 
+   * @param debounceMillis
+   *          the quiet interval in milliseconds
+   */
+  public void setDebounceMillis(long debounceMillis) {
+    if (debounceMillis < 0) {
+      throw new IllegalArgumentException("debounceMillis must not be negative");
+    }
+    this.debounceMillis = debounceMillis;
+  }
+
+  /**
+   * Registers a document to validate whenever it changes.
+   * 
+   * @param document
+   *          the document to validate
+   * @param resultFile
+   *          the file to write the validation results to
+   * @param reportFile
+   *          the file to write the HTML validation report to
+   * @throws IOException
+   *           if the directory containing the document cannot be watched
+   */
+  public void watchDocument(File document, File resultFile, File reportFile) throws IOException {
+    Path path = toWatchedPath(document);
+    documents.put(path, new WatchedDocument(path, resultFile, reportFile));
+  }
+
+  /**
+   * Registers a rule source, which causes the rules to be reloaded and all documents to be
+   * re-validated whenever it changes.
+   * 
+   * @param ruleSource
+   *          the rule source to watch
+   * @throws IOException
+   *           if the directory containing the rule source cannot be watched
+   */
+  public void watchRuleSource(File ruleSource) throws IOException {
+    ruleSources.add(toWatchedPath(ruleSource));
+  }
+
+  private Path toWatchedPath(File file) throws IOException {
+    Path retval = file.toPath().toAbsolutePath().normalize();
+    Path dir = retval.getParent();
+    // files are replaced by some editors, so the directory is watched instead of the file
+    if (watchedDirectories.add(dir)) {
+      dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+    return retval;
+  }
+
+  /**
+   * Validates all watched documents, and then re-validates them as they change until this watcher is
+   * closed.
+   * 
+   * @throws ValidationException
+   *           if the initial validation handler could not be created
+   * @throws InterruptedException
+   *           if the thread was interrupted while waiting for changes
+   */
+  public void run() throws ValidationException, InterruptedException {
+    for (Path ruleSource : ruleSources) {
+      hasChanged(ruleSource);
+    }
+    handler = handlerFactory.newValidationHandler(null, new LinkedHashSet<>());
+    for (WatchedDocument document : documents.values()) {
+      hasChanged(document.getPath());
+      validate(document);
+    }
+
+    try {
+      while (true) {
+        Set<Path> changed = awaitChanges();
+        handleChanges(changed);
+      }
+    } catch (ClosedWatchServiceException ex) {
+      log.debug("Stopped watching for changes");
+    }
+  }
+
+  /**
+   * Waits for a file system event, and then collects events until the debounce interval passes
+   * without a new event.
+   */
+  private Set<Path> awaitChanges() throws InterruptedException {
+    Set<Path> retval = new LinkedHashSet<>();
+    WatchKey key = watchService.take();
+    do {
+      Path dir = (Path) key.watchable();
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (StandardWatchEventKinds.OVERFLOW.equals(event.kind())) {
+          retval.addAll(ruleSources);
+          retval.addAll(documents.keySet());
+        } else {
+          retval.add(dir.resolve((Path) event.context()));
+        }
+      }
+      key.reset();
+      key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+    } while (key != null);
+    return retval;
+  }
+
+  private void handleChanges(Set<Path> changed) {
+    Map<Path, byte[]> changedRuleSources = new LinkedHashMap<>();
+    if (!Collections.disjoint(changed, ruleSources)) {
+      // the digests of a failed reload are not recorded, so its rule sources are reloaded again
+      for (Path ruleSource : ruleSources) {
+        byte[] digest = getChangedDigest(ruleSource);
+        if (digest != null) {
+          changedRuleSources.put(ruleSource, digest);
+        }
+      }
+    }
+
+    if (!changedRuleSources.isEmpty() && reloadRules(changedRuleSources)) {
+      for (WatchedDocument document : documents.values()) {
+        hasChanged(document.getPath());
+        validate(document);
+      }
+    } else {
+      for (Path path : changed) {
+        WatchedDocument document = documents.get(path);
+        if (document != null && hasChanged(path)) {
+          validate(document);
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates a new validation handler for the changed rule sources. The digests of the rule sources
+   * are recorded only once the handler has been created, so that a failed reload is retried when a
+   * rule source next changes.
+   */
+  private boolean reloadRules(Map<Path, byte[]> changedRuleSources) {
+    Set<File> changedFiles = new LinkedHashSet<>();
+    for (Path ruleSource : changedRuleSources.keySet()) {
+      changedFiles.add(ruleSource.toFile());
+    }
+
+    log.info("Reloading the rules, which changed in: {}", changedFiles);
+    try {
+      handler = handlerFactory.newValidationHandler(handler, changedFiles);
+    } catch (ValidationException ex) {
+      log.error("Unable to reload the rules, continuing to use the previous rules", ex);
+      return false;
+    }
+    digests.putAll(changedRuleSources);
+    return true;
+  }
+
+  /**
+   * Determines if the content of a watched file has changed since it was last used, recording the
+   * current content as used.
+   */
+  private boolean hasChanged(Path path) {
+    byte[] digest = getChangedDigest(path);
+    if (digest != null) {
+      digests.put(path, digest);
+    }
+    return digest != null;
+  }
+
+  /**
+   * Computes the content digest of a watched file, if its content has changed since it was last
+   * used. A file that does not currently exist is treated as unchanged, since it is expected to be in
+   * the process of being replaced.
+   */
+  private byte[] getChangedDigest(Path path) {
+    byte[] digest;
+    try {
+      digest = digest(path);
+    } catch (IOException ex) {
+      log.debug("Unable to read changed file: {}", path);
+      return null;
+    }
+    return Arrays.equals(digest, digests.get(path)) ? null : digest;
+  }
+
+  private static byte[] digest(Path path) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+    try (InputStream is = new DigestInputStream(Files.newInputStream(path), digest)) {
+      byte[] buffer = new byte[8192];
+      while (is.read(buffer) != -1) {
+        // read the whole file into the digest
+      }
+    }
+    return digest.digest();
+  }
+
+  private void validate(WatchedDocument document) {
+    long start = System.nanoTime();
+    File resultFile = document.getResultFile().getAbsoluteFile();
+    File reportFile = document.getReportFile().getAbsoluteFile();
+    File tempResultFile = null;
+    File tempReportFile = null;
+    try {
+      resultFile.getParentFile().mkdirs();
+      reportFile.getParentFile().mkdirs();
+      // the output is written next to the target, allowing it to be moved into place
+      tempResultFile = File.createTempFile(resultFile.getName(), ".tmp", resultFile.getParentFile());
+      tempReportFile = File.createTempFile(reportFile.getName(), ".tmp", reportFile.getParentFile());
+      handler.validate(document.getPath().toFile(), tempResultFile, tempReportFile);
+      // the result is replaced last, so that a new result is never paired with a stale report
+      replace(tempReportFile, reportFile);
+      replace(tempResultFile, resultFile);
+      log.info("Validated {} in {} ms", document.getPath(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } catch (ValidationException | IOException | RuntimeException ex) {
+      log.error("Unable to validate: " + document.getPath(), ex);
+    } finally {
+      deleteIfExists(tempResultFile);
+      deleteIfExists(tempReportFile);
+    }
+  }
+
+  private static void replace(File source, File target) throws IOException {
+    try {
+      Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException ex) {
+      Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static void deleteIfExists(File file) {
+    if (file != null && file.exists() && !file.delete()) {
+      log.debug("Unable to delete temporary file: {}", file);
+    }
+  }
+
+  /**
+   * Stops watching for changes. A running {@link #run()} call returns once any validation in
+   * progress has completed.
+   */
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+  }
+
+  private static class WatchedDocument {
+    private final Path path;
+    private final File resultFile;
+    private final File reportFile;
+
+    public WatchedDocument(Path path, File resultFile, File reportFile) {
+      this.path = path;
+      this.resultFile = resultFile;
+      this.reportFile = reportFile;
+    }
+
+    public Path getPath() {
+      return path;
+    }
+
+    public File getResultFile() {
+      return resultFile;
+    }
+
+    public File getReportFile() {
+      return reportFile;
+    }
+  }
+}
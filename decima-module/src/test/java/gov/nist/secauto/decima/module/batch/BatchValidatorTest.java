@@ -0,0 +1,156 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.batch;
+
+import gov.nist.secauto.decima.module.cli.CLIParser;
+import gov.nist.secauto.decima.module.server.ValidationException;
+import gov.nist.secauto.decima.module.server.ValidationHandler;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BatchValidatorTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File inputDir;
+  private File outputDir;
+
+  /**
+   * Creates the input tree used by the tests.
+   * 
+   * @throws IOException
+   *           if an error occurred while creating the input files
+   */
+  @Before
+  public void setUp() throws IOException {
+    inputDir = folder.newFolder("input");
+    outputDir = new File(folder.getRoot(), "output");
+    write(new File(inputDir, "a.xml"), "<a/>");
+    write(new File(inputDir, "sub/b.xml"), "<b/>");
+    write(new File(inputDir, "sub/deeper/c.xml"), "<c/>");
+    write(new File(inputDir, "sub/notes.txt"), "notes");
+  }
+
+  private static void write(File file, String content) throws IOException {
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(File file) throws IOException {
+    return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+  }
+
+  private static ValidationHandler newCopyingHandler() {
+    return (document, resultFile, reportFile) -> {
+      try {
+        Files.copy(document.toPath(), resultFile.toPath());
+        write(reportFile, "report");
+      } catch (IOException ex) {
+        throw new ValidationException(ex);
+      }
+    };
+  }
+
+  private static List<String> getRelativePaths(BatchSummary summary) {
+    List<String> retval = new ArrayList<>();
+    for (BatchResult result : summary.getResults()) {
+      retval.add(result.getInput().getRelativePath().toString().replace(File.separatorChar, '/'));
+    }
+    return retval;
+  }
+
+  @Test
+  public void testValidateDirectory() throws IOException {
+    BatchValidator validator = new BatchValidator(newCopyingHandler(), outputDir, 2);
+    BatchSummary summary = validator.validate(Collections.singletonList(inputDir.getPath()));
+
+    Assert.assertEquals(Arrays.asList("a.xml", "sub/b.xml", "sub/deeper/c.xml"), getRelativePaths(summary));
+    Assert.assertEquals(0, summary.getFailedCount());
+    Assert.assertEquals("<c/>",
+        read(new File(outputDir, "sub/deeper/c.xml/" + CLIParser.DEFAULT_VALIDATION_RESULT_FILE)));
+    Assert.assertEquals("report", read(new File(outputDir, "a.xml/" + CLIParser.DEFAULT_VALIDATION_REPORT_FILE)));
+
+    String index = read(new File(outputDir, BatchValidator.DEFAULT_SUMMARY_FILE));
+    Assert.assertTrue(index, index.contains("documents=\"3\""));
+    Assert.assertTrue(index, index.contains("result=\"sub/b.xml/" + CLIParser.DEFAULT_VALIDATION_RESULT_FILE + "\""));
+  }
+
+  @Test
+  public void testValidateGlob() throws IOException {
+    String glob = Paths.get(inputDir.getPath(), "sub").toString() + "/**.xml";
+
+    BatchValidator validator = new BatchValidator(newCopyingHandler(), outputDir, 1);
+    validator.setSummaryFileName("index.xml");
+    BatchSummary summary = validator.validate(Arrays.asList(glob, new File(inputDir, "a.xml").getPath()));
+
+    Assert.assertEquals(Arrays.asList("b.xml", "deeper/c.xml", "a.xml"), getRelativePaths(summary));
+    Assert.assertTrue(new File(outputDir, "index.xml").isFile());
+  }
+
+  @Test
+  public void testValidationFailure() throws IOException {
+    ValidationHandler handler = (document, resultFile, reportFile) -> {
+      if ("b.xml".equals(document.getName())) {
+        throw new ValidationException("invalid document");
+      }
+      newCopyingHandler().validate(document, resultFile, reportFile);
+    };
+
+    BatchValidator validator = new BatchValidator(handler, outputDir, 2);
+    BatchSummary summary = validator.validate(Collections.singletonList(inputDir.getPath()));
+
+    Assert.assertEquals(1, summary.getFailedCount());
+    Assert.assertEquals(BatchResult.Status.FAILED, summary.getResults().get(1).getStatus());
+    Assert.assertEquals("invalid document", summary.getResults().get(1).getMessage());
+    Assert.assertEquals(BatchResult.Status.VALIDATED, summary.getResults().get(2).getStatus());
+
+    String index = read(new File(outputDir, BatchValidator.DEFAULT_SUMMARY_FILE));
+    Assert.assertTrue(index, index.contains("failed=\"1\""));
+    Assert.assertTrue(index, index.contains("invalid document"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingInput() throws IOException {
+    new BatchValidator(newCopyingHandler(), outputDir, 1)
+        .validate(Collections.singletonList(new File(inputDir, "missing").getPath()));
+  }
+}
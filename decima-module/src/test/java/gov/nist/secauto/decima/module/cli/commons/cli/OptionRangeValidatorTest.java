@@ -0,0 +1,75 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.cli.commons.cli;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class OptionRangeValidatorTest {
+  private static String OPTION_NAME = "test";
+
+  @Test
+  public void testValidValues() throws ParseException {
+    Option option = Option.builder(OPTION_NAME).desc("description").hasArgs().build();
+    OptionRangeValidator validator = new OptionRangeValidator(option, 1, 65535);
+
+    CommandLine cmd = parse(option, "1", "8080", "65535");
+    Assert.assertTrue(validator.isValid(cmd));
+  }
+
+  @Test
+  public void testInvalidValues() throws ParseException {
+    Option option = Option.builder(OPTION_NAME).desc("description").hasArgs().build();
+    OptionRangeValidator validator = new OptionRangeValidator(option, 1, 65535);
+
+    CommandLine cmd = parse(option, "8080", "0", "65536", "99999999999999999999", "-1", "port", "");
+    Assert.assertFalse(validator.isValid(cmd));
+    Assert.assertEquals("The list of invalid values did not match.",
+        Arrays.asList("0", "65536", "99999999999999999999", "-1", "port", ""), validator.getInvalidValues(cmd));
+    Assert.assertEquals("Allowed values must be integers from 1 to 65535.", validator.getAllowedValuesMessage());
+  }
+
+  private static CommandLine parse(Option option, String... values) throws ParseException {
+    Options options = new Options().addOption(option);
+    CommandLineParser parser = new DefaultParser();
+    String[] arguments = new String[values.length * 2];
+    for (int i = 0; i < values.length; i++) {
+      arguments[i * 2] = "-" + OPTION_NAME;
+      arguments[i * 2 + 1] = values[i];
+    }
+    return parser.parse(options, arguments);
+  }
+}
@@ -0,0 +1,288 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.distributed;
+
+import gov.nist.secauto.decima.module.batch.BatchResult;
+import gov.nist.secauto.decima.module.batch.BatchSummary;
+import gov.nist.secauto.decima.module.cli.CLIParser;
+import gov.nist.secauto.decima.module.server.ValidationException;
+import gov.nist.secauto.decima.module.server.ValidationHandler;
+import gov.nist.secauto.decima.module.server.ValidationServer;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ValidationCoordinatorTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final List<ValidationServer> servers = new ArrayList<>();
+  private final List<HttpServer> stubs = new ArrayList<>();
+  private final ExecutorService stubExecutor = Executors.newCachedThreadPool();
+  private final CountDownLatch released = new CountDownLatch(1);
+  private final AtomicInteger validations = new AtomicInteger();
+  private File inputDir;
+  private File outputDir;
+
+  /**
+   * Creates the input tree used by the tests.
+   * 
+   * @throws IOException
+   *           if an error occurred while creating the input files
+   */
+  @Before
+  public void setUp() throws IOException {
+    inputDir = folder.newFolder("input");
+    outputDir = new File(folder.getRoot(), "output");
+    for (int i = 1; i <= 6; i++) {
+      write(new File(inputDir, "dir" + (i % 2) + "/doc" + i + ".xml"), "<doc" + i + "/>");
+    }
+  }
+
+  @After
+  public void tearDown() {
+    for (ValidationServer server : servers) {
+      server.stop(0);
+    }
+    released.countDown();
+    for (HttpServer stub : stubs) {
+      stub.stop(0);
+    }
+    stubExecutor.shutdownNow();
+  }
+
+  private static void write(File file, String content) throws IOException {
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(File file) throws IOException {
+    return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+  }
+
+  private ValidationHandler newCopyingHandler() {
+    return (document, resultFile, reportFile) -> {
+      validations.incrementAndGet();
+      if ("doc3.xml".equals(document.getName())) {
+        throw new ValidationException("invalid document");
+      }
+      try {
+        Files.copy(document.toPath(), resultFile.toPath());
+        write(reportFile, "report");
+      } catch (IOException ex) {
+        throw new ValidationException(ex);
+      }
+    };
+  }
+
+  private InetSocketAddress startWorker() throws IOException {
+    ValidationServer server
+        = new ValidationServer(newCopyingHandler(), InetAddress.getLoopbackAddress(), 0, 2, 4);
+    server.start();
+    servers.add(server);
+    return InetSocketAddress.createUnresolved(InetAddress.getLoopbackAddress().getHostAddress(), server.getPort());
+  }
+
+  /**
+   * Provides the address of a worker that is no longer running.
+   */
+  private InetSocketAddress newLostWorker() throws IOException {
+    InetSocketAddress retval = startWorker();
+    servers.remove(servers.size() - 1).stop(0);
+    return retval;
+  }
+
+  /**
+   * Provides the address of a worker that handles every request using the provided handler.
+   */
+  private InetSocketAddress startStubWorker(HttpHandler handler) throws IOException {
+    HttpServer stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    stub.createContext("/", handler);
+    stub.setExecutor(stubExecutor);
+    stub.start();
+    stubs.add(stub);
+    return InetSocketAddress.createUnresolved(InetAddress.getLoopbackAddress().getHostAddress(),
+        stub.getAddress().getPort());
+  }
+
+  private static void assertValidated(BatchSummary summary) throws IOException {
+    Assert.assertEquals(6, summary.getResults().size());
+    Assert.assertEquals(1, summary.getFailedCount());
+    for (BatchResult result : summary.getResults()) {
+      if ("doc3.xml".equals(result.getInput().getFile().getName())) {
+        Assert.assertEquals(BatchResult.Status.FAILED, result.getStatus());
+        Assert.assertEquals("invalid document", result.getMessage());
+      } else {
+        Assert.assertEquals(result.getInput().toString(), BatchResult.Status.VALIDATED, result.getStatus());
+        Assert.assertEquals(read(result.getInput().getFile()), read(result.getResultFile()));
+        Assert.assertEquals("report", read(result.getReportFile()));
+      }
+    }
+  }
+
+  @Test
+  public void testValidate() throws IOException, InterruptedException {
+    ValidationCoordinator coordinator = new ValidationCoordinator(Arrays.asList(startWorker(), startWorker()),
+        outputDir);
+    BatchSummary summary = coordinator.validate(Collections.singletonList(inputDir.getPath()));
+
+    assertValidated(summary);
+    // a document that a worker was unable to validate is not sent to another worker
+    Assert.assertEquals(6, validations.get());
+    Assert.assertEquals("<doc4/>",
+        read(new File(outputDir, "dir0/doc4.xml/" + CLIParser.DEFAULT_VALIDATION_RESULT_FILE)));
+    Assert.assertTrue(new File(outputDir, coordinator.getSummaryFileName()).isFile());
+  }
+
+  @Test
+  public void testLostWorker() throws IOException, InterruptedException {
+    ValidationCoordinator coordinator = new ValidationCoordinator(Arrays.asList(newLostWorker(), startWorker()),
+        outputDir);
+    coordinator.setTasksPerWorker(3);
+    assertValidated(coordinator.validate(Collections.singletonList(inputDir.getPath())));
+  }
+
+  @Test
+  public void testAllWorkersLost() throws IOException, InterruptedException {
+    ValidationCoordinator coordinator = new ValidationCoordinator(Arrays.asList(newLostWorker(), newLostWorker()),
+        outputDir);
+    BatchSummary summary = coordinator.validate(Collections.singletonList(inputDir.getPath()));
+
+    Assert.assertEquals(6, summary.getFailedCount());
+    for (BatchResult result : summary.getResults()) {
+      // documents that were never sent are failed once both workers are lost
+      Assert.assertTrue(result.getMessage(), result.getMessage().startsWith("Unable to reach worker")
+          || "No workers are available".equals(result.getMessage()));
+    }
+  }
+
+  @Test
+  public void testUnexpectedStatus() throws IOException, InterruptedException {
+    InetSocketAddress worker = startStubWorker(exchange -> {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+    });
+    ValidationCoordinator coordinator = new ValidationCoordinator(Collections.singletonList(worker), outputDir);
+    BatchSummary summary = coordinator.validate(Collections.singletonList(inputDir.getPath()));
+
+    // the worker responded, so it is not lost and every document is sent to it
+    Assert.assertEquals(6, summary.getFailedCount());
+    for (BatchResult result : summary.getResults()) {
+      Assert.assertTrue(result.getMessage(), result.getMessage().contains("status 404"));
+    }
+  }
+
+  @Test
+  public void testUnresponsiveWorker() throws IOException, InterruptedException {
+    InetSocketAddress unresponsive = startStubWorker(exchange -> {
+      try {
+        released.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.close();
+    });
+    ValidationCoordinator coordinator = new ValidationCoordinator(Arrays.asList(unresponsive, startWorker()),
+        outputDir);
+    coordinator.setReadTimeoutMillis(500);
+    assertValidated(coordinator.validate(Collections.singletonList(inputDir.getPath())));
+  }
+
+  @Test(timeout = 30000)
+  public void testLastWorkerLostWhileBusy() throws IOException, InterruptedException {
+    AtomicInteger requests = new AtomicInteger();
+    CountDownLatch secondRequest = new CountDownLatch(1);
+    CountDownLatch firstFailed = new CountDownLatch(1);
+    InetSocketAddress worker = startStubWorker(exchange -> {
+      try {
+        int request = requests.incrementAndGet();
+        if (request == 1) {
+          // the connection is closed without a response, so the worker is lost
+          secondRequest.await();
+          exchange.close();
+          firstFailed.countDown();
+        } else {
+          if (request == 2) {
+            secondRequest.countDown();
+            firstFailed.await();
+            // let the remaining documents be failed before the busy response returns this document
+            Thread.sleep(200);
+          }
+          exchange.getResponseHeaders().add("Retry-After", "0");
+          exchange.sendResponseHeaders(503, -1);
+          exchange.close();
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        exchange.close();
+      }
+    });
+    ValidationCoordinator coordinator = new ValidationCoordinator(Collections.singletonList(worker), outputDir);
+    BatchSummary summary = coordinator.validate(Collections.singletonList(inputDir.getPath()));
+
+    Assert.assertEquals(6, summary.getFailedCount());
+  }
+
+  @Test
+  public void testParseAddress() {
+    InetSocketAddress address = ValidationCoordinator.parseAddress("example.org:8080");
+    Assert.assertEquals("example.org", address.getHostString());
+    Assert.assertEquals(8080, address.getPort());
+
+    address = ValidationCoordinator.parseAddress("[::1]:9000");
+    Assert.assertEquals("::1", address.getHostString());
+    Assert.assertEquals(9000, address.getPort());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseInvalidAddress() {
+    ValidationCoordinator.parseAddress("example.org");
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.server;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ValidationServerTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ValidationServer server;
+
+  @After
+  public void tearDown() {
+    if (server != null) {
+      server.stop(0);
+    }
+  }
+
+  private File newDocument(String content) throws IOException {
+    File retval = folder.newFile();
+    Files.write(retval.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    return retval;
+  }
+
+  private static String read(File file) throws IOException {
+    return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testValidate() throws IOException, ValidationException {
+    server = new ValidationServer((document, resultFile, reportFile) -> {
+      try {
+        String content = new String(Files.readAllBytes(document.toPath()), StandardCharsets.UTF_8);
+        Files.write(resultFile.toPath(), ("result:" + content).getBytes(StandardCharsets.UTF_8));
+        Files.write(reportFile.toPath(), ("report:" + content).getBytes(StandardCharsets.UTF_8));
+      } catch (IOException ex) {
+        throw new ValidationException(ex);
+      }
+    }, 0, 2, 2);
+    server.start();
+
+    File resultFile = new File(folder.getRoot(), "result.xml");
+    File reportFile = new File(folder.getRoot(), "report.html");
+    new ValidationClient(server.getPort()).validate(newDocument("<test/>"), resultFile, reportFile);
+
+    Assert.assertEquals("result:<test/>", read(resultFile));
+    Assert.assertEquals("report:<test/>", read(reportFile));
+    Assert.assertEquals(0, server.getActiveValidations());
+  }
+
+  @Test
+  public void testValidationFailure() throws IOException {
+    server = new ValidationServer((document, resultFile, reportFile) -> {
+      throw new ValidationException("invalid requirements");
+    }, 0, 1, 1);
+    server.start();
+
+    try {
+      new ValidationClient(server.getPort()).validate(newDocument("<test/>"), new File(folder.getRoot(), "result.xml"),
+          null);
+      Assert.fail("expected a ValidationException");
+    } catch (ValidationException ex) {
+      Assert.assertTrue(ex.getMessage(), ex.getMessage().contains("invalid requirements"));
+    }
+  }
+
+  @Test
+  public void testBusyServer() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    server = new ValidationServer((document, resultFile, reportFile) -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }, 0, 1, 0);
+    server.start();
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      File document = newDocument("<test/>");
+      Future<?> first = executor.submit(() -> {
+        new ValidationClient(server.getPort()).validate(document, folder.newFile(), null);
+        return null;
+      });
+      Assert.assertTrue(started.await(30, TimeUnit.SECONDS));
+
+      ValidationClient client = new ValidationClient(server.getPort());
+      client.setMaxAttempts(1);
+      try {
+        client.validate(document, folder.newFile(), null);
+        Assert.fail("expected the busy server to reject the request");
+      } catch (IOException ex) {
+        Assert.assertTrue(ex.getMessage(), ex.getMessage().contains("503"));
+      }
+
+      release.countDown();
+      first.get(30, TimeUnit.SECONDS);
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+}
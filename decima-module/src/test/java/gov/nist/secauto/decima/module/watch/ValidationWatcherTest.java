@@ -0,0 +1,214 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.module.watch;
+
+import gov.nist.secauto.decima.module.server.ValidationException;
+import gov.nist.secauto.decima.module.server.ValidationHandler;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ValidationWatcherTest {
+  private static final long TIMEOUT_MILLIS = 30000;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File ruleFile;
+  private final List<Set<File>> handlerChanges = new CopyOnWriteArrayList<>();
+  private final Map<String, AtomicInteger> validationCounts = new ConcurrentHashMap<>();
+  private final AtomicInteger failingLoads = new AtomicInteger();
+  private ValidationWatcher watcher;
+  private Thread watcherThread;
+
+  /**
+   * Creates the rule file and the watcher used by the tests.
+   * 
+   * @throws IOException
+   *           if an error occurred while creating the watcher
+   */
+  @Before
+  public void setUp() throws IOException {
+    ruleFile = folder.newFile("rules.sch");
+    write(ruleFile, "rules1");
+
+    watcher = new ValidationWatcher((previous, changedRuleSources) -> {
+      handlerChanges.add(changedRuleSources);
+      if (failingLoads.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+        throw new ValidationException("Unable to load the rules");
+      }
+      String rules = read(ruleFile);
+      return newHandler(rules);
+    });
+    watcher.setDebounceMillis(50);
+    watcher.watchRuleSource(ruleFile);
+  }
+
+  @After
+  public void tearDown() throws IOException, InterruptedException {
+    watcher.close();
+    if (watcherThread != null) {
+      watcherThread.join(TIMEOUT_MILLIS);
+    }
+  }
+
+  private ValidationHandler newHandler(String rules) {
+    return (document, resultFile, reportFile) -> {
+      validationCounts.computeIfAbsent(document.getName(), key -> new AtomicInteger()).incrementAndGet();
+      try {
+        write(resultFile, rules + ":" + read(document));
+        write(reportFile, "report");
+      } catch (IOException ex) {
+        throw new ValidationException(ex);
+      }
+    };
+  }
+
+  private static void write(File file, String content) throws IOException {
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(File file) {
+    try {
+      return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    } catch (IOException ex) {
+      return null;
+    }
+  }
+
+  private void startWatcher() {
+    watcherThread = new Thread(() -> {
+      try {
+        watcher.run();
+      } catch (ValidationException | InterruptedException ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+    watcherThread.setDaemon(true);
+    watcherThread.start();
+  }
+
+  private static void awaitContent(File file, String expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (!expected.equals(read(file)) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(expected, read(file));
+  }
+
+  private File newDocument(String name, String content) throws IOException {
+    File retval = folder.newFile(name);
+    write(retval, content);
+    return retval;
+  }
+
+  @Test
+  public void testRevalidation() throws IOException, InterruptedException {
+    File document = newDocument("doc.xml", "doc1");
+    File resultFile = new File(folder.getRoot(), "out/result.xml");
+    File reportFile = new File(folder.getRoot(), "out/report.html");
+    watcher.watchDocument(document, resultFile, reportFile);
+    startWatcher();
+
+    awaitContent(resultFile, "rules1:doc1");
+    Assert.assertEquals("report", read(reportFile));
+
+    write(document, "doc2");
+    awaitContent(resultFile, "rules1:doc2");
+
+    write(ruleFile, "rules2");
+    awaitContent(resultFile, "rules2:doc2");
+    Assert.assertEquals(2, handlerChanges.size());
+    Assert.assertEquals(Collections.emptySet(), handlerChanges.get(0));
+    Assert.assertEquals(Collections.singleton(ruleFile.getAbsoluteFile()), handlerChanges.get(1));
+  }
+
+  @Test
+  public void testUnchangedContentIgnored() throws IOException, InterruptedException {
+    File unchanged = newDocument("unchanged.xml", "same");
+    File changed = newDocument("changed.xml", "before");
+    File unchangedResult = new File(folder.getRoot(), "unchanged-result.xml");
+    File changedResult = new File(folder.getRoot(), "changed-result.xml");
+    watcher.watchDocument(unchanged, unchangedResult, new File(folder.getRoot(), "unchanged-report.html"));
+    watcher.watchDocument(changed, changedResult, new File(folder.getRoot(), "changed-report.html"));
+    startWatcher();
+
+    awaitContent(unchangedResult, "rules1:same");
+    awaitContent(changedResult, "rules1:before");
+
+    write(unchanged, "same");
+    write(changed, "after");
+    awaitContent(changedResult, "rules1:after");
+
+    Assert.assertEquals(1, validationCounts.get(unchanged.getName()).get());
+    Assert.assertEquals(2, validationCounts.get(changed.getName()).get());
+  }
+
+  @Test
+  public void testFailedReload() throws IOException, InterruptedException {
+    File document = newDocument("doc.xml", "doc1");
+    File resultFile = new File(folder.getRoot(), "result.xml");
+    watcher.watchDocument(document, resultFile, new File(folder.getRoot(), "report.html"));
+    startWatcher();
+
+    awaitContent(resultFile, "rules1:doc1");
+
+    // the document changed along with the rules is validated using the previous rules
+    failingLoads.set(1);
+    write(document, "doc2");
+    write(ruleFile, "rules2");
+    awaitContent(resultFile, "rules1:doc2");
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (handlerChanges.size() < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(2, handlerChanges.size());
+
+    // the failed reload is retried, even though the content of the rule source is the same
+    write(ruleFile, "rules2");
+    awaitContent(resultFile, "rules2:doc2");
+    Assert.assertEquals(Collections.singleton(ruleFile.getAbsoluteFile()),
+        handlerChanges.get(handlerChanges.size() - 1));
+  }
+}
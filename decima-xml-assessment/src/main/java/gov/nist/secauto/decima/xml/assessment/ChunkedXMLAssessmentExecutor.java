@@ -0,0 +1,224 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.xml.assessment;
+
+import gov.nist.secauto.decima.core.assessment.Assessment;
+import gov.nist.secauto.decima.core.assessment.AssessmentException;
+import gov.nist.secauto.decima.core.assessment.AssessmentExecutionHelper;
+import gov.nist.secauto.decima.core.assessment.ConditionEvaluationScope;
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
+import gov.nist.secauto.decima.core.document.DocumentException;
+import gov.nist.secauto.decima.core.util.ObjectUtil;
+import gov.nist.secauto.decima.xml.document.XMLDocument;
+import gov.nist.secauto.decima.xml.document.XMLDocumentChunkReader;
+import gov.nist.secauto.decima.xml.document.XMLDocumentFragment;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Assesses very large XML documents that consist of many independent records, by streaming the
+ * document and assessing each record as a separate {@link XMLDocumentFragment} chunk.
+ * <p>
+ * Chunks are assessed concurrently using the provided {@link Executor}. At most
+ * {@code maxChunksInFlight} chunks are held in memory at a time, bounding memory use regardless of
+ * the size of the document. Test results are reported against the XPath and line/column of the
+ * original document.
+ * <p>
+ * Each assessment is evaluated over each record in isolation, so this mode is only suitable for
+ * assessments whose rules are scoped to a single record. Since the same assessment runs over many
+ * chunks concurrently, per-assessment lifecycle events are not reported to the builder's
+ * {@link gov.nist.secauto.decima.core.assessment.util.LoggingHandler}.
+ */
+public class ChunkedXMLAssessmentExecutor {
+  private static final Logger log = LogManager.getLogger(ChunkedXMLAssessmentExecutor.class);
+
+  private final Executor executor;
+  private final int maxChunksInFlight;
+  private final String recordPath;
+  private final Map<String, String> namespaces;
+  private final List<? extends Assessment<XMLDocument>> assessments;
+
+  /**
+   * Constructs a new executor that assesses each record of a document separately.
+   * 
+   * @param executor
+   *          the executor to use to assess chunks
+   * @param maxChunksInFlight
+   *          the maximum number of chunks to hold in memory at a time
+   * @param recordPath
+   *          the path of the record elements to cut the document at, as supported by
+   *          {@link XMLDocumentChunkReader}
+   * @param namespaces
+   *          a mapping of prefix to namespace URI used to resolve prefixes in the record path
+   * @param assessments
+   *          the assessments to perform over each record
+   */
+  public ChunkedXMLAssessmentExecutor(Executor executor, int maxChunksInFlight, String recordPath,
+      Map<String, String> namespaces, List<? extends Assessment<XMLDocument>> assessments) {
+    Objects.requireNonNull(executor, "executor");
+    Objects.requireNonNull(recordPath, "recordPath");
+    ObjectUtil.requireNonEmpty(assessments, "assessments");
+    if (maxChunksInFlight < 1) {
+      throw new IllegalArgumentException("maxChunksInFlight must be positive");
+    }
+    this.executor = executor;
+    this.maxChunksInFlight = maxChunksInFlight;
+    this.recordPath = recordPath;
+    this.namespaces = namespaces == null ? Collections.emptyMap() : Collections.unmodifiableMap(namespaces);
+    this.assessments = Collections.unmodifiableList(assessments);
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public int getMaxChunksInFlight() {
+    return maxChunksInFlight;
+  }
+
+  public String getRecordPath() {
+    return recordPath;
+  }
+
+  public List<? extends Assessment<XMLDocument>> getAssessments() {
+    return assessments;
+  }
+
+  /**
+   * Assesses each record of the document at the provided location.
+   * 
+   * @param location
+   *          the location of the document to assess
+   * @param builder
+   *          the builder to record assessment results in
+   * @return the number of chunks assessed
+   * @throws AssessmentException
+   *           if an error occurred while reading the document or performing an assessment
+   */
+  public int execute(URL location, AssessmentResultBuilder builder) throws AssessmentException {
+    Objects.requireNonNull(location, "location");
+    Objects.requireNonNull(builder, "builder");
+
+    try (XMLDocumentChunkReader reader = new XMLDocumentChunkReader(location, recordPath, namespaces)) {
+      return execute(reader, builder);
+    } catch (DocumentException | IOException ex) {
+      throw new AssessmentException("Unable to read the document: " + location, ex);
+    }
+  }
+
+  /**
+   * Assesses each record provided by the reader.
+   * 
+   * @param reader
+   *          the source of the records to assess
+   * @param builder
+   *          the builder to record assessment results in
+   * @return the number of chunks assessed
+   * @throws AssessmentException
+   *           if an error occurred while reading the document or performing an assessment
+   */
+  public int execute(XMLDocumentChunkReader reader, AssessmentResultBuilder builder) throws AssessmentException {
+    Objects.requireNonNull(reader, "reader");
+    Objects.requireNonNull(builder, "builder");
+
+    builder.start();
+
+    Semaphore permits = new Semaphore(maxChunksInFlight);
+    AtomicReference<AssessmentException> failure = new AtomicReference<>();
+    try {
+      while (failure.get() == null) {
+        // the permit is taken before the chunk is read, bounding the chunks held in memory
+        permits.acquire();
+        XMLDocumentFragment chunk;
+        try {
+          chunk = reader.next();
+        } catch (DocumentException | RuntimeException ex) {
+          permits.release();
+          throw ex;
+        }
+        if (chunk == null) {
+          permits.release();
+          break;
+        }
+
+        try {
+          executor.execute(() -> {
+            try {
+              assessChunk(chunk, builder);
+            } catch (AssessmentException ex) {
+              failure.compareAndSet(null, ex);
+            } catch (RuntimeException ex) {
+              failure.compareAndSet(null, new AssessmentException("An unexpected error occured while assessing "
+                  + chunk.getXPath(chunk.getElement()), ex));
+            } finally {
+              permits.release();
+            }
+          });
+        } catch (RuntimeException ex) {
+          permits.release();
+          throw ex;
+        }
+      }
+    } catch (DocumentException ex) {
+      throw new AssessmentException("Unable to read the next record", ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new AssessmentException("the assessment execution was interrupted", ex);
+    } finally {
+      // wait for the chunks in flight, so that no results are added to the builder once this returns
+      permits.acquireUninterruptibly(maxChunksInFlight);
+    }
+
+    AssessmentException ex = failure.get();
+    if (ex != null) {
+      throw ex;
+    }
+    log.debug("Assessed {} chunks", reader.getChunkCount());
+    return reader.getChunkCount();
+  }
+
+  private void assessChunk(XMLDocumentFragment chunk, AssessmentResultBuilder builder) throws AssessmentException {
+    // share condition evaluations between the assessments of the chunk
+    try (ConditionEvaluationScope scope = ConditionEvaluationScope.open(chunk, getAssessments())) {
+      for (Assessment<XMLDocument> assessment : AssessmentExecutionHelper.getExecutableAssessments(chunk,
+          getAssessments())) {
+        assessment.execute(chunk, builder);
+      }
+    }
+  }
+}
@@ -45,6 +45,7 @@ import gov.nist.secauto.decima.xml.schematron.DefaultSchematronCompiler;
 import gov.nist.secauto.decima.xml.schematron.Schematron;
 import gov.nist.secauto.decima.xml.schematron.SchematronCompilationException;
 import gov.nist.secauto.decima.xml.schematron.SchematronCompiler;
+import gov.nist.secauto.decima.xml.schematron.SchematronPrecompiler;
 
 import org.jdom2.JDOMException;
 import org.jdom2.located.Located;
@@ -55,9 +56,13 @@ import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.xml.transform.Source;
 
@@ -126,11 +131,40 @@ public class Factory
    * @throws SchematronCompilationException
    *           if an error occurred while preparing the {@link Schematron} instance
    */
-  public static synchronized Schematron newSchematron(URL schematron) throws SchematronCompilationException {
-    if (SCHEMATRON_COMPILER_INSTANCE == null) {
-      SCHEMATRON_COMPILER_INSTANCE = new DefaultSchematronCompiler();
+  public static Schematron newSchematron(URL schematron) throws SchematronCompilationException {
+    return getSchematronCompiler().newSchematron(schematron);
+  }
+
+  /**
+   * Create new {@link Schematron} instances for a set of rulesets, eagerly compiling the requested
+   * phases of each ruleset. The rulesets and phases are compiled concurrently using the provided
+   * executor.
+   * 
+   * @param rulesetToPhasesMap
+   *          a mapping of each ISO Schematron ruleset to load to the phases to compile for it, where a
+   *          {@code null} phase identifies the default phase
+   * @param executor
+   *          the executor to perform the compilations on
+   * @return a mapping of each ruleset to its {@link Schematron} instance
+   * @throws SchematronCompilationException
+   *           if an error occurred while preparing one of the {@link Schematron} instances
+   * @see SchematronPrecompiler
+   */
+  public static Map<URL, Schematron> newSchematrons(Map<URL, ? extends Collection<String>> rulesetToPhasesMap,
+      Executor executor) throws SchematronCompilationException {
+    return new SchematronPrecompiler(getSchematronCompiler(), executor).precompile(rulesetToPhasesMap);
+  }
+
+  private static SchematronCompiler getSchematronCompiler() throws SchematronCompilationException {
+    SCHEMATRON_COMPILER_LOCK.lock();
+    try {
+      if (SCHEMATRON_COMPILER_INSTANCE == null) {
+        SCHEMATRON_COMPILER_INSTANCE = new DefaultSchematronCompiler();
+      }
+      return SCHEMATRON_COMPILER_INSTANCE;
+    } finally {
+      SCHEMATRON_COMPILER_LOCK.unlock();
     }
-    return SCHEMATRON_COMPILER_INSTANCE.newSchematron(schematron);
   }
 
   public static SchematronAssessment newSchematronAssessment(URL schematron) throws SchematronCompilationException {
@@ -176,6 +210,7 @@ public class Factory
     return new SchemaAssessment(derivedRequirementId, schemaSources);
   }
 
+  private static final Lock SCHEMATRON_COMPILER_LOCK = new ReentrantLock();
   private static SchematronCompiler SCHEMATRON_COMPILER_INSTANCE;
 
   private Factory() {
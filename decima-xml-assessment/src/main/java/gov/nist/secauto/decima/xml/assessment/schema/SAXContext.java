@@ -33,6 +33,15 @@ import org.xml.sax.SAXParseException;
 
 import java.util.Objects;
 
+/**
+ * A context that retains the {@link SAXParseException} describing a schema validation error.
+ * 
+ * @deprecated schema validation results no longer use this context, since retaining the exception
+ *             also retains its stack trace. The context of a {@link SAXTestResult} is now a
+ *             {@link gov.nist.secauto.decima.xml.document.SimpleXPathContext}, and the exception
+ *             message is available as the result's first result value.
+ */
+@Deprecated
 public class SAXContext implements XPathContext {
   private final SAXParseException exception;
   private final String xpath;
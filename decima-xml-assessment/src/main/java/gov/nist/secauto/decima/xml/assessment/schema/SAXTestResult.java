@@ -28,14 +28,41 @@ package gov.nist.secauto.decima.xml.assessment.schema;
 
 import gov.nist.secauto.decima.core.assessment.result.BasicTestResult;
 import gov.nist.secauto.decima.core.assessment.result.TestStatus;
+import gov.nist.secauto.decima.xml.document.SimpleXPathContext;
 import gov.nist.secauto.decima.xml.document.XMLDocument;
 
 import org.xml.sax.SAXParseException;
 
+import java.util.Objects;
+
+/**
+ * A test result based on a {@link SAXParseException}. Only the location and message of the
+ * exception are retained, allowing the exception and its stack trace to be garbage collected. The
+ * context of the result is a {@link SimpleXPathContext}, and the message is the first result value.
+ */
 public class SAXTestResult
     extends BasicTestResult {
+  /**
+   * Construct a new test result based on a {@link SAXParseException}.
+   * 
+   * @param template
+   *          the document being assessed
+   * @param status
+   *          the result of the test performed
+   * @param ex
+   *          the exception describing the problem
+   * @param xpath
+   *          the XPath identifying the location where the error occurred
+   */
   public SAXTestResult(XMLDocument template, TestStatus status, SAXParseException ex, String xpath) {
-    super(null, status, new SAXContext(ex, xpath, template.getSystemId()));
+    super(null, status, newContext(ex, xpath, template.getSystemId()));
     addResultValue(ex.getLocalizedMessage());
   }
+
+  private static SimpleXPathContext newContext(SAXParseException ex, String xpath, String systemId) {
+    Objects.requireNonNull(ex, "ex");
+    Objects.requireNonNull(xpath, "xpath");
+    Objects.requireNonNull(systemId, "systemId");
+    return new SimpleXPathContext(xpath, systemId, ex.getLineNumber(), ex.getColumnNumber());
+  }
 }
@@ -31,6 +31,8 @@ import gov.nist.secauto.decima.core.assessment.Assessment;
 import gov.nist.secauto.decima.core.assessment.AssessmentException;
 import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
 import gov.nist.secauto.decima.core.assessment.result.TestResult;
+import gov.nist.secauto.decima.core.util.ComputePermitUtil;
+import gov.nist.secauto.decima.core.util.InterruptibleInputStream;
 import gov.nist.secauto.decima.core.util.ObjectUtil;
 import gov.nist.secauto.decima.xml.document.XMLDocument;
 import gov.nist.secauto.decima.xml.service.ResourceResolverExtensionService;
@@ -187,12 +189,16 @@ public class SchemaAssessment
         = new AssessmentSAXErrorHandler(this, doc, getDerivedRequirementId(), builder, filter);
     saxBuilder.setErrorHandler(receiver);
     saxBuilder.setXMLFilter(filter);
-    try {
+    try (ComputePermitUtil.Permit permit = ComputePermitUtil.acquire()) {
       log.debug("Schema validating XML document: {}", doc.getSystemId());
-      saxBuilder.build(doc.newInputStream(), doc.getSystemId());
+      // stop parsing promptly if the assessment is cancelled
+      saxBuilder.build(new InterruptibleInputStream(doc.newInputStream()), doc.getSystemId());
       log.debug("[{}]XML Schema validation complete", getId());
     } catch (JDOMException | IOException e) {
       throw new AssessmentException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AssessmentException(e);
     }
   }
 
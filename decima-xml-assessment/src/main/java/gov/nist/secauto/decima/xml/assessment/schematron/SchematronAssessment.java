@@ -29,6 +29,7 @@ package gov.nist.secauto.decima.xml.assessment.schematron;
 import gov.nist.secauto.decima.core.assessment.AbstractAssessment;
 import gov.nist.secauto.decima.core.assessment.Assessment;
 import gov.nist.secauto.decima.core.assessment.AssessmentException;
+import gov.nist.secauto.decima.core.assessment.AssessmentExecutionHelper;
 import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
 import gov.nist.secauto.decima.xml.document.XMLDocument;
 import gov.nist.secauto.decima.xml.schematron.Schematron;
@@ -177,11 +178,13 @@ public class SchematronAssessment
       svrlResult2 = new StreamResult(svrlFile);
     }
 
+    AssessmentExecutionHelper.checkInterrupted(this);
     try {
       schematron.transform(document.getSource(), svrlResult2, getPhase(), getParameters());
     } catch (SchematronEvaluationException ex) {
       throw new AssessmentException(ex);
     }
+    AssessmentExecutionHelper.checkInterrupted(this);
 
     Document svrlDocument;
     if (svrlFile == null) {
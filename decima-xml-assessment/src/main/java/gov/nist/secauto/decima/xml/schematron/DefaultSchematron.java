@@ -26,6 +26,7 @@
 
 package gov.nist.secauto.decima.xml.schematron;
 
+import gov.nist.secauto.decima.core.util.ComputePermitUtil;
 import gov.nist.secauto.decima.core.util.URLUtil;
 import gov.nist.secauto.decima.xml.jdom2.JDOMUtil;
 
@@ -38,9 +39,12 @@ import org.jdom2.transform.JDOMSource;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -59,10 +63,13 @@ public class DefaultSchematron implements Schematron {
   public static final String SVRL_FOR_XSLT2_TEMPLATE
       = DefaultSchematronCompiler.TEMPLATE_BASE + "iso_svrl_for_xslt2.xsl";
 
+  private static final Object DEFAULT_PHASE_KEY = new Object();
+
   private final Document processedSchematron;
   private final TransformerFactory transformerFactory;
   private final Templates svrlTemplate;
-  private Map<String, Document> phaseToCompiledSchematronMap = new HashMap<>();
+  private final ConcurrentMap<Object, CompletableFuture<CompiledPhase>> phaseToCompiledSchematronMap
+      = new ConcurrentHashMap<>();
 
   /**
    * Constructs a new {@link Schematron} instance that manages a Schematron that has been fully
@@ -110,57 +117,112 @@ public class DefaultSchematron implements Schematron {
 
   @Override
   public Document getCompiledSchematron(String phase) throws SchematronCompilationException {
-    Document compiledSchematron = phaseToCompiledSchematronMap.get(phase);
-
-    if (compiledSchematron == null) {
-      Document preprocessedSchematron = getProcessedSchematron();
+    return getCompiledPhase(phase).getDocument();
+  }
 
-      SAXTransformerFactory stf = (SAXTransformerFactory) getTransformerFactory();
+  /**
+   * Retrieves the compiled XSL template for the provided phase, compiling the phase if it has not
+   * already been compiled. A phase is compiled at most once, even when multiple threads request it at
+   * the same time, while different phases can be compiled concurrently.
+   * 
+   * @param phase
+   *          the phase to compile, or {@code null} for the default phase
+   * @return the reusable XSL template used to evaluate the phase
+   * @throws SchematronCompilationException
+   *           if an error occurred while compiling the phase
+   */
+  public Templates getCompiledTemplates(String phase) throws SchematronCompilationException {
+    return getCompiledPhase(phase).getTemplates();
+  }
 
-      if (logger.isTraceEnabled()) {
-        logger.trace("Compiling template: {}", preprocessedSchematron.getBaseURI());
-      }
-      TransformerHandler thRoot;
-      try {
-        thRoot = stf.newTransformerHandler(svrlTemplate);
-      } catch (TransformerConfigurationException e) {
-        logger.error(e);
-        throw new SchematronCompilationException(e);
+  private CompiledPhase getCompiledPhase(String phase) throws SchematronCompilationException {
+    Object key = phase == null ? DEFAULT_PHASE_KEY : phase;
+    CompletableFuture<CompiledPhase> future = phaseToCompiledSchematronMap.get(key);
+    if (future == null) {
+      CompletableFuture<CompiledPhase> newFuture = new CompletableFuture<>();
+      future = phaseToCompiledSchematronMap.putIfAbsent(key, newFuture);
+      if (future == null) {
+        // this thread compiles the phase, while other threads wait on the future
+        try {
+          CompiledPhase retval = compilePhase(phase);
+          newFuture.complete(retval);
+          return retval;
+        } catch (SchematronCompilationException | RuntimeException ex) {
+          // allow a later request to retry the compilation
+          phaseToCompiledSchematronMap.remove(key, newFuture);
+          newFuture.completeExceptionally(ex);
+          throw ex;
+        }
       }
+    }
 
-      if (phase != null) {
-        thRoot.getTransformer().setParameter("phase", phase);
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof SchematronCompilationException) {
+        throw new SchematronCompilationException(cause.getLocalizedMessage(), cause);
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
       }
-      thRoot.getTransformer().setParameter("generate-paths", "true");
+      throw new SchematronCompilationException(cause);
+    }
+  }
 
-      JDOMResult retval = new JDOMResult();
-      thRoot.setResult(retval);
+  private CompiledPhase compilePhase(String phase) throws SchematronCompilationException {
+    Document preprocessedSchematron = getProcessedSchematron();
 
-      if (logger.isTraceEnabled()) {
-        logger.trace("Executing the transformation pipeline");
-      }
-      Transformer transformer;
-      try {
-        transformer = stf.newTransformer();
-      } catch (TransformerConfigurationException e) {
-        // logger.error(e);
-        throw new SchematronCompilationException(e);
-      }
-      try {
-        transformer.transform(new JDOMSource(preprocessedSchematron), new SAXResult(thRoot));
-      } catch (TransformerException e) {
-        // logger.error(e);
-        throw new SchematronCompilationException(e);
-      }
+    SAXTransformerFactory stf = (SAXTransformerFactory) getTransformerFactory();
 
-      if (logger.isTraceEnabled()) {
-        logger.trace("Resulting compiled schematron: {}", JDOMUtil.toString(retval.getDocument()));
-      }
-      compiledSchematron = retval.getDocument();
-      compiledSchematron.setBaseURI(preprocessedSchematron.getBaseURI());
-      phaseToCompiledSchematronMap.put(phase, compiledSchematron);
+    if (logger.isTraceEnabled()) {
+      logger.trace("Compiling template: {}", preprocessedSchematron.getBaseURI());
+    }
+    TransformerHandler thRoot;
+    try {
+      thRoot = stf.newTransformerHandler(svrlTemplate);
+    } catch (TransformerConfigurationException e) {
+      logger.error(e);
+      throw new SchematronCompilationException(e);
     }
-    return compiledSchematron;
+
+    if (phase != null) {
+      thRoot.getTransformer().setParameter("phase", phase);
+    }
+    thRoot.getTransformer().setParameter("generate-paths", "true");
+
+    JDOMResult retval = new JDOMResult();
+    thRoot.setResult(retval);
+
+    if (logger.isTraceEnabled()) {
+      logger.trace("Executing the transformation pipeline");
+    }
+    Transformer transformer;
+    try {
+      transformer = stf.newTransformer();
+    } catch (TransformerConfigurationException e) {
+      // logger.error(e);
+      throw new SchematronCompilationException(e);
+    }
+    try {
+      transformer.transform(new JDOMSource(preprocessedSchematron), new SAXResult(thRoot));
+    } catch (TransformerException e) {
+      // logger.error(e);
+      throw new SchematronCompilationException(e);
+    }
+
+    if (logger.isTraceEnabled()) {
+      logger.trace("Resulting compiled schematron: {}", JDOMUtil.toString(retval.getDocument()));
+    }
+    Document compiledSchematron = retval.getDocument();
+    compiledSchematron.setBaseURI(preprocessedSchematron.getBaseURI());
+
+    Templates templates;
+    try {
+      templates = getTransformerFactory().newTemplates(new JDOMSource(compiledSchematron));
+    } catch (TransformerConfigurationException e) {
+      throw new SchematronCompilationException(e);
+    }
+    return new CompiledPhase(compiledSchematron, templates);
   }
 
   @Override
@@ -182,21 +244,20 @@ public class DefaultSchematron implements Schematron {
 
   protected void transformInternal(Source xml, Result result, String phase, Map<String, String> parameters)
       throws SchematronEvaluationException {
-    JDOMSource xsl;
+    Templates xsl;
     try {
-      xsl = new JDOMSource(getCompiledSchematron(phase));
+      xsl = getCompiledTemplates(phase);
     } catch (SchematronCompilationException e) {
       throw new SchematronEvaluationException(e);
     }
 
     if (logger.isTraceEnabled()) {
-      logger.trace("Generating SVRL for source {} using template {}", xml.getSystemId(), xsl.getSystemId());
+      logger.trace("Generating SVRL for source {} using template {}", xml.getSystemId(), getPath());
     }
 
     Transformer transformer;
     try {
-      TransformerFactory tf = getTransformerFactory();
-      transformer = tf.newTransformer(xsl);
+      transformer = xsl.newTransformer();
     } catch (TransformerConfigurationException e) {
       // logger.error(e);
       throw new SchematronEvaluationException(e);
@@ -206,7 +267,8 @@ public class DefaultSchematron implements Schematron {
         transformer.setParameter(entry.getKey(), entry.getValue());
       }
     }
-    try {
+    // the transformation is CPU-bound, and may need to wait for the executor to allow it to run
+    try (ComputePermitUtil.Permit permit = ComputePermitUtil.acquire()) {
       transformer.transform(xml, result);
       if (logger.isTraceEnabled()) {
         logger.trace("Generating SVRL completed");
@@ -214,7 +276,27 @@ public class DefaultSchematron implements Schematron {
     } catch (TransformerException e) {
       logger.error(e);
       throw new SchematronEvaluationException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SchematronEvaluationException(e);
     }
   }
 
+  private static class CompiledPhase {
+    private final Document document;
+    private final Templates templates;
+
+    public CompiledPhase(Document document, Templates templates) {
+      this.document = document;
+      this.templates = templates;
+    }
+
+    public Document getDocument() {
+      return document;
+    }
+
+    public Templates getTemplates() {
+      return templates;
+    }
+  }
 }
@@ -0,0 +1,149 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.schematron;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Eagerly compiles a set of Schematron rulesets and their phases using a pool of threads, allowing
+ * the compilation cost to be paid when an application starts instead of when the first document is
+ * assessed.
+ * <p>
+ * Each ruleset is loaded once using the provided {@link SchematronCompiler}. As soon as a ruleset is
+ * loaded, each of its requested phases is compiled as a separate task, so rulesets and phases are
+ * compiled concurrently up to the parallelism of the executor.
+ */
+public class SchematronPrecompiler {
+  private static final Logger log = LogManager.getLogger(SchematronPrecompiler.class);
+
+  private final SchematronCompiler compiler;
+  private final Executor executor;
+
+  /**
+   * Constructs a new precompiler.
+   * 
+   * @param compiler
+   *          the compiler used to load the rulesets, which must support concurrent use
+   * @param executor
+   *          the executor to perform the compilations on
+   */
+  public SchematronPrecompiler(SchematronCompiler compiler, Executor executor) {
+    Objects.requireNonNull(compiler, "compiler");
+    Objects.requireNonNull(executor, "executor");
+    this.compiler = compiler;
+    this.executor = executor;
+  }
+
+  public SchematronCompiler getCompiler() {
+    return compiler;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Loads the provided rulesets, and compiles the requested phases of each ruleset.
+   * 
+   * @param rulesetToPhasesMap
+   *          a mapping of each ruleset to the phases to compile for it, where a {@code null} phase
+   *          identifies the default phase
+   * @return a mapping of each ruleset to its loaded {@link Schematron}, in the iteration order of the
+   *         provided map
+   * @throws SchematronCompilationException
+   *           if an error occurred while loading a ruleset or compiling one of its phases
+   */
+  public Map<URL, Schematron> precompile(Map<URL, ? extends Collection<String>> rulesetToPhasesMap)
+      throws SchematronCompilationException {
+    Objects.requireNonNull(rulesetToPhasesMap, "rulesetToPhasesMap");
+
+    long start = System.currentTimeMillis();
+    Map<URL, CompletableFuture<Schematron>> schematronFutures = new LinkedHashMap<>();
+    List<CompletableFuture<Void>> phaseFutures = new ArrayList<>();
+    for (Map.Entry<URL, ? extends Collection<String>> entry : rulesetToPhasesMap.entrySet()) {
+      URL ruleset = entry.getKey();
+      CompletableFuture<Schematron> schematronFuture
+          = CompletableFuture.supplyAsync(() -> newSchematron(ruleset), executor);
+      schematronFutures.put(ruleset, schematronFuture);
+
+      for (String phase : entry.getValue()) {
+        phaseFutures.add(schematronFuture.thenAcceptAsync(schematron -> compile(schematron, phase), executor));
+      }
+    }
+
+    Map<URL, Schematron> retval = new LinkedHashMap<>();
+    try {
+      CompletableFuture.allOf(phaseFutures.toArray(new CompletableFuture<?>[phaseFutures.size()])).join();
+      for (Map.Entry<URL, CompletableFuture<Schematron>> entry : schematronFutures.entrySet()) {
+        retval.put(entry.getKey(), entry.getValue().join());
+      }
+    } catch (CompletionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof SchematronCompilationException) {
+        throw (SchematronCompilationException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new SchematronCompilationException(cause);
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug("Compiled {} schematron ruleset(s) with {} phase(s) in {} ms", retval.size(), phaseFutures.size(),
+          System.currentTimeMillis() - start);
+    }
+    return retval;
+  }
+
+  private Schematron newSchematron(URL ruleset) {
+    try {
+      return compiler.newSchematron(ruleset);
+    } catch (SchematronCompilationException ex) {
+      throw new CompletionException(ex);
+    }
+  }
+
+  private static void compile(Schematron schematron, String phase) {
+    try {
+      schematron.getCompiledSchematron(phase);
+    } catch (SchematronCompilationException ex) {
+      throw new CompletionException(ex);
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.xml.assessment;
+
+import gov.nist.secauto.decima.core.assessment.AbstractAssessment;
+import gov.nist.secauto.decima.core.assessment.AssessmentException;
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.BasicTestResult;
+import gov.nist.secauto.decima.core.assessment.result.DefaultAssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.TestResult;
+import gov.nist.secauto.decima.core.assessment.result.TestStatus;
+import gov.nist.secauto.decima.core.document.DocumentException;
+import gov.nist.secauto.decima.xml.assessment.result.XPathContext;
+import gov.nist.secauto.decima.xml.document.XMLDocument;
+import gov.nist.secauto.decima.xml.document.XMLDocumentChunkReader;
+
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactoryConfigurationException;
+
+public class ChunkedXMLAssessmentExecutorTest {
+  private static final int RECORDS = 50;
+
+  private static XMLDocumentChunkReader newReader() throws DocumentException {
+    return newReader(-1);
+  }
+
+  private static XMLDocumentChunkReader newReader(int malformedRecord) throws DocumentException {
+    StringBuilder builder = new StringBuilder();
+    builder.append("<collection>\n");
+    for (int i = 0; i < RECORDS; i++) {
+      builder.append("  <record><value>").append(i).append(i == malformedRecord ? "</valu>" : "</value>")
+          .append("</record>\n");
+    }
+    builder.append("</collection>\n");
+    return new XMLDocumentChunkReader(new ByteArrayInputStream(builder.toString().getBytes(StandardCharsets.UTF_8)),
+        "file:/collection.xml", null, "/collection/record", null);
+  }
+
+  @Test
+  public void testExecute() throws AssessmentException, DocumentException, IOException {
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try (XMLDocumentChunkReader reader = newReader()) {
+      ChunkedXMLAssessmentExecutor executor = new ChunkedXMLAssessmentExecutor(executorService, 2,
+          "/collection/record", null, Collections.singletonList(new ValueAssessment()));
+
+      DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+      Assert.assertEquals(RECORDS, executor.execute(reader, builder));
+
+      List<TestResult> results = builder.getAssertionResultsByDerivedRequirementId("REQ-1");
+      Assert.assertEquals(RECORDS, results.size());
+
+      Set<String> xpaths = new HashSet<>();
+      for (TestResult result : results) {
+        XPathContext context = (XPathContext) result.getContext();
+        xpaths.add(context.getXPath());
+        // each record is on its own line, after the root element
+        Assert.assertEquals(Integer.parseInt(result.getResultValues().get(0)) + 2, context.getLine());
+      }
+      Assert.assertEquals(RECORDS, xpaths.size());
+      Assert.assertTrue(xpaths.contains("/*[local-name()='collection' and namespace-uri()=''][1]"
+          + "/*[local-name()='record' and namespace-uri()=''][" + RECORDS + "]"
+          + "/*[local-name()='value' and namespace-uri()=''][1]"));
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test
+  public void testMalformedRecord() throws DocumentException, IOException, InterruptedException {
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try (XMLDocumentChunkReader reader = newReader(RECORDS / 2)) {
+      // the record read just before the malformed one is still being assessed when the error is found
+      SlowAssessment assessment = new SlowAssessment(Integer.toString(RECORDS / 2 - 1));
+      ChunkedXMLAssessmentExecutor executor = new ChunkedXMLAssessmentExecutor(executorService, 4,
+          "/collection/record", null, Collections.singletonList(assessment));
+
+      DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+      try {
+        executor.execute(reader, builder);
+        Assert.fail("the malformed record was not reported");
+      } catch (AssessmentException ex) {
+        Assert.assertTrue(ex.getCause() instanceof DocumentException);
+      }
+
+      // the chunks submitted before the malformed record have completed
+      Assert.assertEquals(0, assessment.running.get());
+      int resultCount = builder.getAssertionResultsByDerivedRequirementId("REQ-1").size();
+      Assert.assertEquals(RECORDS / 2, resultCount);
+      Thread.sleep(100);
+      Assert.assertEquals(resultCount, builder.getAssertionResultsByDerivedRequirementId("REQ-1").size());
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  private static class SlowAssessment
+      extends ValueAssessment {
+    private final String slowValue;
+    private final AtomicInteger running = new AtomicInteger();
+
+    public SlowAssessment(String slowValue) {
+      this.slowValue = slowValue;
+    }
+
+    @Override
+    protected void executeInternal(XMLDocument document, AssessmentResultBuilder builder)
+        throws AssessmentException {
+      running.incrementAndGet();
+      try {
+        for (Element value : document.newXPathEvaluator().evaluate("//value", Filters.element())) {
+          if (slowValue.equals(value.getText())) {
+            Thread.sleep(500);
+          }
+        }
+        super.executeInternal(document, builder);
+      } catch (XPathExpressionException | XPathFactoryConfigurationException ex) {
+        throw new AssessmentException(ex);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new AssessmentException(ex);
+      } finally {
+        running.decrementAndGet();
+      }
+    }
+  }
+
+  private static class ValueAssessment
+      extends AbstractAssessment<XMLDocument> {
+
+    @Override
+    public String getAssessmentType() {
+      return "Value";
+    }
+
+    @Override
+    protected String getNameDetails() {
+      return null;
+    }
+
+    @Override
+    protected void executeInternal(XMLDocument document, AssessmentResultBuilder builder)
+        throws AssessmentException {
+      try {
+        for (Element value : document.newXPathEvaluator().evaluate("//value", Filters.element())) {
+          BasicTestResult result = new BasicTestResult("TEST-1", TestStatus.FAIL, document.getContext(value));
+          result.addResultValue(value.getText());
+          builder.addTestResult(this, document, "REQ-1", result);
+        }
+      } catch (XPathExpressionException | XPathFactoryConfigurationException ex) {
+        throw new AssessmentException(ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.schematron;
+
+import org.jdom2.Document;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerFactory;
+
+public class SchematronPrecompilerTest {
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testPrecompile() throws Exception {
+    URL ruleset1 = new URL("file:/rules/one.sch");
+    URL ruleset2 = new URL("file:/rules/two.sch");
+    Map<URL, Collection<String>> rulesetToPhasesMap = new LinkedHashMap<>();
+    rulesetToPhasesMap.put(ruleset1, Arrays.asList(null, "phase1"));
+    rulesetToPhasesMap.put(ruleset2, Collections.singletonList("phase2"));
+
+    // every phase must be compiling at the same time for the barrier to open
+    CyclicBarrier barrier = new CyclicBarrier(3);
+    StubCompiler compiler = new StubCompiler(barrier, null);
+
+    Map<URL, Schematron> result = new SchematronPrecompiler(compiler, executor).precompile(rulesetToPhasesMap);
+    Assert.assertEquals(Arrays.asList(ruleset1, ruleset2), Arrays.asList(result.keySet().toArray()));
+    Assert.assertEquals(1, compiler.getLoadCount(ruleset1));
+    Assert.assertEquals(1, compiler.getLoadCount(ruleset2));
+
+    StubSchematron schematron1 = (StubSchematron) result.get(ruleset1);
+    StubSchematron schematron2 = (StubSchematron) result.get(ruleset2);
+    Assert.assertEquals(new HashSet<>(Arrays.asList(null, "phase1")), schematron1.getCompiledPhases());
+    Assert.assertEquals(Collections.singleton("phase2"), schematron2.getCompiledPhases());
+  }
+
+  @Test
+  public void testCompilationFailure() throws Exception {
+    URL ruleset = new URL("file:/rules/bad.sch");
+    SchematronCompilationException failure = new SchematronCompilationException("bad phase");
+    StubCompiler compiler = new StubCompiler(null, failure);
+
+    try {
+      new SchematronPrecompiler(compiler, executor)
+          .precompile(Collections.singletonMap(ruleset, Arrays.asList("good", "bad")));
+      Assert.fail("expected a compilation failure");
+    } catch (SchematronCompilationException ex) {
+      Assert.assertSame(failure, ex);
+    }
+  }
+
+  private static class StubCompiler implements SchematronCompiler {
+    private final CyclicBarrier barrier;
+    private final SchematronCompilationException failure;
+    private final Map<URL, AtomicInteger> loadCounts = new ConcurrentHashMap<>();
+
+    public StubCompiler(CyclicBarrier barrier, SchematronCompilationException failure) {
+      this.barrier = barrier;
+      this.failure = failure;
+    }
+
+    public int getLoadCount(URL ruleset) {
+      AtomicInteger count = loadCounts.get(ruleset);
+      return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public Schematron newSchematron(URL schematron) throws SchematronCompilationException {
+      loadCounts.computeIfAbsent(schematron, key -> new AtomicInteger()).incrementAndGet();
+      return new StubSchematron(schematron.toString(), barrier, failure);
+    }
+  }
+
+  private static class StubSchematron implements Schematron {
+    private final String path;
+    private final CyclicBarrier barrier;
+    private final SchematronCompilationException failure;
+    private final Set<String> compiledPhases = Collections.synchronizedSet(new HashSet<>());
+
+    public StubSchematron(String path, CyclicBarrier barrier, SchematronCompilationException failure) {
+      this.path = path;
+      this.barrier = barrier;
+      this.failure = failure;
+    }
+
+    public Set<String> getCompiledPhases() {
+      return compiledPhases;
+    }
+
+    @Override
+    public String getPath() {
+      return path;
+    }
+
+    @Override
+    public Document getProcessedSchematron() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Document getCompiledSchematron(String phase) throws SchematronCompilationException {
+      if (failure != null && "bad".equals(phase)) {
+        throw failure;
+      }
+      if (barrier != null) {
+        try {
+          barrier.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException | BrokenBarrierException | TimeoutException ex) {
+          throw new SchematronCompilationException("phases were not compiled concurrently", ex);
+        }
+      }
+      compiledPhases.add(phase);
+      return new Document();
+    }
+
+    @Override
+    public TransformerFactory getTransformerFactory() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void transform(Source xml, Result result) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void transform(Source xml, Result result, String phase) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void transform(Source xml, Result result, String phase, Map<String, String> parameters) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
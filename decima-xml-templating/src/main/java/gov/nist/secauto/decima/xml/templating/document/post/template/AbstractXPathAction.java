@@ -43,6 +43,10 @@ import java.util.Objects;
 /**
  * This abstract implementation provides basic XPath query support for {@link Action}
  * implementations that handle specific action operations.
+ * <p>
+ * The XPath expression is compiled once and reused each time the action is executed. Actions do
+ * not modify their own state when executed, so an action can be executed concurrently against
+ * different documents.
  * 
  * @param <T>
  *          The generic type of the results of the XPath query after being processed by the JDOM
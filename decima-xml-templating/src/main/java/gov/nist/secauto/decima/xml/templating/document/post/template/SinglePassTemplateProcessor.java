@@ -0,0 +1,224 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.templating.document.post.template;
+
+import gov.nist.secauto.decima.core.document.DocumentException;
+import gov.nist.secauto.decima.core.document.handling.ResourceResolver;
+import gov.nist.secauto.decima.xml.document.JDOMDocument;
+import gov.nist.secauto.decima.xml.document.MutableXMLDocument;
+import gov.nist.secauto.decima.xml.document.XMLDocument;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdom2.Attribute;
+import org.jdom2.Document;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A template processor that reduces the work performed for templates with many actions.
+ * <p>
+ * Consecutive actions are grouped into batches of actions that do not interfere with each other.
+ * The targets of every action in a batch are resolved before any of the batch's edits are applied,
+ * and the edits are then applied in the order the actions are defined. This produces the same
+ * document as applying each action in turn. A batch contains any number of actions that only edit
+ * attributes, where no action's XPath may refer to an attribute edited by an earlier action in the
+ * batch, optionally followed by a single action that changes the element structure of the document.
+ * Actions that are not based on an {@link AbstractXPathAction} are executed on their own.
+ * <p>
+ * The base template is only copied if the template resolver may share the documents it provides.
+ * The resulting document is logged once, instead of after every action.
+ */
+public class SinglePassTemplateProcessor
+    extends DefaultTemplateProcessor {
+  private static final Logger log = LogManager.getLogger(SinglePassTemplateProcessor.class);
+
+  /**
+   * Matches XPath constructs that may observe any attribute or namespace, or that depend on specific
+   * attributes without naming them.
+   */
+  private static final Pattern UNSAFE_XPATH_PATTERN = Pattern.compile("@\\s*\\*(?!:)|attribute::|namespace"
+      + "|\\b(?:id|idref|element-with-id|lang|base-uri|deep-equal)\\s*\\(");
+
+  /**
+   * Construct a new XML template processor.
+   * 
+   * @param contextSystemId
+   *          the system id for the document containing this template
+   * @param baseTemplateURL
+   *          the base template referenced within the current template to use as a starting point for
+   *          tansformation
+   * @param actions
+   *          the actions to perform on the base template
+   */
+  public SinglePassTemplateProcessor(URL contextSystemId, URL baseTemplateURL, List<Action> actions) {
+    super(contextSystemId, baseTemplateURL, actions);
+  }
+
+  @Override
+  public MutableXMLDocument generate(ResourceResolver<MutableXMLDocument> templateResolver) throws DocumentException {
+    if (templateResolver == null) {
+      throw new DocumentException(new NullPointerException("a resolver was not provided"));
+    }
+    XMLDocument template = templateResolver.resolve(getBaseTemplateURL());
+    Document doc;
+    if (templateResolver.providesSharedDocuments()) {
+      doc = template.getJDOMDocument().clone();
+    } else {
+      // the template belongs to this processor, so it can be modified in place
+      doc = template.getJDOMDocument();
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug("Processing template '{}' using '{}' as the base.", getContextSystemId(), getBaseTemplateURL());
+    }
+    try {
+      applyActions(doc);
+    } catch (ActionException e) {
+      throw new DocumentException("Unable to process template", e);
+    }
+    if (log.isTraceEnabled()) {
+      XMLOutputter out = new XMLOutputter(Format.getPrettyFormat());
+      log.trace("Resulting XML: {}", out.outputString(doc));
+    }
+    doc.setBaseURI(getContextSystemId().toString());
+    return new JDOMDocument(doc, getContextSystemId());
+  }
+
+  private void applyActions(Document doc) throws ActionException {
+    List<Action> actions = getActions();
+    List<ResolvedAction<?>> batch = new ArrayList<>();
+    Set<String> editedAttributes = new HashSet<>();
+
+    int index = 0;
+    while (index < actions.size()) {
+      Action action = actions.get(index);
+      if (!(action instanceof AbstractXPathAction)) {
+        if (log.isDebugEnabled()) {
+          log.debug("Executing action: {}", action.getClass().getName());
+        }
+        action.execute(doc);
+        ++index;
+        continue;
+      }
+
+      // resolve the targets of a batch of actions
+      batch.clear();
+      editedAttributes.clear();
+      while (index < actions.size() && actions.get(index) instanceof AbstractXPathAction) {
+        AbstractXPathAction<?> xpathAction = (AbstractXPathAction<?>) actions.get(index);
+        if (!batch.isEmpty() && interferes(xpathAction, editedAttributes)) {
+          break;
+        }
+
+        ResolvedAction<?> resolved = ResolvedAction.resolve(xpathAction, doc);
+        batch.add(resolved);
+        ++index;
+
+        if (!resolved.recordEditedAttributes(editedAttributes)) {
+          // the action changes the element structure, which later actions may observe
+          break;
+        }
+      }
+
+      if (log.isDebugEnabled()) {
+        log.debug("Applying a batch of {} action(s)", batch.size());
+      }
+      for (ResolvedAction<?> resolved : batch) {
+        resolved.apply();
+      }
+    }
+  }
+
+  private static boolean interferes(AbstractXPathAction<?> action, Set<String> editedAttributes) {
+    String xpath = action.getXpath().getExpression();
+    if (UNSAFE_XPATH_PATTERN.matcher(xpath).find()) {
+      return true;
+    }
+    for (String name : editedAttributes) {
+      // matches the attribute name, with any prefix
+      Pattern pattern = Pattern.compile("@\\s*(?:[\\w.\\-]+:|\\*:)?" + Pattern.quote(name) + "(?![\\w.\\-])");
+      if (pattern.matcher(xpath).find()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static class ResolvedAction<T> {
+    private final AbstractXPathAction<T> action;
+    private final List<T> targets;
+
+    public static <T> ResolvedAction<T> resolve(AbstractXPathAction<T> action, Document doc) throws ActionException {
+      if (log.isTraceEnabled()) {
+        log.trace("Evaluating XPath: {}", action.getXpath().getExpression());
+      }
+      return new ResolvedAction<>(action, action.resolveXpath(doc));
+    }
+
+    private ResolvedAction(AbstractXPathAction<T> action, List<T> targets) {
+      this.action = action;
+      this.targets = targets;
+    }
+
+    /**
+     * Records the local names of the attributes edited by the action.
+     * 
+     * @param editedAttributes
+     *          the set to add the names to
+     * @return {@code true} if the action only edits attributes, or {@code false} otherwise
+     */
+    public boolean recordEditedAttributes(Set<String> editedAttributes) {
+      boolean retval = true;
+      if (action instanceof AddAttributeAction) {
+        editedAttributes.add(((AddAttributeAction) action).getName());
+      } else if (action instanceof ModifyAttributeAction) {
+        for (T target : targets) {
+          editedAttributes.add(((Attribute) target).getName());
+        }
+      } else {
+        retval = false;
+      }
+      return retval;
+    }
+
+    public void apply() throws ActionException {
+      if (log.isDebugEnabled()) {
+        log.debug("Executing action: {}", action.getClass().getName());
+      }
+      action.process(targets);
+    }
+  }
+}
@@ -39,6 +39,7 @@ import org.jdom2.JDOMException;
 import org.jdom2.Namespace;
 import org.jdom2.filter.Filter;
 import org.jdom2.filter.Filters;
+import org.jdom2.input.SAXBuilder;
 import org.jdom2.input.sax.SAXEngine;
 import org.jdom2.xpath.XPathFactory;
 import org.xml.sax.SAXException;
@@ -54,6 +55,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
 
 public class TemplateParser {
   public static final Namespace TEMPLATE_NAMESPACE
@@ -66,7 +71,11 @@ public class TemplateParser {
     return instance;
   }
 
+  private static final String TEMPLATE_SCHEMA_LOCATION = "classpath:schema/decima/decima-template-1.0.xsd";
+
   private final XPathFactory xpathfactory = new SaxonXPathFactory();
+  private final ReentrantLock templateSAXBuilderLock = new ReentrantLock();
+  private SAXBuilder templateSAXBuilder;
 
   private TemplateParser() {
     // prevent construction
@@ -76,6 +85,27 @@ public class TemplateParser {
     return xpathfactory;
   }
 
+  /**
+   * Retrieves a builder for validating template documents. The template schema is compiled on first
+   * use, and is then shared by each {@link SAXEngine} built using the builder.
+   * 
+   * @return the builder
+   * @throws SAXException
+   *           if an error occurred while parsing the template schema
+   */
+  private SAXBuilder getTemplateSAXBuilder() throws SAXException {
+    templateSAXBuilderLock.lock();
+    try {
+      if (templateSAXBuilder == null) {
+        templateSAXBuilder
+            = JDOMUtil.newValidatingSAXBuilder(new Source[] { new StreamSource(TEMPLATE_SCHEMA_LOCATION) });
+      }
+      return templateSAXBuilder;
+    } finally {
+      templateSAXBuilderLock.unlock();
+    }
+  }
+
   public TemplateProcessor parse(XMLDocument template) throws TemplateParserException {
     return parse(template.getJDOMDocument().getRootElement(), template.getOriginalLocation());
   }
@@ -115,8 +145,8 @@ public class TemplateParser {
   public TemplateProcessor parse(InputStream is, URL contextSystemId) throws TemplateParserException {
     SAXEngine saxEngine;
     try {
-      saxEngine = JDOMUtil.newValidatingSAXEngine(new URL("classpath:schema/decima/decima-template-1.0.xsd"));
-    } catch (MalformedURLException | SAXException | JDOMException e) {
+      saxEngine = getTemplateSAXBuilder().buildEngine();
+    } catch (SAXException | JDOMException e) {
       throw new TemplateParserException(e);
     }
     Document document;
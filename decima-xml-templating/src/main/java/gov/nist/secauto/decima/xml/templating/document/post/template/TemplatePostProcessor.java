@@ -32,10 +32,27 @@ import gov.nist.secauto.decima.core.document.handling.ResourceResolver;
 import gov.nist.secauto.decima.xml.document.MutableXMLDocument;
 import gov.nist.secauto.decima.xml.document.XMLDocument;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.jdom2.Attribute;
 import org.jdom2.Document;
 import org.jdom2.Element;
 
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates documents from Decima templates.
+ * <p>
+ * Parsing a template compiles the XPath expressions of each of its actions. Since the resulting
+ * {@link TemplateProcessor} can be reused, processors are cached by the location of the template
+ * document. When the freshness check is enabled, a cached processor is only used if the template
+ * file has not been modified since it was parsed. Templates that are not files, such as classpath
+ * resources, are expected not to change.
+ */
 public class TemplatePostProcessor implements DocumentPostProcessor<MutableXMLDocument> {
   public static final String TEMPLATE_NAMESPACE_URI = "http://csrc.nist.gov/ns/decima/template/1.0";
   public static final String TEMPLATE_LOCAL_NAME = "template";
@@ -52,8 +69,37 @@ public class TemplatePostProcessor implements DocumentPostProcessor<MutableXMLDo
     TEMPLATE_XPATH = builder.toString();
   }
 
+  private static final Logger log = LogManager.getLogger(TemplatePostProcessor.class);
+
+  private final boolean checkFreshness;
+  private final Map<String, CachedTemplateProcessor> templateProcessorCache = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a new template post processor that checks the freshness of cached template
+   * processors.
+   */
   public TemplatePostProcessor() {
+    this(true);
+  }
+
+  /**
+   * Constructs a new template post processor.
+   * 
+   * @param checkFreshness
+   *          {@code true} if a cached template processor is to be used only when the template file
+   *          has not been modified since the template was parsed, or {@code false} if cached template
+   *          processors are always used
+   */
+  public TemplatePostProcessor(boolean checkFreshness) {
     super();
+    this.checkFreshness = checkFreshness;
+  }
+
+  /**
+   * Discards all cached template processors.
+   */
+  public void clearCache() {
+    templateProcessorCache.clear();
   }
 
   @Override
@@ -79,10 +125,54 @@ public class TemplatePostProcessor implements DocumentPostProcessor<MutableXMLDo
       throw new DocumentException("The document's root element doesn't have an attribute named 'template'.");
     }
 
-    TemplateProcessor tp = newTemplateProcessor(subject);
+    TemplateProcessor tp = getTemplateProcessor(subject);
     return tp.generate(resolver);
   }
 
+  /**
+   * Retrieves a template processor for the provided template document, reusing a cached processor
+   * if one is available for the document's location.
+   * 
+   * @param document
+   *          the template document
+   * @return the template processor
+   * @throws DocumentException
+   *           if an error occurred while parsing the template
+   */
+  protected TemplateProcessor getTemplateProcessor(XMLDocument document) throws DocumentException {
+    URL location = document.getOriginalLocation();
+    if (location == null) {
+      // there is nothing to identify the template by
+      return newTemplateProcessor(document);
+    }
+
+    String key = location.toExternalForm();
+    long lastModified = checkFreshness ? getLastModified(location) : 0;
+    CachedTemplateProcessor cached = templateProcessorCache.get(key);
+    if (cached != null && cached.getLastModified() == lastModified) {
+      return cached.getTemplateProcessor();
+    }
+
+    if (cached != null && log.isDebugEnabled()) {
+      log.debug("The template has been modified since it was parsed: {}", key);
+    }
+    TemplateProcessor retval = newTemplateProcessor(document);
+    templateProcessorCache.put(key, new CachedTemplateProcessor(retval, lastModified));
+    return retval;
+  }
+
+  private static long getLastModified(URL location) {
+    long retval = 0;
+    if ("file".equals(location.getProtocol())) {
+      try {
+        retval = new File(location.toURI()).lastModified();
+      } catch (URISyntaxException | IllegalArgumentException ex) {
+        // treat the template as unchanging
+      }
+    }
+    return retval;
+  }
+
   protected TemplateProcessor newTemplateProcessor(XMLDocument document) throws DocumentException {
     TemplateProcessor retval;
     try {
@@ -93,4 +183,21 @@ public class TemplatePostProcessor implements DocumentPostProcessor<MutableXMLDo
     return retval;
   }
 
+  private static class CachedTemplateProcessor {
+    private final TemplateProcessor templateProcessor;
+    private final long lastModified;
+
+    public CachedTemplateProcessor(TemplateProcessor templateProcessor, long lastModified) {
+      this.templateProcessor = templateProcessor;
+      this.lastModified = lastModified;
+    }
+
+    public TemplateProcessor getTemplateProcessor() {
+      return templateProcessor;
+    }
+
+    public long getLastModified() {
+      return lastModified;
+    }
+  }
 }
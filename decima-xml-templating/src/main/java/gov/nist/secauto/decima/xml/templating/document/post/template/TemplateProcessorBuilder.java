@@ -39,6 +39,7 @@ public class TemplateProcessorBuilder {
   // TODO: also allow loading of the document?
   private URL baseTemplateURL;
   private final List<Action> actions = new LinkedList<>();
+  private boolean singlePass = true;
 
   public URL getTemplateURL() {
     return baseTemplateURL;
@@ -53,6 +54,24 @@ public class TemplateProcessorBuilder {
     return actions;
   }
 
+  public boolean isSinglePass() {
+    return singlePass;
+  }
+
+  /**
+   * Determines if the built template processor is to apply the actions in batches, using a
+   * {@link SinglePassTemplateProcessor}, or one action at a time, using a
+   * {@link DefaultTemplateProcessor}. Both produce the same result.
+   * 
+   * @param singlePass
+   *          {@code true} to apply the actions in batches, or {@code false} otherwise
+   * @return this builder
+   */
+  public TemplateProcessorBuilder setSinglePass(boolean singlePass) {
+    this.singlePass = singlePass;
+    return this;
+  }
+
   /**
    * Create a new TemplateProcessor based on the information provided by this builder.
    * 
@@ -66,7 +85,13 @@ public class TemplateProcessorBuilder {
     if (actions.isEmpty()) {
       actions = Collections.emptyList();
     }
-    return new DefaultTemplateProcessor(getContextSystemId(), templateURL, actions);
+    TemplateProcessor retval;
+    if (isSinglePass()) {
+      retval = new SinglePassTemplateProcessor(getContextSystemId(), templateURL, actions);
+    } else {
+      retval = new DefaultTemplateProcessor(getContextSystemId(), templateURL, actions);
+    }
+    return retval;
   }
 
   public void addActions(Collection<? extends Action> actions) {
@@ -0,0 +1,112 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.templating.document.post.template;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import gov.nist.secauto.decima.core.document.DocumentException;
+import gov.nist.secauto.decima.xml.document.JDOMDocument;
+import gov.nist.secauto.decima.xml.document.MutableXMLDocument;
+import gov.nist.secauto.decima.xml.document.SimpleXMLDocumentResolver;
+import gov.nist.secauto.decima.xml.jdom2.JDOMUtil;
+
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class SinglePassTemplateProcessorTest {
+  private static final Namespace NAMESPACE = Namespace.getNamespace("http://tempuri.org");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File templateFile;
+
+  @Before
+  public void setUp() throws IOException {
+    Files.copy(Paths.get("src/test/resources/test.xml"), folder.getRoot().toPath().resolve("test.xml"));
+    templateFile = folder.newFile("template.xml");
+    String template = "<template xmlns=\"http://csrc.nist.gov/ns/decima/template/1.0\""
+        + " xmlns:t=\"http://tempuri.org\" template=\"test.xml\">"
+        + "<add-attribute xpath=\"/t:root-node/t:sample-node-1\" name=\"added\" value=\"1\"/>"
+        // refers to the attribute added by the previous action
+        + "<modify-attribute xpath=\"//t:*/@added\" value=\"2\"/>"
+        + "<modify-attribute xpath=\"/t:root-node/t:sample-node-2/@sample\" value=\"modified\"/>"
+        + "<insert-child xpath=\"/t:root-node\"><t:sample-node-3 sample=\"inserted\"/></insert-child>"
+        // refers to the element inserted by the previous action
+        + "<modify-attribute xpath=\"/t:root-node/t:sample-node-3/@sample\" value=\"modified\"/>"
+        + "<delete xpath=\"/t:root-node/t:sample-node-2\"/>"
+        + "</template>";
+    Files.write(templateFile.toPath(), template.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private TemplateProcessor parseTemplate() throws TemplateParserException, DocumentException, IOException {
+    TemplateProcessor retval = TemplateParser.getInstance().parse(new JDOMDocument(templateFile));
+    assertTrue(retval instanceof SinglePassTemplateProcessor);
+    return retval;
+  }
+
+  @Test
+  public void testSameResultAsDefault() throws TemplateParserException, DocumentException, IOException {
+    TemplateProcessor processor = parseTemplate();
+    TemplateProcessor defaultProcessor = new DefaultTemplateProcessor(processor.getContextSystemId(),
+        processor.getBaseTemplateURL(), processor.getActions());
+
+    MutableXMLDocument result = processor.generate(new SimpleXMLDocumentResolver());
+    MutableXMLDocument expected = defaultProcessor.generate(new SimpleXMLDocumentResolver());
+    assertEquals(JDOMUtil.toString(expected.getJDOMDocument()), JDOMUtil.toString(result.getJDOMDocument()));
+
+    Element root = result.getJDOMDocument().getRootElement();
+    assertEquals("2", root.getChild("sample-node-1", NAMESPACE).getAttributeValue("added"));
+    assertNull(root.getChild("sample-node-2", NAMESPACE));
+    assertEquals("modified", root.getChild("sample-node-3", NAMESPACE).getAttributeValue("sample"));
+  }
+
+  @Test
+  public void testSharedTemplateIsCopied() throws TemplateParserException, DocumentException, IOException {
+    MutableXMLDocument base = new JDOMDocument(folder.getRoot().toPath().resolve("test.xml").toFile());
+    String original = JDOMUtil.toString(base.getJDOMDocument());
+
+    // the resolver provides the same document each time, so it must not be modified
+    TemplateProcessor processor = parseTemplate();
+    processor.generate(url -> base);
+    processor.generate(url -> base);
+    assertEquals(original, JDOMUtil.toString(base.getJDOMDocument()));
+  }
+}
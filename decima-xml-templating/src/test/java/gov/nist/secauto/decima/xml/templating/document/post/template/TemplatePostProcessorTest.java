@@ -0,0 +1,137 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.templating.document.post.template;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import gov.nist.secauto.decima.core.document.DocumentException;
+import gov.nist.secauto.decima.xml.document.JDOMDocument;
+import gov.nist.secauto.decima.xml.document.MutableXMLDocument;
+import gov.nist.secauto.decima.xml.document.SimpleXMLDocumentResolver;
+
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TemplatePostProcessorTest {
+  private static final Namespace NAMESPACE = Namespace.getNamespace("http://tempuri.org");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File templateFile;
+
+  @Before
+  public void setUp() throws IOException {
+    Files.copy(Paths.get("src/test/resources/test.xml"), folder.getRoot().toPath().resolve("test.xml"));
+    templateFile = folder.newFile("template.xml");
+    writeTemplate("changed");
+  }
+
+  private void writeTemplate(String value) throws IOException {
+    String template = "<template xmlns=\"http://csrc.nist.gov/ns/decima/template/1.0\""
+        + " xmlns:t=\"http://tempuri.org\" template=\"test.xml\">"
+        + "<modify-attribute xpath=\"/t:root-node/t:sample-node-2/@sample\" value=\"" + value + "\"/>"
+        + "</template>";
+    Files.write(templateFile.toPath(), template.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private MutableXMLDocument loadTemplate() throws DocumentException, FileNotFoundException {
+    return new JDOMDocument(templateFile);
+  }
+
+  private static String getSampleValue(MutableXMLDocument document) {
+    Element root = document.getJDOMDocument(false).getRootElement();
+    return root.getChild("sample-node-2", NAMESPACE).getAttributeValue("sample");
+  }
+
+  @Test
+  public void testCachedTemplateProcessor() throws DocumentException, FileNotFoundException {
+    TemplatePostProcessor postProcessor = new TemplatePostProcessor();
+    TemplateProcessor processor = postProcessor.getTemplateProcessor(loadTemplate());
+    assertSame(processor, postProcessor.getTemplateProcessor(loadTemplate()));
+
+    assertEquals("changed", getSampleValue(postProcessor.process(loadTemplate(), new SimpleXMLDocumentResolver())));
+
+    postProcessor.clearCache();
+    assertNotSame(processor, postProcessor.getTemplateProcessor(loadTemplate()));
+  }
+
+  @Test
+  public void testModifiedTemplate() throws DocumentException, IOException {
+    TemplatePostProcessor postProcessor = new TemplatePostProcessor();
+    TemplatePostProcessor uncheckedPostProcessor = new TemplatePostProcessor(false);
+    TemplateProcessor processor = postProcessor.getTemplateProcessor(loadTemplate());
+    TemplateProcessor uncheckedProcessor = uncheckedPostProcessor.getTemplateProcessor(loadTemplate());
+
+    writeTemplate("modified");
+    templateFile.setLastModified(templateFile.lastModified() + 2000);
+
+    assertNotSame(processor, postProcessor.getTemplateProcessor(loadTemplate()));
+    assertEquals("modified", getSampleValue(postProcessor.process(loadTemplate(), new SimpleXMLDocumentResolver())));
+    assertSame(uncheckedProcessor, uncheckedPostProcessor.getTemplateProcessor(loadTemplate()));
+  }
+
+  @Test
+  public void testConcurrentGeneration() throws DocumentException, IOException, InterruptedException,
+      ExecutionException {
+    TemplateProcessor processor = new TemplatePostProcessor().getTemplateProcessor(loadTemplate());
+
+    // the compiled XPath expressions of the shared processor are used by every thread
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<MutableXMLDocument>> futures = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        futures.add(executor.submit(() -> processor.generate(new SimpleXMLDocumentResolver())));
+      }
+      for (Future<MutableXMLDocument> future : futures) {
+        assertEquals("changed", getSampleValue(future.get()));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
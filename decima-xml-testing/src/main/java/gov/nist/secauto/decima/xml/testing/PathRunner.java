@@ -34,7 +34,6 @@ import gov.nist.secauto.decima.xml.requirement.XMLRequirementsParser;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jdom2.JDOMException;
 import org.junit.runner.Description;
 import org.junit.runner.Runner;
 import org.junit.runner.notification.Failure;
@@ -64,6 +63,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
@@ -131,15 +131,14 @@ public class PathRunner
     this.parser = AssessmentUnitTestParser.getInstance();
     try {
       requirementsManager = handleRequirements(testClass);
-    } catch (MalformedURLException | RequirementsParserException | URISyntaxException | JDOMException
-        | SAXException e) {
+    } catch (MalformedURLException | RequirementsParserException | URISyntaxException | SAXException e) {
       throw new InitializationError(e);
     }
     handlePaths(paths);
   }
 
   private static RequirementsManager handleRequirements(Class<?> clazz)
-      throws MalformedURLException, RequirementsParserException, URISyntaxException, JDOMException, SAXException {
+      throws MalformedURLException, RequirementsParserException, URISyntaxException, SAXException {
     DefaultRequirementsManager retval = null;
 
     if (clazz.isAnnotationPresent(Requirements.class)) {
@@ -150,10 +149,12 @@ public class PathRunner
       // Get extension schemas
       List<Source> extension = getExtensions(reqs.extensions());
 
-      XMLRequirementsParser parser = new XMLRequirementsParser(extension);
+      List<URL> urls = new ArrayList<>(requirementDefs.length);
       for (String path : requirementDefs) {
-        parser.parse(new URL(path), retval);
+        urls.add(new URL(path));
       }
+      // parse the definitions concurrently, since each parse validates against the schema
+      retval.loadAll(urls, XMLRequirementsParser.newParserFactory(extension), ForkJoinPool.commonPool());
     }
     return retval;
   }
@@ -0,0 +1,273 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.assessment.result;
+
+import gov.nist.secauto.decima.core.assessment.Assessment;
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResults;
+import gov.nist.secauto.decima.core.assessment.result.BaseRequirementResult;
+import gov.nist.secauto.decima.core.assessment.result.DerivedRequirementResult;
+import gov.nist.secauto.decima.core.assessment.result.TestResult;
+import gov.nist.secauto.decima.core.assessment.util.AbstractDelegatingLoggingHandler;
+import gov.nist.secauto.decima.core.assessment.util.LoggingHandler;
+import gov.nist.secauto.decima.core.document.Context;
+import gov.nist.secauto.decima.core.document.Document;
+import gov.nist.secauto.decima.core.requirement.DerivedRequirement;
+import gov.nist.secauto.decima.core.requirement.RequirementsManager;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes assessment results as newline-delimited JSON, with one JSON object per test result. Unlike
+ * {@link XMLResultBuilder}, no document is built in memory, allowing large volumes of results to be
+ * written and consumed using constant memory.
+ * <p>
+ * Each record has the following members, where members without a value are omitted:
+ * {@code base-requirement}, {@code derived-requirement}, {@code test-id}, {@code status},
+ * {@code message}, {@code subject}, {@code line}, {@code column} and {@code xpath}.
+ * <p>
+ * Results can be written from a completed {@link AssessmentResults} using
+ * {@link #write(AssessmentResults)}, or as they are produced while the assessments run using the
+ * {@link LoggingHandler} provided by {@link #newLoggingHandler(LoggingHandler)}. Records may be
+ * written concurrently.
+ */
+public class NDJSONResultWriter implements Closeable {
+  private static final Logger log = LogManager.getLogger(NDJSONResultWriter.class);
+
+  private final RequirementsManager requirementsManager;
+  private final Writer writer;
+  private final ReentrantLock lock = new ReentrantLock();
+  private IOException failure;
+
+  /**
+   * Constructs a new writer.
+   * 
+   * @param out
+   *          the stream to write the records to, which is closed when this writer is closed
+   * @param requirementsManager
+   *          the requirements the results are for, which is used to identify the base requirement
+   *          and message of each result
+   * @param gzip
+   *          {@code true} if the records are to be gzip compressed, or {@code false} otherwise
+   * @throws IOException
+   *           if an error occurred while writing the gzip header
+   */
+  public NDJSONResultWriter(OutputStream out, RequirementsManager requirementsManager, boolean gzip)
+      throws IOException {
+    Objects.requireNonNull(out, "out");
+    Objects.requireNonNull(requirementsManager, "requirementsManager");
+    this.requirementsManager = requirementsManager;
+    OutputStream os = gzip ? new GZIPOutputStream(out, 8192) : out;
+    this.writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Writes a record for every test result in the provided results.
+   * 
+   * @param results
+   *          the results to write
+   * @throws IOException
+   *           if an error occurred while writing the records
+   */
+  public void write(AssessmentResults results) throws IOException {
+    for (BaseRequirementResult base : results.getBaseRequirementResults()) {
+      for (DerivedRequirementResult derived : base.getDerivedRequirementResults()) {
+        for (TestResult test : derived.getTestResults()) {
+          write(derived.getDerivedRequirement(), test);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes a record for a single test result.
+   * 
+   * @param derivedRequirementId
+   *          the identifier of the derived requirement the test result is for
+   * @param result
+   *          the test result to write
+   * @throws IOException
+   *           if an error occurred while writing the record
+   */
+  public void write(String derivedRequirementId, TestResult result) throws IOException {
+    DerivedRequirement derived = requirementsManager.getDerivedRequirementById(derivedRequirementId);
+    if (derived == null) {
+      throw new IllegalArgumentException("Unknown derived requirement: " + derivedRequirementId);
+    }
+    write(derived, result);
+  }
+
+  private void write(DerivedRequirement derived, TestResult result) throws IOException {
+    StringBuilder builder = new StringBuilder(256);
+    builder.append('{');
+    appendMember(builder, "base-requirement", derived.getBaseRequirement().getId());
+    appendMember(builder, "derived-requirement", derived.getId());
+    appendMember(builder, "test-id", result.getTestId());
+    appendMember(builder, "status", result.getStatus().name());
+    List<String> values = result.getResultValues();
+    appendMember(builder, "message", derived.getMessageText(values.toArray(new String[values.size()])));
+
+    Context context = result.getContext();
+    if (context != null) {
+      appendMember(builder, "subject", context.getSystemId());
+      builder.append(",\"line\":").append(context.getLine());
+      builder.append(",\"column\":").append(context.getColumn());
+      if (context instanceof XPathContext) {
+        appendMember(builder, "xpath", ((XPathContext) context).getXPath());
+      }
+    }
+    builder.append("}\n");
+
+    lock.lock();
+    try {
+      writer.write(builder.toString());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static void appendMember(StringBuilder builder, String name, String value) {
+    if (value == null) {
+      return;
+    }
+    if (builder.length() > 1) {
+      builder.append(',');
+    }
+    builder.append('"').append(name).append("\":");
+    appendString(builder, value);
+  }
+
+  private static void appendString(StringBuilder builder, String value) {
+    builder.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char ch = value.charAt(i);
+      switch (ch) {
+      case '"':
+        builder.append("\\\"");
+        break;
+      case '\\':
+        builder.append("\\\\");
+        break;
+      case '\n':
+        builder.append("\\n");
+        break;
+      case '\r':
+        builder.append("\\r");
+        break;
+      case '\t':
+        builder.append("\\t");
+        break;
+      default:
+        if (ch < 0x20) {
+          builder.append(String.format("\\u%04x", (int) ch));
+        } else {
+          builder.append(ch);
+        }
+      }
+    }
+    builder.append('"');
+  }
+
+  /**
+   * Creates a logging handler that writes a record for each test result as it is produced. Since a
+   * logging handler cannot report a write failure, the first failure is logged, no further records
+   * are written, and the failure is thrown by {@link #close()}.
+   * 
+   * @param delegate
+   *          the handler to pass all logging events on to, or {@code null}
+   * @return the new logging handler
+   */
+  public LoggingHandler newLoggingHandler(LoggingHandler delegate) {
+    return new StreamingLoggingHandler(delegate);
+  }
+
+  /**
+   * Flushes the records written so far.
+   * 
+   * @throws IOException
+   *           if an error occurred while flushing the records
+   */
+  public void flush() throws IOException {
+    lock.lock();
+    try {
+      writer.flush();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      writer.close();
+      if (failure != null) {
+        throw failure;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private class StreamingLoggingHandler
+      extends AbstractDelegatingLoggingHandler {
+
+    public StreamingLoggingHandler(LoggingHandler delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public <DOC extends Document> void addTestResult(Assessment<? extends DOC> assessment, DOC document,
+        String derivedRequirementId, TestResult result) {
+      super.addTestResult(assessment, document, derivedRequirementId, result);
+      lock.lock();
+      try {
+        if (failure == null) {
+          write(derivedRequirementId, result);
+        }
+      } catch (IOException ex) {
+        log.error("Unable to write the result for derived requirement: " + derivedRequirementId, ex);
+        failure = ex;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.assessment.result;
+
+import gov.nist.secauto.decima.core.assessment.result.ResultShardFormat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges result shards produced by separate assessment runs into a single shard, using the
+ * {@link XPathResultShardFormat}. This is intended to be run once the partial runs of a sharded
+ * assessment have completed.
+ * <p>
+ * Usage: {@code ResultShardMerger <merged shard> <shard>...}
+ */
+public class ResultShardMerger {
+
+  private ResultShardMerger() {
+    // disable construction
+  }
+
+  /**
+   * Merges the shards and writes the merged shard.
+   * 
+   * @param args
+   *          the merged shard file to write, followed by the shards to merge
+   * @throws IOException
+   *           if an error occurred while reading or writing a shard
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: ResultShardMerger <merged shard> <shard>...");
+      System.exit(1);
+    }
+
+    List<File> shards = new ArrayList<>(args.length - 1);
+    for (int i = 1; i < args.length; i++) {
+      shards.add(new File(args[i]));
+    }
+
+    ResultShardFormat format = new XPathResultShardFormat();
+    try (OutputStream os = new FileOutputStream(args[0])) {
+      format.merge(shards, os);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.xml.assessment.result;
+
+import gov.nist.secauto.decima.core.assessment.result.CompactTestResultStore;
+import gov.nist.secauto.decima.core.document.Context;
+import gov.nist.secauto.decima.xml.document.SimpleXPathContext;
+
+/**
+ * A {@link CompactTestResultStore} that also captures the XPath of each {@link XPathContext}. The
+ * parent step portion of each XPath is shared across test results, since large numbers of results
+ * typically occur under the same ancestors.
+ */
+public class XPathTestResultStore
+    extends CompactTestResultStore {
+
+  public XPathTestResultStore() {
+    super();
+  }
+
+  /**
+   * Construct a new store sized for the provided number of test results.
+   * 
+   * @param initialCapacity
+   *          the expected number of test results
+   */
+  public XPathTestResultStore(int initialCapacity) {
+    super(initialCapacity);
+  }
+
+  @Override
+  protected String getContextPath(Context context) {
+    String retval = null;
+    if (context instanceof XPathContext) {
+      retval = ((XPathContext) context).getXPath();
+    }
+    return retval;
+  }
+
+  @Override
+  protected Context newContext(String systemId, int line, int column, String path) {
+    return new SimpleXPathContext(path, systemId, line, column);
+  }
+}
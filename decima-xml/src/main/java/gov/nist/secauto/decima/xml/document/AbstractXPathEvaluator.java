@@ -34,6 +34,7 @@ import org.jdom2.Content;
 import org.jdom2.filter.Filter;
 
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.namespace.QName;
@@ -56,6 +57,11 @@ public abstract class AbstractXPathEvaluator<FACTORY extends XPathFactory> imple
   private final FACTORY factory;
   private final XPath xpath;
   private final XMLContextResolver xmlContextResolver;
+  /**
+   * Guards the non-thread-safe {@link XPath} instance. A {@link ReentrantLock} is used instead of a
+   * monitor to avoid pinning the carrier thread when evaluating from a virtual thread.
+   */
+  private final ReentrantLock lock = new ReentrantLock();
 
   protected AbstractXPathEvaluator(FACTORY factory, XMLContextResolver xmlContextResolver) {
     this.factory = factory;
@@ -160,12 +166,17 @@ public abstract class AbstractXPathEvaluator<FACTORY extends XPathFactory> imple
    * @throws XPathExpressionException
    *           If an error occurred while compiling or evaluating the XPath expression
    */
-  protected synchronized <T> T evaluateInternal(String expression, QName returnType) throws XPathExpressionException {
-    XPathExpression xe = getXPath().compile(expression);
-
-    @SuppressWarnings("unchecked")
-    T retval = (T) evaluateCompiled(xe, returnType);
-    return retval;
+  protected <T> T evaluateInternal(String expression, QName returnType) throws XPathExpressionException {
+    lock.lock();
+    try {
+      XPathExpression xe = getXPath().compile(expression);
+
+      @SuppressWarnings("unchecked")
+      T retval = (T) evaluateCompiled(xe, returnType);
+      return retval;
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
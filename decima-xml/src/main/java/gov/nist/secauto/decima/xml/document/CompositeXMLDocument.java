@@ -30,7 +30,7 @@ import gov.nist.secauto.decima.core.document.DefaultSourceInfo;
 import gov.nist.secauto.decima.core.document.Document;
 import gov.nist.secauto.decima.core.document.DocumentException;
 import gov.nist.secauto.decima.core.document.SourceInfo;
-import gov.nist.secauto.decima.xml.document.context.DefaultXMLContextResolver;
+import gov.nist.secauto.decima.xml.document.context.IndexedXMLContextResolver;
 import gov.nist.secauto.decima.xml.document.context.XMLContextResolver;
 
 import org.jdom2.Content;
@@ -44,6 +44,7 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -57,7 +58,8 @@ public class CompositeXMLDocument
   public static final String COMPOSITE_PLACEHOLDER_LOCAL_NAME = "sub";
   public static final QName COMPOSITE_QNAME = new QName(COMPOSITE_NS_URI, COMPOSITE_PLACEHOLDER_LOCAL_NAME);
 
-  private Map<Element, String> elementToSystemIdMap = new HashMap<>();
+  private final Map<Element, String> elementToSystemIdMap = new HashMap<>();
+  private final CompositeXMLContextResolver xmlContextResolver;
   private Map<String, ? extends XMLDocument> composites;
 
   /**
@@ -72,20 +74,50 @@ public class CompositeXMLDocument
    *           if an error occured building the composite document
    */
   public CompositeXMLDocument(XMLDocument base, Map<String, ? extends XMLDocument> templates) throws DocumentException {
-    super(base);
-    this.composites = Collections.unmodifiableMap(templates);
-    initializeDelegate(templates);
+    this(base, templates, false);
+  }
+
+  /**
+   * Construct a new CompositeXMLDocument using the provided base document as the root and the
+   * provided templates as inserted content.
+   * <p>
+   * By default the base document and each inserted template are deep copied, leaving the provided
+   * documents untouched. When {@code adopt} is {@code true}, the composite instead takes ownership
+   * of the provided JDOM trees: the base document is used as-is and the root element of each template
+   * is moved into the composite the first time it is referenced. A template referenced by more than
+   * one placeholder is copied for each subsequent reference. This avoids copying large documents that
+   * are only loaded to be assembled, but the provided documents must not be used once the composite
+   * is built.
+   * 
+   * @param base
+   *          the root document to insert into
+   * @param templates
+   *          a mapping of insertion point labels to documents to insert
+   * @param adopt
+   *          {@code true} if the provided documents are to be assembled in place instead of being
+   *          copied
+   * @throws DocumentException
+   *           if an error occured building the composite document
+   */
+  public CompositeXMLDocument(XMLDocument base, Map<String, ? extends XMLDocument> templates, boolean adopt)
+      throws DocumentException {
+    // the context resolver is provided by getXMLContextResolver()
+    super(adopt ? base.getJDOMDocument() : base.getJDOMDocument().clone(), base.getOriginalLocation(), null);
+    this.xmlContextResolver = new CompositeXMLContextResolver();
+    initializeDelegate(templates, adopt);
   }
 
   public CompositeXMLDocument(File file, Map<String, ? extends XMLDocument> templates)
       throws DocumentException, FileNotFoundException {
     super(file);
-    initializeDelegate(templates);
+    this.xmlContextResolver = new CompositeXMLContextResolver();
+    initializeDelegate(templates, false);
   }
 
   public CompositeXMLDocument(URL url, Map<String, ? extends XMLDocument> templates) throws DocumentException {
     super(url);
-    initializeDelegate(templates);
+    this.xmlContextResolver = new CompositeXMLContextResolver();
+    initializeDelegate(templates, false);
   }
 
   @Override
@@ -94,7 +126,10 @@ public class CompositeXMLDocument
     return new JDOMBasedXPathEvaluator(document.getRootElement(), getXMLContextResolver());
   }
 
-  private void initializeDelegate(Map<String, ? extends XMLDocument> templates) throws DocumentException {
+  private void initializeDelegate(Map<String, ? extends XMLDocument> templates, boolean adopt)
+      throws DocumentException {
+    this.composites = Collections.unmodifiableMap(templates);
+
     XPathEvaluator evaluator;
     try {
       evaluator = newXPathEvaluator();
@@ -112,6 +147,8 @@ public class CompositeXMLDocument
           "Unable to evaluate the XPath to locate the composite placeholders: " + COMPOSITE_QNAME.toString(), e);
     }
 
+    // template roots already moved into the composite, which must be copied if inserted again
+    Map<XMLDocument, Element> adopted = adopt ? new IdentityHashMap<>() : null;
     for (Element node : results) {
       String key = node.getAttributeValue("name");
       XMLDocument value = templates.get(key);
@@ -119,7 +156,15 @@ public class CompositeXMLDocument
         throw new RuntimeException();
       }
       // replace the resulting element with the new one
-      Element newChild = (Element) value.getJDOMDocument().getRootElement().clone();
+      Element newChild;
+      if (!adopt) {
+        newChild = value.getJDOMDocument().getRootElement().clone();
+      } else if (adopted.containsKey(value)) {
+        newChild = adopted.get(value).clone();
+      } else {
+        newChild = value.getJDOMDocument().detachRootElement();
+        adopted.put(value, newChild);
+      }
       Element parent = node.getParentElement();
       int index = parent.indexOf(node);
       parent.setContent(index, newChild);
@@ -127,12 +172,13 @@ public class CompositeXMLDocument
       // record the systemId of the new element for future lookups
       elementToSystemIdMap.put(newChild, value.getSystemId());
     }
+    // the placeholders were replaced in place, which an index may not detect
+    xmlContextResolver.invalidate();
   }
 
   @Override
   protected XMLContextResolver getXMLContextResolver() {
-    // TODO: Reuse instance?
-    return new CompositeXMLContextResolver();
+    return xmlContextResolver;
   }
 
   @Override
@@ -176,7 +222,7 @@ public class CompositeXMLDocument
   }
 
   private class CompositeXMLContextResolver
-      extends DefaultXMLContextResolver {
+      extends IndexedXMLContextResolver {
 
     public CompositeXMLContextResolver() {
       super("", getJDOMDocument(false).getRootElement(), false);
@@ -30,6 +30,7 @@ import gov.nist.secauto.decima.core.document.DocumentException;
 import gov.nist.secauto.decima.core.document.handling.CachingStrategy;
 import gov.nist.secauto.decima.core.document.handling.DocumentPostProcessor;
 import gov.nist.secauto.decima.core.document.handling.ResourceResolver;
+import gov.nist.secauto.decima.core.util.InputStreamUtil;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -134,7 +135,7 @@ public class DefaultXMLDocumentFactory implements XMLDocumentFactory {
 
       String systemId = getSystemId(location);
       Document document;
-      try (InputStream is = location.openStream()) {
+      try (InputStream is = InputStreamUtil.open(location)) {
         SAXEngine saxEngine = getSAXEngine();
         document = saxEngine.build(is, systemId);
       } catch (IOException | JDOMException e) {
@@ -248,10 +249,25 @@ public class DefaultXMLDocumentFactory implements XMLDocumentFactory {
 
       return retval;
     }
+
+    @Override
+    public boolean providesSharedDocuments() {
+      return DefaultXMLDocumentFactory.this.providesSharedDocuments();
+    }
   }
 
   @Override
   public MutableXMLDocument resolve(URL url) throws DocumentException {
     return loadURLInternal(url);
   }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Documents are only shared if they are cached by the caching strategy.
+   */
+  @Override
+  public boolean providesSharedDocuments() {
+    return !(getCachingStrategy() instanceof NoCachingStrategy);
+  }
 }
@@ -26,8 +26,9 @@
 
 package gov.nist.secauto.decima.xml.document;
 
-import gov.nist.secauto.decima.xml.document.context.DefaultXMLContextResolver;
+import gov.nist.secauto.decima.xml.document.context.IndexedXMLContextResolver;
 import gov.nist.secauto.decima.xml.document.context.XMLContextResolver;
+import gov.nist.secauto.decima.xml.util.SaxonRuntime;
 
 import net.sf.saxon.option.jdom2.JDOM2DocumentWrapper;
 import net.sf.saxon.xpath.XPathFactoryImpl;
@@ -40,22 +41,21 @@ import javax.xml.xpath.XPathExpressionException;
 
 public class JDOMBasedXPathEvaluator
     extends AbstractXPathEvaluator<XPathFactoryImpl> {
-  private static final XPathFactoryImpl DEFAULT_XPATH_FACTORY = new XPathFactoryImpl();
 
   private final Element element;
 
   public JDOMBasedXPathEvaluator(org.jdom2.Document document) {
-    super(DEFAULT_XPATH_FACTORY, new DefaultXMLContextResolver(document));
+    super(SaxonRuntime.current().getXPathFactory(), new IndexedXMLContextResolver(document));
     this.element = document.getRootElement();
   }
 
   public JDOMBasedXPathEvaluator(org.jdom2.Document document, XMLContextResolver resolver) {
-    super(DEFAULT_XPATH_FACTORY, resolver);
+    super(SaxonRuntime.current().getXPathFactory(), resolver);
     this.element = document.getRootElement();
   }
 
   public JDOMBasedXPathEvaluator(Element element, XMLContextResolver resolver) {
-    super(DEFAULT_XPATH_FACTORY, resolver);
+    super(SaxonRuntime.current().getXPathFactory(), resolver);
     this.element = element;
   }
 
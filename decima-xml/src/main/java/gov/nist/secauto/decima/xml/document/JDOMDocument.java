@@ -27,7 +27,8 @@
 package gov.nist.secauto.decima.xml.document;
 
 import gov.nist.secauto.decima.core.document.DocumentException;
-import gov.nist.secauto.decima.xml.document.context.DefaultXMLContextResolver;
+import gov.nist.secauto.decima.core.util.InputStreamUtil;
+import gov.nist.secauto.decima.xml.document.context.IndexedXMLContextResolver;
 import gov.nist.secauto.decima.xml.document.context.XMLContextResolver;
 
 import org.jdom2.Document;
@@ -36,26 +37,43 @@ import org.jdom2.input.SAXBuilder;
 import org.jdom2.input.sax.SAXEngine;
 import org.jdom2.located.LocatedJDOMFactory;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class JDOMDocument
     extends AbstractJDOMDocument {
 
+  private static final SAXBuilder DEFAULT_SAX_BUILDER;
   private static final SAXEngine DEFAULT_SAX_ENGINE;
+  /**
+   * Idle engines equivalent to {@link #DEFAULT_SAX_ENGINE}. Documents loaded using the default engine
+   * borrow one of these, allowing documents to be parsed concurrently.
+   */
+  private static final Queue<SAXEngine> DEFAULT_SAX_ENGINE_POOL = new ConcurrentLinkedQueue<>();
+  /**
+   * Serializes the use of each caller-provided engine, since a {@link SAXEngine} is not thread safe.
+   * Locks are used instead of monitors to avoid pinning the carrier thread while parsing from a
+   * virtual thread.
+   */
+  private static final Map<SAXEngine, ReentrantLock> SAX_ENGINE_LOCKS
+      = Collections.synchronizedMap(new WeakHashMap<>());
 
   static {
-    SAXBuilder builder = new SAXBuilder();
-    builder.setJDOMFactory(new LocatedJDOMFactory());
+    DEFAULT_SAX_BUILDER = new SAXBuilder();
+    DEFAULT_SAX_BUILDER.setJDOMFactory(new LocatedJDOMFactory());
     try {
-      DEFAULT_SAX_ENGINE = builder.buildEngine();
+      DEFAULT_SAX_ENGINE = DEFAULT_SAX_BUILDER.buildEngine();
     } catch (JDOMException e) {
       throw new RuntimeException(e.getLocalizedMessage(), e);
     }
@@ -88,12 +106,12 @@ public class JDOMDocument
       throw new DocumentException(e.getLocalizedMessage(), e);
     }
     String systemId = originalLocation.toString();
-    try (InputStream is = new BufferedInputStream(new FileInputStream(location))) {
+    try (InputStream is = InputStreamUtil.open(location)) {
       this.document = loadDocumentFromInputStream(is, systemId, saxEngine);
     } catch (IOException e) {
       throw new DocumentException(e.getLocalizedMessage(), e);
     }
-    xmlContextResolver = new DefaultXMLContextResolver(this.document);
+    xmlContextResolver = new IndexedXMLContextResolver(this.document);
   }
 
   public JDOMDocument(File location, URL originalLocation) throws DocumentException, FileNotFoundException {
@@ -120,14 +138,14 @@ public class JDOMDocument
     this.originalLocation = originalLocation;
 
     String baseURI = this.originalLocation.toString();
-    try (InputStream is = new BufferedInputStream(new FileInputStream(location))) {
+    try (InputStream is = InputStreamUtil.open(location)) {
       this.document = loadDocumentFromInputStream(is, baseURI, saxEngine);
     } catch (FileNotFoundException e) {
       throw e;
     } catch (IOException e) {
       throw new DocumentException(e.getLocalizedMessage(), e);
     }
-    xmlContextResolver = new DefaultXMLContextResolver(this.document);
+    xmlContextResolver = new IndexedXMLContextResolver(this.document);
   }
 
   public JDOMDocument(URL location) throws DocumentException {
@@ -166,11 +184,11 @@ public class JDOMDocument
       this.originalLocation = null;
     }
     this.document = loadDocumentFromInputStream(is, systemId, saxEngine);
-    xmlContextResolver = new DefaultXMLContextResolver(this.document);
+    xmlContextResolver = new IndexedXMLContextResolver(this.document);
   }
 
   public JDOMDocument(Document document, URL originalLocation) throws DocumentException {
-    this(document, originalLocation, new DefaultXMLContextResolver(document));
+    this(document, originalLocation, new IndexedXMLContextResolver(document));
   }
 
   /**
@@ -199,12 +217,12 @@ public class JDOMDocument
   public JDOMDocument(XMLDocument toCopy) {
     this.originalLocation = toCopy.getOriginalLocation();
     this.document = toCopy.getJDOMDocument().clone();
-    xmlContextResolver = new DefaultXMLContextResolver(this.document);
+    xmlContextResolver = new IndexedXMLContextResolver(this.document);
 
   }
 
   private static Document loadDocumentFromURL(URL location, SAXEngine saxEngine) throws DocumentException {
-    try (InputStream is = location.openStream()) {
+    try (InputStream is = InputStreamUtil.open(location)) {
       return loadDocumentFromInputStream(is, location.toString(), saxEngine);
     } catch (IOException e) {
       throw new DocumentException(e.getLocalizedMessage(), e);
@@ -213,19 +231,48 @@ public class JDOMDocument
 
   private static Document loadDocumentFromInputStream(InputStream is, String systemId, SAXEngine saxEngine)
       throws DocumentException {
-    synchronized (saxEngine) {
+    if (saxEngine == DEFAULT_SAX_ENGINE) {
+      SAXEngine engine = borrowDefaultSAXEngine();
       try {
-        Document document;
-        if (systemId == null) {
-          document = saxEngine.build(is);
-        } else {
-          document = saxEngine.build(is, systemId);
-        }
-        return document;
-      } catch (JDOMException | IOException e) {
+        return build(is, systemId, engine);
+      } finally {
+        DEFAULT_SAX_ENGINE_POOL.offer(engine);
+      }
+    }
+
+    ReentrantLock lock = SAX_ENGINE_LOCKS.computeIfAbsent(saxEngine, key -> new ReentrantLock());
+    lock.lock();
+    try {
+      return build(is, systemId, saxEngine);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static SAXEngine borrowDefaultSAXEngine() throws DocumentException {
+    SAXEngine retval = DEFAULT_SAX_ENGINE_POOL.poll();
+    if (retval == null) {
+      try {
+        retval = DEFAULT_SAX_BUILDER.buildEngine();
+      } catch (JDOMException e) {
         throw new DocumentException(e.getLocalizedMessage(), e);
       }
     }
+    return retval;
+  }
+
+  private static Document build(InputStream is, String systemId, SAXEngine saxEngine) throws DocumentException {
+    try {
+      Document document;
+      if (systemId == null) {
+        document = saxEngine.build(is);
+      } else {
+        document = saxEngine.build(is, systemId);
+      }
+      return document;
+    } catch (JDOMException | IOException e) {
+      throw new DocumentException(e.getLocalizedMessage(), e);
+    }
   }
 
   @Override
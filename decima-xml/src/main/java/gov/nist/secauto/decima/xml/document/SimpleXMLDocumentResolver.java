@@ -38,4 +38,9 @@ public class SimpleXMLDocumentResolver implements ResourceResolver<MutableXMLDoc
     return new JDOMDocument(url);
   }
 
+  @Override
+  public boolean providesSharedDocuments() {
+    return false;
+  }
+
 }
@@ -0,0 +1,425 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.xml.document;
+
+import gov.nist.secauto.decima.core.document.DocumentException;
+import gov.nist.secauto.decima.core.util.InputStreamUtil;
+
+import org.jdom2.Attribute;
+import org.jdom2.AttributeType;
+import org.jdom2.Element;
+import org.jdom2.JDOMFactory;
+import org.jdom2.Namespace;
+import org.jdom2.located.LocatedJDOMFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads a large XML document as a sequence of independent record chunks, without loading the whole
+ * document into memory.
+ * <p>
+ * The input is streamed and cut at each element matching a record path, such as
+ * {@code /collection/record}. Each matching element is loaded, along with its descendants, as a
+ * {@link XMLDocumentFragment} that maps its contexts back to the XPath and line/column of the
+ * record in the original document. Content outside of the records is skipped.
+ * <p>
+ * The record path is a restricted, absolute XPath consisting only of child steps. Each step is a
+ * name test of the form {@code name}, {@code prefix:name}, {@code prefix:*}, or {@code *}.
+ * Prefixes are resolved using the provided namespace map, and unprefixed names match elements in no
+ * namespace.
+ * <p>
+ * This class is not thread-safe. The returned fragments are independent of this reader and may be
+ * used concurrently.
+ */
+public class XMLDocumentChunkReader implements Closeable {
+  private static final JDOMFactory JDOM_FACTORY = new LocatedJDOMFactory();
+
+  private final InputStream inputStream;
+  private final XMLStreamReader reader;
+  private final String systemId;
+  private final URL originalLocation;
+  private final List<Step> recordPath;
+  /**
+   * The XPath of each open ancestor of the next record.
+   */
+  private final String[] ancestorXPaths;
+  /**
+   * The namespaces declared by each open ancestor of the next record.
+   */
+  private final List<List<Namespace>> ancestorNamespaces;
+  /**
+   * The count of matching children seen so far, by expanded name, for each open ancestor.
+   */
+  private final List<Map<String, Integer>> siblingCounts;
+  private int depth;
+  private int chunkCount;
+
+  /**
+   * Construct a new reader over the document at the provided location.
+   * 
+   * @param location
+   *          the location of the document to read
+   * @param recordPath
+   *          the path of the elements to use as chunks
+   * @param namespaces
+   *          a mapping of prefix to namespace URI used to resolve prefixes in the record path
+   * @throws DocumentException
+   *           if an error occurred while opening the document
+   */
+  public XMLDocumentChunkReader(URL location, String recordPath, Map<String, String> namespaces)
+      throws DocumentException {
+    this(openStream(location), location.toString(), location, recordPath, namespaces);
+  }
+
+  /**
+   * Construct a new reader over the document provided by the input stream. The stream is closed
+   * when this reader is closed.
+   * 
+   * @param is
+   *          the stream to read the document from
+   * @param systemId
+   *          the system identifier of the document
+   * @param originalLocation
+   *          the location of the document, or {@code null} if unknown
+   * @param recordPath
+   *          the path of the elements to use as chunks
+   * @param namespaces
+   *          a mapping of prefix to namespace URI used to resolve prefixes in the record path
+   * @throws DocumentException
+   *           if an error occurred while preparing to read the document
+   */
+  public XMLDocumentChunkReader(InputStream is, String systemId, URL originalLocation, String recordPath,
+      Map<String, String> namespaces) throws DocumentException {
+    Objects.requireNonNull(is, "is");
+    this.inputStream = is;
+    this.systemId = systemId;
+    this.originalLocation = originalLocation;
+    this.recordPath = parseRecordPath(recordPath, namespaces == null ? Collections.emptyMap() : namespaces);
+    this.ancestorXPaths = new String[this.recordPath.size()];
+    this.ancestorNamespaces = new ArrayList<>(this.recordPath.size());
+    this.siblingCounts = new ArrayList<>(this.recordPath.size());
+    for (int i = 0; i < this.recordPath.size(); i++) {
+      ancestorNamespaces.add(Collections.emptyList());
+      siblingCounts.add(new HashMap<>());
+    }
+
+    XMLInputFactory factory = XMLInputFactory.newFactory();
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    try {
+      this.reader = factory.createXMLStreamReader(systemId, is);
+    } catch (XMLStreamException ex) {
+      throw new DocumentException(ex.getLocalizedMessage(), ex);
+    }
+  }
+
+  private static InputStream openStream(URL location) throws DocumentException {
+    Objects.requireNonNull(location, "location");
+    try {
+      return InputStreamUtil.open(location);
+    } catch (IOException ex) {
+      throw new DocumentException(ex.getLocalizedMessage(), ex);
+    }
+  }
+
+  private static List<Step> parseRecordPath(String recordPath, Map<String, String> namespaces) {
+    Objects.requireNonNull(recordPath, "recordPath");
+    if (!recordPath.startsWith("/") || recordPath.startsWith("//") || recordPath.length() == 1) {
+      throw new IllegalArgumentException("The record path must be an absolute path of child steps: " + recordPath);
+    }
+
+    List<Step> retval = new ArrayList<>();
+    for (String step : recordPath.substring(1).split("/", -1)) {
+      step = step.trim();
+      if (step.isEmpty() || step.indexOf('[') >= 0 || step.indexOf('(') >= 0) {
+        throw new IllegalArgumentException("Unsupported step '" + step + "' in record path: " + recordPath);
+      }
+
+      String namespace;
+      String localName;
+      int colon = step.indexOf(':');
+      if (colon >= 0) {
+        String prefix = step.substring(0, colon);
+        namespace = namespaces.get(prefix);
+        if (namespace == null) {
+          throw new IllegalArgumentException("Unknown prefix '" + prefix + "' in record path: " + recordPath);
+        }
+        localName = step.substring(colon + 1);
+      } else if ("*".equals(step)) {
+        namespace = null;
+        localName = step;
+      } else {
+        namespace = "";
+        localName = step;
+      }
+      retval.add(new Step(namespace, "*".equals(localName) ? null : localName));
+    }
+    return Collections.unmodifiableList(retval);
+  }
+
+  /**
+   * Retrieves the number of chunks read so far.
+   * 
+   * @return the count
+   */
+  public int getChunkCount() {
+    return chunkCount;
+  }
+
+  /**
+   * Reads the next record from the document.
+   * 
+   * @return the next record, or {@code null} if the end of the document has been reached
+   * @throws DocumentException
+   *           if an error occurred while reading the document
+   */
+  public XMLDocumentFragment next() throws DocumentException {
+    try {
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.END_ELEMENT) {
+          depth--;
+        } else if (event == XMLStreamConstants.START_ELEMENT) {
+          String namespace = reader.getNamespaceURI();
+          if (namespace == null) {
+            namespace = "";
+          }
+          String localName = reader.getLocalName();
+
+          if (depth >= recordPath.size() || !recordPath.get(depth).matches(namespace, localName)) {
+            // not on the record path
+            skipElement();
+            continue;
+          }
+
+          int position = siblingCounts.get(depth).merge("{" + namespace + "}" + localName, 1, Integer::sum);
+          StringBuilder xpath = new StringBuilder();
+          if (depth > 0) {
+            xpath.append(ancestorXPaths[depth - 1]);
+          }
+          xpath.append("/*[local-name()='");
+          xpath.append(localName);
+          xpath.append("' and namespace-uri()='");
+          xpath.append(namespace);
+          xpath.append("'][");
+          xpath.append(position);
+          xpath.append(']');
+
+          if (depth == recordPath.size() - 1) {
+            Element element = buildElement();
+            declareAncestorNamespaces(element);
+            chunkCount++;
+            return new XMLDocumentFragment(element, xpath.toString(), systemId, originalLocation);
+          }
+
+          ancestorXPaths[depth] = xpath.toString();
+          ancestorNamespaces.set(depth, getDeclaredNamespaces());
+          depth++;
+          siblingCounts.get(depth).clear();
+        }
+      }
+    } catch (XMLStreamException ex) {
+      throw new DocumentException(ex.getLocalizedMessage(), ex);
+    }
+    return null;
+  }
+
+  private void skipElement() throws XMLStreamException {
+    int level = 1;
+    while (level > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        level++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        level--;
+      }
+    }
+  }
+
+  private List<Namespace> getDeclaredNamespaces() {
+    int count = reader.getNamespaceCount();
+    if (count == 0) {
+      return Collections.emptyList();
+    }
+    List<Namespace> retval = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      retval.add(newNamespace(reader.getNamespacePrefix(i), reader.getNamespaceURI(i)));
+    }
+    return retval;
+  }
+
+  /**
+   * Carries namespace declarations in scope from the ancestors of the record, since they may be used
+   * by QName-valued content.
+   * 
+   * @param element
+   *          the record element
+   */
+  private void declareAncestorNamespaces(Element element) {
+    for (int i = depth - 1; i >= 0; i--) {
+      for (Namespace namespace : ancestorNamespaces.get(i)) {
+        if (element.getNamespace(namespace.getPrefix()) == null) {
+          element.addNamespaceDeclaration(namespace);
+        }
+      }
+    }
+  }
+
+  private static Namespace newNamespace(String prefix, String uri) {
+    return Namespace.getNamespace(prefix == null ? "" : prefix, uri == null ? "" : uri);
+  }
+
+  /**
+   * Builds the element at the current {@link XMLStreamConstants#START_ELEMENT} event, leaving the
+   * reader positioned at the matching {@link XMLStreamConstants#END_ELEMENT} event.
+   * 
+   * @return the built element
+   * @throws XMLStreamException
+   *           if an error occurred while reading the element
+   */
+  private Element buildElement() throws XMLStreamException {
+    Deque<Element> stack = new ArrayDeque<>();
+    Element root = null;
+    int event = reader.getEventType();
+    while (true) {
+      Location location = reader.getLocation();
+      int line = location.getLineNumber();
+      int column = location.getColumnNumber();
+      switch (event) {
+      case XMLStreamConstants.START_ELEMENT: {
+        Element element = newElement(line, column);
+        if (root == null) {
+          root = element;
+        } else {
+          JDOM_FACTORY.addContent(stack.peek(), element);
+        }
+        stack.push(element);
+        break;
+      }
+      case XMLStreamConstants.END_ELEMENT:
+        stack.pop();
+        if (stack.isEmpty()) {
+          return root;
+        }
+        break;
+      case XMLStreamConstants.CHARACTERS:
+      case XMLStreamConstants.SPACE:
+        JDOM_FACTORY.addContent(stack.peek(), JDOM_FACTORY.text(line, column, reader.getText()));
+        break;
+      case XMLStreamConstants.CDATA:
+        JDOM_FACTORY.addContent(stack.peek(), JDOM_FACTORY.cdata(line, column, reader.getText()));
+        break;
+      case XMLStreamConstants.COMMENT:
+        JDOM_FACTORY.addContent(stack.peek(), JDOM_FACTORY.comment(line, column, reader.getText()));
+        break;
+      case XMLStreamConstants.PROCESSING_INSTRUCTION:
+        JDOM_FACTORY.addContent(stack.peek(),
+            JDOM_FACTORY.processingInstruction(line, column, reader.getPITarget(), reader.getPIData()));
+        break;
+      case XMLStreamConstants.ENTITY_REFERENCE:
+        JDOM_FACTORY.addContent(stack.peek(), JDOM_FACTORY.entityRef(line, column, reader.getLocalName()));
+        break;
+      default:
+        // nothing to build
+      }
+      event = reader.next();
+    }
+  }
+
+  private Element newElement(int line, int column) {
+    Namespace namespace = newNamespace(reader.getPrefix(), reader.getNamespaceURI());
+    Element element = JDOM_FACTORY.element(line, column, reader.getLocalName(), namespace);
+
+    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+      Namespace declared = newNamespace(reader.getNamespacePrefix(i), reader.getNamespaceURI(i));
+      if (!declared.getPrefix().equals(namespace.getPrefix())) {
+        element.addNamespaceDeclaration(declared);
+      }
+    }
+
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      String prefix = reader.getAttributePrefix(i);
+      Namespace attributeNamespace
+          = prefix == null || prefix.isEmpty() ? Namespace.NO_NAMESPACE
+              : Namespace.getNamespace(prefix, reader.getAttributeNamespace(i));
+      Attribute attribute = JDOM_FACTORY.attribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i),
+          AttributeType.getAttributeType(reader.getAttributeType(i)), attributeNamespace);
+      JDOM_FACTORY.setAttribute(element, attribute);
+    }
+    return element;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      reader.close();
+    } catch (XMLStreamException ex) {
+      throw new IOException(ex);
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  private static class Step {
+    /**
+     * The namespace to match, or {@code null} to match any namespace.
+     */
+    private final String namespace;
+    /**
+     * The local name to match, or {@code null} to match any local name.
+     */
+    private final String localName;
+
+    public Step(String namespace, String localName) {
+      this.namespace = namespace;
+      this.localName = localName;
+    }
+
+    public boolean matches(String namespace, String localName) {
+      return (this.namespace == null || this.namespace.equals(namespace))
+          && (this.localName == null || this.localName.equals(localName));
+    }
+  }
+}
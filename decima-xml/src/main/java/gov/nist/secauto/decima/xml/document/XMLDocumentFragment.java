@@ -26,9 +26,10 @@
 
 package gov.nist.secauto.decima.xml.document;
 
+import gov.nist.secauto.decima.core.document.DefaultSourceInfo;
 import gov.nist.secauto.decima.core.document.DocumentException;
 import gov.nist.secauto.decima.core.document.SourceInfo;
-import gov.nist.secauto.decima.xml.document.context.DefaultXMLContextResolver;
+import gov.nist.secauto.decima.xml.document.context.IndexedXMLContextResolver;
 import gov.nist.secauto.decima.xml.document.context.XMLContextResolver;
 import gov.nist.secauto.decima.xml.jdom2.JDOMUtil;
 
@@ -47,7 +48,13 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import javax.xml.transform.Source;
 import javax.xml.xpath.XPathExpressionException;
@@ -94,7 +101,34 @@ public class XMLDocumentFragment
     this.document.setBaseURI(originalDocument.getBaseURI());
     this.originalLocation = document.getOriginalLocation();
     String xpathBase = document.getXPath(baseElement);
-    this.xmlContextResolver = new FragmentXMLContextResolver(xpathBase, newRoot, document);
+    this.xmlContextResolver = new FragmentXMLContextResolver(xpathBase, newRoot, baseElement, document);
+  }
+
+  /**
+   * Constructs a new {@link XMLDocumentFragment} using a detached element as the root of the
+   * sub-tree. This allows a fragment to be created for a sub-tree of a document that was never fully
+   * loaded, such as a record read by a {@link XMLDocumentChunkReader}.
+   * <p>
+   * Contexts produced by this fragment will use XPaths relative to the provided base XPath, and the
+   * line and column information recorded on the element, if it is
+   * {@link org.jdom2.located.Located}.
+   * 
+   * @param element
+   *          the detached element to use as the root of the sub-tree
+   * @param baseXPath
+   *          an XPath expression that identifies the element in the original document
+   * @param systemId
+   *          the system identifier of the original document
+   * @param originalLocation
+   *          the location of the original document, or {@code null} if unknown
+   */
+  public XMLDocumentFragment(Element element, String baseXPath, String systemId, URL originalLocation) {
+    Objects.requireNonNull(element, "element");
+    Objects.requireNonNull(baseXPath, "baseXPath");
+    this.document = new Document(element);
+    this.document.setBaseURI(systemId);
+    this.originalLocation = originalLocation;
+    this.xmlContextResolver = new IndexedXMLContextResolver(baseXPath, element);
   }
 
   public Element getElement() {
@@ -150,29 +184,59 @@ public class XMLDocumentFragment
 
   @Override
   public List<SourceInfo> getSourceInfo() {
-    return null;
+    return Collections.singletonList(new DefaultSourceInfo(this));
   }
 
-  private class FragmentXMLContextResolver
-      extends DefaultXMLContextResolver {
+  private static class FragmentXMLContextResolver
+      extends IndexedXMLContextResolver {
 
+    private final Element sourceElement;
     private final XMLDocument baseDocument;
+    /**
+     * Maps each cloned element to the element it was cloned from. Built on first use.
+     */
+    private Map<Element, Element> cloneToSourceMap;
 
-    public FragmentXMLContextResolver(String baseXPath, Element baseElement, XMLDocument baseDocument) {
+    public FragmentXMLContextResolver(String baseXPath, Element baseElement, Element sourceElement,
+        XMLDocument baseDocument) {
       super(baseXPath, baseElement);
+      this.sourceElement = sourceElement;
       this.baseDocument = baseDocument;
     }
 
+    private synchronized Map<Element, Element> getCloneToSourceMap() {
+      if (cloneToSourceMap == null) {
+        Map<Element, Element> map = new IdentityHashMap<>();
+        // the clone has the same element structure as the source, so they can be walked together
+        Deque<Element> clones = new ArrayDeque<>();
+        Deque<Element> sources = new ArrayDeque<>();
+        clones.push(getBaseElement());
+        sources.push(sourceElement);
+        while (!clones.isEmpty()) {
+          Element clone = clones.pop();
+          Element source = sources.pop();
+          map.put(clone, source);
+
+          List<Element> cloneChildren = clone.getChildren();
+          List<Element> sourceChildren = source.getChildren();
+          for (int i = 0; i < cloneChildren.size() && i < sourceChildren.size(); i++) {
+            clones.push(cloneChildren.get(i));
+            sources.push(sourceChildren.get(i));
+          }
+        }
+        cloneToSourceMap = map;
+      }
+      return cloneToSourceMap;
+    }
+
     @Override
     public String getSystemId(Content content) {
-      String xpath = getXPath(content);
-      Content baseContent;
-      try {
-        baseContent = baseDocument.newXPathEvaluator().evaluateSingle(xpath, Filters.content());
-      } catch (XPathExpressionException | XPathFactoryConfigurationException ex) {
-        throw new RuntimeException(ex);
+      Element element = content instanceof Element ? (Element) content : content.getParentElement();
+      Element source = element == null ? null : getCloneToSourceMap().get(element);
+      if (source == null) {
+        return super.getSystemId(content);
       }
-      return baseDocument.getSystemId(baseContent);
+      return baseDocument.getSystemId(source);
     }
 
   }
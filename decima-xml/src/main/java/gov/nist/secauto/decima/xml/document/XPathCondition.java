@@ -28,6 +28,10 @@ package gov.nist.secauto.decima.xml.document;
 
 import gov.nist.secauto.decima.core.assessment.AssessmentException;
 import gov.nist.secauto.decima.core.assessment.Condition;
+import gov.nist.secauto.decima.core.assessment.ConditionEvaluationScope;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactoryConfigurationException;
@@ -48,8 +52,22 @@ public class XPathCondition implements Condition<XMLDocument> {
     return xpath;
   }
 
+  /**
+   * Determines if the XPath expression matches the target document.
+   * <p>
+   * If a {@link ConditionEvaluationScope} is current for the document, the expressions of all
+   * {@link XPathCondition} instances used in the execution are evaluated together, in a single pass
+   * over the document, and the results are reused by every condition with the same expression.
+   * Otherwise, the expression is evaluated on its own.
+   */
   @Override
   public boolean appliesTo(XMLDocument targetDocument) throws AssessmentException {
+    ConditionEvaluationScope scope = ConditionEvaluationScope.current(targetDocument);
+    if (scope != null) {
+      XPathConditionBatch batch
+          = scope.computeIfAbsent(XPathConditionBatch.class, key -> newBatch(targetDocument, scope));
+      return batch.test(xpath);
+    }
 
     XPathEvaluator xpathEvaluator;
     try {
@@ -67,4 +85,13 @@ public class XPathCondition implements Condition<XMLDocument> {
     }
   }
 
+  private static XPathConditionBatch newBatch(XMLDocument targetDocument, ConditionEvaluationScope scope) {
+    List<String> xpaths = new ArrayList<>();
+    for (Condition<?> condition : scope.getConditions()) {
+      if (condition instanceof XPathCondition) {
+        xpaths.add(((XPathCondition) condition).getXPath());
+      }
+    }
+    return new XPathConditionBatch(targetDocument, xpaths);
+  }
 }
@@ -0,0 +1,156 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.document;
+
+import gov.nist.secauto.decima.core.assessment.AssessmentException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactoryConfigurationException;
+
+/**
+ * Evaluates a set of {@link XPathCondition} expressions against a document in a single pass. The
+ * distinct expressions are combined into one XPath expression that produces a string with a
+ * {@code 1} or {@code 0} for each expression. This expression is compiled and evaluated once, the
+ * first time any of the conditions is tested. The results are then reused for the remainder of the
+ * execution.
+ * <p>
+ * Like {@link XPathEvaluator#test(String)}, an expression is true if it produces a non-empty
+ * sequence. If the combined expression fails, for example because one of the expressions is
+ * invalid, each expression is instead evaluated on its own when tested. This reports the error for
+ * the condition that caused it.
+ */
+class XPathConditionBatch {
+  private static final Logger log = LogManager.getLogger(XPathConditionBatch.class);
+
+  private final XMLDocument document;
+  private final List<String> xpaths;
+  private final Map<String, Boolean> results = new ConcurrentHashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private XPathEvaluator evaluator;
+  private boolean evaluated;
+
+  public XPathConditionBatch(XMLDocument document, Collection<String> xpaths) {
+    this.document = document;
+    this.xpaths = new ArrayList<>(new LinkedHashSet<>(xpaths));
+  }
+
+  /**
+   * Determines if the provided XPath expression matches the document.
+   * 
+   * @param xpath
+   *          the expression to test
+   * @return {@code true} if the expression produces a non-empty sequence, or {@code false} otherwise
+   * @throws AssessmentException
+   *           if an error occurred while evaluating the expression
+   */
+  public boolean test(String xpath) throws AssessmentException {
+    Boolean retval = results.get(xpath);
+    if (retval == null) {
+      lock.lock();
+      try {
+        if (!evaluated) {
+          evaluated = true;
+          evaluateAll();
+        }
+        retval = results.get(xpath);
+        if (retval == null) {
+          // not part of the batch, or the batch could not be evaluated
+          retval = evaluateOne(xpath);
+          results.put(xpath, retval);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+    return retval;
+  }
+
+  private XPathEvaluator getEvaluator() throws AssessmentException {
+    if (evaluator == null) {
+      try {
+        evaluator = document.newXPathEvaluator();
+      } catch (XPathFactoryConfigurationException e) {
+        String msg = "Unable to get an XPATH evaluator for document: " + document.getSystemId();
+        throw new AssessmentException(msg, e);
+      }
+    }
+    return evaluator;
+  }
+
+  private void evaluateAll() throws AssessmentException {
+    if (xpaths.size() < 2) {
+      return;
+    }
+
+    StringBuilder expression = new StringBuilder("string-join((");
+    for (int i = 0; i < xpaths.size(); i++) {
+      if (i > 0) {
+        expression.append(", ");
+      }
+      expression.append("if (exists((").append(xpaths.get(i)).append("))) then '1' else '0'");
+    }
+    expression.append("), '')");
+
+    String flags;
+    try {
+      flags = getEvaluator().evaluateSingle(expression.toString(), XPathConstants.STRING, null);
+    } catch (XPathExpressionException ex) {
+      log.debug("Unable to evaluate the conditions together, evaluating them individually", ex);
+      return;
+    }
+
+    if (flags == null || flags.length() != xpaths.size()) {
+      log.debug("Unexpected result evaluating the conditions together, evaluating them individually");
+      return;
+    }
+    for (int i = 0; i < xpaths.size(); i++) {
+      results.put(xpaths.get(i), flags.charAt(i) == '1');
+    }
+  }
+
+  private boolean evaluateOne(String xpath) throws AssessmentException {
+    try {
+      return getEvaluator().test(xpath);
+    } catch (XPathExpressionException e) {
+      String msg = "Unable to evaluate XPATH '" + xpath + "' for template: " + document.getSystemId();
+      throw new AssessmentException(msg, e);
+    }
+  }
+}
@@ -36,16 +36,21 @@ import org.jdom2.Element;
 import org.jdom2.Namespace;
 import org.jdom2.located.Located;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.WeakHashMap;
 
 public class DefaultXMLContextResolver implements XMLContextResolver {
   private final String baseXPath;
   private final Element baseElement;
   private final boolean skipBase;
-  private final Map<Content, String> contentToXPathMap = new HashMap<>();
+  /**
+   * Caches generated XPaths. JDOM content uses identity equality, so entries are released once the
+   * content is no longer reachable.
+   */
+  private final Map<Content, String> contentToXPathMap = Collections.synchronizedMap(new WeakHashMap<>());
 
   public DefaultXMLContextResolver(Document document) {
     this("", document.getRootElement(), false);
@@ -204,8 +209,7 @@ public class DefaultXMLContextResolver implements XMLContextResolver {
     if (parent == null) {
       index = 1;
     } else {
-      List<Element> children = parent.getChildren(localname, ns);
-      index = children.indexOf(element) + 1;
+      index = getSiblingPosition(parent, element);
     }
 
     xpath.append('[');
@@ -213,6 +217,21 @@ public class DefaultXMLContextResolver implements XMLContextResolver {
     xpath.append(']');
   }
 
+  /**
+   * Determines the 1-based position of the provided element among the children of the parent that
+   * have the same name and namespace.
+   * 
+   * @param parent
+   *          the parent of the element
+   * @param element
+   *          the element to get the position of
+   * @return the position
+   */
+  protected int getSiblingPosition(Element parent, Element element) {
+    List<Element> children = parent.getChildren(element.getName(), element.getNamespace());
+    return children.indexOf(element) + 1;
+  }
+
   protected Element getParentElement(Content content) {
     return content.getParentElement();
   }
@@ -0,0 +1,212 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.xml.document.context;
+
+import org.jdom2.Content;
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A {@link XMLContextResolver} that indexes the sibling positions of the children of wide parent
+ * elements. The positions of all children of a parent are computed in a single pass on first use,
+ * making the generation of XPaths for elements that have many same-named siblings linear, instead
+ * of quadratic, in the number of siblings.
+ * <p>
+ * Indexes are held weakly by parent element, and do not reference the indexed children, so an index
+ * is released once its parent is no longer reachable, such as when the parent is removed from the
+ * document or the document is released. This class is safe to use from multiple threads, as long as
+ * the document is not modified concurrently.
+ */
+public class IndexedXMLContextResolver
+    extends DefaultXMLContextResolver {
+  /**
+   * Parents with fewer children than this are scanned directly, since this is cheaper than indexing.
+   */
+  private static final int INDEX_THRESHOLD = 32;
+
+  private final Map<Element, SiblingIndex> parentToSiblingIndexMap
+      = Collections.synchronizedMap(new WeakHashMap<>());
+
+  public IndexedXMLContextResolver(Document document) {
+    super(document);
+  }
+
+  public IndexedXMLContextResolver(String baseXPath, Element baseElement) {
+    super(baseXPath, baseElement);
+  }
+
+  /**
+   * Constructs a new {@link XMLContextResolver} that indexes sibling positions.
+   * 
+   * @param baseXPath
+   *          an XPath expression that covers the path from the actual root of the {@link Document} to
+   *          the provided root {@link Element}
+   * @param baseElement
+   *          the JDOM2 {@link Element} to use as the base for resolution
+   * @param skipBase
+   *          if {@code true} skip creating a path segment for the base element
+   */
+  public IndexedXMLContextResolver(String baseXPath, Element baseElement, boolean skipBase) {
+    super(baseXPath, baseElement, skipBase);
+  }
+
+  /**
+   * Discards all sibling indexes. Indexes detect most modifications of an indexed parent, including
+   * changes in the number of children and changes to the name or location of the element being
+   * resolved. This method must be called after a parent's children have been reordered or renamed
+   * without changing the number of children, since such modifications can change the position of
+   * other children.
+   */
+  public void invalidate() {
+    parentToSiblingIndexMap.clear();
+  }
+
+  @Override
+  protected int getSiblingPosition(Element parent, Element element) {
+    int contentSize = parent.getContentSize();
+    if (contentSize < INDEX_THRESHOLD) {
+      return super.getSiblingPosition(parent, element);
+    }
+
+    SiblingIndex index = parentToSiblingIndexMap.get(parent);
+    if (index == null || index.getContentSize() != contentSize) {
+      // not indexed yet, or the parent has been modified
+      index = new SiblingIndex(parent);
+      parentToSiblingIndexMap.put(parent, index);
+    }
+
+    int retval = index.getPosition(parent, element);
+    if (retval < 1) {
+      // the parent was modified without changing its size
+      index = new SiblingIndex(parent);
+      parentToSiblingIndexMap.put(parent, index);
+      retval = index.getPosition(parent, element);
+    }
+    return retval;
+  }
+
+  /**
+   * An immutable identity hash table mapping each child element of a parent to its position among
+   * the same-named children. Entries are stored in parallel arrays using open addressing. The
+   * children are not referenced by the index, since each child references its parent, which would
+   * prevent the weakly held parent from being released. Instead, an entry records the identity hash
+   * code and content index of a child, and is matched by checking the parent's content at that
+   * index. The name of each child is also recorded, allowing a renamed child to be detected.
+   */
+  private static class SiblingIndex {
+    private final int contentSize;
+    private final int[] hashes;
+    /**
+     * The content index of the child of each entry, or {@code -1} for an empty slot.
+     */
+    private final int[] contentIndexes;
+    private final int[] positions;
+    private final String[] names;
+    private final String[] namespaceUris;
+
+    public SiblingIndex(Element parent) {
+      this.contentSize = parent.getContentSize();
+
+      int childCount = 0;
+      for (int i = 0; i < contentSize; i++) {
+        if (parent.getContent(i) instanceof Element) {
+          ++childCount;
+        }
+      }
+      int capacity = Integer.highestOneBit(Math.max(childCount, 1) * 2 - 1) << 1;
+      this.hashes = new int[capacity];
+      this.contentIndexes = new int[capacity];
+      Arrays.fill(contentIndexes, -1);
+      this.positions = new int[capacity];
+      this.names = new String[capacity];
+      this.namespaceUris = new String[capacity];
+
+      Map<String, int[]> nameToCountMap = new HashMap<>();
+      int mask = capacity - 1;
+      for (int i = 0; i < contentSize; i++) {
+        Content content = parent.getContent(i);
+        if (!(content instanceof Element)) {
+          continue;
+        }
+        Element child = (Element) content;
+        String name = "{" + child.getNamespaceURI() + "}" + child.getName();
+        int[] count = nameToCountMap.computeIfAbsent(name, key -> new int[1]);
+
+        int hash = System.identityHashCode(child);
+        int slot = hash & mask;
+        while (contentIndexes[slot] >= 0) {
+          slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        contentIndexes[slot] = i;
+        positions[slot] = ++count[0];
+        names[slot] = child.getName();
+        namespaceUris[slot] = child.getNamespaceURI();
+      }
+    }
+
+    public int getContentSize() {
+      return contentSize;
+    }
+
+    /**
+     * Retrieves the position of the provided element among its same-named siblings.
+     * 
+     * @param parent
+     *          the indexed parent
+     * @param element
+     *          the child to get the position of
+     * @return the position, or {@code 0} if the element is not indexed at its current location or has
+     *         been renamed
+     */
+    public int getPosition(Element parent, Element element) {
+      int mask = hashes.length - 1;
+      int hash = System.identityHashCode(element);
+      int slot = hash & mask;
+      int contentIndex;
+      while ((contentIndex = contentIndexes[slot]) >= 0) {
+        if (hashes[slot] == hash && contentIndex < parent.getContentSize()
+            && parent.getContent(contentIndex) == element) {
+          if (!names[slot].equals(element.getName()) || !namespaceUris[slot].equals(element.getNamespaceURI())) {
+            // the element was renamed
+            return 0;
+          }
+          return positions[slot];
+        }
+        slot = (slot + 1) & mask;
+      }
+      // the element was not indexed, or was moved
+      return 0;
+    }
+  }
+}
@@ -92,6 +92,22 @@ public class JDOMUtil {
    * @see ResourceResolverExtensionService
    */
   public static SAXEngine newValidatingSAXEngine(Source[] schemaSources) throws SAXException, JDOMException {
+    return newValidatingSAXBuilder(schemaSources).buildEngine();
+  }
+
+  /**
+   * Constructs a new validating {@link SAXBuilder} based on a collection of schema sources. The schema
+   * are compiled once, and are shared by every {@link SAXEngine} built using the returned builder.
+   * Any registered resolver extensions are also setup with the SAXBuilder.
+   * 
+   * @param schemaSources
+   *          an array of schema to use for validation
+   * @return a new {@link SAXBuilder} instance
+   * @throws SAXException
+   *           if an error occurred while parsing the schema
+   * @see ResourceResolverExtensionService
+   */
+  public static SAXBuilder newValidatingSAXBuilder(Source[] schemaSources) throws SAXException {
     SchemaFactory schemafac = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
     schemafac.setResourceResolver(ResourceResolverExtensionService.getInstance().getLSResolver());
     // Schema schema = schemafac.newSchema();
@@ -99,7 +115,7 @@ public class JDOMUtil {
     XMLReaderJDOMFactory factory = new XMLReaderSchemaFactory(schema);
     SAXBuilder sax = new SAXBuilder(factory);
     sax.setEntityResolver(ResourceResolverExtensionService.getInstance().getEntityResolver());
-    return sax.buildEngine();
+    return sax;
   }
 
   public static SAXEngine newValidatingSAXEngine(URL schema) throws SAXException, JDOMException {
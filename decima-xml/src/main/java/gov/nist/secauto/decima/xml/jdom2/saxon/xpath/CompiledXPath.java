@@ -39,18 +39,34 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.xml.namespace.QName;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathVariableResolver;
 
+/**
+ * A JDOM XPath expression evaluated using a JAXP XPath implementation.
+ * <p>
+ * The expression is compiled on first use, allowing compilation errors to be reported when the
+ * expression is evaluated. The compiled expression is then reused by all evaluations. Provided the
+ * JAXP implementation's compiled expressions can be evaluated concurrently, as Saxon's can, and the
+ * variables are not changed, an instance can be shared between threads.
+ */
 public class CompiledXPath<T, U extends javax.xml.xpath.XPathFactory>
     extends AbstractXPathCompiled<T>
     implements XPathVariableResolver {
   private final U xpathFactory;
-  private XPath xpath;
+  /**
+   * Used to compile the expression. A JAXP {@link XPath} is not thread safe, so it is only used
+   * while holding the {@link #compileLock}.
+   */
+  private final XPath xpath;
+  private final ReentrantLock compileLock = new ReentrantLock();
+  private volatile XPathExpression compiledExpression;
 
   /**
    * Constructs a compiled XPath expression.
@@ -79,6 +95,30 @@ public class CompiledXPath<T, U extends javax.xml.xpath.XPathFactory>
     return xpathFactory;
   }
 
+  /**
+   * Retrieves the compiled expression, compiling it if this has not yet been done.
+   * 
+   * @return the compiled expression
+   * @throws XPathExpressionException
+   *           if the expression is not valid
+   */
+  protected XPathExpression getCompiledExpression() throws XPathExpressionException {
+    XPathExpression retval = compiledExpression;
+    if (retval == null) {
+      compileLock.lock();
+      try {
+        retval = compiledExpression;
+        if (retval == null) {
+          retval = xpath.compile(getExpression());
+          compiledExpression = retval;
+        }
+      } finally {
+        compileLock.unlock();
+      }
+    }
+    return retval;
+  }
+
   private static javax.xml.namespace.NamespaceContext getNamespaceContext(Namespace[] namespaces) {
 
     return new TranslatedNamespaceContext(namespaces);
@@ -154,7 +194,7 @@ public class CompiledXPath<T, U extends javax.xml.xpath.XPathFactory>
     List<Object> result;
     try {
       @SuppressWarnings("unchecked")
-      List<Object> nodes = (List<Object>) xpath.evaluate(getExpression(), context, XPathConstants.NODESET);
+      List<Object> nodes = (List<Object>) getCompiledExpression().evaluate(context, XPathConstants.NODESET);
       result = nodes;
     } catch (XPathExpressionException e) {
       throw new RuntimeException(e.getLocalizedMessage(), e);
@@ -166,7 +206,7 @@ public class CompiledXPath<T, U extends javax.xml.xpath.XPathFactory>
   @Override
   protected Object evaluateRawFirst(Object context) {
     try {
-      return xpath.evaluate(getExpression(), context, XPathConstants.NODE);
+      return getCompiledExpression().evaluate(context, XPathConstants.NODE);
     } catch (XPathExpressionException e) {
       throw new RuntimeException(e.getLocalizedMessage(), e);
     }
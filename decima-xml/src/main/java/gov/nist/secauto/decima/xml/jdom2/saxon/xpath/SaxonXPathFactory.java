@@ -26,6 +26,8 @@
 
 package gov.nist.secauto.decima.xml.jdom2.saxon.xpath;
 
+import gov.nist.secauto.decima.xml.util.SaxonRuntime;
+
 import net.sf.saxon.xpath.XPathFactoryImpl;
 
 import org.jdom2.Namespace;
@@ -37,12 +39,14 @@ import java.util.Objects;
 
 public class SaxonXPathFactory
     extends org.jdom2.xpath.XPathFactory {
-  private static final XPathFactoryImpl DEFAULT_XPATH_FACTORY = new XPathFactoryImpl();
-
   private final XPathFactoryImpl xpathFactory;
 
   public SaxonXPathFactory() {
-    this(DEFAULT_XPATH_FACTORY);
+    this(SaxonRuntime.current());
+  }
+
+  public SaxonXPathFactory(SaxonRuntime runtime) {
+    this(runtime.getXPathFactory());
   }
 
   protected SaxonXPathFactory(XPathFactoryImpl factory) {
@@ -0,0 +1,85 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.requirement;
+
+import gov.nist.secauto.decima.core.requirement.DefaultRequirementsManager;
+import gov.nist.secauto.decima.core.requirement.RequirementsParserException;
+import gov.nist.secauto.decima.core.requirement.RequirementsSnapshot;
+
+import org.jdom2.JDOMException;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+/**
+ * Writes a {@link RequirementsSnapshot} of one or more XML requirements definitions. This is
+ * intended to be run as part of a build, allowing the requirements to be loaded at runtime without
+ * validating and parsing the XML.
+ * <p>
+ * Usage: {@code RequirementsSnapshotWriter <snapshot file> <requirements file>...}
+ */
+public class RequirementsSnapshotWriter {
+
+  private RequirementsSnapshotWriter() {
+    // disable construction
+  }
+
+  /**
+   * Parses the requirements definitions and writes the resulting snapshot.
+   * 
+   * @param args
+   *          the snapshot file to write, followed by the requirements definitions to parse
+   * @throws JDOMException
+   *           if an error occurred while loading the requirements schema
+   * @throws SAXException
+   *           if an error occurred while loading the requirements schema
+   * @throws RequirementsParserException
+   *           if an error occurred while parsing a requirements definition
+   * @throws URISyntaxException
+   *           if a requirements definition location is not a valid URI
+   * @throws IOException
+   *           if an error occurred while writing the snapshot
+   */
+  public static void main(String[] args)
+      throws JDOMException, SAXException, RequirementsParserException, URISyntaxException, IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: RequirementsSnapshotWriter <snapshot file> <requirements file>...");
+      System.exit(1);
+    }
+
+    XMLRequirementsParser parser = new XMLRequirementsParser();
+    DefaultRequirementsManager requirementsManager = new DefaultRequirementsManager();
+    for (int i = 1; i < args.length; i++) {
+      requirementsManager.load(new File(args[i]).toURI().toURL(), parser);
+    }
+
+    RequirementsSnapshot.write(requirementsManager, new File(args[0]));
+  }
+}
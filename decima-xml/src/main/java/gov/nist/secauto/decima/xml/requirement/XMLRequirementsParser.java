@@ -50,6 +50,7 @@ import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.filter.Filter;
 import org.jdom2.filter.Filters;
+import org.jdom2.input.SAXBuilder;
 import org.jdom2.input.sax.SAXEngine;
 import org.xml.sax.SAXException;
 
@@ -64,6 +65,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
@@ -131,6 +133,47 @@ public class XMLRequirementsParser implements RequirementsParser {
   public XMLRequirementsParser(List<Source> extensionSchemaSources)
       throws JDOMException, MalformedURLException, SAXException {
     Objects.requireNonNull(extensionSchemaSources, "extensionSchemaSources");
+    this.saxEngine = initSAXEngine(getSchemaSources(extensionSchemaSources));
+  }
+
+  /**
+   * Constructs a requirements parser that uses the provided {@link SAXEngine}, which is expected to
+   * validate the requirements definitions.
+   * 
+   * @param saxEngine
+   *          the JDOM {@link SAXEngine} to use to parse requirements definitions
+   */
+  protected XMLRequirementsParser(SAXEngine saxEngine) {
+    Objects.requireNonNull(saxEngine, "saxEngine");
+    this.saxEngine = saxEngine;
+  }
+
+  /**
+   * Creates a factory for requirements parsers that support the provided extension schema. The schema
+   * are compiled once and shared by all parsers created by the factory, while each parser has its
+   * own {@link SAXEngine}. This allows the created parsers to be used concurrently, for example using
+   * {@link gov.nist.secauto.decima.core.requirement.MutableRequirementsManager#loadAll}.
+   * 
+   * @param extensionSchemaSources
+   *          extension schema that describe requirements definition extensions
+   * @return a factory for new requirements parsers
+   * @throws SAXException
+   *           if an error occurred while parsing the schema
+   */
+  public static Supplier<RequirementsParser> newParserFactory(List<Source> extensionSchemaSources)
+      throws SAXException {
+    Objects.requireNonNull(extensionSchemaSources, "extensionSchemaSources");
+    SAXBuilder saxBuilder = JDOMUtil.newValidatingSAXBuilder(getSchemaSources(extensionSchemaSources));
+    return () -> {
+      try {
+        return new XMLRequirementsParser(saxBuilder.buildEngine());
+      } catch (JDOMException ex) {
+        throw new IllegalStateException("Unable to construct a requirements parser", ex);
+      }
+    };
+  }
+
+  private static Source[] getSchemaSources(List<Source> extensionSchemaSources) {
     // Sources will always have at least one member
     Source[] sources = new Source[extensionSchemaSources.size() + 1];
     sources[0] = new StreamSource("classpath:schema/decima/decima-requirements.xsd");
@@ -138,7 +181,7 @@ public class XMLRequirementsParser implements RequirementsParser {
     for (Source source : extensionSchemaSources) {
       sources[index++] = source;
     }
-    this.saxEngine = initSAXEngine(sources);
+    return sources;
   }
 
   protected SAXEngine initSAXEngine(Source[] schemaSources) throws MalformedURLException, SAXException, JDOMException {
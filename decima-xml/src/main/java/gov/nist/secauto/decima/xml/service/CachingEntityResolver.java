@@ -0,0 +1,92 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.service;
+
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An {@link EntityResolver} that caches the system identifiers resolved by another resolver, and
+ * provides the cached bytes of the resolved resource. A resolution that provides its own stream is
+ * returned as is, and is not cached.
+ */
+public class CachingEntityResolver implements EntityResolver {
+  private final EntityResolver delegate;
+  private final ResourceResolutionCache cache;
+
+  /**
+   * Constructs a new caching resolver.
+   * 
+   * @param delegate
+   *          the resolver to cache the resolutions of
+   * @param cache
+   *          the cache to use
+   */
+  public CachingEntityResolver(EntityResolver delegate, ResourceResolutionCache cache) {
+    Objects.requireNonNull(delegate, "delegate");
+    Objects.requireNonNull(cache, "cache");
+    this.delegate = delegate;
+    this.cache = cache;
+  }
+
+  public EntityResolver getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException {
+    List<String> key = Arrays.asList("entity", publicId, systemId);
+    ResourceResolutionCache.URIMapping mapping = cache.getURIMapping(key);
+    if (mapping == null) {
+      InputSource source = delegate.resolveEntity(publicId, systemId);
+      if (source != null && (source.getByteStream() != null || source.getCharacterStream() != null
+          || source.getEncoding() != null || source.getSystemId() == null)) {
+        return source;
+      }
+      mapping = cache.putURIMapping(key, source == null ? null : source.getSystemId());
+    }
+
+    InputSource retval = null;
+    if (mapping.getURI() != null) {
+      retval = new InputSource(mapping.getURI());
+      retval.setPublicId(publicId);
+      try {
+        retval.setByteStream(cache.openStream(mapping.getURI()));
+      } catch (IOException ex) {
+        // let the parser report the resource that cannot be read
+      }
+    }
+    return retval;
+  }
+}
@@ -0,0 +1,192 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.service;
+
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An {@link LSResourceResolver} that caches the system identifiers resolved by another resolver,
+ * and provides the cached bytes of the resolved resource. A resolution that provides its own
+ * content is returned as is, and is not cached.
+ */
+public class CachingLSResourceResolver implements LSResourceResolver {
+  private final LSResourceResolver delegate;
+  private final ResourceResolutionCache cache;
+
+  /**
+   * Constructs a new caching resolver.
+   * 
+   * @param delegate
+   *          the resolver to cache the resolutions of
+   * @param cache
+   *          the cache to use
+   */
+  public CachingLSResourceResolver(LSResourceResolver delegate, ResourceResolutionCache cache) {
+    Objects.requireNonNull(delegate, "delegate");
+    Objects.requireNonNull(cache, "cache");
+    this.delegate = delegate;
+    this.cache = cache;
+  }
+
+  public LSResourceResolver getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public LSInput resolveResource(String type, String namespaceURI, String publicId, String systemId, String baseURI) {
+    List<String> key = Arrays.asList("resource", type, namespaceURI, publicId, systemId, baseURI);
+    ResourceResolutionCache.URIMapping mapping = cache.getURIMapping(key);
+    if (mapping == null) {
+      LSInput input = delegate.resolveResource(type, namespaceURI, publicId, systemId, baseURI);
+      if (input != null && (input.getByteStream() != null || input.getCharacterStream() != null
+          || input.getStringData() != null || input.getEncoding() != null || input.getSystemId() == null)) {
+        return input;
+      }
+      mapping = cache.putURIMapping(key, input == null ? null : input.getSystemId());
+    }
+
+    LSInput retval = null;
+    if (mapping.getURI() != null) {
+      InputStream is;
+      try {
+        is = cache.openStream(mapping.getURI());
+      } catch (IOException ex) {
+        // let the parser report the resource that cannot be read
+        is = null;
+      }
+      retval = new CachedLSInput(publicId, mapping.getURI(), baseURI, is);
+    }
+    return retval;
+  }
+
+  private static class CachedLSInput implements LSInput {
+    private String publicId;
+    private String systemId;
+    private String baseURI;
+    private InputStream byteStream;
+    private Reader characterStream;
+    private String stringData;
+    private String encoding;
+    private boolean certifiedText;
+
+    public CachedLSInput(String publicId, String systemId, String baseURI, InputStream byteStream) {
+      this.publicId = publicId;
+      this.systemId = systemId;
+      this.baseURI = baseURI;
+      this.byteStream = byteStream;
+    }
+
+    @Override
+    public Reader getCharacterStream() {
+      return characterStream;
+    }
+
+    @Override
+    public void setCharacterStream(Reader characterStream) {
+      this.characterStream = characterStream;
+    }
+
+    @Override
+    public InputStream getByteStream() {
+      return byteStream;
+    }
+
+    @Override
+    public void setByteStream(InputStream byteStream) {
+      this.byteStream = byteStream;
+    }
+
+    @Override
+    public String getStringData() {
+      return stringData;
+    }
+
+    @Override
+    public void setStringData(String stringData) {
+      this.stringData = stringData;
+    }
+
+    @Override
+    public String getSystemId() {
+      return systemId;
+    }
+
+    @Override
+    public void setSystemId(String systemId) {
+      this.systemId = systemId;
+    }
+
+    @Override
+    public String getPublicId() {
+      return publicId;
+    }
+
+    @Override
+    public void setPublicId(String publicId) {
+      this.publicId = publicId;
+    }
+
+    @Override
+    public String getBaseURI() {
+      return baseURI;
+    }
+
+    @Override
+    public void setBaseURI(String baseURI) {
+      this.baseURI = baseURI;
+    }
+
+    @Override
+    public String getEncoding() {
+      return encoding;
+    }
+
+    @Override
+    public void setEncoding(String encoding) {
+      this.encoding = encoding;
+    }
+
+    @Override
+    public boolean getCertifiedText() {
+      return certifiedText;
+    }
+
+    @Override
+    public void setCertifiedText(boolean certifiedText) {
+      this.certifiedText = certifiedText;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.service;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.URIResolver;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * A {@link URIResolver} that resolves stylesheet imports and includes, and documents loaded using
+ * {@code document()}, relative to their base URI, using a {@link ResourceResolutionCache} to avoid
+ * resolving and reading the same resources again.
+ */
+public class CachingURIResolver implements URIResolver {
+  private final ResourceResolutionCache cache;
+
+  public CachingURIResolver(ResourceResolutionCache cache) {
+    Objects.requireNonNull(cache, "cache");
+    this.cache = cache;
+  }
+
+  public ResourceResolutionCache getCache() {
+    return cache;
+  }
+
+  @Override
+  public Source resolve(String href, String base) throws TransformerException {
+    List<String> key = Arrays.asList("uri", href, base);
+    ResourceResolutionCache.URIMapping mapping = cache.getURIMapping(key);
+    URL url;
+    try {
+      if (mapping != null) {
+        url = new URL(mapping.getURI());
+      } else {
+        if (base != null && !base.isEmpty()) {
+          URL baseURL = new URL(base);
+          url = new URL(baseURL, href);
+        } else {
+          url = new URL(href);
+        }
+        cache.putURIMapping(key, url.toString());
+      }
+    } catch (MalformedURLException e) {
+      throw new TransformerException(e);
+    }
+    try {
+      return new StreamSource(cache.openStream(url), url.toString());
+    } catch (IOException e) {
+      throw new TransformerException(e);
+    }
+  }
+}
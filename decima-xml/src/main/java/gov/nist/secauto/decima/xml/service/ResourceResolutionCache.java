@@ -0,0 +1,446 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.service;
+
+import gov.nist.secauto.decima.core.classpath.ClasspathHandler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of resource resolutions, shared by the resolvers used to load schema, Schematron
+ * and XSL resources. Two kinds of entries are cached:
+ * <ul>
+ * <li>the URI a reference was resolved to, identified by a key built from the arguments of the
+ * resolution, including references that could not be resolved; and</li>
+ * <li>the bytes of {@code classpath:}, {@code jar:} and {@code file:} resources. A cached
+ * {@code file:} resource is read again if the size or modification time of the file changes. Other
+ * resources, such as remote resources, are not cached.</li>
+ * </ul>
+ * <p>
+ * Both kinds of entries are evicted in least-recently-used order, once the maximum number of entries
+ * or the maximum number of cached bytes is exceeded. Resources that are larger than the maximum
+ * resource size are read without being cached.
+ * <p>
+ * Instances of this class are thread-safe. A resource that is missing from the cache may be read by
+ * more than one thread at the same time, in which case the last read is kept.
+ */
+public class ResourceResolutionCache {
+  private static final Logger log = LogManager.getLogger(ResourceResolutionCache.class);
+
+  public static final int DEFAULT_MAX_ENTRIES = 4096;
+  public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+  public static final int DEFAULT_MAX_RESOURCE_BYTES = 4 * 1024 * 1024;
+
+  private static ResourceResolutionCache instance;
+
+  /**
+   * Retrieves the cache shared by the {@link ResourceResolverExtensionService} and
+   * {@link gov.nist.secauto.decima.xml.util.XSLTransformer} instances.
+   * 
+   * @return the shared instance
+   */
+  public static synchronized ResourceResolutionCache getInstance() {
+    if (instance == null) {
+      instance = new ResourceResolutionCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES, DEFAULT_MAX_RESOURCE_BYTES);
+    }
+    return instance;
+  }
+
+  private final int maxEntries;
+  private final long maxBytes;
+  private final int maxResourceBytes;
+
+  private final ReentrantLock uriLock = new ReentrantLock();
+  private final Map<Object, URIMapping> uriMappings = new LinkedHashMap<>(16, 0.75f, true);
+  private final ReentrantLock resourceLock = new ReentrantLock();
+  private final Map<String, CachedResource> resources = new LinkedHashMap<>(16, 0.75f, true);
+  private long cachedBytes;
+
+  private final LongAdder uriHits = new LongAdder();
+  private final LongAdder uriMisses = new LongAdder();
+  private final LongAdder resourceHits = new LongAdder();
+  private final LongAdder resourceMisses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructs a new cache.
+   * 
+   * @param maxEntries
+   *          the maximum number of URI mappings, and separately the maximum number of resources, to
+   *          cache
+   * @param maxBytes
+   *          the maximum number of resource bytes to cache
+   * @param maxResourceBytes
+   *          the size of the largest resource to cache
+   */
+  public ResourceResolutionCache(int maxEntries, long maxBytes, int maxResourceBytes) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+    if (maxBytes < 0 || maxResourceBytes < 0) {
+      throw new IllegalArgumentException("the byte limits must not be negative");
+    }
+    ClasspathHandler.initialize();
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.maxResourceBytes = maxResourceBytes;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public int getMaxResourceBytes() {
+    return maxResourceBytes;
+  }
+
+  /**
+   * Retrieves a cached resolution.
+   * 
+   * @param key
+   *          the key identifying the resolution, which must implement value equality, such as a
+   *          list of the arguments of the resolution
+   * @return the cached mapping, or {@code null} if the resolution has not been cached
+   */
+  public URIMapping getURIMapping(Object key) {
+    URIMapping retval;
+    uriLock.lock();
+    try {
+      retval = uriMappings.get(key);
+    } finally {
+      uriLock.unlock();
+    }
+    if (retval == null) {
+      uriMisses.increment();
+    } else {
+      uriHits.increment();
+    }
+    return retval;
+  }
+
+  /**
+   * Caches a resolution.
+   * 
+   * @param key
+   *          the key identifying the resolution, which must implement value equality, such as a
+   *          list of the arguments of the resolution
+   * @param uri
+   *          the URI the reference was resolved to, or {@code null} if it could not be resolved
+   * @return the cached mapping
+   */
+  public URIMapping putURIMapping(Object key, String uri) {
+    URIMapping retval = new URIMapping(uri);
+    uriLock.lock();
+    try {
+      uriMappings.put(key, retval);
+      if (uriMappings.size() > maxEntries) {
+        Iterator<URIMapping> iter = uriMappings.values().iterator();
+        iter.next();
+        iter.remove();
+        evictions.increment();
+      }
+    } finally {
+      uriLock.unlock();
+    }
+    return retval;
+  }
+
+  /**
+   * Opens a stream to read the resource identified by the provided URI, using the cached bytes of
+   * the resource if possible.
+   * 
+   * @param uri
+   *          the URI of the resource
+   * @return a stream providing the contents of the resource
+   * @throws IOException
+   *           if the URI is malformed, or the resource could not be read
+   */
+  public InputStream openStream(String uri) throws IOException {
+    return openStream(new URL(uri));
+  }
+
+  /**
+   * Opens a stream to read the resource identified by the provided URL, using the cached bytes of
+   * the resource if possible.
+   * 
+   * @param url
+   *          the URL of the resource
+   * @return a stream providing the contents of the resource
+   * @throws IOException
+   *           if the resource could not be read
+   */
+  public InputStream openStream(URL url) throws IOException {
+    String protocol = url.getProtocol();
+    File file = null;
+    if ("file".equals(protocol)) {
+      file = toFile(url);
+      if (file == null) {
+        return url.openStream();
+      }
+    } else if (!"classpath".equals(protocol) && !"jar".equals(protocol)) {
+      return url.openStream();
+    }
+
+    String key = url.toExternalForm();
+    long lastModified = file == null ? 0 : file.lastModified();
+    long length = file == null ? -1 : file.length();
+
+    CachedResource cached;
+    resourceLock.lock();
+    try {
+      cached = resources.get(key);
+    } finally {
+      resourceLock.unlock();
+    }
+    if (cached != null && (file == null || cached.isCurrent(lastModified, length))) {
+      resourceHits.increment();
+      return new ByteArrayInputStream(cached.bytes);
+    }
+    resourceMisses.increment();
+
+    if (file != null) {
+      if (length > maxResourceBytes) {
+        return Files.newInputStream(file.toPath());
+      }
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      if (bytes.length == length && file.lastModified() == lastModified) {
+        put(key, new CachedResource(bytes, lastModified, length));
+      }
+      return new ByteArrayInputStream(bytes);
+    }
+
+    URLConnection connection = url.openConnection();
+    // avoid holding the jar file open after the resource has been read
+    connection.setUseCaches(false);
+    InputStream is = connection.getInputStream();
+    long contentLength = connection.getContentLengthLong();
+    if (contentLength > maxResourceBytes) {
+      return is;
+    }
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream(contentLength > 0 ? (int) contentLength : 8192);
+    byte[] buffer = new byte[8192];
+    int read;
+    try {
+      while ((read = is.read(buffer)) != -1) {
+        os.write(buffer, 0, read);
+        if (os.size() > maxResourceBytes) {
+          // too large to cache, provide what has been read followed by the rest of the stream
+          return new SequenceInputStream(new ByteArrayInputStream(os.toByteArray()), is);
+        }
+      }
+    } catch (IOException | RuntimeException ex) {
+      is.close();
+      throw ex;
+    }
+    is.close();
+    byte[] bytes = os.toByteArray();
+    put(key, new CachedResource(bytes, 0, bytes.length));
+    return new ByteArrayInputStream(bytes);
+  }
+
+  private static File toFile(URL url) {
+    try {
+      return Paths.get(url.toURI()).toFile();
+    } catch (URISyntaxException | IllegalArgumentException ex) {
+      // a URL that does not identify a local file, which cannot be checked for changes
+      return null;
+    }
+  }
+
+  private void put(String key, CachedResource resource) {
+    if (resource.bytes.length > maxBytes) {
+      return;
+    }
+    resourceLock.lock();
+    try {
+      CachedResource previous = resources.put(key, resource);
+      if (previous != null) {
+        cachedBytes -= previous.bytes.length;
+      }
+      cachedBytes += resource.bytes.length;
+
+      Iterator<CachedResource> iter = resources.values().iterator();
+      while (cachedBytes > maxBytes || resources.size() > maxEntries) {
+        CachedResource eldest = iter.next();
+        iter.remove();
+        cachedBytes -= eldest.bytes.length;
+        evictions.increment();
+      }
+    } finally {
+      resourceLock.unlock();
+    }
+    if (log.isTraceEnabled()) {
+      log.trace("Cached {} bytes for resource: {}", resource.bytes.length, key);
+    }
+  }
+
+  /**
+   * Removes all cached entries. The statistics are not reset.
+   */
+  public void clear() {
+    uriLock.lock();
+    try {
+      uriMappings.clear();
+    } finally {
+      uriLock.unlock();
+    }
+    resourceLock.lock();
+    try {
+      resources.clear();
+      cachedBytes = 0;
+    } finally {
+      resourceLock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the number of resolutions that were found in the cache.
+   * 
+   * @return the count
+   */
+  public long getURIHits() {
+    return uriHits.sum();
+  }
+
+  /**
+   * Retrieves the number of resolutions that were not found in the cache.
+   * 
+   * @return the count
+   */
+  public long getURIMisses() {
+    return uriMisses.sum();
+  }
+
+  /**
+   * Retrieves the number of times a resource was read from the cache.
+   * 
+   * @return the count
+   */
+  public long getResourceHits() {
+    return resourceHits.sum();
+  }
+
+  /**
+   * Retrieves the number of times a cacheable resource had to be read, because it was not cached or
+   * had changed.
+   * 
+   * @return the count
+   */
+  public long getResourceMisses() {
+    return resourceMisses.sum();
+  }
+
+  /**
+   * Retrieves the number of entries removed to stay within the configured limits.
+   * 
+   * @return the count
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * Retrieves the number of resource bytes currently cached.
+   * 
+   * @return the number of bytes
+   */
+  public long getCachedBytes() {
+    resourceLock.lock();
+    try {
+      return cachedBytes;
+    } finally {
+      resourceLock.unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "uri hits=" + getURIHits() + ", uri misses=" + getURIMisses() + ", resource hits=" + getResourceHits()
+        + ", resource misses=" + getResourceMisses() + ", evictions=" + getEvictions() + ", cached bytes="
+        + getCachedBytes();
+  }
+
+  /**
+   * The cached result of a resolution.
+   */
+  public static final class URIMapping {
+    private final String uri;
+
+    private URIMapping(String uri) {
+      this.uri = uri;
+    }
+
+    /**
+     * Retrieves the URI the reference was resolved to.
+     * 
+     * @return the URI, or {@code null} if the reference could not be resolved
+     */
+    public String getURI() {
+      return uri;
+    }
+  }
+
+  private static final class CachedResource {
+    private final byte[] bytes;
+    private final long lastModified;
+    private final long length;
+
+    public CachedResource(byte[] bytes, long lastModified, long length) {
+      this.bytes = bytes;
+      this.lastModified = lastModified;
+      this.length = length;
+    }
+
+    public boolean isCurrent(long lastModified, long length) {
+      return this.lastModified == lastModified && this.length == length;
+    }
+  }
+}
@@ -47,6 +47,9 @@ import javax.xml.catalog.CatalogResolver;
  * and {@link LSResourceResolver} instances. This extension mechanism allows Decima-based
  * implementations to register resolvers in a way that these resolvers are automatically used by
  * core Decima capabilities.
+ * <p>
+ * The combined resolvers cache their resolutions, and the resolved resources, using the shared
+ * {@link ResourceResolutionCache}.
  */
 public class ResourceResolverExtensionService {
   public static final CatalogResolver DEFAULT_CATALOG_RESOLVER
@@ -104,9 +107,10 @@ public class ResourceResolverExtensionService {
         // will never happen
         entityResolver = null;
       } else if (resolvers.size() == 1) {
-        entityResolver = resolvers.get(0);
+        entityResolver = new CachingEntityResolver(resolvers.get(0), ResourceResolutionCache.getInstance());
       } else {
-        entityResolver = new CompositeEntityResolver(resolvers);
+        entityResolver
+            = new CachingEntityResolver(new CompositeEntityResolver(resolvers), ResourceResolutionCache.getInstance());
       }
     }
     return entityResolver;
@@ -118,7 +122,7 @@ public class ResourceResolverExtensionService {
    * 
    * @return a single or a composite of two or more {@link LSResourceResolver} instances
    */
-  public LSResourceResolver getLSResolver() {
+  public synchronized LSResourceResolver getLSResolver() {
     if (lsResourceResolver == null) {
       List<LSResourceResolver> resolvers = new LinkedList<LSResourceResolver>();
 
@@ -135,9 +139,10 @@ public class ResourceResolverExtensionService {
       if (resolvers.isEmpty()) {
         lsResourceResolver = null;
       } else if (resolvers.size() == 1) {
-        lsResourceResolver = resolvers.get(0);
+        lsResourceResolver = new CachingLSResourceResolver(resolvers.get(0), ResourceResolutionCache.getInstance());
       } else {
-        lsResourceResolver = new CompositeLSResourceResolver(resolvers);
+        lsResourceResolver = new CachingLSResourceResolver(new CompositeLSResourceResolver(resolvers),
+            ResourceResolutionCache.getInstance());
       }
     }
 
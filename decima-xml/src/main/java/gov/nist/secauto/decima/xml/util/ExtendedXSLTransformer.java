@@ -39,11 +39,22 @@ public class ExtendedXSLTransformer
     extends XSLTransformer {
 
   /**
-   * Constructs a new transformer that automatically registers all extension functions.
+   * Constructs a new transformer using the {@link SaxonRuntime#current()} runtime, which has all
+   * extension functions registered.
    */
   public ExtendedXSLTransformer() {
     super();
-    TransformerExtensionService.getInstance().registerExtensions(getTransformerFactory().getConfiguration());
+  }
+
+  /**
+   * Constructs a new transformer using the provided runtime, which has all extension functions
+   * registered.
+   * 
+   * @param runtime
+   *          the runtime to use
+   */
+  public ExtendedXSLTransformer(SaxonRuntime runtime) {
+    super(runtime);
   }
 
   /**
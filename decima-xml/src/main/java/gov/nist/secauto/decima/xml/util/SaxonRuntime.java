@@ -0,0 +1,225 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.util;
+
+import gov.nist.secauto.decima.core.util.Log4jErrorListener;
+import gov.nist.secauto.decima.xml.service.CachingURIResolver;
+import gov.nist.secauto.decima.xml.service.ResourceResolutionCache;
+import gov.nist.secauto.decima.xml.service.TransformerExtensionService;
+
+import net.sf.saxon.Configuration;
+import net.sf.saxon.TransformerFactoryImpl;
+import net.sf.saxon.jaxp.SaxonTransformerFactory;
+import net.sf.saxon.om.DocumentPool;
+import net.sf.saxon.om.NamePool;
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.xpath.XPathFactoryImpl;
+
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A Saxon {@link Configuration} shared by the Decima components that compile and evaluate XSL and
+ * XPath, such as the {@link XSLTransformer}, the Schematron compiler, the report generator and the
+ * JDOM XPath evaluators. Sharing a configuration allows these components to share a single name
+ * pool and document pool, and allows trees and compiled artifacts to be used across them. The
+ * {@link TransformerExtensionService} extensions are registered once, when the runtime is created,
+ * and stylesheet resources are resolved using a {@link ResourceResolutionCache}.
+ * <p>
+ * By default, a single process-wide runtime is used. To keep the resources of a tenant apart, a
+ * separate runtime can be created for the tenant and either passed to the components that accept a
+ * runtime, or made current for the calling thread using {@link #enter(SaxonRuntime)}. Components
+ * that are not given a runtime use the {@link #current()} runtime when they are constructed.
+ * <p>
+ * The configuration is shared, so components must not change configuration-wide settings, such as
+ * the URI resolver.
+ */
+public final class SaxonRuntime {
+  private static final ReentrantLock DEFAULT_LOCK = new ReentrantLock();
+  private static final ThreadLocal<SaxonRuntime> CURRENT = new ThreadLocal<>();
+  private static SaxonRuntime defaultRuntime;
+
+  /**
+   * Retrieves the process-wide runtime, creating it on first use.
+   * 
+   * @return the process-wide runtime
+   */
+  public static SaxonRuntime getDefault() {
+    DEFAULT_LOCK.lock();
+    try {
+      if (defaultRuntime == null) {
+        defaultRuntime = new SaxonRuntime();
+      }
+      return defaultRuntime;
+    } finally {
+      DEFAULT_LOCK.unlock();
+    }
+  }
+
+  /**
+   * Replaces the process-wide runtime. Components already constructed continue to use the runtime
+   * they were constructed with.
+   * 
+   * @param runtime
+   *          the runtime to use by default
+   */
+  public static void setDefault(SaxonRuntime runtime) {
+    Objects.requireNonNull(runtime, "runtime");
+    DEFAULT_LOCK.lock();
+    try {
+      defaultRuntime = runtime;
+    } finally {
+      DEFAULT_LOCK.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the runtime made current for the calling thread, or the process-wide runtime if none
+   * has been made current.
+   * 
+   * @return the runtime to use
+   */
+  public static SaxonRuntime current() {
+    SaxonRuntime retval = CURRENT.get();
+    if (retval == null) {
+      retval = getDefault();
+    }
+    return retval;
+  }
+
+  /**
+   * Makes the provided runtime current for the calling thread, until the returned scope is closed.
+   * Scopes can be nested, in which case closing a scope restores the runtime that was current when
+   * it was entered.
+   * 
+   * @param runtime
+   *          the runtime to make current
+   * @return the scope, which must be closed by the calling thread
+   */
+  public static Scope enter(SaxonRuntime runtime) {
+    Objects.requireNonNull(runtime, "runtime");
+    Scope retval = new Scope(CURRENT.get());
+    CURRENT.set(runtime);
+    return retval;
+  }
+
+  private final Configuration configuration;
+  private final Processor processor;
+  private final XPathFactoryImpl xpathFactory;
+  private final ResourceResolutionCache resolutionCache;
+
+  /**
+   * Constructs a new runtime with a new configuration, which uses the shared
+   * {@link ResourceResolutionCache}.
+   */
+  public SaxonRuntime() {
+    this(new Configuration(), ResourceResolutionCache.getInstance());
+  }
+
+  /**
+   * Constructs a new runtime using the provided configuration. The configuration's URI resolver is
+   * replaced, and the Decima extensions are registered with it.
+   * 
+   * @param configuration
+   *          the configuration to share
+   * @param resolutionCache
+   *          the cache to use when resolving stylesheet resources
+   */
+  public SaxonRuntime(Configuration configuration, ResourceResolutionCache resolutionCache) {
+    Objects.requireNonNull(configuration, "configuration");
+    Objects.requireNonNull(resolutionCache, "resolutionCache");
+    this.configuration = configuration;
+    this.resolutionCache = resolutionCache;
+    configuration.setURIResolver(new CachingURIResolver(resolutionCache));
+    TransformerExtensionService.getInstance().registerExtensions(configuration);
+    this.processor = new Processor(configuration);
+    this.xpathFactory = new XPathFactoryImpl(configuration);
+  }
+
+  public Configuration getConfiguration() {
+    return configuration;
+  }
+
+  public Processor getProcessor() {
+    return processor;
+  }
+
+  public NamePool getNamePool() {
+    return configuration.getNamePool();
+  }
+
+  public DocumentPool getDocumentPool() {
+    return configuration.getGlobalDocumentPool();
+  }
+
+  /**
+   * Retrieves the XPath factory shared by the JDOM XPath evaluators using this runtime.
+   * 
+   * @return the XPath factory
+   */
+  public XPathFactoryImpl getXPathFactory() {
+    return xpathFactory;
+  }
+
+  public ResourceResolutionCache getResolutionCache() {
+    return resolutionCache;
+  }
+
+  /**
+   * Creates a new transformer factory using the shared configuration. Each factory has its own
+   * error listener, and compiles stylesheets independently of other factories.
+   * 
+   * @return the new factory
+   */
+  public SaxonTransformerFactory newTransformerFactory() {
+    SaxonTransformerFactory retval = new TransformerFactoryImpl(configuration);
+    retval.setErrorListener(new Log4jErrorListener());
+    return retval;
+  }
+
+  /**
+   * Restores the runtime that was current before {@link SaxonRuntime#enter(SaxonRuntime)} was
+   * called.
+   */
+  public static final class Scope implements AutoCloseable {
+    private final SaxonRuntime previous;
+
+    private Scope(SaxonRuntime previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void close() {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+}
@@ -27,20 +27,18 @@
 package gov.nist.secauto.decima.xml.util;
 
 import gov.nist.secauto.decima.core.util.Log4jErrorListener;
-import gov.nist.secauto.decima.core.util.URLUtil;
+import gov.nist.secauto.decima.xml.service.CachingURIResolver;
+import gov.nist.secauto.decima.xml.service.ResourceResolutionCache;
 import gov.nist.secauto.decima.xml.service.TransformerExtensionService;
 
 import net.sf.saxon.jaxp.SaxonTransformerFactory;
 
-import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.util.Objects;
 
 import javax.xml.transform.Source;
 import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.URIResolver;
 import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.sax.SAXTransformerFactory;
@@ -52,12 +50,35 @@ import javax.xml.transform.sax.TransformerHandler;
  * For XSL transformations in Decima, the {@link ExtendedXSLTransformer} should be used. This
  * guarantees that any XSL extensions are properly loaded through the
  * {@link TransformerExtensionService} extension mechanism in the Decima framework.
+ * <p>
+ * Stylesheet imports and includes, and documents loaded using {@code document()}, are resolved
+ * using a {@link ResourceResolutionCache}, avoiding reading the same resources again when many
+ * stylesheets are compiled.
+ * <p>
+ * A transformer constructed using a {@link SaxonRuntime} shares the runtime's configuration, which
+ * has the {@link TransformerExtensionService} extensions registered.
  */
 public class XSLTransformer implements URIResolver {
   private final SaxonTransformerFactory transformerFactory;
+  private final CachingURIResolver uriResolver;
 
+  /**
+   * Constructs an XSL transformer using the {@link SaxonRuntime#current()} runtime.
+   */
   public XSLTransformer() {
-    this((SaxonTransformerFactory) TransformerFactory.newInstance("net.sf.saxon.TransformerFactoryImpl", null));
+    this(SaxonRuntime.current());
+  }
+
+  /**
+   * Constructs an XSL transformer using the configuration of the provided runtime.
+   * 
+   * @param runtime
+   *          the runtime to use
+   */
+  public XSLTransformer(SaxonRuntime runtime) {
+    // the runtime has already configured the shared URI resolver
+    this.transformerFactory = runtime.newTransformerFactory();
+    this.uriResolver = new CachingURIResolver(runtime.getResolutionCache());
   }
 
   /**
@@ -67,7 +88,21 @@ public class XSLTransformer implements URIResolver {
    *          the transformer factory to use
    */
   public XSLTransformer(SaxonTransformerFactory transformerFactory) {
+    this(transformerFactory, ResourceResolutionCache.getInstance());
+  }
+
+  /**
+   * Constructs an XSL transformer using the provided transformer factory and resolution cache.
+   * 
+   * @param transformerFactory
+   *          the transformer factory to use
+   * @param resolutionCache
+   *          the cache to use when resolving resources
+   */
+  public XSLTransformer(SaxonTransformerFactory transformerFactory, ResourceResolutionCache resolutionCache) {
+    Objects.requireNonNull(resolutionCache, "resolutionCache");
     this.transformerFactory = transformerFactory;
+    this.uriResolver = new CachingURIResolver(resolutionCache);
     transformerFactory.setURIResolver(this);
     transformerFactory.setErrorListener(new Log4jErrorListener());
   }
@@ -76,6 +111,10 @@ public class XSLTransformer implements URIResolver {
     return transformerFactory;
   }
 
+  public ResourceResolutionCache getResolutionCache() {
+    return uriResolver.getCache();
+  }
+
   /**
    * Creates a transformer handler in the context of a chain of transformer handlers.
    * 
@@ -100,21 +139,6 @@ public class XSLTransformer implements URIResolver {
 
   @Override
   public Source resolve(String href, String base) throws TransformerException {
-    URL url;
-    try {
-      if (!base.isEmpty()) {
-        URL baseURL = new URL(base);
-        url = new URL(baseURL, href);
-      } else {
-        url = new URL(href);
-      }
-    } catch (MalformedURLException e) {
-      throw new TransformerException(e);
-    }
-    try {
-      return URLUtil.getSource(url);
-    } catch (IOException e) {
-      throw new TransformerException(e);
-    }
+    return uriResolver.resolve(href, base);
   }
 }
@@ -0,0 +1,129 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.assessment.result;
+
+import gov.nist.secauto.decima.core.assessment.result.AssessmentResults;
+import gov.nist.secauto.decima.core.assessment.result.BasicTestResult;
+import gov.nist.secauto.decima.core.assessment.result.DefaultAssessmentResultBuilder;
+import gov.nist.secauto.decima.core.assessment.result.TestStatus;
+import gov.nist.secauto.decima.core.requirement.DefaultBaseRequirement;
+import gov.nist.secauto.decima.core.requirement.DefaultDerivedRequirement;
+import gov.nist.secauto.decima.core.requirement.DefaultRequirementsManager;
+import gov.nist.secauto.decima.core.requirement.DefaultSpecification;
+import gov.nist.secauto.decima.core.requirement.DefaultSpecificationReference;
+import gov.nist.secauto.decima.core.requirement.RequirementType;
+import gov.nist.secauto.decima.xml.document.SimpleXPathContext;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+public class NDJSONResultWriterTest {
+  private static final String SYSTEM_ID = "file:/test.xml";
+
+  private DefaultRequirementsManager manager;
+
+  /**
+   * Creates the requirements the test results are for.
+   */
+  @Before
+  public void setUp() {
+    DefaultBaseRequirement base = new DefaultBaseRequirement("REQ-1", "statement", new DefaultSpecificationReference(
+        new DefaultSpecification("spec", URI.create("spec.html")), null, null, null));
+    base.addDerivedRequirement(
+        new DefaultDerivedRequirement(base, "REQ-1-1", "statement", RequirementType.MUST, false, "Found \"{0}\""));
+    base.addDerivedRequirement(
+        new DefaultDerivedRequirement(base, "REQ-1-2", "statement", RequirementType.SHOULD, false, null));
+    manager = new DefaultRequirementsManager();
+    manager.addBaseRequirement(base);
+  }
+
+  @Test
+  public void testWriteTestResult() throws IOException {
+    BasicTestResult result
+        = new BasicTestResult("TEST-1", TestStatus.FAIL, new SimpleXPathContext("/root[1]", SYSTEM_ID, 3, 7));
+    result.addResultValue("a\tb");
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    try (NDJSONResultWriter writer = new NDJSONResultWriter(os, manager, false)) {
+      writer.write("REQ-1-1", result);
+      writer.write("REQ-1-2", new BasicTestResult("TEST-2", TestStatus.PASS, null));
+    }
+
+    Assert.assertEquals("{\"base-requirement\":\"REQ-1\",\"derived-requirement\":\"REQ-1-1\",\"test-id\":\"TEST-1\","
+        + "\"status\":\"FAIL\",\"message\":\"Found \\\"a\\tb\\\"\",\"subject\":\"file:/test.xml\",\"line\":3,"
+        + "\"column\":7,\"xpath\":\"/root[1]\"}\n"
+        + "{\"base-requirement\":\"REQ-1\",\"derived-requirement\":\"REQ-1-2\",\"test-id\":\"TEST-2\","
+        + "\"status\":\"PASS\"}\n", new String(os.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testStreamAndWriteResults() throws IOException {
+    ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+    AssessmentResults results;
+    try (NDJSONResultWriter writer = new NDJSONResultWriter(streamed, manager, true)) {
+      DefaultAssessmentResultBuilder builder = new DefaultAssessmentResultBuilder();
+      builder.setLoggingHandler(writer.newLoggingHandler(null));
+      for (int i = 1; i <= 3; i++) {
+        SimpleXPathContext context = new SimpleXPathContext("/root[" + i + "]", SYSTEM_ID, i, i);
+        builder.addTestResult(null, null, "REQ-1-1", new BasicTestResult("TEST-" + i, TestStatus.FAIL, context));
+      }
+      results = builder.end().build(manager);
+    }
+
+    ByteArrayOutputStream written = new ByteArrayOutputStream();
+    try (NDJSONResultWriter writer = new NDJSONResultWriter(written, manager, true)) {
+      writer.write(results);
+    }
+
+    String expected = gunzip(streamed.toByteArray());
+    Assert.assertEquals(3, expected.split("\n").length);
+    Assert.assertEquals(Arrays.asList(expected.split("\n")), Arrays.asList(gunzip(written.toByteArray()).split("\n")));
+  }
+
+  private static String gunzip(byte[] data) throws IOException {
+    try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(data))) {
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      byte[] buffer = new byte[1024];
+      int count;
+      while ((count = is.read(buffer)) != -1) {
+        os.write(buffer, 0, count);
+      }
+      return new String(os.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+}
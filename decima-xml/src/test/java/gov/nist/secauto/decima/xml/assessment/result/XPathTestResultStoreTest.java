@@ -0,0 +1,67 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.xml.assessment.result;
+
+import gov.nist.secauto.decima.core.assessment.result.BasicTestResult;
+import gov.nist.secauto.decima.core.assessment.result.TestResult;
+import gov.nist.secauto.decima.core.assessment.result.TestStatus;
+import gov.nist.secauto.decima.xml.document.SimpleXPathContext;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class XPathTestResultStoreTest {
+  private static final String SYSTEM_ID = "file:/test.xml";
+
+  @Test
+  public void testXPathRoundTrip() {
+    String[] xpaths = { "/*[local-name()='root'][1]/*[local-name()='child'][25]",
+        "/*[local-name()='root'][1]/*[local-name()='child'][26]/@id",
+        "/*[namespace-uri()='http://example.com/ns/a' and local-name()='root'][1]", "//item[007]/text()",
+        "/root/child[last()]/value[1]", "/", "" };
+
+    XPathTestResultStore store = new XPathTestResultStore(2);
+    for (int i = 0; i < xpaths.length; i++) {
+      store.add("DER-1",
+          new BasicTestResult("TEST-" + i, TestStatus.FAIL, new SimpleXPathContext(xpaths[i], SYSTEM_ID, i, i + 1)));
+    }
+
+    List<TestResult> results = store.getTestResults("DER-1");
+    Assert.assertEquals(xpaths.length, results.size());
+    for (int i = 0; i < xpaths.length; i++) {
+      TestResult result = results.get(i);
+      Assert.assertTrue(result.getContext() instanceof XPathContext);
+      XPathContext context = (XPathContext) result.getContext();
+      Assert.assertEquals(xpaths[i], context.getXPath());
+      Assert.assertEquals(SYSTEM_ID, context.getSystemId());
+      Assert.assertEquals(i, context.getLine());
+      Assert.assertEquals(i + 1, context.getColumn());
+    }
+  }
+}
@@ -138,6 +138,44 @@ public class CompositeJDOMDocumentTest {
     assertElement("templateA", TEMPLATE_A_NS, sub);
   }
 
+  @Test
+  public void testAdoptedAssembly() throws DocumentException, MalformedURLException, XPathExpressionException {
+    XMLDocument base = new JDOMDocument(new URL("classpath:templates/composite.xml"));
+    XMLDocument sub1 = new JDOMDocument(new URL("classpath:templates/templateA.xml"));
+    XMLDocument sub2 = new JDOMDocument(new URL("classpath:templates/templateB.xml"));
+    Document baseDocument = base.getJDOMDocument();
+    Element sub1Root = sub1.getJDOMDocument().getRootElement();
+    Map<String, XMLDocument> subs = new HashMap<>();
+    subs.put("sub1", sub1);
+    subs.put("sub2", sub2);
+
+    CompositeXMLDocument composite = new CompositeXMLDocument(base, subs, true);
+    Assert.assertSame(baseDocument, composite.getJDOMDocument(false));
+
+    JDOMBasedXPathEvaluator eval = new JDOMBasedXPathEvaluator(composite.getJDOMDocument(false));
+    XPathNamespaceContext nsContext = new XPathNamespaceContext("http://decima.nist.gov/xml/test");
+    nsContext.addNamespace("a", "templateA");
+    eval.setNamespaceContext(nsContext);
+    List<Element> elements = eval.evaluate("//a:templateA", Filters.element());
+    Assert.assertEquals("XPath should have 2 result elements", 2, elements.size());
+
+    // the first reference moves the template root, the second gets a copy
+    Assert.assertSame(sub1Root, elements.get(0));
+    Assert.assertNotSame(sub1Root, elements.get(1));
+
+    for (Element element : elements) {
+      ContextAssert.assertContext("/*[local-name()='templateA' and namespace-uri()='templateA'][1]", 2, 30,
+          "classpath:templates/templateA.xml", composite.getContext(element));
+    }
+    Assert.assertEquals(3, composite.getSourceInfo().size());
+  }
+
+  @Test
+  public void testSourceInfo() throws DocumentException, MalformedURLException {
+    CompositeXMLDocument base = buildComposite();
+    Assert.assertEquals(3, base.getSourceInfo().size());
+  }
+
   private static void assertElement(String localname, Namespace ns, Element element) {
     org.junit.Assert.assertEquals(localname, element.getName());
     org.junit.Assert.assertTrue(ns.equals(element.getNamespace()));
@@ -34,23 +34,46 @@ import org.jdom2.Content;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
 
 public class JDOMDocumentTest {
 
   private static final File DOCUMENT = new File("src/test/resources/test-document.xml");
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   @BeforeClass
   public static void initialize() {
     ClasspathHandler.initialize();
   }
 
+  @Test
+  public void testCompressedFile() throws DocumentException, IOException {
+    File compressed = folder.newFile("test-document.xml.gz");
+    try (OutputStream os = new GZIPOutputStream(new FileOutputStream(compressed))) {
+      Files.copy(DOCUMENT.toPath(), os);
+    }
+
+    XMLDocument doc = new DefaultXMLDocumentFactory().load(compressed);
+    Element root = doc.getJDOMDocument().getRootElement();
+    ContextAssert.assertContext("/*[local-name()='root' and namespace-uri()='NS'][1]", 2, 36,
+        compressed.toURI().toString(), doc.getContext(root));
+  }
+
   @Test
   public void testContextRoot() throws FileNotFoundException, DocumentException {
     JDOMDocument doc = new JDOMDocument(DOCUMENT);
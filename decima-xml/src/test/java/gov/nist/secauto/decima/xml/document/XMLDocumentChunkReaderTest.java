@@ -0,0 +1,115 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.xml.document;
+
+import gov.nist.secauto.decima.core.document.DocumentException;
+import gov.nist.secauto.decima.xml.assessment.result.XPathContext;
+
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactoryConfigurationException;
+
+public class XMLDocumentChunkReaderTest {
+  private static final String SYSTEM_ID = "file:/collection.xml";
+  private static final String DOCUMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<c:collection xmlns:c=\"urn:collection\" xmlns:o=\"urn:other\">\n"
+      + "  <c:header><c:record>not a record</c:record></c:header>\n"
+      + "  <c:record id=\"1\">\n"
+      + "    <c:value o:type=\"o:a\">first</c:value>\n"
+      + "  </c:record>\n"
+      + "  <c:record id=\"2\">\n"
+      + "    <c:value>second</c:value>\n"
+      + "    <c:value>third</c:value>\n"
+      + "  </c:record>\n"
+      + "</c:collection>\n";
+
+  private static InputStream newInputStream() {
+    return new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<XMLDocumentFragment> readChunks(String recordPath) throws DocumentException, IOException {
+    List<XMLDocumentFragment> retval = new ArrayList<>();
+    try (XMLDocumentChunkReader reader = new XMLDocumentChunkReader(newInputStream(), SYSTEM_ID, null, recordPath,
+        Collections.singletonMap("x", "urn:collection"))) {
+      XMLDocumentFragment chunk;
+      while ((chunk = reader.next()) != null) {
+        retval.add(chunk);
+      }
+      Assert.assertEquals(retval.size(), reader.getChunkCount());
+    }
+    return retval;
+  }
+
+  @Test
+  public void testChunks() throws DocumentException, IOException {
+    List<XMLDocumentFragment> chunks = readChunks("/x:collection/x:record");
+    Assert.assertEquals(2, chunks.size());
+    Assert.assertEquals("2", chunks.get(1).getElement().getAttributeValue("id"));
+    // namespaces declared by ancestors are carried into the chunk
+    Assert.assertEquals("urn:other", chunks.get(0).getElement().getNamespace("o").getURI());
+    Assert.assertEquals(SYSTEM_ID, chunks.get(0).getSystemId());
+
+    Assert.assertEquals(3, readChunks("/*/x:*").size());
+    Assert.assertEquals(0, readChunks("/x:collection/record").size());
+  }
+
+  @Test
+  public void testContextsMatchOriginalDocument() throws DocumentException, IOException, XPathExpressionException,
+      XPathFactoryConfigurationException {
+    JDOMDocument document = new JDOMDocument(newInputStream(), SYSTEM_ID);
+    XPathEvaluator documentEvaluator = document.newXPathEvaluator();
+
+    XMLDocumentFragment chunk = readChunks("/x:collection/x:record").get(1);
+    for (Element value : chunk.newXPathEvaluator().evaluate("//*[local-name()='value']", Filters.element())) {
+      XPathContext chunkContext = chunk.getContext(value);
+      Element original = documentEvaluator.evaluateSingle(chunkContext.getXPath(), Filters.element());
+      Assert.assertNotNull(chunkContext.getXPath(), original);
+      Assert.assertEquals(value.getText(), original.getText());
+
+      XPathContext originalContext = document.getContext(original);
+      ContextAssert.assertContext(originalContext.getXPath(), originalContext.getLine(),
+          originalContext.getColumn(), SYSTEM_ID, chunkContext);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRecordPath() throws DocumentException, IOException {
+    readChunks("//x:record");
+  }
+}
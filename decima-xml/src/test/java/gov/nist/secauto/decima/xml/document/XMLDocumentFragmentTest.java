@@ -33,6 +33,10 @@ import org.jdom2.Element;
 import org.jdom2.Namespace;
 import org.jdom2.filter.Filters;
 import org.jdom2.located.LocatedElement;
+import org.jmock.Expectations;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.FileNotFoundException;
@@ -43,6 +47,9 @@ import javax.xml.xpath.XPathFactoryConfigurationException;
 public class XMLDocumentFragmentTest {
   private static final Namespace NS = Namespace.getNamespace("nsA");
 
+  @Rule
+  public JUnitRuleMockery context = new JUnitRuleMockery();
+
   private static Document newDocument() {
     LocatedElement root = new LocatedElement("root", NS);
     root.setLine(1);
@@ -93,4 +100,32 @@ public class XMLDocumentFragmentTest {
     ContextAssert.assertContext("/*[local-name()='root' and namespace-uri()='" + NS.getURI()
         + "'][1]/*[local-name()='child2' and namespace-uri()='" + NS.getURI() + "'][1]", 3, 3, null, context);
   }
+
+  @Test
+  public void testFragmentSystemIdUsesSourceNodes() {
+    Document source = newDocument();
+    Element sourceRoot = source.getRootElement();
+    Element sourceChild = sourceRoot.getChildren().get(1);
+
+    XMLDocument document = context.mock(XMLDocument.class);
+    context.checking(new Expectations() {
+      {
+        allowing(document).getXPath(sourceRoot);
+        will(returnValue("/root"));
+        allowing(document).getOriginalLocation();
+        will(returnValue(null));
+        // the system id must be resolved using the source node, without evaluating an XPath
+        oneOf(document).getSystemId(with(same(sourceChild)));
+        will(returnValue("child-system-id"));
+        oneOf(document).getSystemId(with(same(sourceRoot)));
+        will(returnValue("root-system-id"));
+      }
+    });
+
+    XMLDocumentFragment fragment = new XMLDocumentFragment(document, sourceRoot);
+    Element clonedChild = fragment.getElement().getChildren().get(1);
+    Assert.assertNotSame(sourceChild, clonedChild);
+    Assert.assertEquals("child-system-id", fragment.getContext(clonedChild).getSystemId());
+    Assert.assertEquals("root-system-id", fragment.getSystemId(fragment.getElement()));
+  }
 }
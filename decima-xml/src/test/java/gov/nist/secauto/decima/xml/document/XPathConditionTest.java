@@ -26,7 +26,11 @@
 
 package gov.nist.secauto.decima.xml.document;
 
+import gov.nist.secauto.decima.core.Decima;
+import gov.nist.secauto.decima.core.assessment.Assessment;
 import gov.nist.secauto.decima.core.assessment.AssessmentException;
+import gov.nist.secauto.decima.core.assessment.ConditionEvaluationScope;
+import gov.nist.secauto.decima.core.document.DocumentException;
 
 import org.jmock.Expectations;
 import org.jmock.Sequence;
@@ -35,13 +39,65 @@ import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactoryConfigurationException;
 
 public class XPathConditionTest {
+  private static final File DOCUMENT = new File("src/test/resources/test-document.xml");
+
   @Rule
   public JUnitRuleMockery context = new JUnitRuleMockery();
 
+  @Test
+  public void testBatchedConditions() throws AssessmentException, DocumentException, FileNotFoundException {
+    testBatchedConditions(false);
+  }
+
+  @Test
+  public void testBatchedConditionsWithInvalidExpression()
+      throws AssessmentException, DocumentException, FileNotFoundException {
+    testBatchedConditions(true);
+  }
+
+  private void testBatchedConditions(boolean includeInvalid)
+      throws AssessmentException, DocumentException, FileNotFoundException {
+    XMLDocument document = new JDOMDocument(DOCUMENT);
+    @SuppressWarnings("unchecked")
+    Assessment<XMLDocument> delegate = context.mock(Assessment.class);
+
+    XPathCondition matching = new XPathCondition("/*:root/*:child[@id='A']");
+    XPathCondition duplicate = new XPathCondition("/*:root/*:child[@id='A']");
+    XPathCondition notMatching = new XPathCondition("/*:root/*:child[@id='C']");
+    XPathCondition invalid = new XPathCondition("/*:root/*:child[");
+    List<Assessment<XMLDocument>> assessments = new ArrayList<>();
+    assessments.add(Decima.newConditionalAssessment(delegate, matching));
+    assessments.add(Decima.newConditionalAssessment(delegate, duplicate));
+    assessments.add(Decima.newConditionalAssessment(delegate, notMatching));
+    if (includeInvalid) {
+      assessments.add(Decima.newConditionalAssessment(delegate, invalid));
+    }
+
+    try (ConditionEvaluationScope scope = ConditionEvaluationScope.open(document, assessments)) {
+      Assert.assertTrue(matching.appliesTo(document));
+      Assert.assertTrue(duplicate.appliesTo(document));
+      Assert.assertFalse(notMatching.appliesTo(document));
+      if (includeInvalid) {
+        try {
+          invalid.appliesTo(document);
+          Assert.fail("the invalid expression should not be evaluated");
+        } catch (AssessmentException ex) {
+          Assert.assertSame(XPathExpressionException.class, ex.getCause().getClass());
+        }
+      }
+    }
+    Assert.assertNull(ConditionEvaluationScope.current(document));
+  }
+
   @Test
   public void testXPathMatch()
       throws AssessmentException, XPathFactoryConfigurationException, XPathExpressionException {
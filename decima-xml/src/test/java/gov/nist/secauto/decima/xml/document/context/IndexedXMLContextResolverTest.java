@@ -0,0 +1,146 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.decima.xml.document.context;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class IndexedXMLContextResolverTest {
+  private static final Namespace NS = Namespace.getNamespace("nsA");
+  private static final Namespace OTHER_NS = Namespace.getNamespace("nsB");
+
+  private static Document newWideDocument(int children) {
+    Element root = new Element("root", NS);
+    for (int i = 0; i < children; i++) {
+      // interleave elements with the same local name in different namespaces
+      root.addContent(new Element("child", i % 3 == 0 ? OTHER_NS : NS));
+      root.addContent(new Element("other", NS));
+    }
+    return new Document(root);
+  }
+
+  @Test
+  public void testMatchesDefaultResolver() {
+    Document document = newWideDocument(1000);
+    XMLContextResolver expected = new DefaultXMLContextResolver(document);
+    XMLContextResolver actual = new IndexedXMLContextResolver(document);
+
+    List<Element> children = document.getRootElement().getChildren();
+    // resolve concurrently to exercise the shared index
+    IntStream.range(0, children.size()).parallel().forEach(i -> {
+      Element child = children.get(i);
+      Assert.assertEquals(expected.getXPath(child), actual.getXPath(child));
+    });
+  }
+
+  /**
+   * Indexes a wide parent, and then removes it from the document.
+   */
+  private static WeakReference<Element> indexDetachedParent(Document document, XMLContextResolver resolver) {
+    Element parent = new Element("parent", NS);
+    for (int i = 0; i < 100; i++) {
+      parent.addContent(new Element("child", NS));
+    }
+    document.getRootElement().addContent(parent);
+    Assert.assertTrue(resolver.getXPath(parent.getChildren().get(50))
+        .endsWith("/*[local-name()='child' and namespace-uri()='nsA'][51]"));
+    document.getRootElement().removeContent(parent);
+    return new WeakReference<>(parent);
+  }
+
+  @Test
+  public void testDetachedParentReleased() throws InterruptedException {
+    Document document = newWideDocument(10);
+    XMLContextResolver resolver = new IndexedXMLContextResolver(document);
+    WeakReference<Element> parent = indexDetachedParent(document, resolver);
+
+    // the index of the detached parent must not keep it reachable
+    for (int i = 0; i < 50 && parent.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    Assert.assertNull(parent.get());
+    Assert.assertNotNull(resolver.getXPath(document.getRootElement()));
+  }
+
+  @Test
+  public void testModifiedParent() {
+    Document document = newWideDocument(100);
+    XMLContextResolver resolver = new IndexedXMLContextResolver(document);
+    Element root = document.getRootElement();
+    Element last = root.getChildren("child", NS).get(65);
+
+    Assert.assertTrue(resolver.getXPath(last).endsWith("/*[local-name()='child' and namespace-uri()='nsA'][66]"));
+
+    // the index is rebuilt once the parent changes
+    root.addContent(0, new Element("child", NS));
+    Element added = new Element("child", NS);
+    root.addContent(added);
+    Assert.assertTrue(
+        new IndexedXMLContextResolver(document).getXPath(last).endsWith("[local-name()='child' and namespace-uri()='nsA'][67]"));
+    Assert.assertTrue(resolver.getXPath(added).endsWith("[local-name()='child' and namespace-uri()='nsA'][68]"));
+  }
+
+  @Test
+  public void testSameSizeModifications() {
+    Document document = newWideDocument(100);
+    IndexedXMLContextResolver resolver = new IndexedXMLContextResolver(document);
+    XMLContextResolver expected = new DefaultXMLContextResolver(document);
+    Element root = document.getRootElement();
+    List<Element> children = root.getChildren("child", NS);
+    Element first = children.get(0);
+    Element last = children.get(children.size() - 1);
+    Assert.assertEquals(expected.getXPath(first), resolver.getXPath(first));
+    Assert.assertEquals(expected.getXPath(last), resolver.getXPath(last));
+
+    // swap two children
+    int firstIndex = root.indexOf(first);
+    int lastIndex = root.indexOf(last);
+    root.setContent(lastIndex, new Element("placeholder"));
+    root.setContent(firstIndex, last);
+    root.setContent(lastIndex, first);
+    Assert.assertEquals(expected.getXPath(first), resolver.getXPath(first));
+    Assert.assertEquals(expected.getXPath(last), resolver.getXPath(last));
+
+    // rename a child
+    first.setName("renamed");
+    Assert.assertEquals(expected.getXPath(first), resolver.getXPath(first));
+
+    // renaming a sibling requires the index to be invalidated
+    Element middle = children.get(10);
+    children.get(5).setName("renamed");
+    resolver.invalidate();
+    Assert.assertEquals(expected.getXPath(middle), resolver.getXPath(middle));
+  }
+}
@@ -0,0 +1,142 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.requirement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import gov.nist.secauto.decima.core.requirement.BaseRequirement;
+import gov.nist.secauto.decima.core.requirement.DefaultRequirementsManager;
+import gov.nist.secauto.decima.core.requirement.DerivedRequirement;
+import gov.nist.secauto.decima.core.requirement.RequirementsManager;
+import gov.nist.secauto.decima.core.requirement.RequirementsSnapshot;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.transform.stream.StreamSource;
+
+public class RequirementsSnapshotTest {
+  private static final String REQUIREMENTS = "src/test/resources/requirements.xml";
+  private static final String REQUIREMENTS_EXTENSION = "src/test/resources/requirements/test-requirements-ext.xsd";
+  private static final String SIMPLE_REQUIREMENTS = "src/test/resources/requirements/requirements.xml";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    URL source = new File(REQUIREMENTS).toURI().toURL();
+    DefaultRequirementsManager expected = new DefaultRequirementsManager();
+    expected.load(source, new XMLRequirementsParser(
+        Collections.singletonList(new StreamSource(new File(REQUIREMENTS_EXTENSION)))));
+    assertEquals(Collections.singleton("good"),
+        expected.getBaseRequirementById("GEN-1").getMetadataTagValueMap().get(
+            "{http://csrc.nist.gov/ns/test-requirements-ext/0.1}type"));
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RequirementsSnapshot.write(expected, os);
+    RequirementsSnapshot snapshot = RequirementsSnapshot.read(new ByteArrayInputStream(os.toByteArray()));
+
+    assertTrue(snapshot.isCurrent());
+    assertTrue(snapshot.matches(Collections.singletonList(source)));
+
+    RequirementsManager actual = snapshot.getRequirementsManager();
+    assertEquals(expected.getRequirementDefinitions(), actual.getRequirementDefinitions());
+    assertEquals(expected.getBaseRequirementCount(), actual.getBaseRequirementCount());
+    assertEquals(expected.getDerivedRequirementCount(), actual.getDerivedRequirementCount());
+
+    Iterator<BaseRequirement> actualBases = actual.getBaseRequirements().iterator();
+    for (BaseRequirement expectedBase : expected.getBaseRequirements()) {
+      BaseRequirement actualBase = actualBases.next();
+      assertEquals(expectedBase.getId(), actualBase.getId());
+      assertEquals(expectedBase.getStatement(), actualBase.getStatement());
+      assertEquals(expectedBase.getMetadataTagValueMap(), actualBase.getMetadataTagValueMap());
+      assertEquals(expectedBase.getSpecificationReference().getSection(),
+          actualBase.getSpecificationReference().getSection());
+      assertEquals(expectedBase.getSpecificationReference().getSectionURI(),
+          actualBase.getSpecificationReference().getSectionURI());
+      assertEquals(expected.getBaseRequirementIndex(expectedBase.getId()),
+          actual.getBaseRequirementIndex(actualBase.getId()));
+
+      Iterator<DerivedRequirement> actualDerivedRequirements = actualBase.getDerivedRequirements().iterator();
+      for (DerivedRequirement expectedDerived : expectedBase.getDerivedRequirements()) {
+        DerivedRequirement actualDerived = actualDerivedRequirements.next();
+        assertEquals(expectedDerived.getId(), actualDerived.getId());
+        assertEquals(expectedDerived.getStatement(), actualDerived.getStatement());
+        assertEquals(expectedDerived.getType(), actualDerived.getType());
+        assertEquals(expectedDerived.isConditional(), actualDerived.isConditional());
+        assertEquals(expectedDerived.getMessageText("arg"), actualDerived.getMessageText("arg"));
+        assertEquals(expectedDerived.getMetadataTagValueMap(), actualDerived.getMetadataTagValueMap());
+        assertEquals(expected.getDerivedRequirementIndex(expectedDerived.getId()),
+            actual.getDerivedRequirementIndex(actualDerived.getId()));
+      }
+      assertFalse(actualDerivedRequirements.hasNext());
+    }
+  }
+
+  @Test
+  public void testStaleSnapshot() throws Exception {
+    File requirements = folder.newFile("requirements.xml");
+    Files.copy(new File(SIMPLE_REQUIREMENTS).toPath(), requirements.toPath(),
+        StandardCopyOption.REPLACE_EXISTING);
+    List<URL> sources = Collections.singletonList(requirements.toURI().toURL());
+
+    File snapshotFile = folder.newFile("requirements.bin");
+    RequirementsSnapshotWriter.main(new String[] { snapshotFile.getPath(), requirements.getPath() });
+
+    XMLRequirementsParser parser = new XMLRequirementsParser();
+    RequirementsManager loaded = RequirementsSnapshot.load(snapshotFile.toURI().toURL(), sources, parser);
+    assertNotNull(loaded.getBaseRequirementById("REQ-1"));
+
+    // change the definition, making the snapshot stale
+    String content = new String(Files.readAllBytes(requirements.toPath()), StandardCharsets.UTF_8);
+    Files.write(requirements.toPath(), content.replace("REQ-1", "REQ-2").getBytes(StandardCharsets.UTF_8));
+
+    try (InputStream is = Files.newInputStream(snapshotFile.toPath())) {
+      assertFalse(RequirementsSnapshot.read(is).isCurrent());
+    }
+    loaded = RequirementsSnapshot.load(snapshotFile.toURI().toURL(), sources, parser);
+    assertNotNull(loaded.getBaseRequirementById("REQ-2"));
+  }
+}
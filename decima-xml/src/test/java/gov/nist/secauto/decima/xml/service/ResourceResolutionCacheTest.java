@@ -0,0 +1,173 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.service;
+
+import gov.nist.secauto.decima.core.classpath.ClasspathHandler;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResourceResolutionCacheTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void initialize() {
+    ClasspathHandler.initialize();
+  }
+
+  private static String read(InputStream is) throws IOException {
+    try (InputStream in = is) {
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        os.write(buffer, 0, read);
+      }
+      return new String(os.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private File newFile(String name, String content) throws IOException {
+    File retval = new File(folder.getRoot(), name);
+    Files.write(retval.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    return retval;
+  }
+
+  @Test
+  public void testFileResource() throws IOException {
+    ResourceResolutionCache cache = new ResourceResolutionCache(16, 1024, 1024);
+    File file = newFile("a.xml", "<a/>");
+    String uri = file.toURI().toString();
+
+    Assert.assertEquals("<a/>", read(cache.openStream(uri)));
+    Assert.assertEquals("<a/>", read(cache.openStream(uri)));
+    Assert.assertEquals(1, cache.getResourceMisses());
+    Assert.assertEquals(1, cache.getResourceHits());
+    Assert.assertEquals(4, cache.getCachedBytes());
+
+    // a changed file is read again
+    Files.write(file.toPath(), "<changed/>".getBytes(StandardCharsets.UTF_8));
+    Assert.assertEquals("<changed/>", read(cache.openStream(uri)));
+    Assert.assertEquals(2, cache.getResourceMisses());
+    Assert.assertEquals(10, cache.getCachedBytes());
+  }
+
+  @Test
+  public void testClasspathResource() throws IOException {
+    ResourceResolutionCache cache = new ResourceResolutionCache(16, 1024 * 1024, 1024 * 1024);
+    String uri = "classpath:schema/decima-xml-catalog.xml";
+
+    String expected = read(cache.openStream(uri));
+    Assert.assertEquals(expected, read(cache.openStream(uri)));
+    Assert.assertEquals(1, cache.getResourceHits());
+    Assert.assertTrue(cache.getCachedBytes() > 0);
+  }
+
+  @Test
+  public void testBounds() throws IOException {
+    ResourceResolutionCache cache = new ResourceResolutionCache(16, 10, 8);
+    String first = newFile("first.xml", "<first/>").toURI().toString();
+    String second = newFile("second.xml", "<two/>").toURI().toString();
+    String large = newFile("large.xml", "<too-large/>").toURI().toString();
+
+    read(cache.openStream(first));
+    read(cache.openStream(second));
+    // the least recently used resource is evicted to stay within the byte limit
+    Assert.assertEquals(1, cache.getEvictions());
+    Assert.assertEquals(6, cache.getCachedBytes());
+
+    // resources over the resource limit are read, but not cached
+    Assert.assertEquals("<too-large/>", read(cache.openStream(large)));
+    Assert.assertEquals(6, cache.getCachedBytes());
+
+    cache.clear();
+    Assert.assertEquals(0, cache.getCachedBytes());
+  }
+
+  @Test
+  public void testURIMappings() {
+    ResourceResolutionCache cache = new ResourceResolutionCache(2, 0, 0);
+    Assert.assertNull(cache.getURIMapping("a"));
+    cache.putURIMapping("a", "uri:a");
+    cache.putURIMapping("b", null);
+
+    Assert.assertEquals("uri:a", cache.getURIMapping("a").getURI());
+    // a reference that could not be resolved is cached as well
+    Assert.assertNull(cache.getURIMapping("b").getURI());
+    Assert.assertEquals(2, cache.getURIHits());
+    Assert.assertEquals(1, cache.getURIMisses());
+
+    cache.putURIMapping("c", "uri:c");
+    // "a" is the least recently used mapping
+    Assert.assertNull(cache.getURIMapping("a"));
+    Assert.assertNotNull(cache.getURIMapping("b"));
+    Assert.assertEquals(1, cache.getEvictions());
+  }
+
+  @Test
+  public void testCachingEntityResolver() throws IOException, SAXException {
+    ResourceResolutionCache cache = new ResourceResolutionCache(16, 1024 * 1024, 1024 * 1024);
+    AtomicInteger resolutions = new AtomicInteger();
+    EntityResolver delegate = (publicId, systemId) -> {
+      resolutions.incrementAndGet();
+      return Arrays.asList("urn:a", "urn:b").contains(systemId) ? new InputSource("classpath:schema/xml/xml.xsd")
+          : null;
+    };
+    EntityResolver resolver = new CachingEntityResolver(delegate, cache);
+
+    for (int i = 0; i < 3; i++) {
+      InputSource source = resolver.resolveEntity(null, "urn:a");
+      Assert.assertEquals("classpath:schema/xml/xml.xsd", source.getSystemId());
+      Assert.assertTrue(read(source.getByteStream()).contains("http://www.w3.org/XML/1998/namespace"));
+      Assert.assertNull(resolver.resolveEntity(null, "urn:unknown"));
+    }
+    resolver.resolveEntity(null, "urn:b");
+
+    Assert.assertEquals(3, resolutions.get());
+    Assert.assertEquals(4, cache.getURIHits());
+    // the resolved resource is read once
+    Assert.assertEquals(1, cache.getResourceMisses());
+    Assert.assertEquals(3, cache.getResourceHits());
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+
+package gov.nist.secauto.decima.xml.util;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+public class SaxonRuntimeTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSharedConfiguration() {
+    SaxonRuntime runtime = SaxonRuntime.getDefault();
+    XSLTransformer first = new ExtendedXSLTransformer();
+    XSLTransformer second = new XSLTransformer();
+
+    Assert.assertSame(runtime, SaxonRuntime.current());
+    Assert.assertSame(runtime.getConfiguration(), first.getTransformerFactory().getConfiguration());
+    Assert.assertSame(runtime.getConfiguration(), second.getTransformerFactory().getConfiguration());
+    Assert.assertNotSame(first.getTransformerFactory(), second.getTransformerFactory());
+    Assert.assertSame(runtime.getConfiguration(), runtime.getXPathFactory().getConfiguration());
+    Assert.assertSame(runtime.getNamePool(), runtime.getProcessor().getUnderlyingConfiguration().getNamePool());
+  }
+
+  @Test
+  public void testTenantScope() {
+    SaxonRuntime tenant = new SaxonRuntime();
+    SaxonRuntime nested = new SaxonRuntime();
+    Assert.assertNotSame(SaxonRuntime.getDefault().getNamePool(), tenant.getNamePool());
+
+    try (SaxonRuntime.Scope scope = SaxonRuntime.enter(tenant)) {
+      Assert.assertSame(tenant, SaxonRuntime.current());
+      Assert.assertSame(tenant.getConfiguration(),
+          new ExtendedXSLTransformer().getTransformerFactory().getConfiguration());
+
+      try (SaxonRuntime.Scope nestedScope = SaxonRuntime.enter(nested)) {
+        Assert.assertSame(nested, SaxonRuntime.current());
+      }
+      Assert.assertSame(tenant, SaxonRuntime.current());
+    }
+    Assert.assertSame(SaxonRuntime.getDefault(), SaxonRuntime.current());
+  }
+
+  @Test
+  public void testTransform() throws IOException, TransformerException {
+    File included = new File(folder.getRoot(), "included.xsl");
+    Files.write(included.toPath(), ("<xsl:stylesheet xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" "
+        + "version=\"2.0\"><xsl:variable name=\"value\" select=\"'included'\"/></xsl:stylesheet>")
+            .getBytes(StandardCharsets.UTF_8));
+    String stylesheet = "<xsl:stylesheet xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" version=\"2.0\" "
+        + "xmlns:d=\"http://decima.nist.gov/xsl/extensions\"><xsl:include href=\"included.xsl\"/>"
+        + "<xsl:template match=\"/\"><r value=\"{$value}\" extension=\"{function-available('d:evaluate', 2)}\"/>"
+        + "</xsl:template></xsl:stylesheet>";
+
+    SaxonRuntime runtime = new SaxonRuntime();
+    XSLTransformer transformer = new XSLTransformer(runtime);
+    Transformer xsl = transformer.getTransformerFactory().newTransformer(
+        new StreamSource(new StringReader(stylesheet), new File(folder.getRoot(), "main.xsl").toURI().toString()));
+    StringWriter writer = new StringWriter();
+    xsl.transform(new StreamSource(new StringReader("<doc/>")), new StreamResult(writer));
+
+    Assert.assertTrue(writer.toString(), writer.toString().contains("value=\"included\""));
+    // the extensions are registered with the runtime's configuration
+    Assert.assertTrue(writer.toString(), writer.toString().contains("extension=\"true\""));
+  }
+}